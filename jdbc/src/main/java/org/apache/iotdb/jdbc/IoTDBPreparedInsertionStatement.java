@@ -19,14 +19,20 @@
 
 package org.apache.iotdb.jdbc;
 
+import java.nio.ByteBuffer;
 import java.sql.SQLException;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementResp;
 import org.apache.iotdb.service.rpc.thrift.TSIService.Iface;
+import org.apache.iotdb.service.rpc.thrift.TSInsertTabletReq;
 import org.apache.iotdb.service.rpc.thrift.TSInsertionReq;
 import org.apache.iotdb.service.rpc.thrift.TS_SessionHandle;
 import org.apache.iotdb.service.rpc.thrift.TS_StatusCode;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.thrift.TException;
 
 public class IoTDBPreparedInsertionStatement extends IoTDBPreparedStatement {
@@ -70,4 +76,112 @@ public class IoTDBPreparedInsertionStatement extends IoTDBPreparedStatement {
   public void setValues(List<String> values) {
     req.setValues(values);
   }
+
+  /**
+   * insert rows of one device in one request. Unlike execute(), the timestamps and values are sent
+   * as binary columns, so the server neither parses strings nor creates a plan for each row.
+   *
+   * @param dataTypes the data type of each measurement, which must be the same as the schema
+   * @param columns the values of each measurement, a boolean[], int[], long[], float[], double[]
+   * or Binary[] according to its data type
+   * @param rowCount number of rows, only the first rowCount elements of each array are sent
+   * @return true if all rows are inserted
+   */
+  public boolean insertTablet(String deviceId, List<String> measurements,
+      List<TSDataType> dataTypes, long[] timestamps, Object[] columns, int rowCount)
+      throws SQLException {
+    if (measurements.size() != dataTypes.size() || measurements.size() != columns.length) {
+      throw new SQLException(String.format("%d measurements, %d data types and %d columns are given",
+          measurements.size(), dataTypes.size(), columns.length));
+    }
+    TSInsertTabletReq tabletReq = new TSInsertTabletReq();
+    tabletReq.setDeviceId(deviceId);
+    tabletReq.setMeasurements(measurements);
+    List<String> typeNames = new ArrayList<>(dataTypes.size());
+    for (TSDataType dataType : dataTypes) {
+      typeNames.add(dataType.toString());
+    }
+    tabletReq.setDataTypes(typeNames);
+
+    ByteBuffer timeBuffer = ByteBuffer.allocate(rowCount * Long.BYTES);
+    timeBuffer.asLongBuffer().put(timestamps, 0, rowCount);
+    tabletReq.setTimestamps(timeBuffer);
+    tabletReq.setValues(getValueBuffer(dataTypes, columns, rowCount));
+    tabletReq.setSize(rowCount);
+
+    try {
+      TSExecuteStatementResp resp = client.insertTablet(tabletReq);
+      return resp.getStatus().getStatusCode() == TS_StatusCode.SUCCESS_STATUS;
+    } catch (TException e) {
+      throw new SQLException(e);
+    }
+  }
+
+  private static ByteBuffer getValueBuffer(List<TSDataType> dataTypes, Object[] columns,
+      int rowCount) {
+    int size = 0;
+    for (int i = 0; i < columns.length; i++) {
+      size += getColumnSize(dataTypes.get(i), columns[i], rowCount);
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    for (int i = 0; i < columns.length; i++) {
+      switch (dataTypes.get(i)) {
+        case BOOLEAN:
+          boolean[] booleans = (boolean[]) columns[i];
+          for (int j = 0; j < rowCount; j++) {
+            buffer.put((byte) (booleans[j] ? 1 : 0));
+          }
+          break;
+        case INT32:
+          buffer.asIntBuffer().put((int[]) columns[i], 0, rowCount);
+          buffer.position(buffer.position() + rowCount * Integer.BYTES);
+          break;
+        case INT64:
+          buffer.asLongBuffer().put((long[]) columns[i], 0, rowCount);
+          buffer.position(buffer.position() + rowCount * Long.BYTES);
+          break;
+        case FLOAT:
+          buffer.asFloatBuffer().put((float[]) columns[i], 0, rowCount);
+          buffer.position(buffer.position() + rowCount * Float.BYTES);
+          break;
+        case DOUBLE:
+          buffer.asDoubleBuffer().put((double[]) columns[i], 0, rowCount);
+          buffer.position(buffer.position() + rowCount * Double.BYTES);
+          break;
+        case TEXT:
+          Binary[] binaries = (Binary[]) columns[i];
+          for (int j = 0; j < rowCount; j++) {
+            buffer.putInt(binaries[j].getLength());
+            buffer.put(binaries[j].getValues());
+          }
+          break;
+        default:
+          throw new UnSupportedDataTypeException(String.valueOf(dataTypes.get(i)));
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  private static int getColumnSize(TSDataType dataType, Object column, int rowCount) {
+    switch (dataType) {
+      case BOOLEAN:
+        return rowCount;
+      case INT32:
+      case FLOAT:
+        return rowCount * Integer.BYTES;
+      case INT64:
+      case DOUBLE:
+        return rowCount * Long.BYTES;
+      case TEXT:
+        int size = 0;
+        Binary[] binaries = (Binary[]) column;
+        for (int j = 0; j < rowCount; j++) {
+          size += Integer.BYTES + binaries[j].getLength();
+        }
+        return size;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
 }
@@ -704,6 +704,7 @@ public class IoTDBQueryResultSet implements ResultSet {
   private boolean nextWithoutConstraints() throws SQLException {
     if ((recordItr == null || !recordItr.hasNext()) && !emptyResultSet) {
       TSFetchResultsReq req = new TSFetchResultsReq(sql, fetchSize, queryId);
+      req.setColumnar(true);
 
       try {
         TSFetchResultsResp resp = client.fetchResults(req);
@@ -712,8 +713,12 @@ public class IoTDBQueryResultSet implements ResultSet {
           emptyResultSet = true;
         } else {
           TSQueryDataSet tsQueryDataSet = resp.getQueryDataSet();
-          List<RowRecord> records = Utils.convertRowRecords(tsQueryDataSet);
-          recordItr = records.iterator();
+          if (tsQueryDataSet.isSetRowCount()) {
+            recordItr = Utils.convertColumns(tsQueryDataSet);
+          } else {
+            // servers which do not support the columnar form return the rows
+            recordItr = Utils.convertRowRecords(tsQueryDataSet).iterator();
+          }
         }
       } catch (TException e) {
         throw new SQLException(
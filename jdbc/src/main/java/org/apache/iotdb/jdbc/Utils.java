@@ -18,8 +18,11 @@
  */
 package org.apache.iotdb.jdbc;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -119,6 +122,17 @@ public class Utils {
     return records;
   }
 
+  /**
+   * convert the rows in columnar form, see TSQueryDataSet. A row is decoded only when it is
+   * iterated.
+   *
+   * @param tsQueryDataSet -query data set in columnar form
+   * @return -iterator of row record
+   */
+  public static Iterator<RowRecord> convertColumns(TSQueryDataSet tsQueryDataSet) {
+    return new ColumnRecordIterator(tsQueryDataSet);
+  }
+
   /**
    *
    * @param field -the field need to add new data
@@ -151,4 +165,92 @@ public class Utils {
                         dataType));
     }
   }
+
+  private static class ColumnRecordIterator implements Iterator<RowRecord> {
+
+    private final int rowCount;
+    private final ByteBuffer time;
+    private final ByteBuffer[] values;
+    private final byte[][] bitmaps;
+    private final TSDataType[] dataTypes;
+    private int rowIndex = 0;
+
+    private ColumnRecordIterator(TSQueryDataSet tsQueryDataSet) {
+      rowCount = tsQueryDataSet.getRowCount();
+      time = tsQueryDataSet.bufferForTime().duplicate();
+      int columnNum = tsQueryDataSet.getValueListSize();
+      values = new ByteBuffer[columnNum];
+      bitmaps = new byte[columnNum][];
+      dataTypes = new TSDataType[columnNum];
+      for (int i = 0; i < columnNum; i++) {
+        values[i] = tsQueryDataSet.getValueList().get(i).duplicate();
+        ByteBuffer bitmap = tsQueryDataSet.getBitmapList().get(i).duplicate();
+        bitmaps[i] = new byte[bitmap.remaining()];
+        bitmap.get(bitmaps[i]);
+        String dataType = tsQueryDataSet.getDataTypeList().get(i);
+        dataTypes[i] = dataType.isEmpty() ? null : TSDataType.valueOf(dataType);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return rowIndex < rowCount;
+    }
+
+    @Override
+    public RowRecord next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      RowRecord r = new RowRecord(time.getLong());
+      for (int i = 0; i < values.length; i++) {
+        if (isNull(i)) {
+          Field field = new Field(null);
+          field.setNull();
+          r.getFields().add(field);
+        } else {
+          Field field = new Field(dataTypes[i]);
+          readValue(field, values[i]);
+          r.getFields().add(field);
+        }
+      }
+      rowIndex++;
+      return r;
+    }
+
+    private boolean isNull(int column) {
+      int byteIndex = rowIndex / 8;
+      return byteIndex >= bitmaps[column].length
+          || (bitmaps[column][byteIndex] & (1 << (rowIndex % 8))) == 0;
+    }
+
+    private static void readValue(Field field, ByteBuffer buffer) {
+      switch (field.getDataType()) {
+        case BOOLEAN:
+          field.setBoolV(buffer.get() != 0);
+          break;
+        case INT32:
+          field.setIntV(buffer.getInt());
+          break;
+        case INT64:
+          field.setLongV(buffer.getLong());
+          break;
+        case FLOAT:
+          field.setFloatV(buffer.getFloat());
+          break;
+        case DOUBLE:
+          field.setDoubleV(buffer.getDouble());
+          break;
+        case TEXT:
+          byte[] bytes = new byte[buffer.getInt()];
+          buffer.get(bytes);
+          field.setBinaryV(new Binary(bytes));
+          break;
+        default:
+          throw new UnSupportedDataTypeException(
+              String.format("data type %s is not supported when convert data at client",
+                  field.getDataType()));
+      }
+    }
+  }
 }
@@ -19,11 +19,17 @@
 package org.apache.iotdb.jdbc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 import org.apache.iotdb.service.rpc.thrift.TSDataValue;
@@ -187,4 +193,54 @@ public class UtilsTest {
     }
   }
 
+  @Test
+  public void testConvertColumns() throws IOException {
+    int rowCount = 20;
+    ByteArrayOutputStream time = new ByteArrayOutputStream();
+    ByteArrayOutputStream longs = new ByteArrayOutputStream();
+    ByteArrayOutputStream texts = new ByteArrayOutputStream();
+    DataOutputStream timeStream = new DataOutputStream(time);
+    DataOutputStream longStream = new DataOutputStream(longs);
+    DataOutputStream textStream = new DataOutputStream(texts);
+    // the long column has all rows and the text column has the even rows
+    byte[] textBitmap = new byte[(rowCount + 7) / 8];
+    for (int i = 0; i < rowCount; i++) {
+      timeStream.writeLong(i * 100L);
+      longStream.writeLong(-i);
+      if (i % 2 == 0) {
+        byte[] bytes = ("text" + i).getBytes();
+        textStream.writeInt(bytes.length);
+        textStream.write(bytes);
+        textBitmap[i / 8] |= 1 << (i % 8);
+      }
+    }
+    byte[] longBitmap = new byte[(rowCount + 7) / 8];
+    Arrays.fill(longBitmap, (byte) 0xFF);
+
+    TSQueryDataSet tsQueryDataSet = new TSQueryDataSet(new ArrayList<>());
+    tsQueryDataSet.setTime(time.toByteArray());
+    tsQueryDataSet.setValueList(Arrays.asList(ByteBuffer.wrap(longs.toByteArray()),
+        ByteBuffer.wrap(texts.toByteArray()), ByteBuffer.allocate(0)));
+    // the bitmap of the column without values is empty
+    tsQueryDataSet.setBitmapList(Arrays.asList(ByteBuffer.wrap(longBitmap),
+        ByteBuffer.wrap(textBitmap), ByteBuffer.allocate(0)));
+    tsQueryDataSet.setDataTypeList(Arrays.asList("INT64", "TEXT", ""));
+    tsQueryDataSet.setRowCount(rowCount);
+
+    Iterator<RowRecord> iterator = Utils.convertColumns(tsQueryDataSet);
+    for (int i = 0; i < rowCount; i++) {
+      assertTrue(iterator.hasNext());
+      RowRecord r = iterator.next();
+      assertEquals(i * 100L, r.getTimestamp());
+      assertEquals(3, r.getFields().size());
+      assertEquals(-i, r.getFields().get(0).getLongV());
+      if (i % 2 == 0) {
+        assertEquals("text" + i, r.getFields().get(1).getStringValue());
+      } else {
+        assertTrue(r.getFields().get(1).isNull());
+      }
+      assertTrue(r.getFields().get(2).isNull());
+    }
+    assertFalse(iterator.hasNext());
+  }
 }
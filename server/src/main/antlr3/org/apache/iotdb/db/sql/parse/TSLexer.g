@@ -47,6 +47,8 @@ KW_NOT : 'NOT' | '!';
 
 
 KW_ORDER : 'ORDER';
+KW_ASC : 'ASC';
+KW_DESC : 'DESC';
 KW_GROUP : 'GROUP';
 KW_FILL : 'FILL';
 KW_BY : 'BY';
@@ -78,12 +80,15 @@ KW_INDEX: 'INDEX';
 KW_INTO: 'INTO';
 KW_WITH: 'WITH';
 KW_SET: 'SET';
+KW_UNSET: 'UNSET';
+KW_TTL: 'TTL';
 KW_DELETE: 'DELETE';
 KW_UPDATE: 'UPDATE';
 KW_VALUES: 'VALUES';
 KW_VALUE: 'VALUE';
 KW_LINEAR : 'LINEAR';
 KW_PREVIOUS : 'PREVIOUS';
+KW_LAST : 'LAST';
 KW_PASSWORD: 'PASSWORD';
 KW_DESCRIBE: 'DESCRIBE';
 KW_PROPERTY: 'PROPERTY';
@@ -53,6 +53,7 @@ TOK_TYPE;
 TOK_LINEAR;
 TOK_PREVIOUS;
 TOK_TIMEUNIT;
+TOK_SLIDINGSTEP;
 TOK_TIMEORIGIN;
 TOK_TIMEINTERVAL;
 TOK_TIMEINTERVALPAIR;
@@ -72,6 +73,8 @@ TOK_DELETE;
 TOK_INDEX_KV;
 TOK_FUNC;
 TOK_SELECT_INDEX;
+TOK_SELECT_LAST;
+TOK_ORDERBY;
 TOK_LIST;
 TOK_ALL;
 TOK_SLIMIT;
@@ -98,6 +101,8 @@ TOK_LABEL;
 TOK_LINK;
 TOK_UNLINK;
 TOK_STORAGEGROUP;
+TOK_UNSET;
+TOK_TTL;
 TOK_DESCRIBE;
 }
 
@@ -131,10 +136,14 @@ ArrayList<ParseError> errors = new ArrayList<ParseError>();
         xlateMap.put("KW_LIKE", "LIKE");
 
         xlateMap.put("KW_BY", "BY");
+        xlateMap.put("KW_ORDER", "ORDER");
+        xlateMap.put("KW_ASC", "ASC");
+        xlateMap.put("KW_DESC", "DESC");
         xlateMap.put("KW_GROUP", "GROUP");
         xlateMap.put("KW_FILL", "FILL");
         xlateMap.put("KW_LINEAR", "LINEAR");
         xlateMap.put("KW_PREVIOUS", "PREVIOUS");
+        xlateMap.put("KW_LAST", "LAST");
         xlateMap.put("KW_WHERE", "WHERE");
         xlateMap.put("KW_FROM", "FROM");
 
@@ -178,6 +187,8 @@ ArrayList<ParseError> errors = new ArrayList<ParseError>();
         xlateMap.put("KW_FUNCTION", "FUNCTION");
         xlateMap.put("KW_WITH", "WITH");
         xlateMap.put("KW_SET", "SET");
+        xlateMap.put("KW_UNSET", "UNSET");
+        xlateMap.put("KW_TTL", "TTL");
         xlateMap.put("KW_UPDATE", "UPDATE");
         xlateMap.put("KW_VALUES", "VALUES");
         xlateMap.put("KW_KEY", "KEY");
@@ -365,6 +376,8 @@ metadata
 metadataStatement
     : createTimeseries
     | setStorageGroup
+    | setTTL
+    | unsetTTL
     | addAPropertyTree
     | addALabelProperty
     | deleteALebelFromPropertyTree
@@ -414,6 +427,16 @@ setStorageGroup
   -> ^(TOK_SET ^(TOK_STORAGEGROUP prefixPath))
   ;
 
+setTTL
+  : KW_SET KW_TTL KW_TO prefixPath dataTTL=integer
+  -> ^(TOK_SET ^(TOK_TTL prefixPath $dataTTL))
+  ;
+
+unsetTTL
+  : KW_UNSET KW_TTL KW_TO prefixPath
+  -> ^(TOK_UNSET ^(TOK_TTL prefixPath))
+  ;
+
 addAPropertyTree
   : KW_CREATE KW_PROPERTY property=identifier
   -> ^(TOK_CREATE ^(TOK_PROPERTY $property))
@@ -474,10 +497,17 @@ queryStatement
    :
    selectClause
    whereClause?
+   orderByClause?
    specialClause?
-   -> ^(TOK_QUERY selectClause whereClause? specialClause?)
+   -> ^(TOK_QUERY selectClause whereClause? orderByClause? specialClause?)
    ;
 
+orderByClause
+    :
+    KW_ORDER KW_BY KW_TIME (order=KW_ASC | order=KW_DESC)?
+    -> ^(TOK_ORDERBY $order?)
+    ;
+
 specialClause
     :
     limitClause slimitClause? -> limitClause slimitClause?
@@ -693,7 +723,7 @@ Basic Blocks
 
 identifier
     :
-    Identifier | integer
+    Identifier | integer | KW_ASC | KW_DESC | KW_LAST | KW_TTL | KW_UNSET
     ;
 
 //selectClause
@@ -706,17 +736,23 @@ identifier
 selectClause
     : KW_SELECT KW_INDEX func=Identifier LPAREN p1=timeseries COMMA p2=timeseries COMMA n1=dateFormatWithNumber COMMA n2=dateFormatWithNumber COMMA epsilon=Float (COMMA alpha=Float COMMA beta=Float)? RPAREN (fromClause)?
     -> ^(TOK_SELECT_INDEX $func $p1 $p2 $n1 $n2 $epsilon ($alpha $beta)?) fromClause?
+    | KW_SELECT KW_LAST clusteredPath (COMMA clusteredPath)* fromClause
+    -> ^(TOK_SELECT_LAST clusteredPath+) fromClause
     | KW_SELECT clusteredPath (COMMA clusteredPath)* fromClause
     -> ^(TOK_SELECT clusteredPath+) fromClause
     ;
 
 clusteredPath
-	: clstcmd = identifier LPAREN suffixPath RPAREN
+	: clstcmd = aggregationName LPAREN suffixPath RPAREN
 	-> ^(TOK_PATH ^(TOK_CLUSTER suffixPath $clstcmd) )
 	| suffixPath
 	-> suffixPath
 	;
 
+aggregationName
+    : identifier
+    ;
+
 fromClause
     :
     KW_FROM prefixPath (COMMA prefixPath)* -> ^(TOK_FROM prefixPath+)
@@ -730,8 +766,8 @@ whereClause
 
 groupbyClause
     :
-    KW_GROUP KW_BY LPAREN value=integer unit=Identifier (COMMA timeOrigin=dateFormatWithNumber)? COMMA timeInterval (COMMA timeInterval)* RPAREN
-    -> ^(TOK_GROUPBY ^(TOK_TIMEUNIT $value $unit) ^(TOK_TIMEORIGIN $timeOrigin)? ^(TOK_TIMEINTERVAL timeInterval+))
+    KW_GROUP KW_BY LPAREN value=integer unit=Identifier (COMMA stepValue=integer stepUnit=Identifier)? (COMMA timeOrigin=dateFormatWithNumber)? COMMA timeInterval (COMMA timeInterval)* RPAREN
+    -> ^(TOK_GROUPBY ^(TOK_TIMEUNIT $value $unit) ^(TOK_SLIDINGSTEP $stepValue $stepUnit)? ^(TOK_TIMEORIGIN $timeOrigin)? ^(TOK_TIMEINTERVAL timeInterval+))
     ;
 
 fillClause
@@ -743,12 +779,13 @@ fillClause
 limitClause
     :
     KW_LIMIT N=NonNegativeInteger offsetClause?
-    -> ^(TOK_LIMIT $N)
+    -> ^(TOK_LIMIT $N offsetClause?)
     ;
 
 offsetClause
     :
     KW_OFFSET OFFSETValue=NonNegativeInteger
+    -> $OFFSETValue
     ;
 
 slimitClause
@@ -22,7 +22,9 @@ import java.io.File;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.service.TSServiceImpl;
 import org.slf4j.Logger;
@@ -53,6 +55,32 @@ public class IoTDBConfig {
    */
   private long allocateMemoryForRead = Runtime.getRuntime().maxMemory() * 3 / 10;
 
+  /**
+   * Whether to cache the chunks of sealed TsFiles for queries.
+   */
+  private boolean enableChunkCache = true;
+
+  /**
+   * Max memory of the cached chunks, a part of the memory for read.
+   */
+  private long allocateMemoryForChunkCache = allocateMemoryForRead / 3;
+
+  /**
+   * Whether to cache the last point of each series for last-value queries.
+   */
+  private boolean enableLastPointCache = true;
+
+  /**
+   * Whether to cache the file and device metadata of sealed TsFiles for queries.
+   */
+  private boolean enableMetaDataCache = true;
+
+  /**
+   * Max memory of the cached metadata, a part of the memory for read. It is shared evenly by the
+   * file metadata cache and the device metadata cache.
+   */
+  private long allocateMemoryForMetaDataCache = allocateMemoryForRead / 6;
+
   /**
    * Is dynamic parameter adapter enable.
    */
@@ -88,6 +116,42 @@ public class IoTDBConfig {
    */
   private int walBufferSize = 16 * 1024 * 1024;
 
+  /**
+   * If set true, the logs of each log node are appended by an appender thread, which coalesces
+   * the logs of concurrent writers into one write (and one force if forceWalPeriodInMs is 0).
+   * Writers are blocked until their logs are written.
+   */
+  private boolean enableWalGroupCommit = false;
+
+  /**
+   * How many appender threads are shared by the log nodes when enableWalGroupCommit is true. When
+   * <= 0, use CPU core number.
+   */
+  private int concurrentWalAppenderThread = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * If set true, WAL files are preallocated segments of walSegmentSize bytes written through
+   * memory mapping, and segments of flushed data are recycled instead of being deleted.
+   */
+  private boolean enableMemoryMappedWal = false;
+
+  /**
+   * Size of a WAL segment (in byte) when memory mapped WAL is enabled. It is at least
+   * walBufferSize plus the size of the segment and batch headers.
+   */
+  private long walSegmentSize = 64 * 1024 * 1024L;
+
+  /**
+   * Maximum number of recycled WAL segments kept for reuse, the others are deleted.
+   */
+  private int walSegmentPoolSize = 16;
+
+  /**
+   * Maximum number of off-heap log buffers shared by all log nodes, log nodes use heap buffers
+   * when they are all in use.
+   */
+  private int walBufferPoolSize = 8;
+
   /**
    * system base dir, stores all system metadata and wal
    */
@@ -134,6 +198,75 @@ public class IoTDBConfig {
    */
   private int mergeConcurrentThreads = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * The interval (in second) of merging the unsequence data of each storage group into its
+   * sequence data in the background. When <= 0, the data are merged only when it is requested.
+   */
+  private long mergeIntervalInSecond = 3600;
+
+  /**
+   * The maximum total size (in byte) of the files read and rewritten by one merge.
+   */
+  private long mergeIoBudgetInByte = 1024 * 1024 * 1024L;
+
+  /**
+   * The maximum estimated memory (in byte) used by one merge.
+   */
+  private long mergeMemoryBudgetInByte = 256 * 1024 * 1024L;
+
+  /**
+   * The interval (in second) of compacting the small sequence files of each storage group in the
+   * background. When <= 0, the files are not compacted.
+   */
+  private long seqFileCompactionIntervalInSecond = 60;
+
+  /**
+   * The number of adjacent small sequence files at the same level compacted into one file.
+   */
+  private int seqFileCompactionFileNum = 10;
+
+  /**
+   * The level of the compacted sequence files which are not compacted any more. A file flushed
+   * from memory is at level 0.
+   */
+  private int seqFileCompactionMaxLevel = 2;
+
+  /**
+   * The maximum throughput (in MB per second) of the data read and written by one compaction. When
+   * <= 0, the compaction is not throttled.
+   */
+  private int compactionThroughputInMbPerSec = 16;
+
+  /**
+   * Whether each storage group is split into time partitions, each of which has its own TsFiles,
+   * directories and versions.
+   */
+  private boolean enablePartition = false;
+
+  /**
+   * The time range (in second) of a time partition, i.e., the data of timestamp t belongs to
+   * partition floor(t / (partitionIntervalInSecond * 1000)).
+   */
+  private long partitionIntervalInSecond = 86400;
+
+  /**
+   * The maximum number of time partitions of a storage group that are written at the same time.
+   * When data of another partition comes, the TsFiles of the oldest working partition are closed.
+   */
+  private int concurrentWritingTimePartition = 5;
+
+  /**
+   * The default time to live (in ms) of the data of a storage group, i.e., the data whose timestamp
+   * is less than now - TTL are removed and cannot be inserted. When <= 0, the data never expire.
+   */
+  private long defaultTTL = 0;
+
+  /**
+   * The interval (in second) of removing the expired data of each storage group in the background.
+   * When <= 0, the expired data are removed only when the TTL is set.
+   */
+  private long ttlCheckIntervalInSecond = 3600;
+
   /**
    * The amount of data that is read every time when IoTDB merges data.
    */
@@ -144,6 +277,25 @@ public class IoTDBConfig {
    */
   private int concurrentFlushThread = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * How many threads can concurrently run the tasks of queries, e.g. aggregating different series.
+   * When <= 0, use CPU core number.
+   */
+  private int concurrentQueryThread = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * How many tasks of one query can run concurrently in the query threads, so that a query of many
+   * series does not occupy all of them. When <= 0, use concurrentQueryThread.
+   */
+  private int maxParallelismPerQuery = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * storage group -> the lengths of the time intervals whose aggregations of each series are
+   * computed when flushing the sequence data of the storage group, so that GROUP BY queries on
+   * these intervals can be answered without reading the data. Empty if no rollup is defined.
+   */
+  private Map<String, long[]> rollupIntervals = new HashMap<>();
+
   private ZoneId zoneID = ZoneId.systemDefault();
 
   /**
@@ -156,6 +308,29 @@ public class IoTDBConfig {
    */
   private long memtableSizeThreshold = 128 * 1024 * 1024L;
 
+  /**
+   * Number of points in each primitive array of the series in memtables, must be a power of two.
+   */
+  private int primitiveArraySize = 128;
+
+  /**
+   * Whether to choose the primitive array size of a series from the number of points it had in
+   * its last flushed memtable.
+   */
+  private boolean enableAdaptiveArraySize = false;
+
+  /**
+   * The max number of points in each primitive array when enableAdaptiveArraySize is true, must be
+   * a power of two.
+   */
+  private int maxPrimitiveArraySize = 8192;
+
+  /**
+   * The max number of series whose adaptive array size is remembered when enableAdaptiveArraySize
+   * is true. The least recently used series are forgotten beyond it.
+   */
+  private int adaptiveArraySizeSeriesNum = 100000;
+
   /**
    * The statMonitor writes statistics info into IoTDB every backLoopPeriodSec secs. The default
    * value is 5s.
@@ -229,6 +404,12 @@ public class IoTDBConfig {
    */
   private boolean chunkBufferPoolEnable = false;
 
+  /**
+   * whether encode the chunks of a flushing memtable into pooled direct buffers, which are written
+   * into the file by gathering writes without being copied into byte arrays.
+   */
+  private boolean directBufferFlushEnable = false;
+
   public IoTDBConfig() {
     // empty constructor
   }
@@ -399,6 +580,102 @@ public class IoTDBConfig {
     this.mergeConcurrentThreads = mergeConcurrentThreads;
   }
 
+  public long getMergeIntervalInSecond() {
+    return mergeIntervalInSecond;
+  }
+
+  public void setMergeIntervalInSecond(long mergeIntervalInSecond) {
+    this.mergeIntervalInSecond = mergeIntervalInSecond;
+  }
+
+  public long getMergeIoBudgetInByte() {
+    return mergeIoBudgetInByte;
+  }
+
+  public void setMergeIoBudgetInByte(long mergeIoBudgetInByte) {
+    this.mergeIoBudgetInByte = mergeIoBudgetInByte;
+  }
+
+  public long getMergeMemoryBudgetInByte() {
+    return mergeMemoryBudgetInByte;
+  }
+
+  public void setMergeMemoryBudgetInByte(long mergeMemoryBudgetInByte) {
+    this.mergeMemoryBudgetInByte = mergeMemoryBudgetInByte;
+  }
+
+  public long getSeqFileCompactionIntervalInSecond() {
+    return seqFileCompactionIntervalInSecond;
+  }
+
+  public void setSeqFileCompactionIntervalInSecond(long seqFileCompactionIntervalInSecond) {
+    this.seqFileCompactionIntervalInSecond = seqFileCompactionIntervalInSecond;
+  }
+
+  public int getSeqFileCompactionFileNum() {
+    return seqFileCompactionFileNum;
+  }
+
+  public void setSeqFileCompactionFileNum(int seqFileCompactionFileNum) {
+    this.seqFileCompactionFileNum = seqFileCompactionFileNum;
+  }
+
+  public int getSeqFileCompactionMaxLevel() {
+    return seqFileCompactionMaxLevel;
+  }
+
+  public void setSeqFileCompactionMaxLevel(int seqFileCompactionMaxLevel) {
+    this.seqFileCompactionMaxLevel = seqFileCompactionMaxLevel;
+  }
+
+  public boolean isEnablePartition() {
+    return enablePartition;
+  }
+
+  public void setEnablePartition(boolean enablePartition) {
+    this.enablePartition = enablePartition;
+  }
+
+  public long getPartitionIntervalInSecond() {
+    return partitionIntervalInSecond;
+  }
+
+  public void setPartitionIntervalInSecond(long partitionIntervalInSecond) {
+    this.partitionIntervalInSecond = partitionIntervalInSecond;
+  }
+
+  public int getConcurrentWritingTimePartition() {
+    return concurrentWritingTimePartition;
+  }
+
+  public void setConcurrentWritingTimePartition(int concurrentWritingTimePartition) {
+    this.concurrentWritingTimePartition = concurrentWritingTimePartition;
+  }
+
+  public long getDefaultTTL() {
+    return defaultTTL;
+  }
+
+  public void setDefaultTTL(long defaultTTL) {
+    this.defaultTTL = defaultTTL;
+  }
+
+  public long getTtlCheckIntervalInSecond() {
+    return ttlCheckIntervalInSecond;
+  }
+
+  public void setTtlCheckIntervalInSecond(long ttlCheckIntervalInSecond) {
+    this.ttlCheckIntervalInSecond = ttlCheckIntervalInSecond;
+  }
+
+  public int getCompactionThroughputInMbPerSec() {
+    return compactionThroughputInMbPerSec;
+  }
+
+  public void setCompactionThroughputInMbPerSec(int compactionThroughputInMbPerSec) {
+    this.compactionThroughputInMbPerSec = compactionThroughputInMbPerSec;
+  }
+
   public int getFetchSize() {
     return fetchSize;
   }
@@ -423,6 +700,37 @@ public class IoTDBConfig {
     this.concurrentFlushThread = concurrentFlushThread;
   }
 
+  public int getConcurrentQueryThread() {
+    return concurrentQueryThread;
+  }
+
+  void setConcurrentQueryThread(int concurrentQueryThread) {
+    this.concurrentQueryThread = concurrentQueryThread;
+  }
+
+  public int getMaxParallelismPerQuery() {
+    return maxParallelismPerQuery;
+  }
+
+  public void setMaxParallelismPerQuery(int maxParallelismPerQuery) {
+    this.maxParallelismPerQuery = maxParallelismPerQuery;
+  }
+
+  public Map<String, long[]> getRollupIntervals() {
+    return rollupIntervals;
+  }
+
+  /**
+   * @return the rollup intervals of the storage group, or an empty array if it has none.
+   */
+  public long[] getRollupIntervals(String storageGroup) {
+    return rollupIntervals.getOrDefault(storageGroup, new long[0]);
+  }
+
+  public void setRollupIntervals(Map<String, long[]> rollupIntervals) {
+    this.rollupIntervals = rollupIntervals;
+  }
+
   void setZoneID(ZoneId zoneID) {
     this.zoneID = zoneID;
   }
@@ -551,10 +859,58 @@ public class IoTDBConfig {
     return walBufferSize;
   }
 
-  void setWalBufferSize(int walBufferSize) {
+  public void setWalBufferSize(int walBufferSize) {
     this.walBufferSize = walBufferSize;
   }
 
+  public boolean isEnableWalGroupCommit() {
+    return enableWalGroupCommit;
+  }
+
+  public void setEnableWalGroupCommit(boolean enableWalGroupCommit) {
+    this.enableWalGroupCommit = enableWalGroupCommit;
+  }
+
+  public int getConcurrentWalAppenderThread() {
+    return concurrentWalAppenderThread;
+  }
+
+  void setConcurrentWalAppenderThread(int concurrentWalAppenderThread) {
+    this.concurrentWalAppenderThread = concurrentWalAppenderThread;
+  }
+
+  public boolean isEnableMemoryMappedWal() {
+    return enableMemoryMappedWal;
+  }
+
+  public void setEnableMemoryMappedWal(boolean enableMemoryMappedWal) {
+    this.enableMemoryMappedWal = enableMemoryMappedWal;
+  }
+
+  public long getWalSegmentSize() {
+    return walSegmentSize;
+  }
+
+  public void setWalSegmentSize(long walSegmentSize) {
+    this.walSegmentSize = walSegmentSize;
+  }
+
+  public int getWalSegmentPoolSize() {
+    return walSegmentPoolSize;
+  }
+
+  void setWalSegmentPoolSize(int walSegmentPoolSize) {
+    this.walSegmentPoolSize = walSegmentPoolSize;
+  }
+
+  public int getWalBufferPoolSize() {
+    return walBufferPoolSize;
+  }
+
+  void setWalBufferPoolSize(int walBufferPoolSize) {
+    this.walBufferPoolSize = walBufferPoolSize;
+  }
+
   public boolean isChunkBufferPoolEnable() {
     return chunkBufferPoolEnable;
   }
@@ -563,6 +919,14 @@ public class IoTDBConfig {
     this.chunkBufferPoolEnable = chunkBufferPoolEnable;
   }
 
+  public boolean isDirectBufferFlushEnable() {
+    return directBufferFlushEnable;
+  }
+
+  public void setDirectBufferFlushEnable(boolean directBufferFlushEnable) {
+    this.directBufferFlushEnable = directBufferFlushEnable;
+  }
+
   public boolean isEnableParameterAdapter() {
     return enableParameterAdapter;
   }
@@ -587,6 +951,46 @@ public class IoTDBConfig {
     this.allocateMemoryForRead = allocateMemoryForRead;
   }
 
+  public boolean isEnableChunkCache() {
+    return enableChunkCache;
+  }
+
+  public void setEnableChunkCache(boolean enableChunkCache) {
+    this.enableChunkCache = enableChunkCache;
+  }
+
+  public boolean isEnableLastPointCache() {
+    return enableLastPointCache;
+  }
+
+  public void setEnableLastPointCache(boolean enableLastPointCache) {
+    this.enableLastPointCache = enableLastPointCache;
+  }
+
+  public long getAllocateMemoryForChunkCache() {
+    return allocateMemoryForChunkCache;
+  }
+
+  public void setAllocateMemoryForChunkCache(long allocateMemoryForChunkCache) {
+    this.allocateMemoryForChunkCache = allocateMemoryForChunkCache;
+  }
+
+  public boolean isEnableMetaDataCache() {
+    return enableMetaDataCache;
+  }
+
+  public void setEnableMetaDataCache(boolean enableMetaDataCache) {
+    this.enableMetaDataCache = enableMetaDataCache;
+  }
+
+  public long getAllocateMemoryForMetaDataCache() {
+    return allocateMemoryForMetaDataCache;
+  }
+
+  public void setAllocateMemoryForMetaDataCache(long allocateMemoryForMetaDataCache) {
+    this.allocateMemoryForMetaDataCache = allocateMemoryForMetaDataCache;
+  }
+
   public boolean isEnablePerformanceStat() {
     return enablePerformanceStat;
   }
@@ -618,4 +1022,36 @@ public class IoTDBConfig {
   public void setMemtableSizeThreshold(long memtableSizeThreshold) {
     this.memtableSizeThreshold = memtableSizeThreshold;
   }
+
+  public int getPrimitiveArraySize() {
+    return primitiveArraySize;
+  }
+
+  public void setPrimitiveArraySize(int primitiveArraySize) {
+    this.primitiveArraySize = primitiveArraySize;
+  }
+
+  public boolean isEnableAdaptiveArraySize() {
+    return enableAdaptiveArraySize;
+  }
+
+  public void setEnableAdaptiveArraySize(boolean enableAdaptiveArraySize) {
+    this.enableAdaptiveArraySize = enableAdaptiveArraySize;
+  }
+
+  public int getMaxPrimitiveArraySize() {
+    return maxPrimitiveArraySize;
+  }
+
+  public void setMaxPrimitiveArraySize(int maxPrimitiveArraySize) {
+    this.maxPrimitiveArraySize = maxPrimitiveArraySize;
+  }
+
+  public int getAdaptiveArraySizeSeriesNum() {
+    return adaptiveArraySizeSeriesNum;
+  }
+
+  public void setAdaptiveArraySizeSeriesNum(int adaptiveArraySizeSeriesNum) {
+    this.adaptiveArraySizeSeriesNum = adaptiveArraySizeSeriesNum;
+  }
 }
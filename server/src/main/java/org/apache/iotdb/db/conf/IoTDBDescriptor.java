@@ -24,6 +24,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import org.apache.iotdb.db.utils.FilePathUtils;
 import org.slf4j.Logger;
@@ -160,6 +163,35 @@ public class IoTDBDescriptor {
         conf.setWalBufferSize(walBufferSize);
       }
 
+      conf.setEnableWalGroupCommit(Boolean
+          .parseBoolean(properties.getProperty("enable_wal_group_commit",
+              Boolean.toString(conf.isEnableWalGroupCommit())).trim()));
+
+      conf.setConcurrentWalAppenderThread(Integer
+          .parseInt(properties.getProperty("concurrent_wal_appender_thread",
+              Integer.toString(conf.getConcurrentWalAppenderThread())).trim()));
+      if (conf.getConcurrentWalAppenderThread() <= 0) {
+        conf.setConcurrentWalAppenderThread(Runtime.getRuntime().availableProcessors());
+      }
+
+      conf.setEnableMemoryMappedWal(Boolean
+          .parseBoolean(properties.getProperty("enable_memory_mapped_wal",
+              Boolean.toString(conf.isEnableMemoryMappedWal())).trim()));
+
+      long walSegmentSize = Long.parseLong(properties.getProperty("wal_segment_size",
+          Long.toString(conf.getWalSegmentSize())).trim());
+      if (walSegmentSize > 0) {
+        conf.setWalSegmentSize(walSegmentSize);
+      }
+
+      conf.setWalSegmentPoolSize(Integer
+          .parseInt(properties.getProperty("wal_segment_pool_size",
+              Integer.toString(conf.getWalSegmentPoolSize())).trim()));
+
+      conf.setWalBufferPoolSize(Integer
+          .parseInt(properties.getProperty("wal_buffer_pool_size",
+              Integer.toString(conf.getWalBufferPoolSize())).trim()));
+
       conf.setMultiDirStrategyClassName(properties.getProperty("multi_dir_strategy",
           conf.getMultiDirStrategyClassName()));
 
@@ -171,6 +203,69 @@ public class IoTDBDescriptor {
         conf.setMergeConcurrentThreads(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setMergeIntervalInSecond(Long.parseLong(properties
+          .getProperty("merge_interval_in_second",
+              Long.toString(conf.getMergeIntervalInSecond())).trim()));
+
+      long mergeIoBudget = Long.parseLong(properties.getProperty("merge_io_budget_in_byte",
+          Long.toString(conf.getMergeIoBudgetInByte())).trim());
+      if (mergeIoBudget > 0) {
+        conf.setMergeIoBudgetInByte(mergeIoBudget);
+      }
+
+      long mergeMemoryBudget = Long.parseLong(properties
+          .getProperty("merge_memory_budget_in_byte",
+              Long.toString(conf.getMergeMemoryBudgetInByte())).trim());
+      if (mergeMemoryBudget > 0) {
+        conf.setMergeMemoryBudgetInByte(mergeMemoryBudget);
+      }
+
+      conf.setSeqFileCompactionIntervalInSecond(Long.parseLong(properties
+          .getProperty("seq_file_compaction_interval_in_second",
+              Long.toString(conf.getSeqFileCompactionIntervalInSecond())).trim()));
+
+      int compactionFileNum = Integer.parseInt(properties
+          .getProperty("seq_file_compaction_file_num",
+              Integer.toString(conf.getSeqFileCompactionFileNum())).trim());
+      if (compactionFileNum > 1) {
+        conf.setSeqFileCompactionFileNum(compactionFileNum);
+      }
+
+      int compactionMaxLevel = Integer.parseInt(properties
+          .getProperty("seq_file_compaction_max_level",
+              Integer.toString(conf.getSeqFileCompactionMaxLevel())).trim());
+      if (compactionMaxLevel > 0) {
+        conf.setSeqFileCompactionMaxLevel(compactionMaxLevel);
+      }
+
+      conf.setCompactionThroughputInMbPerSec(Integer.parseInt(properties
+          .getProperty("compaction_throughput_in_mb_per_sec",
+              Integer.toString(conf.getCompactionThroughputInMbPerSec())).trim()));
+
+      conf.setEnablePartition(Boolean.parseBoolean(properties.getProperty("enable_partition",
+          Boolean.toString(conf.isEnablePartition())).trim()));
+
+      long partitionInterval = Long.parseLong(properties
+          .getProperty("partition_interval_in_second",
+              Long.toString(conf.getPartitionIntervalInSecond())).trim());
+      if (partitionInterval > 0) {
+        conf.setPartitionIntervalInSecond(partitionInterval);
+      }
+
+      int concurrentWritingTimePartition = Integer.parseInt(properties
+          .getProperty("concurrent_writing_time_partition",
+              Integer.toString(conf.getConcurrentWritingTimePartition())).trim());
+      if (concurrentWritingTimePartition > 0) {
+        conf.setConcurrentWritingTimePartition(concurrentWritingTimePartition);
+      }
+
+      conf.setDefaultTTL(Long.parseLong(properties.getProperty("default_ttl",
+          Long.toString(conf.getDefaultTTL())).trim()));
+
+      conf.setTtlCheckIntervalInSecond(Long.parseLong(properties
+          .getProperty("ttl_check_interval_in_second",
+              Long.toString(conf.getTtlCheckIntervalInSecond())).trim()));
+
       conf.setFetchSize(Integer.parseInt(properties.getProperty("fetch_size",
           Integer.toString(conf.getFetchSize()))));
 
@@ -188,6 +283,37 @@ public class IoTDBDescriptor {
         conf.setMemtableSizeThreshold(memTableSizeThreshold);
       }
 
+      int primitiveArraySize = Integer.parseInt(properties
+          .getProperty("primitive_array_size",
+              Integer.toString(conf.getPrimitiveArraySize())).trim());
+      if (Integer.bitCount(primitiveArraySize) == 1) {
+        conf.setPrimitiveArraySize(primitiveArraySize);
+      } else {
+        logger.warn("primitive_array_size {} is not a power of two, use default value {}",
+            primitiveArraySize, conf.getPrimitiveArraySize());
+      }
+
+      conf.setEnableAdaptiveArraySize(Boolean
+          .parseBoolean(properties.getProperty("enable_adaptive_array_size",
+              Boolean.toString(conf.isEnableAdaptiveArraySize())).trim()));
+
+      int maxPrimitiveArraySize = Integer.parseInt(properties
+          .getProperty("max_primitive_array_size",
+              Integer.toString(conf.getMaxPrimitiveArraySize())).trim());
+      if (Integer.bitCount(maxPrimitiveArraySize) == 1) {
+        conf.setMaxPrimitiveArraySize(maxPrimitiveArraySize);
+      } else {
+        logger.warn("max_primitive_array_size {} is not a power of two, use default value {}",
+            maxPrimitiveArraySize, conf.getMaxPrimitiveArraySize());
+      }
+      if (conf.getMaxPrimitiveArraySize() < conf.getPrimitiveArraySize()) {
+        conf.setMaxPrimitiveArraySize(conf.getPrimitiveArraySize());
+      }
+
+      conf.setAdaptiveArraySizeSeriesNum(Integer.parseInt(properties
+          .getProperty("adaptive_array_size_series_num",
+              Integer.toString(conf.getAdaptiveArraySizeSeriesNum())).trim()));
+
       conf.setSyncEnable(Boolean
           .parseBoolean(properties.getProperty("is_sync_enable",
               Boolean.toString(conf.isSyncEnable()))));
@@ -209,6 +335,27 @@ public class IoTDBDescriptor {
         conf.setConcurrentFlushThread(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setConcurrentQueryThread(Integer
+          .parseInt(properties.getProperty("concurrent_query_thread",
+              Integer.toString(conf.getConcurrentQueryThread()))));
+
+      if (conf.getConcurrentQueryThread() <= 0) {
+        conf.setConcurrentQueryThread(Runtime.getRuntime().availableProcessors());
+      }
+
+      conf.setMaxParallelismPerQuery(Integer
+          .parseInt(properties.getProperty("max_parallelism_per_query",
+              Integer.toString(conf.getMaxParallelismPerQuery()))));
+
+      if (conf.getMaxParallelismPerQuery() <= 0) {
+        conf.setMaxParallelismPerQuery(conf.getConcurrentQueryThread());
+      }
+
+      String rollupIntervals = properties.getProperty("rollup_intervals");
+      if (rollupIntervals != null) {
+        conf.setRollupIntervals(parseRollupIntervals(rollupIntervals));
+      }
+
       conf.setmManagerCacheSize(Integer
           .parseInt(properties.getProperty("schema_manager_cache_size",
               Integer.toString(conf.getmManagerCacheSize())).trim()));
@@ -220,6 +367,9 @@ public class IoTDBDescriptor {
         conf.setChunkBufferPoolEnable(Boolean
             .parseBoolean(properties.getProperty("chunk_buffer_pool_enable")));
       }
+      conf.setDirectBufferFlushEnable(Boolean.parseBoolean(properties
+          .getProperty("direct_buffer_flush_enable",
+              Boolean.toString(conf.isDirectBufferFlushEnable())).trim()));
       String tmpTimeZone = properties.getProperty("time_zone", conf.getZoneID().toString());
       conf.setZoneID(ZoneId.of(tmpTimeZone.trim()));
       logger.info("Time zone has been set to {}", conf.getZoneID());
@@ -249,6 +399,30 @@ public class IoTDBDescriptor {
     }
   }
 
+  /**
+   * parse rollup definitions like "root.sg1=60000,3600000;root.sg2=86400000".
+   */
+  private Map<String, long[]> parseRollupIntervals(String rollupIntervals) {
+    Map<String, long[]> result = new HashMap<>();
+    for (String definition : rollupIntervals.split(";")) {
+      if (definition.trim().isEmpty()) {
+        continue;
+      }
+      String[] storageGroupAndIntervals = definition.split("=");
+      if (storageGroupAndIntervals.length != 2) {
+        logger.warn("Ignore the illegal rollup definition {}", definition);
+        continue;
+      }
+      long[] intervals = Arrays.stream(storageGroupAndIntervals[1].split(","))
+          .map(String::trim).filter(interval -> !interval.isEmpty()).mapToLong(Long::parseLong)
+          .filter(interval -> interval > 0).distinct().sorted().toArray();
+      if (intervals.length > 0) {
+        result.put(storageGroupAndIntervals[0].trim(), intervals);
+      }
+    }
+    return result;
+  }
+
   private void initMemoryAllocate(Properties properties) {
     String memoryAllocateProportion = properties.getProperty("write_read_free_memory_proportion");
     if (memoryAllocateProportion != null) {
@@ -263,6 +437,25 @@ public class IoTDBDescriptor {
       conf.setAllocateMemoryForRead(
           maxMemoryAvailable * Integer.parseInt(proportions[1].trim()) / proportionSum);
     }
+
+    conf.setEnableChunkCache(Boolean.parseBoolean(properties
+        .getProperty("enable_chunk_cache", Boolean.toString(conf.isEnableChunkCache())).trim()));
+    long chunkCacheSize = Long
+        .parseLong(properties.getProperty("chunk_cache_size_in_byte", "0").trim());
+    conf.setAllocateMemoryForChunkCache(
+        chunkCacheSize > 0 ? chunkCacheSize : conf.getAllocateMemoryForRead() / 3);
+
+    conf.setEnableLastPointCache(Boolean.parseBoolean(properties
+        .getProperty("enable_last_point_cache", Boolean.toString(conf.isEnableLastPointCache()))
+        .trim()));
+
+    conf.setEnableMetaDataCache(Boolean.parseBoolean(properties
+        .getProperty("enable_meta_data_cache", Boolean.toString(conf.isEnableMetaDataCache()))
+        .trim()));
+    long metaDataCacheSize = Long
+        .parseLong(properties.getProperty("meta_data_cache_size_in_byte", "0").trim());
+    conf.setAllocateMemoryForMetaDataCache(
+        metaDataCacheSize > 0 ? metaDataCacheSize : conf.getAllocateMemoryForRead() / 6);
   }
 
   private static class IoTDBDescriptorHolder {
@@ -115,8 +115,11 @@ public class DirectoryManager {
     return sequenceFileFolders.indexOf(folder);
   }
 
+  /**
+   * @return a copy of the sequence folders, so the callers cannot change the folders in use
+   */
   public List<String> getAllSequenceFileFolders() {
-    return sequenceFileFolders;
+    return new ArrayList<>(sequenceFileFolders);
   }
 
   private static class DirectoriesHolder {
@@ -148,8 +151,11 @@ public class DirectoryManager {
     return unsequenceFileFolders.indexOf(folder);
   }
 
+  /**
+   * @return a copy of the unsequence folders, so the callers cannot change the folders in use
+   */
   public List<String> getAllUnSequenceFileFolders() {
-    return unsequenceFileFolders;
+    return new ArrayList<>(unsequenceFileFolders);
   }
 
   // only used by test
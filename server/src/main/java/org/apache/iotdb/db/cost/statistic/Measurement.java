@@ -145,8 +145,16 @@ public class Measurement implements MeasurementMBean, IService {
   }
 
   public boolean addOperationLatency(Operation op, long startTime) {
+    return addOperationTimeCost(op, System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * record the time cost of an operation that is not timed from a start time, e.g. the sum of the
+   * sort time of all series in a flush.
+   */
+  public boolean addOperationTimeCost(Operation op, long timeCostInMs) {
     if (isEnableStat && operationSwitch.get(op.getName())) {
-      return operationLatenciesQueue[op.ordinal()].put((System.currentTimeMillis() - startTime));
+      return operationLatenciesQueue[op.ordinal()].put(timeCostInMs);
     }
     return false;
   }
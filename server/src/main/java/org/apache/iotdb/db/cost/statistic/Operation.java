@@ -21,7 +21,11 @@ package org.apache.iotdb.db.cost.statistic;
 public enum Operation {
   EXECUTE_BATCH("EXECUTE_BATCH"),
   EXECUTE_ONE_SQL_IN_BATCH("EXECUTE_ONE_SQL_IN_BATCH"),
-  EXECUTE_QUERY("EXECUTE_QUERY");
+  EXECUTE_QUERY("EXECUTE_QUERY"),
+  FLUSH_MEMTABLE("FLUSH_MEMTABLE"),
+  FLUSH_SORT("FLUSH_SORT"),
+  FLUSH_ENCODING("FLUSH_ENCODING"),
+  FLUSH_IO("FLUSH_IO");
 
   public String getName() {
     return name;
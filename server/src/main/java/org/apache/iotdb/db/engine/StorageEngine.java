@@ -24,9 +24,15 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.cache.LastPointCache;
+import org.apache.iotdb.db.engine.pool.MergePoolManager;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
@@ -37,7 +43,9 @@ import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.StorageEngineFailureException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.rescon.TVListAllocator;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.db.utils.FilePathUtils;
@@ -65,6 +73,12 @@ public class StorageEngine implements IService {
    */
   private final ConcurrentHashMap<String, StorageGroupProcessor> processorMap = new ConcurrentHashMap<>();
 
+  /**
+   * triggers the merges, compactions and TTL checks of all storage groups periodically, null if
+   * they are all disabled or the engine is not started.
+   */
+  private ScheduledExecutorService mergeTriggerService;
+
   private static final StorageEngine INSTANCE = new StorageEngine();
 
   public static StorageEngine getInstance() {
@@ -98,11 +112,55 @@ public class StorageEngine implements IService {
 
   @Override
   public void start() {
-    // nothing to be done
+    long mergeInterval = config.getMergeIntervalInSecond();
+    long compactionInterval = config.getSeqFileCompactionIntervalInSecond();
+    long ttlCheckInterval = config.getTtlCheckIntervalInSecond();
+    if (mergeInterval > 0 || compactionInterval > 0 || ttlCheckInterval > 0) {
+      mergeTriggerService = IoTDBThreadPoolFactory
+          .newSingleThreadScheduledExecutor(ThreadName.MERGE_DAEMON.getName());
+    }
+    if (mergeInterval > 0) {
+      mergeTriggerService.scheduleWithFixedDelay(this::triggerMerge, mergeInterval,
+          mergeInterval, TimeUnit.SECONDS);
+    }
+    if (compactionInterval > 0) {
+      mergeTriggerService.scheduleWithFixedDelay(this::triggerCompaction, compactionInterval,
+          compactionInterval, TimeUnit.SECONDS);
+    }
+    if (ttlCheckInterval > 0) {
+      mergeTriggerService.scheduleWithFixedDelay(this::checkTTL, ttlCheckInterval,
+          ttlCheckInterval, TimeUnit.SECONDS);
+    }
+  }
+
+  private void triggerMerge() {
+    try {
+      mergeAll();
+    } catch (StorageEngineException e) {
+      logger.warn("Cannot trigger the periodic merge", e);
+    }
+  }
+
+  private void triggerCompaction() {
+    try {
+      compactAll();
+    } catch (StorageEngineException e) {
+      logger.warn("Cannot trigger the periodic compaction", e);
+    }
+  }
+
+  private void checkTTL() {
+    for (StorageGroupProcessor processor : processorMap.values()) {
+      processor.checkTTL();
+    }
   }
 
   @Override
   public void stop() {
+    if (mergeTriggerService != null) {
+      mergeTriggerService.shutdownNow();
+      mergeTriggerService = null;
+    }
     syncCloseAllProcessor();
   }
 
@@ -168,6 +226,27 @@ public class StorageEngine implements IService {
     return storageGroupProcessor.insert(insertPlan);
   }
 
+  /**
+   * execute an InsertTabletPlan on a storage group.
+   *
+   * @param insertTabletPlan physical plan of a columnar batch insertion
+   * @return true if and only if all rows are inserted
+   */
+  public boolean insertTablet(InsertTabletPlan insertTabletPlan) throws StorageEngineException {
+
+    StorageGroupProcessor storageGroupProcessor;
+    try {
+      storageGroupProcessor = getProcessor(insertTabletPlan.getDeviceId());
+    } catch (Exception e) {
+      logger.warn("get StorageGroupProcessor of device {} failed, because {}",
+          insertTabletPlan.getDeviceId(),
+          e.getMessage(), e);
+      throw new StorageEngineException(e);
+    }
+
+    return storageGroupProcessor.insertTablet(insertTabletPlan);
+  }
+
   /**
    * only for unit test
    */
@@ -217,8 +296,7 @@ public class StorageEngine implements IService {
    * @return a token for the query.
    */
   public int beginQuery(String deviceId) throws StorageEngineException {
-    // TODO implement it when developing the merge function
-    return -1;
+    return getProcessor(deviceId).beginQuery();
   }
 
   /**
@@ -226,7 +304,7 @@ public class StorageEngine implements IService {
    * using it, the TsFile can be deleted safely.
    */
   public void endQuery(String deviceId, int token) throws StorageEngineException {
-    // TODO  implement it when developing the merge function
+    getProcessor(deviceId).endQuery(token);
   }
 
   /**
@@ -238,7 +316,30 @@ public class StorageEngine implements IService {
     String deviceId = seriesExpression.getSeriesPath().getDevice();
     String measurementId = seriesExpression.getSeriesPath().getMeasurement();
     StorageGroupProcessor storageGroupProcessor = getProcessor(deviceId);
-    return storageGroupProcessor.query(deviceId, measurementId, context);
+    return storageGroupProcessor.query(deviceId, measurementId, context,
+        seriesExpression.getFilter());
+  }
+
+  /**
+   * set the time to live (in ms) of the data of a storage group, the expired data are removed. The
+   * TTL is kept by MManager so that it survives a restart.
+   *
+   * @param dataTTL when <= 0, the data never expire
+   */
+  public void setTTL(String storageGroupName, long dataTTL) throws StorageEngineException {
+    try {
+      MManager.getInstance().setTTL(storageGroupName, dataTTL);
+    } catch (MetadataErrorException e) {
+      throw new StorageEngineException(e);
+    }
+    getProcessor(storageGroupName).setDataTTL(dataTTL);
+  }
+
+  /**
+   * @return the cache of the last point of each series in the storage group of the device.
+   */
+  public LastPointCache getLastPointCache(String deviceId) throws StorageEngineException {
+    return getProcessor(deviceId).getLastPointCache();
   }
 
   /**
@@ -270,12 +371,33 @@ public class StorageEngine implements IService {
   }
 
   /**
-   * merge all storage groups.
+   * merge all storage groups in the background, a storage group being merged is skipped.
    *
    * @throws StorageEngineException StorageEngineException
    */
   public void mergeAll() throws StorageEngineException {
-    // TODO
+    if (config.isReadOnly()) {
+      throw new StorageEngineException("Current system mode is read only, does not support merge");
+    }
+    for (StorageGroupProcessor processor : processorMap.values()) {
+      MergePoolManager.getInstance().submit(processor::merge);
+    }
+  }
+
+  /**
+   * compact the small sequence files of all storage groups in the background, a storage group being
+   * merged or compacted is skipped.
+   *
+   * @throws StorageEngineException StorageEngineException
+   */
+  public void compactAll() throws StorageEngineException {
+    if (config.isReadOnly()) {
+      throw new StorageEngineException(
+          "Current system mode is read only, does not support compaction");
+    }
+    for (StorageGroupProcessor processor : processorMap.values()) {
+      MergePoolManager.getInstance().submit(processor::compact);
+    }
   }
 
   /**
@@ -286,6 +408,7 @@ public class StorageEngine implements IService {
     if (processorMap.containsKey(storageGroupName)) {
       syncDeleteDataFiles(storageGroupName);
     }
+    TVListAllocator.getInstance().removeArraySizeHints(storageGroupName);
   }
 
   private void syncDeleteDataFiles(String storageGroupName) {
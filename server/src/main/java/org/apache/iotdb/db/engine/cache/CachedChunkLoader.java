@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
+
+/**
+ * A ChunkLoader of a sealed TsFile that reads chunks through the server-wide {@link ChunkCache}.
+ */
+public class CachedChunkLoader implements ChunkLoader {
+
+  private String filePath;
+  private TsFileSequenceReader reader;
+
+  public CachedChunkLoader(String filePath, TsFileSequenceReader reader) {
+    this.filePath = filePath;
+    this.reader = reader;
+  }
+
+  @Override
+  public Chunk getChunk(ChunkMetaData chunkMetaData) throws IOException {
+    Chunk chunk = ChunkCache.getInstance().get(filePath, chunkMetaData, reader);
+    chunk.setDeletedAt(chunkMetaData.getDeletedAt());
+    return chunk;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.Objects;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is used to cache the chunks of sealed TsFiles for all queries. The cache is bounded by
+ * the estimated memory of the chunks rather than their number, see {@link SegmentedLruCache}.
+ */
+public class ChunkCache extends SegmentedLruCache<ChunkCache.ChunkCacheKey, Chunk> implements
+    ChunkCacheMBean, IService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ChunkCache.class);
+
+  private static final int SEGMENT_NUM = 16;
+
+  /**
+   * estimated memory of a cached chunk besides its data and measurement id, including the objects
+   * of the chunk, the header, the key and the map entry.
+   */
+  private static final long CHUNK_OVERHEAD_IN_BYTES = 256;
+
+  private static final ChunkCache INSTANCE = new ChunkCache();
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private String mbeanName = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
+          getID().getJmxName());
+
+  private ChunkCache() {
+    super(SEGMENT_NUM);
+  }
+
+  public static ChunkCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * get the chunk of the metadata in a sealed TsFile, the chunk is read by the reader and cached if
+   * it is not in the cache. THREAD SAFE.
+   *
+   * @param filePath the path of the sealed TsFile, which identifies the file in the cache
+   * @param reader the reader of the file
+   * @return a chunk whose data buffer is not shared with other callers
+   */
+  public Chunk get(String filePath, ChunkMetaData metaData, TsFileSequenceReader reader)
+      throws IOException {
+    if (!config.isEnableChunkCache()) {
+      return reader.readMemChunk(metaData);
+    }
+
+    Chunk chunk = get(new ChunkCacheKey(filePath, metaData.getOffsetOfChunkHeader()),
+        key -> reader.readMemChunk(metaData));
+    return new Chunk(chunk.getHeader(), chunk.getData().duplicate());
+  }
+
+  @Override
+  long estimateSize(ChunkCacheKey key, Chunk chunk) {
+    return CHUNK_OVERHEAD_IN_BYTES + chunk.getData().capacity()
+        + 2L * (key.filePath.length() + chunk.getHeader().getMeasurementID().length());
+  }
+
+  /**
+   * remove the chunks of a file, which should be called when the file is deleted or rewritten.
+   */
+  public void remove(String filePath) {
+    logger.debug("Remove the chunks of {} from the cache", filePath);
+    removeIf(key -> key.filePath.equals(filePath));
+  }
+
+  @Override
+  public int getCachedChunkNumber() {
+    return getCachedEntryNumber();
+  }
+
+  @Override
+  public long getMaxMemoryInBytes() {
+    return config.getAllocateMemoryForChunkCache();
+  }
+
+  @Override
+  public void start() throws StartupException {
+    try {
+      JMXService.registerMBean(INSTANCE, mbeanName);
+    } catch (Exception e) {
+      String errorMessage = String
+          .format("Failed to start %s because of %s", this.getID().getName(),
+              e.getMessage());
+      throw new StartupException(errorMessage, e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    JMXService.deregisterMBean(mbeanName);
+    clear();
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.CHUNK_CACHE_SERVICE;
+  }
+
+  static class ChunkCacheKey {
+
+    private final String filePath;
+    private final long offset;
+
+    private ChunkCacheKey(String filePath, long offset) {
+      this.filePath = filePath;
+      this.offset = offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ChunkCacheKey that = (ChunkCacheKey) o;
+      return offset == that.offset && filePath.equals(that.filePath);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(filePath, offset);
+    }
+  }
+}
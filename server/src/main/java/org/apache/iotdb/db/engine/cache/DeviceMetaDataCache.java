@@ -19,33 +19,53 @@
 package org.apache.iotdb.db.engine.cache;
 
 import java.io.IOException;
-import java.util.LinkedHashMap;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
 
 /**
- * This class is used to cache <code>DeviceMetaDataCache</code> of tsfile in IoTDB.
+ * This class is used to cache <code>TsDeviceMetadata</code> of tsfile in IoTDB. The cache is
+ * bounded by the estimated memory of the metadata, which is half of the memory for metadata
+ * caches.
  */
-public class DeviceMetaDataCache {
+public class DeviceMetaDataCache extends
+    SegmentedLruCache<DeviceMetaDataCache.DeviceMetaDataKey, TsDeviceMetadata> implements
+    DeviceMetaDataCacheMBean, IService {
 
-  private static final Logger logger = LoggerFactory.getLogger(DeviceMetaDataCache.class);
+  private static final int SEGMENT_NUM = 64;
 
-  private static final int CACHE_SIZE = 100;
   /**
-   * key: the file path + deviceId.
+   * estimated memory of the objects of a TsDeviceMetadata, a ChunkGroupMetaData, a ChunkMetaData
+   * and a buffer of statistics, besides their strings and data.
    */
-  private LinkedHashMap<String, TsDeviceMetadata> lruCache;
+  private static final long DEVICE_METADATA_OVERHEAD_IN_BYTES = 128;
+  private static final long CHUNK_GROUP_OVERHEAD_IN_BYTES = 96;
+  private static final long CHUNK_OVERHEAD_IN_BYTES = 160;
+  private static final long STATISTICS_OVERHEAD_IN_BYTES = 64;
 
-  private AtomicLong cacheHintNum = new AtomicLong();
-  private AtomicLong cacheRequestNum = new AtomicLong();
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
 
-  private DeviceMetaDataCache(int cacheSize) {
-    lruCache = new LruLinkedHashMap(cacheSize, true);
+  private String mbeanName = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
+          getID().getJmxName());
+
+  private DeviceMetaDataCache() {
+    super(SEGMENT_NUM);
   }
 
   public static DeviceMetaDataCache getInstance() {
@@ -54,83 +74,141 @@ public class DeviceMetaDataCache {
 
   /**
    * get {@link TsDeviceMetadata}. THREAD SAFE.
+   *
+   * @return null if the file has no data of the device
    */
   public TsDeviceMetadata get(String filePath, String deviceId, TsFileMetaData fileMetaData)
       throws IOException {
-    // The key(the tsfile path and deviceId) for the lruCache
-
-    String jointPath = filePath + deviceId;
-    Object jointPathObject = jointPath.intern();
-    synchronized (lruCache) {
-      cacheRequestNum.incrementAndGet();
-      if (lruCache.containsKey(jointPath)) {
-        cacheHintNum.incrementAndGet();
-        if (logger.isDebugEnabled()) {
-          logger.debug(
-              "Cache hint: the number of requests for cache is {}, "
-                  + "the number of hints for cache is {}",
-              cacheRequestNum.get(), cacheHintNum.get());
+    if (!config.isEnableMetaDataCache()) {
+      return TsFileMetadataUtils.getTsRowGroupBlockMetaData(filePath, deviceId, fileMetaData);
+    }
+    return get(new DeviceMetaDataKey(filePath, deviceId),
+        key -> TsFileMetadataUtils.getTsRowGroupBlockMetaData(filePath, deviceId, fileMetaData));
+  }
+
+  /**
+   * get {@link TsDeviceMetadata}, which is read by the given reader of the file if it is not
+   * cached. THREAD SAFE.
+   *
+   * @return null if the file has no data of the device
+   */
+  public TsDeviceMetadata get(String filePath, String deviceId, TsFileMetaData fileMetaData,
+      TsFileSequenceReader reader) throws IOException {
+    if (!fileMetaData.containsDevice(deviceId)) {
+      return null;
+    }
+    if (!config.isEnableMetaDataCache()) {
+      return reader.readTsDeviceMetaData(fileMetaData.getDeviceMetadataIndex(deviceId));
+    }
+    return get(new DeviceMetaDataKey(filePath, deviceId),
+        key -> reader.readTsDeviceMetaData(fileMetaData.getDeviceMetadataIndex(deviceId)));
+  }
+
+  /**
+   * get the ChunkMetaData of a series in a sealed TsFile through the metadata caches, the metadata
+   * are read by the given reader of the file if they are not cached. THREAD SAFE.
+   *
+   * @return copies of the cached ChunkMetaData in the order of the file, which can be modified by
+   * the caller
+   */
+  public List<ChunkMetaData> getChunkMetaDataList(String filePath, Path seriesPath,
+      TsFileSequenceReader reader) throws IOException {
+    TsFileMetaData fileMetaData = TsFileMetaDataCache.getInstance().get(filePath, reader);
+    TsDeviceMetadata deviceMetadata = get(filePath, seriesPath.getDevice(), fileMetaData, reader);
+    List<ChunkMetaData> chunkMetaDataList = new ArrayList<>();
+    if (deviceMetadata == null) {
+      return chunkMetaDataList;
+    }
+    for (ChunkGroupMetaData chunkGroupMetaData : deviceMetadata.getChunkGroupMetaDataList()) {
+      for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
+        if (seriesPath.getMeasurement().equals(chunkMetaData.getMeasurementUid())) {
+          ChunkMetaData copy = new ChunkMetaData(chunkMetaData.getMeasurementUid(),
+              chunkMetaData.getTsDataType(), chunkMetaData.getOffsetOfChunkHeader(),
+              chunkMetaData.getStartTime(), chunkMetaData.getEndTime());
+          copy.setNumOfPoints(chunkMetaData.getNumOfPoints());
+          copy.setDigest(chunkMetaData.getDigest());
+          copy.setVersion(chunkGroupMetaData.getVersion());
+          chunkMetaDataList.add(copy);
         }
-        return lruCache.get(jointPath);
       }
     }
-    synchronized (jointPathObject) {
-      synchronized (lruCache) {
-        if (lruCache.containsKey(jointPath)) {
-          return lruCache.get(jointPath);
+    return chunkMetaDataList;
+  }
+
+  @Override
+  long estimateSize(DeviceMetaDataKey key, TsDeviceMetadata deviceMetadata) {
+    long size = DEVICE_METADATA_OVERHEAD_IN_BYTES
+        + 2L * (key.filePath.length() + key.deviceId.length());
+    for (ChunkGroupMetaData chunkGroupMetaData : deviceMetadata.getChunkGroupMetaDataList()) {
+      size += CHUNK_GROUP_OVERHEAD_IN_BYTES + 2L * chunkGroupMetaData.getDeviceID().length();
+      for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
+        size += CHUNK_OVERHEAD_IN_BYTES + 2L * chunkMetaData.getMeasurementUid().length();
+        Map<String, ByteBuffer> statistics = chunkMetaData.getDigest() == null ? null
+            : chunkMetaData.getDigest().getStatistics();
+        if (statistics != null) {
+          for (ByteBuffer buffer : statistics.values()) {
+            size += STATISTICS_OVERHEAD_IN_BYTES + buffer.capacity();
+          }
         }
       }
-      if (logger.isDebugEnabled()) {
-        logger.debug("Cache didn't hint: the number of requests for cache is {}",
-            cacheRequestNum.get());
-      }
-      TsDeviceMetadata blockMetaData = TsFileMetadataUtils
-          .getTsRowGroupBlockMetaData(filePath, deviceId,
-              fileMetaData);
-      synchronized (lruCache) {
-        lruCache.put(jointPath, blockMetaData);
-        return lruCache.get(jointPath);
-      }
     }
+    return size;
   }
 
   /**
-   * clear LRUCache.
+   * remove the metadata of a file, which should be called when the file is deleted or rewritten.
    */
-  public void clear() {
-    synchronized (lruCache) {
-      lruCache.clear();
+  public void remove(String filePath) {
+    removeIf(key -> key.filePath.equals(filePath));
+  }
+
+  @Override
+  public long getMaxMemoryInBytes() {
+    return config.getAllocateMemoryForMetaDataCache() / 2;
+  }
+
+  @Override
+  public void start() throws StartupException {
+    try {
+      JMXService.registerMBean(getInstance(), mbeanName);
+    } catch (Exception e) {
+      String errorMessage = String
+          .format("Failed to start %s because of %s", this.getID().getName(),
+              e.getMessage());
+      throw new StartupException(errorMessage, e);
     }
   }
 
+  @Override
+  public void stop() {
+    JMXService.deregisterMBean(mbeanName);
+    clear();
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.DEVICE_METADATA_CACHE_SERVICE;
+  }
+
   /**
-   * the default LRU cache size is 100. The singleton pattern.
+   * The singleton pattern.
    */
   private static class RowGroupBlockMetaDataCacheSingleton {
 
-    private static final DeviceMetaDataCache INSTANCE = new
-        DeviceMetaDataCache(CACHE_SIZE);
+    private static final DeviceMetaDataCache INSTANCE = new DeviceMetaDataCache();
   }
 
   /**
-   * This class is a map used to cache the <code>RowGroupBlockMetaData</code>. The caching strategy
-   * is LRU.
-   *
+   * the file path and the deviceId.
    */
-  private class LruLinkedHashMap extends LinkedHashMap<String, TsDeviceMetadata> {
+  static class DeviceMetaDataKey {
 
-    private static final long serialVersionUID = 1290160928914532649L;
-    private static final float LOAD_FACTOR_MAP = 0.75f;
-    private int maxCapacity;
+    private final String filePath;
+    private final String deviceId;
 
-    public LruLinkedHashMap(int maxCapacity, boolean isLru) {
-      super(maxCapacity, LOAD_FACTOR_MAP, isLru);
-      this.maxCapacity = maxCapacity;
-    }
-
-    @Override
-    protected boolean removeEldestEntry(Map.Entry<String, TsDeviceMetadata> eldest) {
-      return size() > maxCapacity;
+    private DeviceMetaDataKey(String filePath, String deviceId) {
+      this.filePath = filePath;
+      this.deviceId = deviceId;
     }
 
     @Override
@@ -141,27 +219,13 @@ public class DeviceMetaDataCache {
       if (o == null || getClass() != o.getClass()) {
         return false;
       }
-      return super.equals(o);
+      DeviceMetaDataKey that = (DeviceMetaDataKey) o;
+      return filePath.equals(that.filePath) && deviceId.equals(that.deviceId);
     }
 
     @Override
     public int hashCode() {
-      return super.hashCode();
+      return Objects.hash(filePath, deviceId);
     }
   }
-
-  @Override
-  public boolean equals(Object o) {
-    if (this == o) return true;
-    if (o == null || getClass() != o.getClass()) return false;
-    DeviceMetaDataCache that = (DeviceMetaDataCache) o;
-    return Objects.equals(lruCache, that.lruCache) &&
-            Objects.equals(cacheHintNum, that.cacheHintNum) &&
-            Objects.equals(cacheRequestNum, that.cacheRequestNum);
-  }
-
-  @Override
-  public int hashCode() {
-    return Objects.hash(lruCache, cacheHintNum, cacheRequestNum);
-  }
 }
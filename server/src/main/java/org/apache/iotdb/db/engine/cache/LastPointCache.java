@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * This class caches the last point of each series of a storage group, so that a last-value query
+ * needs not build readers over all TsFiles of the series. The cache is updated on the insert path
+ * under the lock of the device and invalidated by deletions under the write lock of the
+ * StorageGroupProcessor. A series which is not cached is loaded by the first query of it.
+ */
+public class LastPointCache {
+
+  /**
+   * marks a series which is known to have no data.
+   */
+  private static final TimeValuePair NO_DATA = new TimeValuePair(Long.MIN_VALUE, null);
+
+  /**
+   * deviceId -> measurementId -> the last point, a placeholder during loading or NO_DATA.
+   */
+  private Map<String, Map<String, TimeValuePair>> lastPoints = new ConcurrentHashMap<>();
+
+  /**
+   * @return the cached last point, or null if the series is not cached or has no data.
+   */
+  public TimeValuePair get(String deviceId, String measurementId) {
+    Map<String, TimeValuePair> measurementMap = lastPoints.get(deviceId);
+    TimeValuePair pair = measurementMap == null ? null : measurementMap.get(measurementId);
+    return pair == null || pair.getValue() == null ? null : pair;
+  }
+
+  /**
+   * update the last point of a series with an inserted point. A series which is not cached is only
+   * cached if the point is not earlier than any point of its device, otherwise there may be a later
+   * point of the series on disk.
+   *
+   * @param isNewest whether the time is not less than the latest time of the device
+   */
+  public void update(String deviceId, String measurementId, long time, TsPrimitiveType value,
+      boolean isNewest) {
+    Map<String, TimeValuePair> measurementMap = isNewest
+        ? lastPoints.computeIfAbsent(deviceId, k -> new ConcurrentHashMap<>())
+        : lastPoints.get(deviceId);
+    if (measurementMap == null) {
+      return;
+    }
+    measurementMap.compute(measurementId, (k, old) -> {
+      if (old == null) {
+        return isNewest ? new TimeValuePair(time, value) : null;
+      }
+      return old == NO_DATA || time >= old.getTimestamp() ? new TimeValuePair(time, value) : old;
+    });
+  }
+
+  /**
+   * update the last point of a series with a point inserted as a string.
+   */
+  public void update(String deviceId, String measurementId, TSDataType dataType, long time,
+      String value, boolean isNewest) {
+    update(deviceId, measurementId, time, parseValue(dataType, value), isNewest);
+  }
+
+  /**
+   * get the last point of a series, which is loaded by the loader and cached if it is not in the
+   * cache. The series is marked before loading, so a point inserted or a deletion during the
+   * loading is not overwritten by the loaded point. THREAD SAFE.
+   *
+   * @return the last point, or null if the series has no data
+   */
+  public TimeValuePair get(String deviceId, String measurementId, LastPointLoader loader)
+      throws IOException, StorageEngineException {
+    TimeValuePair placeholder = new TimeValuePair(Long.MIN_VALUE, null);
+    TimeValuePair old = lastPoints.computeIfAbsent(deviceId, k -> new ConcurrentHashMap<>())
+        .putIfAbsent(measurementId, placeholder);
+    if (old == NO_DATA) {
+      return null;
+    }
+    if (old != null && old.getValue() != null) {
+      return old;
+    }
+    // the series is not cached or is being loaded by another query
+    TimeValuePair loaded = loader.load();
+    finishLoading(deviceId, measurementId, old == null ? placeholder : old, loaded);
+    return loaded;
+  }
+
+  /**
+   * cache the loaded last point of a series unless it has been invalidated since the placeholder
+   * is put. If a point has been inserted in the meantime, the later one is kept.
+   */
+  private void finishLoading(String deviceId, String measurementId, TimeValuePair placeholder,
+      TimeValuePair loaded) {
+    Map<String, TimeValuePair> measurementMap = lastPoints.get(deviceId);
+    if (measurementMap == null) {
+      return;
+    }
+    measurementMap.computeIfPresent(measurementId, (k, old) -> {
+      if (old == placeholder) {
+        return loaded == null ? NO_DATA : loaded;
+      }
+      if (loaded == null || old == NO_DATA || old.getValue() == null) {
+        return old;
+      }
+      return loaded.getTimestamp() > old.getTimestamp() ? loaded : old;
+    });
+  }
+
+  /**
+   * remove the last point of a series if it is deleted, i.e., not later than the timestamp.
+   */
+  public void invalidate(String deviceId, String measurementId, long timestamp) {
+    Map<String, TimeValuePair> measurementMap = lastPoints.get(deviceId);
+    if (measurementMap == null) {
+      return;
+    }
+    measurementMap.computeIfPresent(measurementId,
+        (k, old) -> old != NO_DATA && old.getTimestamp() <= timestamp ? null : old);
+  }
+
+  public void clear() {
+    lastPoints.clear();
+  }
+
+  private static TsPrimitiveType parseValue(TSDataType dataType, String value) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new TsPrimitiveType.TsBoolean(Boolean.parseBoolean(value));
+      case INT32:
+        return new TsPrimitiveType.TsInt(Integer.parseInt(value));
+      case INT64:
+        return new TsPrimitiveType.TsLong(Long.parseLong(value));
+      case FLOAT:
+        return new TsPrimitiveType.TsFloat(Float.parseFloat(value));
+      case DOUBLE:
+        return new TsPrimitiveType.TsDouble(Double.parseDouble(value));
+      case TEXT:
+        return new TsPrimitiveType.TsBinary(Binary.valueOf(value));
+      default:
+        throw new UnSupportedDataTypeException("Unsupported data type:" + dataType);
+    }
+  }
+
+  /**
+   * loads the last point of a series from its data when the series is not cached.
+   */
+  @FunctionalInterface
+  public interface LastPointLoader {
+
+    /**
+     * @return the last point, or null if the series has no data
+     */
+    TimeValuePair load() throws IOException, StorageEngineException;
+  }
+}
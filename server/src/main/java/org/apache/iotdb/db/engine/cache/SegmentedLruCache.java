@@ -0,0 +1,254 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * A concurrent LRU cache bounded by the estimated memory of its entries. The cache is split into
+ * segments by the hash of the key, each segment is an LRU map guarded by its own lock and owns an
+ * even share of the memory, so concurrent readers rarely wait for each other. A missing key is
+ * loaded only once at a time: concurrent requests of the key wait for the loading instead of
+ * loading it again.
+ *
+ * @param <K> key, which should implement equals and hashCode
+ * @param <V> value
+ */
+abstract class SegmentedLruCache<K, V> {
+
+  private final Segment<K, V>[] segments;
+
+  private final LongAdder requestCount = new LongAdder();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  /**
+   * @param segmentNum number of segments, which must be a power of two
+   */
+  @SuppressWarnings("unchecked")
+  SegmentedLruCache(int segmentNum) {
+    if (Integer.bitCount(segmentNum) != 1) {
+      throw new IllegalArgumentException("Segment number must be a power of two: " + segmentNum);
+    }
+    segments = new Segment[segmentNum];
+    for (int i = 0; i < segmentNum; i++) {
+      segments[i] = new Segment<>();
+    }
+  }
+
+  /**
+   * @return the estimated memory of an entry in bytes
+   */
+  abstract long estimateSize(K key, V value);
+
+  /**
+   * @return the max memory of all entries in bytes
+   */
+  public abstract long getMaxMemoryInBytes();
+
+  /**
+   * get the value of the key, the value is loaded by the loader and cached if it is not in the
+   * cache. A null value is returned but not cached.
+   */
+  V get(K key, Loader<K, V> loader) throws IOException {
+    requestCount.increment();
+    Segment<K, V> segment = segmentOf(key);
+    CompletableFuture<V> loading;
+    boolean isLoader = false;
+    synchronized (segment) {
+      V value = segment.map.get(key);
+      if (value != null) {
+        hitCount.increment();
+        return value;
+      }
+      loading = segment.loading.get(key);
+      if (loading == null) {
+        loading = new CompletableFuture<>();
+        segment.loading.put(key, loading);
+        isLoader = true;
+      }
+    }
+
+    if (!isLoader) {
+      // the key is being loaded by another thread
+      hitCount.increment();
+      return waitFor(loading);
+    }
+
+    V value;
+    try {
+      value = loader.load(key);
+    } catch (IOException | RuntimeException e) {
+      synchronized (segment) {
+        segment.loading.remove(key);
+      }
+      loading.completeExceptionally(e);
+      throw e;
+    }
+    synchronized (segment) {
+      segment.loading.remove(key);
+      if (value != null) {
+        put(segment, key, value);
+      }
+    }
+    loading.complete(value);
+    return value;
+  }
+
+  private V waitFor(CompletableFuture<V> loading) throws IOException {
+    try {
+      return loading.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the cache to be loaded", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * put an entry into the segment and evict the least recently used entries if the segment is
+   * full, should be called with the lock of the segment.
+   */
+  private void put(Segment<K, V> segment, K key, V value) {
+    long size = estimateSize(key, value);
+    long segmentCapacity = getMaxMemoryInBytes() / segments.length;
+    if (size > segmentCapacity) {
+      return;
+    }
+    V previous = segment.map.put(key, value);
+    if (previous != null) {
+      segment.usedMemory -= estimateSize(key, previous);
+    }
+    segment.usedMemory += size;
+    Iterator<Entry<K, V>> iterator = segment.map.entrySet().iterator();
+    while (segment.usedMemory > segmentCapacity && iterator.hasNext()) {
+      Entry<K, V> eldest = iterator.next();
+      segment.usedMemory -= estimateSize(eldest.getKey(), eldest.getValue());
+      iterator.remove();
+      evictionCount.increment();
+    }
+  }
+
+  private Segment<K, V> segmentOf(K key) {
+    int hash = key.hashCode();
+    return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+  }
+
+  /**
+   * remove the entries whose keys satisfy the predicate. An entry being loaded concurrently is not
+   * affected.
+   */
+  void removeIf(Predicate<K> predicate) {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        Iterator<Entry<K, V>> iterator = segment.map.entrySet().iterator();
+        while (iterator.hasNext()) {
+          Entry<K, V> entry = iterator.next();
+          if (predicate.test(entry.getKey())) {
+            segment.usedMemory -= estimateSize(entry.getKey(), entry.getValue());
+            iterator.remove();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * clear the cache.
+   */
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.map.clear();
+        segment.usedMemory = 0;
+      }
+    }
+  }
+
+  public long getRequestCount() {
+    return requestCount.sum();
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return requestCount.sum() - hitCount.sum();
+  }
+
+  public double getHitRatio() {
+    long requests = requestCount.sum();
+    return requests == 0 ? 0 : (double) hitCount.sum() / requests;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  public int getCachedEntryNumber() {
+    int number = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        number += segment.map.size();
+      }
+    }
+    return number;
+  }
+
+  public long getUsedMemoryInBytes() {
+    long usedMemory = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        usedMemory += segment.usedMemory;
+      }
+    }
+    return usedMemory;
+  }
+
+  @FunctionalInterface
+  interface Loader<K, V> {
+
+    V load(K key) throws IOException;
+  }
+
+  /**
+   * an LRU map of the entries, the loadings in progress and the estimated memory of the entries,
+   * guarded by the segment itself.
+   */
+  private static class Segment<K, V> {
+
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, CompletableFuture<V>> loading = new HashMap<>();
+    private long usedMemory = 0;
+  }
+}
@@ -19,27 +19,44 @@
 package org.apache.iotdb.db.engine.cache;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Map.Entry;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 
 /**
- * This class is used to cache <code>TsFileMetaData</code> of tsfile in IoTDB.
+ * This class is used to cache <code>TsFileMetaData</code> of tsfile in IoTDB. The cache is bounded
+ * by the estimated memory of the metadata, which is half of the memory for metadata caches.
  */
-public class TsFileMetaDataCache {
+public class TsFileMetaDataCache extends SegmentedLruCache<String, TsFileMetaData> implements
+    TsFileMetaDataCacheMBean, IService {
+
+  private static final int SEGMENT_NUM = 16;
 
-  private static final Logger logger = LoggerFactory.getLogger(TsFileMetaDataCache.class);
   /**
-   * key: The file seriesPath of tsfile.
+   * estimated memory of the objects of a TsFileMetaData, a device index and a measurement schema,
+   * besides their strings.
    */
-  private ConcurrentHashMap<String, TsFileMetaData> cache;
-  private AtomicLong cacheHintNum = new AtomicLong();
-  private AtomicLong cacheRequestNum = new AtomicLong();
+  private static final long FILE_METADATA_OVERHEAD_IN_BYTES = 256;
+  private static final long DEVICE_INDEX_OVERHEAD_IN_BYTES = 96;
+  private static final long MEASUREMENT_SCHEMA_OVERHEAD_IN_BYTES = 256;
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private String mbeanName = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
+          getID().getJmxName());
 
   private TsFileMetaDataCache() {
-    cache = new ConcurrentHashMap<>();
+    super(SEGMENT_NUM);
   }
 
   public static TsFileMetaDataCache getInstance() {
@@ -47,43 +64,71 @@ public class TsFileMetaDataCache {
   }
 
   /**
-   * get the TsFileMetaData for the given path.
+   * get the TsFileMetaData for the given path. THREAD SAFE.
    *
    * @param path -given path
    */
   public TsFileMetaData get(String path) throws IOException {
+    if (!config.isEnableMetaDataCache()) {
+      return TsFileMetadataUtils.getTsFileMetaData(path);
+    }
+    return get(path, TsFileMetadataUtils::getTsFileMetaData);
+  }
+
+  /**
+   * get the TsFileMetaData for the given path, which is read by the given reader of the file if it
+   * is not cached. THREAD SAFE.
+   */
+  public TsFileMetaData get(String path, TsFileSequenceReader reader) throws IOException {
+    if (!config.isEnableMetaDataCache()) {
+      return reader.readFileMetadata();
+    }
+    return get(path, key -> reader.readFileMetadata());
+  }
 
-    Object internPath = path.intern();
-    synchronized (internPath) {
-      cacheRequestNum.incrementAndGet();
-      if (!cache.containsKey(path)) {
-        // read value from tsfile
-        TsFileMetaData fileMetaData = TsFileMetadataUtils.getTsFileMetaData(path);
-        cache.put(path, fileMetaData);
-        if (logger.isDebugEnabled()) {
-          logger.debug("Cache didn't hint: the number of requests for cache is {}",
-              cacheRequestNum.get());
-        }
-        return cache.get(path);
-      } else {
-        cacheHintNum.incrementAndGet();
-        if (logger.isDebugEnabled()) {
-          logger.debug(
-              "Cache hint: the number of requests for cache is {}, the number of hints for cache "
-                  + "is {}",
-              cacheRequestNum.get(), cacheHintNum.get());
-        }
-        return cache.get(path);
-      }
+  @Override
+  long estimateSize(String path, TsFileMetaData fileMetaData) {
+    long size = FILE_METADATA_OVERHEAD_IN_BYTES + 2L * path.length();
+    for (Entry<String, TsDeviceMetadataIndex> entry : fileMetaData.getDeviceMap().entrySet()) {
+      size += DEVICE_INDEX_OVERHEAD_IN_BYTES + 2L * entry.getKey().length();
+    }
+    for (Entry<String, MeasurementSchema> entry : fileMetaData.getMeasurementSchema()
+        .entrySet()) {
+      size += MEASUREMENT_SCHEMA_OVERHEAD_IN_BYTES + 2L * entry.getKey().length();
     }
+    return size;
   }
 
   public void remove(String path) {
-    cache.remove(path);
+    removeIf(path::equals);
+  }
+
+  @Override
+  public long getMaxMemoryInBytes() {
+    return config.getAllocateMemoryForMetaDataCache() / 2;
+  }
+
+  @Override
+  public void start() throws StartupException {
+    try {
+      JMXService.registerMBean(getInstance(), mbeanName);
+    } catch (Exception e) {
+      String errorMessage = String
+          .format("Failed to start %s because of %s", this.getID().getName(),
+              e.getMessage());
+      throw new StartupException(errorMessage, e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    JMXService.deregisterMBean(mbeanName);
+    clear();
   }
 
-  public void clear() {
-    cache.clear();
+  @Override
+  public ServiceType getID() {
+    return ServiceType.TSFILE_METADATA_CACHE_SERVICE;
   }
 
   /*
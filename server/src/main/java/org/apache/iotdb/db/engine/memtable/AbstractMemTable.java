@@ -19,14 +19,16 @@
 package org.apache.iotdb.db.engine.memtable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.utils.MemUtils;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.rescon.TVListAllocator;
@@ -38,12 +40,17 @@ public abstract class AbstractMemTable implements IMemTable {
 
   private List<Modification> modifications = new ArrayList<>();
 
+  /**
+   * insertions of different devices may write a working memtable concurrently, so the maps are
+   * concurrent and the size is atomic. Insertions of the same device are serialized by the
+   * StorageGroupProcessor.
+   */
   private final Map<String, Map<String, IWritableMemChunk>> memTableMap;
 
-  private long memSize = 0;
+  private AtomicLong memSize = new AtomicLong();
 
   public AbstractMemTable() {
-    this.memTableMap = new HashMap<>();
+    this.memTableMap = new ConcurrentHashMap<>();
   }
 
   public AbstractMemTable(Map<String, Map<String, IWritableMemChunk>> memTableMap) {
@@ -66,17 +73,14 @@ public abstract class AbstractMemTable implements IMemTable {
 
   private IWritableMemChunk createIfNotExistAndGet(String deviceId, String measurement,
       TSDataType dataType) {
-    if (!memTableMap.containsKey(deviceId)) {
-      memTableMap.put(deviceId, new HashMap<>());
-    }
-    Map<String, IWritableMemChunk> memSeries = memTableMap.get(deviceId);
-    if (!memSeries.containsKey(measurement)) {
-      memSeries.put(measurement, genMemSeries(dataType));
-    }
-    return memSeries.get(measurement);
+    Map<String, IWritableMemChunk> memSeries =
+        memTableMap.computeIfAbsent(deviceId, k -> new ConcurrentHashMap<>());
+    return memSeries
+        .computeIfAbsent(measurement, k -> genMemSeries(deviceId, measurement, dataType));
   }
 
-  protected abstract IWritableMemChunk genMemSeries(TSDataType dataType);
+  protected abstract IWritableMemChunk genMemSeries(String deviceId, String measurement,
+      TSDataType dataType);
 
 
   @Override
@@ -86,7 +90,17 @@ public abstract class AbstractMemTable implements IMemTable {
           insertPlan.getDataTypes()[i], insertPlan.getTime(), insertPlan.getValues()[i]);
     }
     long recordSizeInByte = MemUtils.getRecordSize(insertPlan);
-    memSize += recordSizeInByte;
+    memSize.addAndGet(recordSizeInByte);
+  }
+
+  @Override
+  public void insertTablet(InsertTabletPlan insertTabletPlan, int start, int end) {
+    for (int i = 0; i < insertTabletPlan.getMeasurements().length; i++) {
+      IWritableMemChunk memSeries = createIfNotExistAndGet(insertTabletPlan.getDeviceId(),
+          insertTabletPlan.getMeasurements()[i], insertTabletPlan.getDataTypes()[i]);
+      memSeries.write(insertTabletPlan.getTimes(), insertTabletPlan.getColumns()[i], start, end);
+    }
+    memSize.addAndGet(MemUtils.getRecordSize(insertTabletPlan, start, end));
   }
 
   @Override
@@ -117,14 +131,14 @@ public abstract class AbstractMemTable implements IMemTable {
 
   @Override
   public long memSize() {
-    return memSize;
+    return memSize.get();
   }
 
   @Override
   public void clear() {
     memTableMap.clear();
     modifications.clear();
-    memSize = 0;
+    memSize.set(0);
   }
 
   @Override
@@ -141,7 +155,7 @@ public abstract class AbstractMemTable implements IMemTable {
     } else {
       long undeletedTime = findUndeletedTime(deviceId, measurement);
       IWritableMemChunk memChunk = memTableMap.get(deviceId).get(measurement);
-      IWritableMemChunk chunkCopy = new WritableMemChunk(dataType, memChunk.getTVList().clone());
+      IWritableMemChunk chunkCopy = new WritableMemChunk(dataType, memChunk.getTVListSnapshot());
       chunkCopy.setTimeOffset(undeletedTime);
       sorter = chunkCopy;
     }
@@ -192,7 +206,8 @@ public abstract class AbstractMemTable implements IMemTable {
   public void release() {
     for (Entry<String, Map<String, IWritableMemChunk>> entry: memTableMap.entrySet()) {
       for (Entry<String, IWritableMemChunk> subEntry: entry.getValue().entrySet()) {
-        TVListAllocator.getInstance().release(subEntry.getValue().getTVList());
+        TVListAllocator.getInstance()
+            .release(entry.getKey(), subEntry.getKey(), subEntry.getValue().getTVList());
       }
     }
   }
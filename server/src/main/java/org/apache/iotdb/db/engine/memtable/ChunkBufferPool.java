@@ -14,6 +14,7 @@
  */
 package org.apache.iotdb.db.engine.memtable;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
@@ -41,9 +42,65 @@ public class ChunkBufferPool {
 
   private static final int WAIT_TIME = 2000;
 
+  private static final int MIN_DIRECT_BUFFER_SIZE = 4096;
+  private static final int MAX_DIRECT_BUFFER_SIZE = 1 << 30;
+
+  /**
+   * idle direct buffers of ChunkBuffers in the direct mode, indexed by the log2 of their
+   * capacities, which are powers of two. The total capacity of the idle buffers is bounded by the
+   * memtable size threshold.
+   */
+  @SuppressWarnings("unchecked")
+  private final Deque<ByteBuffer>[] availableDirectBuffers = new Deque[Integer.SIZE];
+  private long availableDirectBufferSize = 0;
+
   private ChunkBufferPool() {
   }
 
+  /**
+   * @param sizeUpperBound the estimated max size of the pages of the chunk, see {@link
+   * ChunkBuffer#estimateMaxChunkDataSize}
+   * @return a ChunkBuffer in the direct mode whose direct buffer can hold at least sizeUpperBound
+   * bytes, it should be put back after its chunk is written.
+   */
+  public ChunkBuffer getDirectChunkBuffer(MeasurementSchema schema, long sizeUpperBound) {
+    long size = Math.min(MAX_DIRECT_BUFFER_SIZE, Math.max(MIN_DIRECT_BUFFER_SIZE, sizeUpperBound));
+    // round up to a power of two
+    int capacity = (int) Long.highestOneBit(size - 1) << 1;
+    int index = Integer.numberOfTrailingZeros(capacity);
+    synchronized (availableDirectBuffers) {
+      Deque<ByteBuffer> buffers = availableDirectBuffers[index];
+      if (buffers != null && !buffers.isEmpty()) {
+        ByteBuffer buffer = buffers.pop();
+        availableDirectBufferSize -= capacity;
+        buffer.clear();
+        return new ChunkBuffer(schema, buffer);
+      }
+    }
+    return new ChunkBuffer(schema, ByteBuffer.allocateDirect(capacity));
+  }
+
+  private void putBackDirectBuffer(ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (Integer.bitCount(capacity) != 1) {
+      // grown beyond the estimation to a capacity that is not reused
+      return;
+    }
+    synchronized (availableDirectBuffers) {
+      if (availableDirectBufferSize + capacity > IoTDBDescriptor.getInstance().getConfig()
+          .getMemtableSizeThreshold()) {
+        // let GC free it
+        return;
+      }
+      int index = Integer.numberOfTrailingZeros(capacity);
+      if (availableDirectBuffers[index] == null) {
+        availableDirectBuffers[index] = new ArrayDeque<>();
+      }
+      availableDirectBuffers[index].push(buffer);
+      availableDirectBufferSize += capacity;
+    }
+  }
+
   public ChunkBuffer getEmptyChunkBuffer(Object applier, MeasurementSchema schema) {
     if (!IoTDBDescriptor.getInstance().getConfig()
         .isChunkBufferPoolEnable()) {
@@ -83,6 +140,11 @@ public class ChunkBufferPool {
   }
 
   public void putBack(ChunkBuffer chunkBuffer) {
+    if (chunkBuffer.getDirectPageBuffer() != null) {
+      // only the direct buffer is reused, the ChunkBuffer is dropped
+      putBackDirectBuffer(chunkBuffer.getDirectPageBuffer());
+      return;
+    }
     if (!IoTDBDescriptor.getInstance().getConfig()
         .isChunkBufferPoolEnable()) {
       return;
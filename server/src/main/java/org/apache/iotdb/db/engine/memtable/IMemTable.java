@@ -22,14 +22,17 @@ import java.util.Map;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 
 /**
  * IMemTable is designed to store data points which are not flushed into TsFile yet. An instance of
  * IMemTable maintains all series belonging to one StorageGroup,
  * corresponding to one StorageGroupProcessor.<br> The concurrent control of IMemTable
- * is based on the concurrent control of StorageGroupProcessor, i.e., Writing and
- * querying operations must already have gotten writeLock and readLock respectively.<br>
+ * is based on the concurrent control of StorageGroupProcessor, i.e., writing and
+ * querying operations must already have gotten its readLock, and the writing operations of a
+ * device are serialized by the lock of the device. So different devices are written concurrently,
+ * and a series may be queried while it is written.<br>
  */
 public interface IMemTable {
 
@@ -53,6 +56,11 @@ public interface IMemTable {
 
   void insert(InsertPlan insertPlan);
 
+  /**
+   * insert the rows in [start, end) of an InsertTabletPlan.
+   */
+  void insertTablet(InsertTabletPlan insertTabletPlan, int start, int end);
+
   ReadOnlyMemChunk query(String deviceId, String measurement, TSDataType dataType,
       Map<String, String> props);
 
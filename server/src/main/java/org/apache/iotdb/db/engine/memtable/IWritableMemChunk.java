@@ -36,10 +36,29 @@ public interface IWritableMemChunk extends TimeValuePairSorter {
 
   void putBoolean(long t, boolean v);
 
+  void putLongs(long[] t, long[] v, int start, int end);
+
+  void putInts(long[] t, int[] v, int start, int end);
+
+  void putFloats(long[] t, float[] v, int start, int end);
+
+  void putDoubles(long[] t, double[] v, int start, int end);
+
+  void putBinaries(long[] t, Binary[] v, int start, int end);
+
+  void putBooleans(long[] t, boolean[] v, int start, int end);
+
   void write(long insertTime, String insertValue);
 
   void write(long insertTime, Object insertValue);
 
+  /**
+   * write the rows in [start, end) of a column.
+   *
+   * @param valueList a primitive array (or Binary[] for TEXT) of the data type of this chunk
+   */
+  void write(long[] times, Object valueList, int start, int end);
+
   long count();
 
   TSDataType getType();
@@ -59,6 +78,12 @@ public interface IWritableMemChunk extends TimeValuePairSorter {
 
   default TVList getTVList(){return null;}
 
+  /**
+   * served for query requests on a memtable that may still be written.
+   * @return a view of the current points which shares the arrays of the TVList
+   */
+  default TVList getTVListSnapshot(){return null;}
+
   default long getMinTime() {
     return Long.MIN_VALUE;
   }
@@ -15,15 +15,23 @@
 package org.apache.iotdb.db.engine.memtable;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.cost.statistic.Measurement;
+import org.apache.iotdb.db.cost.statistic.Operation;
 import org.apache.iotdb.db.engine.pool.FlushSubTaskPoolManager;
+import org.apache.iotdb.db.engine.rollup.TsFileRollup;
 import org.apache.iotdb.db.exception.FlushRunTimeException;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
-import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.chunk.ChunkBuffer;
 import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
@@ -33,31 +41,70 @@ import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Flush a memtable as a pipeline: the series are sorted and encoded concurrently by the workers of
+ * FlushSubTaskPoolManager, and a single io task writes the chunk groups and their chunks in order.
+ * The io tasks are handed over through a bounded queue, so the flush blocks instead of encoding
+ * more series when the io falls behind.
+ */
 public class MemTableFlushTask {
 
   private static final Logger logger = LoggerFactory.getLogger(MemTableFlushTask.class);
   private static final int PAGE_SIZE_THRESHOLD = TSFileConfig.pageSizeInByte;
   private static final FlushSubTaskPoolManager subTaskPoolManager = FlushSubTaskPoolManager
       .getInstance();
+
+  /**
+   * max number of io tasks waiting in the queue, which bounds the number of series that are
+   * encoded but not written yet
+   */
+  private static final int IO_TASK_QUEUE_CAPACITY = Math
+      .max(2, Runtime.getRuntime().availableProcessors());
+
+  /**
+   * how long the flush waits for a free slot in the io task queue before checking if the io task
+   * has failed
+   */
+  private static final long IO_TASK_OFFER_TIMEOUT_MS = 100;
+
+  private static final Object NO_MORE_IO_TASK = new Object();
+
   private Future ioTaskFuture;
   private RestorableTsFileIOWriter writer;
 
-  private ConcurrentLinkedQueue ioTaskQueue = new ConcurrentLinkedQueue();
-  private ConcurrentLinkedQueue encodingTaskQueue = new ConcurrentLinkedQueue();
+  /**
+   * StartFlushGroupIOTask, Future of an encoded series, or EndChunkGroupIoTask, in the order they
+   * are written into the file
+   */
+  private BlockingQueue<Object> ioTaskQueue = new ArrayBlockingQueue<>(IO_TASK_QUEUE_CAPACITY);
   private String storageGroup;
 
   private IMemTable memTable;
   private FileSchema fileSchema;
 
-  private volatile boolean noMoreEncodingTask = false;
-  private volatile boolean noMoreIOTask = false;
+  /**
+   * the rollups of the TsFile to be updated with the flushed series, null if the TsFile has none
+   */
+  private TsFileRollup rollup;
+
+  /**
+   * time costs in nanoseconds, the sort and encoding time costs are summed over the series
+   */
+  private LongAdder sortTime = new LongAdder();
+  private LongAdder encodingTime = new LongAdder();
+  private volatile long ioTime = 0;
 
   public MemTableFlushTask(IMemTable memTable, FileSchema fileSchema, RestorableTsFileIOWriter writer, String storageGroup) {
+    this(memTable, fileSchema, writer, storageGroup, null);
+  }
+
+  public MemTableFlushTask(IMemTable memTable, FileSchema fileSchema,
+      RestorableTsFileIOWriter writer, String storageGroup, TsFileRollup rollup) {
     this.memTable = memTable;
+    this.rollup = rollup;
     this.fileSchema = fileSchema;
     this.writer = writer;
     this.storageGroup = storageGroup;
-    subTaskPoolManager.submit(encodingTask);
     this.ioTaskFuture = subTaskPoolManager.submit(ioTask);
     logger.debug("flush task of Storage group {} memtable {} is created ",
         storageGroup, memTable.getVersion());
@@ -69,161 +116,168 @@ public class MemTableFlushTask {
    */
   public void syncFlushMemTable() throws ExecutionException, InterruptedException {
     long start = System.currentTimeMillis();
-    long sortTime = 0;
-    for (String deviceId : memTable.getMemTableMap().keySet()) {
-      encodingTaskQueue.add(new StartFlushGroupIOTask(deviceId));
-      for (String measurementId : memTable.getMemTableMap().get(deviceId).keySet()) {
-        long startTime = System.currentTimeMillis();
-        IWritableMemChunk series = memTable.getMemTableMap().get(deviceId).get(measurementId);
-        MeasurementSchema desc = fileSchema.getMeasurementSchema(measurementId);
-        TVList tvList = series.getSortedTVList();
-        sortTime += System.currentTimeMillis() - startTime;
-        encodingTaskQueue.add(new Pair<>(tvList, desc));
+    for (Entry<String, Map<String, IWritableMemChunk>> deviceEntry : memTable.getMemTableMap()
+        .entrySet()) {
+      String deviceId = deviceEntry.getKey();
+      putIOTask(new StartFlushGroupIOTask(deviceId));
+      for (Entry<String, IWritableMemChunk> seriesEntry : deviceEntry.getValue().entrySet()) {
+        IWritableMemChunk series = seriesEntry.getValue();
+        MeasurementSchema desc = fileSchema.getMeasurementSchema(seriesEntry.getKey());
+        putIOTask(subTaskPoolManager.submit(() -> encodeSeries(deviceId, series, desc)));
       }
-      encodingTaskQueue.add(new EndChunkGroupIoTask(memTable.getVersion()));
+      putIOTask(new EndChunkGroupIoTask(memTable.getVersion()));
     }
-    noMoreEncodingTask = true;
-    logger.debug(
-        "Storage group {} memtable {}, flushing into disk: data sort time cost {} ms.",
-        storageGroup, memTable.getVersion(), sortTime);
+    putIOTask(NO_MORE_IO_TASK);
 
     ioTaskFuture.get();
 
+    long sortTimeInMs = TimeUnit.NANOSECONDS.toMillis(sortTime.sum());
+    long encodingTimeInMs = TimeUnit.NANOSECONDS.toMillis(encodingTime.sum());
+    long ioTimeInMs = TimeUnit.NANOSECONDS.toMillis(ioTime);
+    Measurement.INSTANCE.addOperationTimeCost(Operation.FLUSH_SORT, sortTimeInMs);
+    Measurement.INSTANCE.addOperationTimeCost(Operation.FLUSH_ENCODING, encodingTimeInMs);
+    Measurement.INSTANCE.addOperationTimeCost(Operation.FLUSH_IO, ioTimeInMs);
+    Measurement.INSTANCE.addOperationLatency(Operation.FLUSH_MEMTABLE, start);
+    logger.debug("Storage group {} memtable {}, flushing into disk: data sort time cost {} ms, "
+            + "encoding data cost {} ms, io cost {} ms.", storageGroup, memTable.getVersion(),
+        sortTimeInMs, encodingTimeInMs, ioTimeInMs);
+
     logger.info(
         "Storage group {} memtable {} flushing a memtable has finished! Time consumption: {}ms",
         storageGroup, memTable, System.currentTimeMillis() - start);
   }
 
+  /**
+   * put a task into the io task queue, wait if the queue is full.
+   *
+   * @throws ExecutionException if the io task has failed
+   */
+  private void putIOTask(Object task) throws InterruptedException, ExecutionException {
+    while (!ioTaskQueue.offer(task, IO_TASK_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+      if (ioTaskFuture.isDone()) {
+        // the io task will not take any task, throw its exception
+        ioTaskFuture.get();
+        throw new ExecutionException(
+            new FlushRunTimeException("io task exits before all tasks are written"));
+      }
+    }
+  }
 
-  private Runnable encodingTask = new Runnable() {
-    private void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
-        TSDataType dataType){
-      for (int i = 0; i < tvPairs.size(); i++) {
-        long time = tvPairs.getTime(i);
+  /**
+   * sort a series and encode it into a chunk, called by a worker of FlushSubTaskPoolManager.
+   */
+  private IChunkWriter encodeSeries(String deviceId, IWritableMemChunk series,
+      MeasurementSchema desc) {
+    long startTime = System.nanoTime();
+    TVList tvList = series.getSortedTVList();
+    long sortEndTime = System.nanoTime();
+    sortTime.add(sortEndTime - startTime);
 
-        // skip duplicated data
-        if ((i+1 < tvPairs.size() && (time == tvPairs.getTime(i+1)))) {
-          continue;
-        }
+    if (rollup != null) {
+      rollup.update(deviceId, desc.getMeasurementId(), desc.getType(), tvList);
+    }
 
-        switch (dataType) {
-          case BOOLEAN:
-            seriesWriterImpl.write(time, tvPairs.getBoolean(i));
-            break;
-          case INT32:
-            seriesWriterImpl.write(time, tvPairs.getInt(i));
-            break;
-          case INT64:
-            seriesWriterImpl.write(time, tvPairs.getLong(i));
-            break;
-          case FLOAT:
-            seriesWriterImpl.write(time, tvPairs.getFloat(i));
-            break;
-          case DOUBLE:
-            seriesWriterImpl.write(time, tvPairs.getDouble(i));
-            break;
-          case TEXT:
-            seriesWriterImpl.write(time, tvPairs.getBinary(i));
-            break;
-          default:
-            logger.error("Storage group {} does not support data type: {}", storageGroup,
-                dataType);
-            break;
+    ChunkBuffer chunkBuffer;
+    if (IoTDBDescriptor.getInstance().getConfig().isDirectBufferFlushEnable()) {
+      long binarySize = 0;
+      if (desc.getType() == TSDataType.TEXT) {
+        for (int i = 0; i < tvList.size(); i++) {
+          binarySize += tvList.getBinary(i).getLength();
         }
       }
+      chunkBuffer = ChunkBufferPool.getInstance().getDirectChunkBuffer(desc, ChunkBuffer
+          .estimateMaxChunkDataSize(desc, tvList.size(), binarySize, PAGE_SIZE_THRESHOLD));
+    } else {
+      chunkBuffer = ChunkBufferPool.getInstance().getEmptyChunkBuffer(this, desc);
     }
+    IChunkWriter seriesWriter = new ChunkWriterImpl(desc, chunkBuffer, PAGE_SIZE_THRESHOLD);
+    writeOneSeries(tvList, seriesWriter, desc.getType());
+    encodingTime.add(System.nanoTime() - sortEndTime);
+    return seriesWriter;
+  }
 
-    @Override
-    public void run() {
-      long memSerializeTime = 0;
-      boolean noMoreMessages = false;
-      logger.debug("Storage group {} memtable {}, starts to encoding data.", storageGroup,
-          memTable.getVersion());
-      while (true) {
-        if (noMoreEncodingTask) {
-          noMoreMessages = true;
-        }
-        Object task = encodingTaskQueue.poll();
-        if (task == null) {
-          if (noMoreMessages) {
-            break;
-          }
-          try {
-            Thread.sleep(10);
-          } catch (InterruptedException e) {
-            logger.error("Storage group {} memtable {}, encoding task is interrupted.",
-                storageGroup, memTable.getVersion(), e);
-            Thread.currentThread().interrupt();
-          }
-        } else {
-          if (task instanceof StartFlushGroupIOTask) {
-            ioTaskQueue.add(task);
-          } else if (task instanceof EndChunkGroupIoTask) {
-            ioTaskQueue.add(task);
-          } else {
-            long starTime = System.currentTimeMillis();
-            Pair<TVList, MeasurementSchema> encodingMessage = (Pair<TVList, MeasurementSchema>) task;
-            ChunkBuffer chunkBuffer = ChunkBufferPool.getInstance()
-                .getEmptyChunkBuffer(this, encodingMessage.right);
-            IChunkWriter seriesWriter = new ChunkWriterImpl(encodingMessage.right, chunkBuffer,
-                PAGE_SIZE_THRESHOLD);
-            writeOneSeries(encodingMessage.left, seriesWriter, encodingMessage.right.getType());
-            ioTaskQueue.add(seriesWriter);
-            memSerializeTime += System.currentTimeMillis() - starTime;
-          }
-        }
+  private void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
+      TSDataType dataType){
+    for (int i = 0; i < tvPairs.size(); i++) {
+      long time = tvPairs.getTime(i);
+
+      // skip duplicated data
+      if ((i+1 < tvPairs.size() && (time == tvPairs.getTime(i+1)))) {
+        continue;
+      }
+
+      switch (dataType) {
+        case BOOLEAN:
+          seriesWriterImpl.write(time, tvPairs.getBoolean(i));
+          break;
+        case INT32:
+          seriesWriterImpl.write(time, tvPairs.getInt(i));
+          break;
+        case INT64:
+          seriesWriterImpl.write(time, tvPairs.getLong(i));
+          break;
+        case FLOAT:
+          seriesWriterImpl.write(time, tvPairs.getFloat(i));
+          break;
+        case DOUBLE:
+          seriesWriterImpl.write(time, tvPairs.getDouble(i));
+          break;
+        case TEXT:
+          seriesWriterImpl.write(time, tvPairs.getBinary(i));
+          break;
+        default:
+          logger.error("Storage group {} does not support data type: {}", storageGroup,
+              dataType);
+          break;
       }
-      noMoreIOTask = true;
-      logger.debug("Storage group {}, flushing memtable {} into disk: Encoding data cost "
-              + "{} ms.",
-          storageGroup, memTable.getVersion(), memSerializeTime);
     }
-  };
+  }
 
+  @SuppressWarnings("unchecked")
   private Runnable ioTask = () -> {
-      long ioTime = 0;
-      boolean returnWhenNoTask = false;
-      logger.debug("Storage group {} memtable {}, start io.", storageGroup, memTable.getVersion());
+    long ioTimeInNano = 0;
+    logger.debug("Storage group {} memtable {}, start io.", storageGroup, memTable.getVersion());
+    try {
       while (true) {
-        if (noMoreIOTask) {
-          returnWhenNoTask = true;
+        Object ioMessage = ioTaskQueue.take();
+        if (ioMessage == NO_MORE_IO_TASK) {
+          break;
         }
-        Object ioMessage = ioTaskQueue.poll();
-        if (ioMessage == null) {
-          if (returnWhenNoTask) {
-            break;
-          }
-          try {
-            Thread.sleep(10);
-          } catch (InterruptedException e) {
-            logger.error("Storage group {} memtable, io task is interrupted.", storageGroup
-                , memTable.getVersion(), e);
-            Thread.currentThread().interrupt();
-          }
+        if (ioMessage instanceof StartFlushGroupIOTask) {
+          long starTime = System.nanoTime();
+          writer.startChunkGroup(((StartFlushGroupIOTask) ioMessage).deviceId);
+          ioTimeInNano += System.nanoTime() - starTime;
+        } else if (ioMessage instanceof Future) {
+          // wait for the series to be encoded, the chunks are written in order
+          ChunkWriterImpl chunkWriter = (ChunkWriterImpl) ((Future<IChunkWriter>) ioMessage)
+              .get();
+          long starTime = System.nanoTime();
+          chunkWriter.writeToFileWriter(MemTableFlushTask.this.writer);
+          ChunkBufferPool.getInstance().putBack(chunkWriter.getChunkBuffer());
+          ioTimeInNano += System.nanoTime() - starTime;
         } else {
-          long starTime = System.currentTimeMillis();
-          try {
-            if (ioMessage instanceof StartFlushGroupIOTask) {
-              writer.startChunkGroup(((StartFlushGroupIOTask) ioMessage).deviceId);
-            } else if (ioMessage instanceof IChunkWriter) {
-              ChunkWriterImpl chunkWriter = (ChunkWriterImpl) ioMessage;
-              chunkWriter.writeToFileWriter(MemTableFlushTask.this.writer);
-              ChunkBufferPool.getInstance().putBack(chunkWriter.getChunkBuffer());
-            } else {
-              EndChunkGroupIoTask endGroupTask = (EndChunkGroupIoTask) ioMessage;
-              writer.endChunkGroup(endGroupTask.version);
-            }
-          } catch (IOException e) {
-            logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
-                memTable.getVersion(), e);
-            throw new FlushRunTimeException(e);
-          }
-          ioTime += System.currentTimeMillis() - starTime;
+          long starTime = System.nanoTime();
+          EndChunkGroupIoTask endGroupTask = (EndChunkGroupIoTask) ioMessage;
+          writer.endChunkGroup(endGroupTask.version);
+          ioTimeInNano += System.nanoTime() - starTime;
         }
       }
-      logger.debug("flushing a memtable {} in storage group {}, io cost {}ms", memTable.getVersion(),
-          storageGroup, ioTime);
-    };
+    } catch (IOException e) {
+      logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
+          memTable.getVersion(), e);
+      throw new FlushRunTimeException(e);
+    } catch (ExecutionException e) {
+      logger.error("Storage group {} memtable {}, encoding task meets error.", storageGroup,
+          memTable.getVersion(), e);
+      throw new FlushRunTimeException(e.getCause());
+    } catch (InterruptedException e) {
+      logger.error("Storage group {} memtable {}, io task is interrupted.", storageGroup,
+          memTable.getVersion(), e);
+      Thread.currentThread().interrupt();
+      throw new FlushRunTimeException(e);
+    }
+    ioTime = ioTimeInNano;
+  };
 
   static class EndChunkGroupIoTask {
     private long version;
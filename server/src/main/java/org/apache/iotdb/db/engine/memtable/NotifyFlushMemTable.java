@@ -27,7 +27,8 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 public class NotifyFlushMemTable extends AbstractMemTable {
 
   @Override
-  protected IWritableMemChunk genMemSeries(TSDataType dataType) {
+  protected IWritableMemChunk genMemSeries(String deviceId, String measurement,
+      TSDataType dataType) {
     return null;
   }
 
@@ -35,8 +35,10 @@ public class PrimitiveMemTable extends AbstractMemTable {
   }
 
   @Override
-  protected IWritableMemChunk genMemSeries(TSDataType dataType) {
-    return new WritableMemChunk(dataType, TVListAllocator.getInstance().allocate(dataType));
+  protected IWritableMemChunk genMemSeries(String deviceId, String measurement,
+      TSDataType dataType) {
+    return new WritableMemChunk(dataType,
+        TVListAllocator.getInstance().allocate(deviceId, measurement, dataType));
   }
 
   @Override
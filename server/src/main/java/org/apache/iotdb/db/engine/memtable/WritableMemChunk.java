@@ -34,6 +34,10 @@ import org.apache.iotdb.tsfile.utils.Binary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The writes and the reads (sort and snapshot) of a chunk are synchronized on the chunk, so that a
+ * query can take a snapshot of a series which is being written.
+ */
 public class WritableMemChunk implements IWritableMemChunk {
 
   private static final Logger logger = LoggerFactory.getLogger(WritableMemChunk.class);
@@ -47,7 +51,7 @@ public class WritableMemChunk implements IWritableMemChunk {
   }
 
   @Override
-  public void write(long insertTime, String insertValue) {
+  public synchronized void write(long insertTime, String insertValue) {
     switch (dataType) {
       case BOOLEAN:
         putBoolean(insertTime, Boolean.valueOf(insertValue));
@@ -74,7 +78,7 @@ public class WritableMemChunk implements IWritableMemChunk {
   }
 
   @Override
-  public void write(long insertTime, Object value) {
+  public synchronized void write(long insertTime, Object value) {
     switch (dataType) {
       case BOOLEAN:
         putBoolean(insertTime, (Boolean)value);
@@ -100,6 +104,33 @@ public class WritableMemChunk implements IWritableMemChunk {
     sortedList = null;
   }
 
+  @Override
+  public synchronized void write(long[] times, Object valueList, int start, int end) {
+    switch (dataType) {
+      case BOOLEAN:
+        putBooleans(times, (boolean[]) valueList, start, end);
+        break;
+      case INT32:
+        putInts(times, (int[]) valueList, start, end);
+        break;
+      case INT64:
+        putLongs(times, (long[]) valueList, start, end);
+        break;
+      case FLOAT:
+        putFloats(times, (float[]) valueList, start, end);
+        break;
+      case DOUBLE:
+        putDoubles(times, (double[]) valueList, start, end);
+        break;
+      case TEXT:
+        putBinaries(times, (Binary[]) valueList, start, end);
+        break;
+      default:
+        throw new UnSupportedDataTypeException("Unsupported data type:" + dataType);
+    }
+    sortedList = null;
+  }
+
 
   @Override
   public void putLong(long t, long v) {
@@ -131,6 +162,36 @@ public class WritableMemChunk implements IWritableMemChunk {
     list.putBoolean(t, v);
   }
 
+  @Override
+  public void putLongs(long[] t, long[] v, int start, int end) {
+    list.putLongs(t, v, start, end);
+  }
+
+  @Override
+  public void putInts(long[] t, int[] v, int start, int end) {
+    list.putInts(t, v, start, end);
+  }
+
+  @Override
+  public void putFloats(long[] t, float[] v, int start, int end) {
+    list.putFloats(t, v, start, end);
+  }
+
+  @Override
+  public void putDoubles(long[] t, double[] v, int start, int end) {
+    list.putDoubles(t, v, start, end);
+  }
+
+  @Override
+  public void putBinaries(long[] t, Binary[] v, int start, int end) {
+    list.putBinaries(t, v, start, end);
+  }
+
+  @Override
+  public void putBooleans(long[] t, boolean[] v, int start, int end) {
+    list.putBooleans(t, v, start, end);
+  }
+
   @Override
   public synchronized TVList getSortedTVList() {
     list.sort();
@@ -142,6 +203,11 @@ public class WritableMemChunk implements IWritableMemChunk {
     return list;
   }
 
+  @Override
+  public synchronized TVList getTVListSnapshot() {
+    return list.snapshot();
+  }
+
   @Override
   public long count() {
     return list.size();
@@ -208,7 +274,7 @@ public class WritableMemChunk implements IWritableMemChunk {
   }
 
   @Override
-  public void delete(long upperBound) {
+  public synchronized void delete(long upperBound) {
     list.delete(upperBound);
   }
 }
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+/**
+ * CompactionFileSelector selects the sequence files of a compaction. A file flushed from memory is
+ * at level 0, and a file compacted from the files at level n is at level n+1. A compaction takes a
+ * run of adjacent sealed sequence files at the same level, each of which is smaller than the size
+ * threshold of TsFiles, so that only the small files closed early, e.g., by memory pressure, are
+ * compacted, and the data are kept in time order in the compacted file. The files at the max level
+ * are not compacted any more.
+ */
+public class CompactionFileSelector {
+
+  private List<TsFileResource> seqFiles;
+  private int fileNum;
+  private int maxLevel;
+  private long fileSizeThreshold;
+
+  private List<TsFileResource> selectedFiles = new ArrayList<>();
+
+  /**
+   * @param seqFiles all sequence files of the storage group in time order
+   * @param fileNum the number of files compacted into one file
+   * @param maxLevel the level of the files which are not compacted any more
+   * @param fileSizeThreshold the files not smaller than this are not compacted
+   */
+  public CompactionFileSelector(List<TsFileResource> seqFiles, int fileNum, int maxLevel,
+      long fileSizeThreshold) {
+    this.seqFiles = seqFiles;
+    this.fileNum = fileNum;
+    this.maxLevel = maxLevel;
+    this.fileSizeThreshold = fileSizeThreshold;
+  }
+
+  /**
+   * select the first run of files that can be compacted.
+   *
+   * @return false if there is no file to compact.
+   */
+  public boolean select() {
+    List<TsFileResource> run = new ArrayList<>();
+    int runLevel = -1;
+    for (TsFileResource seqFile : seqFiles) {
+      int level = CompactionTask.getLevel(seqFile.getFile());
+      if (!seqFile.isClosed() || seqFile.getFileSize() >= fileSizeThreshold || level >= maxLevel) {
+        run.clear();
+        continue;
+      }
+      if (level != runLevel) {
+        run.clear();
+        runLevel = level;
+      }
+      run.add(seqFile);
+      if (run.size() == fileNum) {
+        selectedFiles.addAll(run);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the selected files in time order
+   */
+  public List<TsFileResource> getSelectedFiles() {
+    return selectedFiles;
+  }
+}
@@ -0,0 +1,294 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
+import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.db.utils.QueryUtils;
+import org.apache.iotdb.db.utils.TimeValuePairUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+import org.apache.iotdb.tsfile.write.schema.FileSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CompactionTask compacts a run of adjacent sequence files selected by a
+ * {@link CompactionFileSelector} into one file. The chunks of a series in these files, which are
+ * usually small as the files are flushed early, are decoded and encoded again into larger chunks
+ * with full pages, and a chunk which is already large enough is copied as it is. The deletions in
+ * the modification files of the compacted files are applied, and the rollups of the new file are
+ * computed again. The IO of a compaction is throttled so that it does not slow down the writes and
+ * queries.
+ * <br>
+ * The files "{systemTime}-{version}[-{mergeCnt}[-{level}]].tsfile" at level n are compacted into
+ * "{systemTime}-{version}-{mergeCnt+1}-{n+1}.tsfile" named after the first of them, so the new
+ * file takes the place of the old ones when the files are sorted by their names.
+ */
+public class CompactionTask {
+
+  private static final Logger logger = LoggerFactory.getLogger(CompactionTask.class);
+
+  /**
+   * a chunk is flushed once it reaches this size, a chunk of this size or larger is copied.
+   */
+  private static final long TARGET_CHUNK_SIZE = 64L * TSFileConfig.pageSizeInByte;
+
+  private List<TsFileResource> seqFiles;
+  private FileSchema fileSchema;
+  private long compactionVersion;
+  private long[] rollupIntervals;
+  private long throughputInBytePerSec;
+  private File targetFile;
+
+  private QueryContext context = new QueryContext();
+  private MergedFileWriter writer;
+  private String deviceId;
+
+  private long startTime;
+  private long processedBytes;
+  private int copiedChunkNum = 0;
+  private int rewrittenChunkNum = 0;
+
+  /**
+   * @param seqFiles the adjacent sequence files to be compacted in time order
+   * @param fileSchema the schema of the storage group
+   * @param compactionVersion the version of the chunk groups in the compacted file, which is larger
+   * than the versions of all deletions applied in the compaction
+   * @param rollupIntervals the rollup intervals of the storage group, empty if there is no rollup
+   * @param throughputInBytePerSec the max bytes read and written per second, <= 0 for no limit
+   */
+  public CompactionTask(List<TsFileResource> seqFiles, FileSchema fileSchema,
+      long compactionVersion, long[] rollupIntervals, long throughputInBytePerSec) {
+    this.seqFiles = seqFiles;
+    this.fileSchema = fileSchema;
+    this.compactionVersion = compactionVersion;
+    this.rollupIntervals = rollupIntervals;
+    this.throughputInBytePerSec = throughputInBytePerSec;
+    this.targetFile = getCompactedFile(seqFiles.get(0).getFile(),
+        getLevel(seqFiles.get(0).getFile()) + 1);
+  }
+
+  /**
+   * @return the compaction level of a sequence file, 0 if the file is flushed from memory.
+   */
+  public static int getLevel(File seqFile) {
+    String[] items = seqFile.getName().replace(TsFileConstant.TSFILE_SUFFIX, "").split("-");
+    return items.length > 3 ? Integer.parseInt(items[3]) : 0;
+  }
+
+  private static File getCompactedFile(File seqFile, int level) {
+    String[] items = seqFile.getName().replace(TsFileConstant.TSFILE_SUFFIX, "").split("-");
+    long mergeCnt = items.length > 2 ? Long.parseLong(items[2]) + 1 : 1;
+    return new File(seqFile.getParentFile(), items[0] + "-" + items[1] + "-" + mergeCnt + "-"
+        + level + TsFileConstant.TSFILE_SUFFIX);
+  }
+
+  /**
+   * @return the file the sequence files are compacted into.
+   */
+  public File getTargetFile() {
+    return targetFile;
+  }
+
+  /**
+   * write the compacted file and its resource file and rollup file. The compacted file is not
+   * visible to queries until it replaces the compacted ones.
+   *
+   * @return the resource of the compacted file.
+   */
+  public TsFileResource compact() throws IOException {
+    startTime = System.currentTimeMillis();
+    // keep the readers of the files from being closed by FileReaderManager during the compaction
+    for (TsFileResource seqFile : seqFiles) {
+      FileReaderManager.getInstance().increaseFileReaderReference(seqFile.getFile().getPath(), true);
+    }
+    TsFileResource compactedResource;
+    try {
+      writer = new MergedFileWriter(targetFile, rollupIntervals, compactionVersion);
+      Set<String> devices = new TreeSet<>();
+      for (TsFileResource seqFile : seqFiles) {
+        devices.addAll(seqFile.getStartTimeMap().keySet());
+      }
+      for (String device : devices) {
+        deviceId = device;
+        compactDevice();
+      }
+      compactedResource = writer.endFile(fileSchema);
+      writer = null;
+    } finally {
+      for (TsFileResource seqFile : seqFiles) {
+        FileReaderManager.getInstance()
+            .decreaseFileReaderReference(seqFile.getFile().getPath(), true);
+      }
+    }
+    logger.info("Compacted {} sequence files into {} in {}ms, {} chunks are copied and {} chunks "
+            + "are rewritten", seqFiles.size(), targetFile, System.currentTimeMillis() - startTime,
+        copiedChunkNum, rewrittenChunkNum);
+    return compactedResource;
+  }
+
+  /**
+   * delete the compacted file if it is not finished, which is called when the compaction fails.
+   */
+  public void abort() {
+    try {
+      if (writer != null) {
+        writer.abort();
+      } else {
+        new TsFileResource(targetFile).remove();
+      }
+    } catch (IOException e) {
+      logger.error("Cannot delete the compacted file {}", targetFile, e);
+    }
+  }
+
+  public int getCopiedChunkNum() {
+    return copiedChunkNum;
+  }
+
+  public int getRewrittenChunkNum() {
+    return rewrittenChunkNum;
+  }
+
+  private void compactDevice() throws IOException {
+    writer.startDevice(deviceId);
+    List<TsFileResource> deviceFiles = new ArrayList<>();
+    Set<String> measurements = new TreeSet<>();
+    for (TsFileResource seqFile : seqFiles) {
+      if (seqFile.containsDevice(deviceId)) {
+        deviceFiles.add(seqFile);
+        measurements.addAll(getMeasurements(seqFile));
+      }
+    }
+    for (String measurementId : measurements) {
+      MeasurementSchema schema = fileSchema.getMeasurementSchema(measurementId);
+      if (schema == null) {
+        throw new IOException("Unknown measurement " + deviceId + "." + measurementId);
+      }
+      writer.startSeries(measurementId, schema);
+      for (TsFileResource seqFile : deviceFiles) {
+        compactSeries(seqFile, new Path(deviceId, measurementId));
+      }
+      writer.endSeries();
+    }
+    writer.endDevice();
+  }
+
+  private Set<String> getMeasurements(TsFileResource seqFile) throws IOException {
+    String filePath = seqFile.getFile().getPath();
+    TsFileSequenceReader reader = FileReaderManager.getInstance().get(filePath, true);
+    TsFileMetaData fileMetaData = TsFileMetaDataCache.getInstance().get(filePath, reader);
+    TsDeviceMetadata deviceMetadata = DeviceMetaDataCache.getInstance()
+        .get(filePath, deviceId, fileMetaData, reader);
+    Set<String> measurements = new TreeSet<>();
+    if (deviceMetadata != null) {
+      for (ChunkGroupMetaData chunkGroupMetaData : deviceMetadata.getChunkGroupMetaDataList()) {
+        for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
+          measurements.add(chunkMetaData.getMeasurementUid());
+        }
+      }
+    }
+    return measurements;
+  }
+
+  /**
+   * append the chunks of a series in a file to the series in the compacted file.
+   */
+  private void compactSeries(TsFileResource seqFile, Path path) throws IOException {
+    String filePath = seqFile.getFile().getPath();
+    TsFileSequenceReader reader = FileReaderManager.getInstance().get(filePath, true);
+    List<ChunkMetaData> chunkMetaDataList = DeviceMetaDataCache.getInstance()
+        .getChunkMetaDataList(filePath, path, reader);
+    List<Modification> modifications = context
+        .getPathModifications(seqFile.getModFile(), path.getFullPath());
+    if (!modifications.isEmpty()) {
+      QueryUtils.modifyChunkMetaData(chunkMetaDataList, modifications);
+    }
+    for (ChunkMetaData chunkMetaData : chunkMetaDataList) {
+      Chunk chunk = reader.readMemChunk(chunkMetaData);
+      long chunkSize = chunk.getHeader().getSerializedSize() + chunk.getHeader().getDataSize();
+      if (chunkSize >= TARGET_CHUNK_SIZE
+          && chunkMetaData.getDeletedAt() < chunkMetaData.getStartTime()) {
+        writer.copyChunk(chunk, chunkMetaData);
+        copiedChunkNum++;
+      } else {
+        chunk.setDeletedAt(chunkMetaData.getDeletedAt());
+        rewriteChunk(chunk);
+      }
+      // the chunk is read and written once
+      throttle(2 * chunkSize);
+    }
+  }
+
+  private void rewriteChunk(Chunk chunk) throws IOException {
+    ChunkReader chunkReader = new ChunkReaderWithoutFilter(chunk);
+    while (chunkReader.hasNextBatch()) {
+      BatchData batchData = chunkReader.nextBatch();
+      while (batchData.hasNext()) {
+        writer.writePoint(TimeValuePairUtils.getCurrentTimeValuePair(batchData));
+        batchData.next();
+        if (writer.getCurrentChunkSize() >= TARGET_CHUNK_SIZE) {
+          writer.flushChunk();
+        }
+      }
+    }
+    rewrittenChunkNum++;
+  }
+
+  /**
+   * sleep if the compaction processes data faster than the throughput limit.
+   */
+  private void throttle(long bytes) {
+    if (throughputInBytePerSec <= 0) {
+      return;
+    }
+    processedBytes += bytes;
+    long expectedTime = processedBytes * 1000 / throughputInBytePerSec;
+    long elapsedTime = System.currentTimeMillis() - startTime;
+    if (expectedTime > elapsedTime) {
+      try {
+        Thread.sleep(expectedTime - elapsedTime);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+/**
+ * MergeFileSelector selects the files of a merge under an IO budget and a memory budget. The
+ * unsequence files are selected from the oldest one, as a newer unsequence file overwrites the
+ * older ones and must not be merged before them. Each selected unsequence file brings in the
+ * sealed sequence files its data fall into, and the selection stops at the first unsequence file
+ * that is unsealed, has data not covered by the sealed sequence files, or exceeds the budgets.
+ * <br>
+ * The IO cost of a merge is the total size of the selected files, and its memory cost is the total
+ * size of the selected unsequence files, as the chunks of a series in all of them may be read at
+ * the same time. The first unsequence file is always selected if it can be merged, so that a large
+ * one does not block the merges forever.
+ */
+public class MergeFileSelector {
+
+  private List<TsFileResource> seqFiles;
+  private List<TsFileResource> unseqFiles;
+  private long ioBudget;
+  private long memoryBudget;
+
+  private Set<TsFileResource> selectedSeqFiles = new LinkedHashSet<>();
+  private List<TsFileResource> selectedUnseqFiles = new ArrayList<>();
+
+  /**
+   * @param seqFiles all sequence files of the storage group in time order
+   * @param unseqFiles all unsequence files of the storage group in the order they are created
+   */
+  public MergeFileSelector(List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles,
+      long ioBudget, long memoryBudget) {
+    this.seqFiles = seqFiles;
+    this.unseqFiles = unseqFiles;
+    this.ioBudget = ioBudget;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * @return false if there is no file to merge.
+   */
+  public boolean select() {
+    long ioCost = 0;
+    long memoryCost = 0;
+    for (TsFileResource unseqFile : unseqFiles) {
+      if (!unseqFile.isClosed()) {
+        break;
+      }
+      Set<TsFileResource> overlappedSeqFiles = new LinkedHashSet<>();
+      if (!selectOverlappedSeqFiles(unseqFile, overlappedSeqFiles)) {
+        break;
+      }
+      overlappedSeqFiles.removeAll(selectedSeqFiles);
+
+      long newIoCost = ioCost + unseqFile.getFileSize();
+      for (TsFileResource seqFile : overlappedSeqFiles) {
+        newIoCost += seqFile.getFileSize();
+      }
+      long newMemoryCost = memoryCost + unseqFile.getFileSize();
+      if (!selectedUnseqFiles.isEmpty()
+          && (newIoCost > ioBudget || newMemoryCost > memoryBudget)) {
+        break;
+      }
+      selectedUnseqFiles.add(unseqFile);
+      selectedSeqFiles.addAll(overlappedSeqFiles);
+      ioCost = newIoCost;
+      memoryCost = newMemoryCost;
+    }
+    return !selectedUnseqFiles.isEmpty();
+  }
+
+  /**
+   * find the sequence files into which the data of each device in the unsequence file fall. The
+   * data of a device in a sequence file are in (the end time of the device in the previous sequence
+   * file, the end time of the device in this file].
+   *
+   * @return false if some data of the unsequence file are later than all sealed sequence files.
+   */
+  private boolean selectOverlappedSeqFiles(TsFileResource unseqFile,
+      Set<TsFileResource> overlappedSeqFiles) {
+    for (Entry<String, Long> entry : unseqFile.getStartTimeMap().entrySet()) {
+      String deviceId = entry.getKey();
+      long unseqStartTime = entry.getValue();
+      long unseqEndTime = unseqFile.getEndTimeMap().get(deviceId);
+      long previousEndTime = Long.MIN_VALUE;
+      boolean covered = false;
+      for (TsFileResource seqFile : seqFiles) {
+        if (!seqFile.containsDevice(deviceId)) {
+          continue;
+        }
+        if (!seqFile.isClosed()) {
+          break;
+        }
+        long seqEndTime = seqFile.getEndTimeMap().get(deviceId);
+        if (seqEndTime >= unseqStartTime && previousEndTime < unseqEndTime) {
+          overlappedSeqFiles.add(seqFile);
+        }
+        if (seqEndTime >= unseqEndTime) {
+          covered = true;
+          break;
+        }
+        previousEndTime = seqEndTime;
+      }
+      if (!covered) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the selected sequence files in time order
+   */
+  public List<TsFileResource> getSelectedSeqFiles() {
+    List<TsFileResource> result = new ArrayList<>();
+    for (TsFileResource seqFile : seqFiles) {
+      if (selectedSeqFiles.contains(seqFile)) {
+        result.add(seqFile);
+      }
+    }
+    return result;
+  }
+
+  public List<TsFileResource> getSelectedUnseqFiles() {
+    return selectedUnseqFiles;
+  }
+}
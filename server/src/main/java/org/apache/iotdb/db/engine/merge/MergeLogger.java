@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MergeLogger records the progress of a merge in a log file in the system directory of the
+ * storage group, so that a merge interrupted by a crash can be recovered. The log contains the
+ * sequence files with the files they are merged into, the unsequence files, and an end mark
+ * which is written when all merged files are complete and are about to replace the merged ones:
+ * <pre>
+ * seq  {sequence file} {merged file}
+ * unseq {unsequence file}
+ * end
+ * </pre>
+ * A merge without the end mark is rolled back by deleting the merged files, and one with the end
+ * mark is completed by deleting the sequence and unsequence files. The log is deleted when all the
+ * replaced files are deleted.
+ */
+public class MergeLogger {
+
+  private static final Logger logger = LoggerFactory.getLogger(MergeLogger.class);
+
+  public static final String MERGE_LOG_PREFIX = "merge-";
+  public static final String MERGE_LOG_SUFFIX = ".log";
+
+  private static final String SEQ_FILE = "seq";
+  private static final String UNSEQ_FILE = "unseq";
+  private static final String MERGE_END = "end";
+  private static final String SEPARATOR = "\t";
+
+  private File logFile;
+  private FileOutputStream outputStream;
+  private BufferedWriter writer;
+
+  public MergeLogger(File storageGroupSysDir, long mergeVersion) throws IOException {
+    this.logFile = new File(storageGroupSysDir,
+        MERGE_LOG_PREFIX + mergeVersion + MERGE_LOG_SUFFIX);
+    this.outputStream = new FileOutputStream(logFile);
+    this.writer = new BufferedWriter(
+        new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return the file which records the modifications made during the merge of the given version.
+   */
+  public static File getMergingModificationFile(File storageGroupSysDir, long mergeVersion) {
+    return new File(storageGroupSysDir,
+        MERGE_LOG_PREFIX + mergeVersion + ModificationFile.FILE_SUFFIX);
+  }
+
+  /**
+   * record the files of the merge, which must be done before any merged file is created.
+   *
+   * @param seqFiles the sequence files to be merged
+   * @param mergedFiles the files the sequence files are merged into, in the same order
+   * @param unseqFiles the unsequence files to be merged
+   */
+  public void logFiles(List<TsFileResource> seqFiles, List<File> mergedFiles,
+      List<TsFileResource> unseqFiles) throws IOException {
+    for (int i = 0; i < seqFiles.size(); i++) {
+      writeLine(SEQ_FILE + SEPARATOR + seqFiles.get(i).getFile().getPath() + SEPARATOR
+          + mergedFiles.get(i).getPath());
+    }
+    for (TsFileResource unseqFile : unseqFiles) {
+      writeLine(UNSEQ_FILE + SEPARATOR + unseqFile.getFile().getPath());
+    }
+    force();
+  }
+
+  /**
+   * record that all merged files are complete, after which the merge is never rolled back.
+   */
+  public void logEnd() throws IOException {
+    writeLine(MERGE_END);
+    force();
+  }
+
+  private void writeLine(String line) throws IOException {
+    writer.write(line);
+    writer.newLine();
+  }
+
+  private void force() throws IOException {
+    writer.flush();
+    outputStream.getChannel().force(true);
+  }
+
+  public void close() throws IOException {
+    writer.close();
+  }
+
+  /**
+   * close and delete the log, which is called when the merge is finished or rolled back.
+   */
+  public void delete() throws IOException {
+    close();
+    Files.deleteIfExists(logFile.toPath());
+  }
+
+  /**
+   * recover the merges interrupted by a crash, which must be done before the TsFiles of the
+   * storage group are loaded.
+   *
+   * @param storageGroupSysDir the system directory of the storage group
+   */
+  public static void recover(File storageGroupSysDir) throws IOException {
+    File[] logFiles = storageGroupSysDir.listFiles((dir, name) ->
+        name.startsWith(MERGE_LOG_PREFIX) && name.endsWith(MERGE_LOG_SUFFIX));
+    if (logFiles == null) {
+      return;
+    }
+    for (File logFile : logFiles) {
+      List<File> replacedFiles = new ArrayList<>();
+      List<File> mergedFiles = new ArrayList<>();
+      boolean ended = false;
+      try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          String[] items = line.split(SEPARATOR);
+          if (SEQ_FILE.equals(items[0]) && items.length == 3) {
+            replacedFiles.add(new File(items[1]));
+            mergedFiles.add(new File(items[2]));
+          } else if (UNSEQ_FILE.equals(items[0]) && items.length == 2) {
+            replacedFiles.add(new File(items[1]));
+          } else if (MERGE_END.equals(items[0])) {
+            ended = true;
+          }
+        }
+      }
+
+      List<File> filesToDelete = ended ? replacedFiles : mergedFiles;
+      for (File file : filesToDelete) {
+        new TsFileResource(file).remove();
+      }
+      String mergeVersion = logFile.getName().substring(MERGE_LOG_PREFIX.length(),
+          logFile.getName().length() - MERGE_LOG_SUFFIX.length());
+      Files.deleteIfExists(getMergingModificationFile(storageGroupSysDir,
+          Long.parseLong(mergeVersion)).toPath());
+      Files.delete(logFile.toPath());
+      logger.info("Recovered merge {}, {} files are deleted as the merge is {}",
+          logFile.getPath(), filesToDelete.size(), ended ? "finished" : "rolled back");
+    }
+  }
+}
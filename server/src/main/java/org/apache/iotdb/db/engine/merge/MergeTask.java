@@ -0,0 +1,320 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
+import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.utils.QueryUtils;
+import org.apache.iotdb.db.utils.TimeValuePairUtils;
+import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+import org.apache.iotdb.tsfile.write.schema.FileSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MergeTask merges the unsequence files into the sequence files selected by a
+ * {@link MergeFileSelector}. Each sequence file is rewritten into a new sequence file series by
+ * series: a chunk which is neither overlapped by the unsequence data nor modified by a deletion is
+ * copied into the new file as it is, and the other chunks are decoded, merged with the unsequence
+ * data and encoded again. The deletions in the modification files of the merged files are applied,
+ * and the rollups of the new files are computed again. The data of a device in the unsequence
+ * files go into the sequence file whose time range of the device, which starts after the end time
+ * of the device in the previous sequence file, contains them.
+ * <br>
+ * A sequence file "{systemTime}-{version}.tsfile" is merged into "{systemTime}-{version}-1.tsfile"
+ * and "{systemTime}-{version}-{n}.tsfile" into "{systemTime}-{version}-{n+1}.tsfile", so the new
+ * file takes the place of the old one when the files are sorted by their names. The compaction
+ * level of a file, if any, follows the merge count and is kept.
+ */
+public class MergeTask {
+
+  private static final Logger logger = LoggerFactory.getLogger(MergeTask.class);
+
+  private List<TsFileResource> allSeqFiles;
+  private List<TsFileResource> seqFiles;
+  private List<TsFileResource> unseqFiles;
+  private FileSchema fileSchema;
+  private long mergeVersion;
+  private long[] rollupIntervals;
+
+  private QueryContext context = new QueryContext();
+  private List<TsFileResource> mergedFiles = new ArrayList<>();
+
+  private int copiedChunkNum = 0;
+  private int rewrittenChunkNum = 0;
+
+  // the file and the series being merged
+  private MergedFileWriter writer;
+  private String deviceId;
+  private String measurementId;
+
+  /**
+   * @param allSeqFiles all sequence files of the storage group in time order
+   * @param seqFiles the sequence files to be merged in time order
+   * @param unseqFiles the unsequence files to be merged in the order they are created
+   * @param fileSchema the schema of the storage group
+   * @param mergeVersion the version of the chunk groups in the merged files, which is larger than
+   * the versions of all deletions applied in the merge
+   * @param rollupIntervals the rollup intervals of the storage group, empty if there is no rollup
+   */
+  public MergeTask(List<TsFileResource> allSeqFiles, List<TsFileResource> seqFiles,
+      List<TsFileResource> unseqFiles, FileSchema fileSchema, long mergeVersion,
+      long[] rollupIntervals) {
+    this.allSeqFiles = allSeqFiles;
+    this.seqFiles = seqFiles;
+    this.unseqFiles = unseqFiles;
+    this.fileSchema = fileSchema;
+    this.mergeVersion = mergeVersion;
+    this.rollupIntervals = rollupIntervals;
+  }
+
+  /**
+   * @return the file a sequence file is merged into.
+   */
+  public static File getMergedFile(File seqFile) {
+    String[] items = seqFile.getName().replace(TsFileConstant.TSFILE_SUFFIX, "").split("-");
+    long mergeCnt = items.length > 2 ? Long.parseLong(items[2]) + 1 : 1;
+    StringBuilder name = new StringBuilder().append(items[0]).append("-").append(items[1])
+        .append("-").append(mergeCnt);
+    // keep the compaction level of the file
+    for (int i = 3; i < items.length; i++) {
+      name.append("-").append(items[i]);
+    }
+    return new File(seqFile.getParentFile(), name.append(TsFileConstant.TSFILE_SUFFIX).toString());
+  }
+
+  /**
+   * write the merged files and their resource files and rollup files. The merged files are not
+   * visible to queries until they replace the merged ones.
+   *
+   * @return the resources of the merged files, in the same order as the sequence files.
+   */
+  public List<TsFileResource> merge() throws IOException {
+    long startTime = System.currentTimeMillis();
+    // keep the readers of the files from being closed by FileReaderManager during the merge
+    List<TsFileResource> usedFiles = new ArrayList<>(seqFiles);
+    usedFiles.addAll(unseqFiles);
+    for (TsFileResource usedFile : usedFiles) {
+      FileReaderManager.getInstance()
+          .increaseFileReaderReference(usedFile.getFile().getPath(), true);
+    }
+    try {
+      for (TsFileResource seqFile : seqFiles) {
+        mergedFiles.add(mergeFile(seqFile));
+      }
+    } finally {
+      for (TsFileResource usedFile : usedFiles) {
+        FileReaderManager.getInstance()
+            .decreaseFileReaderReference(usedFile.getFile().getPath(), true);
+      }
+    }
+    logger.info("Merged {} sequence files and {} unsequence files in {}ms, {} chunks are copied "
+            + "and {} chunks are rewritten", seqFiles.size(), unseqFiles.size(),
+        System.currentTimeMillis() - startTime, copiedChunkNum, rewrittenChunkNum);
+    return mergedFiles;
+  }
+
+  /**
+   * delete the merged files written so far, which is called when the merge fails.
+   */
+  public void abort() {
+    for (TsFileResource mergedFile : mergedFiles) {
+      try {
+        mergedFile.remove();
+      } catch (IOException e) {
+        logger.error("Cannot delete the merged file {}", mergedFile.getFile(), e);
+      }
+    }
+    if (writer != null) {
+      try {
+        writer.abort();
+      } catch (IOException e) {
+        logger.error("Cannot delete the merged file being written", e);
+      }
+    }
+  }
+
+  public int getCopiedChunkNum() {
+    return copiedChunkNum;
+  }
+
+  public int getRewrittenChunkNum() {
+    return rewrittenChunkNum;
+  }
+
+  private TsFileResource mergeFile(TsFileResource seqFile) throws IOException {
+    writer = new MergedFileWriter(getMergedFile(seqFile.getFile()), rollupIntervals, mergeVersion);
+
+    String filePath = seqFile.getFile().getPath();
+    TsFileSequenceReader reader = FileReaderManager.getInstance().get(filePath, true);
+    for (String device : new TreeSet<>(seqFile.getStartTimeMap().keySet())) {
+      deviceId = device;
+      writer.startDevice(deviceId);
+      List<TsFileResource> deviceUnseqFiles = new ArrayList<>();
+      for (TsFileResource unseqFile : unseqFiles) {
+        if (unseqFile.containsDevice(deviceId)) {
+          deviceUnseqFiles.add(unseqFile);
+        }
+      }
+      // the unsequence data of the device in (previous end time, end time] go into this file
+      Filter timeFilter = FilterFactory.and(TimeFilter.gt(getPreviousEndTime(seqFile)),
+          TimeFilter.ltEq(seqFile.getEndTimeMap().get(deviceId)));
+
+      Set<String> measurements = getMeasurements(seqFile, reader);
+      for (TsFileResource unseqFile : deviceUnseqFiles) {
+        measurements.addAll(getMeasurements(unseqFile,
+            FileReaderManager.getInstance().get(unseqFile.getFile().getPath(), true)));
+      }
+      for (String measurement : measurements) {
+        measurementId = measurement;
+        mergeSeries(seqFile, reader, deviceUnseqFiles, timeFilter);
+      }
+      writer.endDevice();
+    }
+    TsFileResource mergedResource = writer.endFile(fileSchema);
+    writer = null;
+    return mergedResource;
+  }
+
+  private long getPreviousEndTime(TsFileResource seqFile) {
+    long previousEndTime = Long.MIN_VALUE;
+    for (TsFileResource file : allSeqFiles) {
+      if (file == seqFile) {
+        break;
+      }
+      if (file.containsDevice(deviceId) && file.getEndTimeMap().containsKey(deviceId)) {
+        previousEndTime = file.getEndTimeMap().get(deviceId);
+      }
+    }
+    return previousEndTime;
+  }
+
+  private Set<String> getMeasurements(TsFileResource resource, TsFileSequenceReader reader)
+      throws IOException {
+    String filePath = resource.getFile().getPath();
+    TsFileMetaData fileMetaData = TsFileMetaDataCache.getInstance().get(filePath, reader);
+    TsDeviceMetadata deviceMetadata = DeviceMetaDataCache.getInstance()
+        .get(filePath, deviceId, fileMetaData, reader);
+    Set<String> measurements = new TreeSet<>();
+    if (deviceMetadata != null) {
+      for (ChunkGroupMetaData chunkGroupMetaData : deviceMetadata.getChunkGroupMetaDataList()) {
+        for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
+          measurements.add(chunkMetaData.getMeasurementUid());
+        }
+      }
+    }
+    return measurements;
+  }
+
+  private void mergeSeries(TsFileResource seqFile, TsFileSequenceReader reader,
+      List<TsFileResource> deviceUnseqFiles, Filter timeFilter) throws IOException {
+    Path path = new Path(deviceId, measurementId);
+    MeasurementSchema schema = fileSchema.getMeasurementSchema(measurementId);
+    if (schema == null) {
+      throw new IOException("Unknown measurement " + path + " in " + seqFile.getFile());
+    }
+    writer.startSeries(measurementId, schema);
+
+    List<ChunkMetaData> chunkMetaDataList = DeviceMetaDataCache.getInstance()
+        .getChunkMetaDataList(seqFile.getFile().getPath(), path, reader);
+    List<Modification> modifications = context
+        .getPathModifications(seqFile.getModFile(), path.getFullPath());
+    if (!modifications.isEmpty()) {
+      QueryUtils.modifyChunkMetaData(chunkMetaDataList, modifications);
+    }
+    IPointReader unseqReader = new UnseqResourceMergeReader(path, deviceUnseqFiles, context,
+        timeFilter);
+    try {
+      for (ChunkMetaData chunkMetaData : chunkMetaDataList) {
+        Chunk chunk = reader.readMemChunk(chunkMetaData);
+        boolean overlapped = unseqReader.hasNext()
+            && unseqReader.current().getTimestamp() <= chunkMetaData.getEndTime();
+        if (!overlapped && chunkMetaData.getDeletedAt() < chunkMetaData.getStartTime()) {
+          writer.copyChunk(chunk, chunkMetaData);
+          copiedChunkNum++;
+        } else {
+          chunk.setDeletedAt(chunkMetaData.getDeletedAt());
+          rewriteChunk(chunk, chunkMetaData.getEndTime(), unseqReader);
+        }
+      }
+      // the unsequence data after the last chunk
+      while (unseqReader.hasNext()) {
+        writer.writePoint(unseqReader.next());
+      }
+      writer.endSeries();
+    } finally {
+      unseqReader.close();
+    }
+  }
+
+  /**
+   * merge the points of a chunk with the unsequence points before its end time, the unsequence
+   * points overwrite the ones with the same timestamps in the chunk.
+   */
+  private void rewriteChunk(Chunk chunk, long chunkEndTime, IPointReader unseqReader)
+      throws IOException {
+    ChunkReader chunkReader = new ChunkReaderWithoutFilter(chunk);
+    while (chunkReader.hasNextBatch()) {
+      BatchData batchData = chunkReader.nextBatch();
+      while (batchData.hasNext()) {
+        long time = batchData.currentTime();
+        while (unseqReader.hasNext() && unseqReader.current().getTimestamp() < time) {
+          writer.writePoint(unseqReader.next());
+        }
+        if (unseqReader.hasNext() && unseqReader.current().getTimestamp() == time) {
+          writer.writePoint(unseqReader.next());
+        } else {
+          writer.writePoint(TimeValuePairUtils.getCurrentTimeValuePair(batchData));
+        }
+        batchData.next();
+      }
+    }
+    while (unseqReader.hasNext() && unseqReader.current().getTimestamp() <= chunkEndTime) {
+      writer.writePoint(unseqReader.next());
+    }
+    writer.flushChunk();
+    rewrittenChunkNum++;
+  }
+}
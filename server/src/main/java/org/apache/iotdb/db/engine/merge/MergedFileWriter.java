@@ -0,0 +1,269 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import org.apache.iotdb.db.engine.rollup.TsFileRollup;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TimeValuePairUtils;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+import org.apache.iotdb.tsfile.write.chunk.ChunkBuffer;
+import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
+import org.apache.iotdb.tsfile.write.schema.FileSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+
+/**
+ * MergedFileWriter writes a TsFile produced by a merge or a compaction, together with its resource
+ * file and rollup file. The devices are written one by one, and the series of a device one by one
+ * in time order, either by copying whole chunks or by writing points which are encoded into new
+ * chunks.
+ */
+public class MergedFileWriter {
+
+  private static final int PAGE_SIZE_THRESHOLD = TSFileConfig.pageSizeInByte;
+
+  private File file;
+  private TsFileIOWriter writer;
+  private TsFileResource resource;
+  private TsFileRollup rollup;
+  private long version;
+
+  // the state of the device and the series being written
+  private boolean chunkGroupStarted;
+  private String deviceId;
+  private String measurementId;
+  private MeasurementSchema schema;
+  private ChunkWriterImpl chunkWriter;
+  private int chunkPointNum;
+  private TVList rollupList;
+
+  /**
+   * @param file the file to be written
+   * @param rollupIntervals the rollup intervals of the storage group, empty if there is no rollup
+   * @param version the version of the chunk groups in the file
+   */
+  public MergedFileWriter(File file, long[] rollupIntervals, long version) throws IOException {
+    this.file = file;
+    this.version = version;
+    resource = new TsFileResource(file);
+    rollup = rollupIntervals.length > 0 ? new TsFileRollup(rollupIntervals) : null;
+    writer = new TsFileIOWriter(file);
+  }
+
+  public void startDevice(String deviceId) {
+    this.deviceId = deviceId;
+    chunkGroupStarted = false;
+  }
+
+  public void endDevice() throws IOException {
+    if (chunkGroupStarted) {
+      writer.endChunkGroup(version);
+    }
+  }
+
+  public void startSeries(String measurementId, MeasurementSchema schema) {
+    this.measurementId = measurementId;
+    this.schema = schema;
+    chunkWriter = null;
+    chunkPointNum = 0;
+    rollupList = rollup != null ? TVList.newList(schema.getType()) : null;
+  }
+
+  public void endSeries() throws IOException {
+    try {
+      flushChunk();
+    } finally {
+      if (rollupList != null) {
+        rollupList.clear();
+      }
+    }
+  }
+
+  /**
+   * copy a chunk of the series into the file without decoding its pages, the points written by
+   * {@link #writePoint} before are flushed first.
+   */
+  public void copyChunk(Chunk chunk, ChunkMetaData chunkMetaData) throws IOException {
+    flushChunk();
+    startChunkGroup();
+    writer.writeChunk(chunk, chunkMetaData);
+    resource.updateStartTime(deviceId, chunkMetaData.getStartTime());
+    resource.updateEndTime(deviceId, chunkMetaData.getEndTime());
+    if (rollupList != null) {
+      ChunkReader chunkReader = new ChunkReaderWithoutFilter(chunk);
+      while (chunkReader.hasNextBatch()) {
+        BatchData batchData = chunkReader.nextBatch();
+        while (batchData.hasNext()) {
+          putIntoRollupList(TimeValuePairUtils.getCurrentTimeValuePair(batchData));
+          batchData.next();
+        }
+      }
+      updateRollup();
+    }
+  }
+
+  /**
+   * write a point of the series, the points must be written in time order.
+   */
+  public void writePoint(TimeValuePair timeValuePair) {
+    if (chunkWriter == null) {
+      chunkWriter = new ChunkWriterImpl(schema, new ChunkBuffer(schema), PAGE_SIZE_THRESHOLD);
+    }
+    long time = timeValuePair.getTimestamp();
+    switch (schema.getType()) {
+      case BOOLEAN:
+        chunkWriter.write(time, timeValuePair.getValue().getBoolean());
+        break;
+      case INT32:
+        chunkWriter.write(time, timeValuePair.getValue().getInt());
+        break;
+      case INT64:
+        chunkWriter.write(time, timeValuePair.getValue().getLong());
+        break;
+      case FLOAT:
+        chunkWriter.write(time, timeValuePair.getValue().getFloat());
+        break;
+      case DOUBLE:
+        chunkWriter.write(time, timeValuePair.getValue().getDouble());
+        break;
+      case TEXT:
+        chunkWriter.write(time, timeValuePair.getValue().getBinary());
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported data type: " + schema.getType());
+    }
+    chunkPointNum++;
+    resource.updateStartTime(deviceId, time);
+    resource.updateEndTime(deviceId, time);
+    if (rollupList != null) {
+      putIntoRollupList(timeValuePair);
+    }
+  }
+
+  /**
+   * @return the size of the chunk being written by {@link #writePoint}.
+   */
+  public long getCurrentChunkSize() {
+    return chunkPointNum == 0 ? 0 : chunkWriter.getCurrentChunkSize();
+  }
+
+  /**
+   * write the points written by {@link #writePoint} as a chunk.
+   */
+  public void flushChunk() throws IOException {
+    if (chunkPointNum == 0) {
+      return;
+    }
+    startChunkGroup();
+    chunkWriter.writeToFileWriter(writer);
+    chunkPointNum = 0;
+    if (rollupList != null) {
+      updateRollup();
+    }
+  }
+
+  /**
+   * finish the file and write its resource file and rollup file.
+   *
+   * @return the resource of the file.
+   */
+  public TsFileResource endFile(FileSchema fileSchema) throws IOException {
+    writer.endFile(fileSchema);
+    writer = null;
+    // the file must be durable before the merge is logged as finished
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    if (rollup != null) {
+      rollup.serialize(file);
+    }
+    resource.serialize();
+    return resource;
+  }
+
+  /**
+   * close the unfinished file and delete it.
+   */
+  public void abort() throws IOException {
+    if (writer != null) {
+      writer.close();
+      writer = null;
+    }
+    resource.remove();
+  }
+
+  public long getPos() throws IOException {
+    return writer.getPos();
+  }
+
+  private void startChunkGroup() throws IOException {
+    if (!chunkGroupStarted) {
+      writer.startChunkGroup(deviceId);
+      chunkGroupStarted = true;
+    }
+  }
+
+  private void putIntoRollupList(TimeValuePair timeValuePair) {
+    long time = timeValuePair.getTimestamp();
+    TSDataType dataType = schema.getType();
+    switch (dataType) {
+      case BOOLEAN:
+        rollupList.putBoolean(time, timeValuePair.getValue().getBoolean());
+        break;
+      case INT32:
+        rollupList.putInt(time, timeValuePair.getValue().getInt());
+        break;
+      case INT64:
+        rollupList.putLong(time, timeValuePair.getValue().getLong());
+        break;
+      case FLOAT:
+        rollupList.putFloat(time, timeValuePair.getValue().getFloat());
+        break;
+      case DOUBLE:
+        rollupList.putDouble(time, timeValuePair.getValue().getDouble());
+        break;
+      case TEXT:
+        rollupList.putBinary(time, timeValuePair.getValue().getBinary());
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+    }
+  }
+
+  /**
+   * add the points of the last written chunk into the rollups, the chunks of a series are written
+   * in time order so the rollups are updated incrementally.
+   */
+  private void updateRollup() {
+    rollup.update(deviceId, measurementId, schema.getType(), rollupList);
+    rollupList.clear();
+  }
+}
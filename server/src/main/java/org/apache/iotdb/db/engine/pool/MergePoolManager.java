@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.pool;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.ProcessorException;
+
+/**
+ * MergePoolManager runs the merges of the storage groups in the background, at most
+ * merge_concurrent_threads of them at the same time.
+ */
+public class MergePoolManager {
+
+  private static final int EXIT_WAIT_TIME = 60 * 1000;
+
+  private ExecutorService pool;
+
+  private MergePoolManager() {
+    this.pool = IoTDBThreadPoolFactory
+        .newFixedThreadPool(IoTDBDescriptor.getInstance().getConfig().getMergeConcurrentThreads(),
+            ThreadName.MERGE_SERVICE.getName());
+  }
+
+  public static MergePoolManager getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  /**
+   * Block new merge submits and exit when all RUNNING THREADS AND TASKS IN THE QUEUE end.
+   *
+   * @param block if set to true, this method will wait for timeOut milliseconds.
+   * @param timeout block time out in milliseconds.
+   * @throws ProcessorException if timeOut is reached or being interrupted while waiting to exit.
+   */
+  public void close(boolean block, long timeout) throws ProcessorException {
+    pool.shutdown();
+    if (block) {
+      try {
+        if (!pool.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+          throw new ProcessorException("Merge thread pool doesn't exit after "
+              + EXIT_WAIT_TIME + " ms");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ProcessorException("Interrupted while waiting merge thread pool to exit. ", e);
+      }
+    }
+  }
+
+  public synchronized <T> Future<T> submit(Callable<T> task) {
+    return pool.submit(task);
+  }
+
+  public int getActiveCnt() {
+    return ((ThreadPoolExecutor) pool).getActiveCount();
+  }
+
+  public int getWaitingTasksNumber() {
+    return ((ThreadPoolExecutor) pool).getQueue().size();
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+      //allowed to do nothing
+    }
+
+    private static MergePoolManager instance = new MergePoolManager();
+  }
+}
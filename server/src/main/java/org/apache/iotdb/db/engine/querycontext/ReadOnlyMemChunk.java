@@ -21,6 +21,7 @@ package org.apache.iotdb.db.engine.querycontext;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import org.apache.iotdb.db.engine.memtable.MemSeriesLazyMerger;
 import org.apache.iotdb.db.engine.memtable.TimeValuePairSorter;
@@ -102,6 +103,26 @@ public class ReadOnlyMemChunk implements TimeValuePairSorter {
     return sortedTimeValuePairList.iterator();
   }
 
+  /**
+   * @return an iterator over the points from the newest to the oldest
+   */
+  public Iterator<TimeValuePair> getReverseIterator() {
+    checkInitialized();
+    ListIterator<TimeValuePair> listIterator =
+        sortedTimeValuePairList.listIterator(sortedTimeValuePairList.size());
+    return new Iterator<TimeValuePair>() {
+      @Override
+      public boolean hasNext() {
+        return listIterator.hasPrevious();
+      }
+
+      @Override
+      public TimeValuePair next() {
+        return listIterator.previous();
+      }
+    };
+  }
+
   @Override
   public boolean isEmpty() {
     checkInitialized();
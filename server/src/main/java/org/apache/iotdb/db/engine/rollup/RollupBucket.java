@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * RollupBucket is the aggregation of the points of a series in one time interval [startTime,
+ * startTime + interval), where startTime is a multiple of the interval.
+ */
+public class RollupBucket {
+
+  private long startTime;
+  private long minTime;
+  private long maxTime;
+  private long count;
+  private Statistics<?> statistics;
+
+  RollupBucket(long startTime, TSDataType dataType) {
+    this.startTime = startTime;
+    this.minTime = Long.MAX_VALUE;
+    this.maxTime = Long.MIN_VALUE;
+    this.statistics = Statistics.getStatsByType(dataType);
+  }
+
+  private RollupBucket(long startTime, long minTime, long maxTime, long count,
+      Statistics<?> statistics) {
+    this.startTime = startTime;
+    this.minTime = minTime;
+    this.maxTime = maxTime;
+    this.count = count;
+    this.statistics = statistics;
+  }
+
+  /**
+   * @return the start time of the interval containing the given time.
+   */
+  static long getStartTime(long time, long interval) {
+    return Math.floorDiv(time, interval) * interval;
+  }
+
+  private void updateTime(long time) {
+    minTime = Math.min(minTime, time);
+    maxTime = Math.max(maxTime, time);
+    count++;
+  }
+
+  /**
+   * the points of a bucket must be added in time order, as the first and last values are the
+   * first and last added ones.
+   */
+  void update(long time, boolean value) {
+    updateTime(time);
+    statistics.updateStats(value);
+  }
+
+  void update(long time, int value) {
+    updateTime(time);
+    statistics.updateStats(value);
+  }
+
+  void update(long time, long value) {
+    updateTime(time);
+    statistics.updateStats(value);
+  }
+
+  void update(long time, float value) {
+    updateTime(time);
+    statistics.updateStats(value);
+  }
+
+  void update(long time, double value) {
+    updateTime(time);
+    statistics.updateStats(value);
+  }
+
+  void update(long time, Binary value) {
+    updateTime(time);
+    statistics.updateStats(value);
+  }
+
+  void serializeTo(OutputStream outputStream) throws IOException {
+    ReadWriteIOUtils.write(minTime, outputStream);
+    ReadWriteIOUtils.write(maxTime, outputStream);
+    ReadWriteIOUtils.write(count, outputStream);
+    statistics.serialize(outputStream);
+  }
+
+  static RollupBucket deserializeFrom(ByteBuffer buffer, long interval, TSDataType dataType)
+      throws IOException {
+    long minTime = ReadWriteIOUtils.readLong(buffer);
+    long maxTime = ReadWriteIOUtils.readLong(buffer);
+    long count = ReadWriteIOUtils.readLong(buffer);
+    Statistics<?> statistics = Statistics.deserialize(buffer, dataType);
+    return new RollupBucket(getStartTime(minTime, interval), minTime, maxTime, count, statistics);
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public long getMinTime() {
+    return minTime;
+  }
+
+  public long getMaxTime() {
+    return maxTime;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public Statistics<?> getStatistics() {
+    return statistics;
+  }
+}
@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * TsFileRollup accumulates the rollups of all series in a sequence TsFile when its memtables are
+ * flushed, and writes them into a rollup file alongside the TsFile when the TsFile is closed. A
+ * rollup file is written only after the TsFile is complete, so an existing one always covers all
+ * data of the TsFile, except the deleted data which are recorded in the modification file.
+ *
+ * The layout of a rollup file is: the intervals, the rollups of each series, the index of the
+ * series and the offset of the index.
+ */
+public class TsFileRollup {
+
+  public static final String ROLLUP_SUFFIX = ".rollup";
+  private static final String TEMP_SUFFIX = ".temp";
+
+  private long[] intervals;
+
+  /**
+   * series path -> rollups of the series. The series of a memtable are flushed concurrently, but
+   * each series by one thread.
+   */
+  private Map<String, SeriesRollup> seriesRollups = new ConcurrentHashMap<>();
+
+  public TsFileRollup(long[] intervals) {
+    this.intervals = intervals;
+  }
+
+  public static File getRollupFile(File tsFile) {
+    return new File(tsFile.getPath() + ROLLUP_SUFFIX);
+  }
+
+  /**
+   * add the points of a flushed series into the rollups. Points with the same timestamp are
+   * skipped except the last one, the same as when they are written into the TsFile.
+   *
+   * @param sortedList the points of the series sorted by time
+   */
+  public void update(String deviceId, String measurementId, TSDataType dataType,
+      TVList sortedList) {
+    SeriesRollup seriesRollup = seriesRollups
+        .computeIfAbsent(deviceId + "." + measurementId, k -> new SeriesRollup(dataType));
+    for (int i = 0; i < intervals.length; i++) {
+      seriesRollup.update(i, sortedList);
+    }
+  }
+
+  /**
+   * write the rollups into the rollup file of the TsFile. The file is written into a temporary
+   * file first, so that a rollup file is either complete or absent.
+   */
+  public void serialize(File tsFile) throws IOException {
+    File rollupFile = getRollupFile(tsFile);
+    File tempFile = new File(rollupFile.getPath() + TEMP_SUFFIX);
+    try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+      long offset = 0;
+      offset += ReadWriteIOUtils.write(intervals.length, outputStream);
+      for (long interval : intervals) {
+        offset += ReadWriteIOUtils.write(interval, outputStream);
+      }
+
+      Map<String, long[]> index = new TreeMap<>();
+      ByteArrayOutputStream seriesStream = new ByteArrayOutputStream();
+      for (Entry<String, SeriesRollup> entry : seriesRollups.entrySet()) {
+        seriesStream.reset();
+        entry.getValue().serializeTo(seriesStream);
+        seriesStream.writeTo(outputStream);
+        index.put(entry.getKey(), new long[]{offset, seriesStream.size()});
+        offset += seriesStream.size();
+      }
+
+      ReadWriteIOUtils.write(index.size(), outputStream);
+      for (Entry<String, long[]> entry : index.entrySet()) {
+        ReadWriteIOUtils.write(entry.getKey(), outputStream);
+        ReadWriteIOUtils.write(entry.getValue()[0], outputStream);
+        ReadWriteIOUtils.write((int) entry.getValue()[1], outputStream);
+      }
+      ReadWriteIOUtils.write(offset, outputStream);
+    }
+    Files.move(tempFile.toPath(), rollupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * delete the rollup file of a TsFile and its temporary file if they exist.
+   */
+  public static void deleteRollupFile(File tsFile) throws IOException {
+    File rollupFile = getRollupFile(tsFile);
+    Files.deleteIfExists(rollupFile.toPath());
+    Files.deleteIfExists(new File(rollupFile.getPath() + TEMP_SUFFIX).toPath());
+  }
+
+  private class SeriesRollup {
+
+    private TSDataType dataType;
+
+    /**
+     * bucket start time -> bucket of each interval
+     */
+    private List<TreeMap<Long, RollupBucket>> buckets = new ArrayList<>();
+
+    private SeriesRollup(TSDataType dataType) {
+      this.dataType = dataType;
+      for (int i = 0; i < intervals.length; i++) {
+        buckets.add(new TreeMap<>());
+      }
+    }
+
+    private void update(int intervalIndex, TVList sortedList) {
+      long interval = intervals[intervalIndex];
+      TreeMap<Long, RollupBucket> intervalBuckets = buckets.get(intervalIndex);
+      RollupBucket bucket = null;
+      for (int i = 0; i < sortedList.size(); i++) {
+        long time = sortedList.getTime(i);
+        if (i + 1 < sortedList.size() && time == sortedList.getTime(i + 1)) {
+          continue;
+        }
+        if (bucket == null || time >= bucket.getStartTime() + interval
+            || time < bucket.getStartTime()) {
+          bucket = intervalBuckets.computeIfAbsent(RollupBucket.getStartTime(time, interval),
+              startTime -> new RollupBucket(startTime, dataType));
+        }
+        updateBucket(bucket, sortedList, i, time);
+      }
+    }
+
+    private void updateBucket(RollupBucket bucket, TVList sortedList, int index, long time) {
+      switch (dataType) {
+        case BOOLEAN:
+          bucket.update(time, sortedList.getBoolean(index));
+          break;
+        case INT32:
+          bucket.update(time, sortedList.getInt(index));
+          break;
+        case INT64:
+          bucket.update(time, sortedList.getLong(index));
+          break;
+        case FLOAT:
+          bucket.update(time, sortedList.getFloat(index));
+          break;
+        case DOUBLE:
+          bucket.update(time, sortedList.getDouble(index));
+          break;
+        case TEXT:
+          bucket.update(time, sortedList.getBinary(index));
+          break;
+        default:
+          throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+      }
+    }
+
+    private void serializeTo(OutputStream outputStream) throws IOException {
+      ReadWriteIOUtils.write(dataType, outputStream);
+      ByteArrayOutputStream intervalStream = new ByteArrayOutputStream();
+      for (TreeMap<Long, RollupBucket> intervalBuckets : buckets) {
+        // the length of each interval is written so that the reader can skip it
+        intervalStream.reset();
+        ReadWriteIOUtils.write(intervalBuckets.size(), intervalStream);
+        for (RollupBucket bucket : intervalBuckets.values()) {
+          bucket.serializeTo(intervalStream);
+        }
+        ReadWriteIOUtils.write(intervalStream.size(), outputStream);
+        intervalStream.writeTo(outputStream);
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * TsFileRollupReader reads the rollups of a series from the rollup file of a TsFile. Only the
+ * intervals and the index of the series are kept in memory, the rollups of a series are read when
+ * they are queried.
+ */
+public class TsFileRollupReader {
+
+  private File rollupFile;
+  private long[] intervals;
+
+  /**
+   * series path -> {offset, length} of the rollups of the series in the file
+   */
+  private Map<String, long[]> index = new HashMap<>();
+
+  public TsFileRollupReader(File rollupFile) throws IOException {
+    this.rollupFile = rollupFile;
+    try (FileChannel channel = FileChannel.open(rollupFile.toPath(), StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      ByteBuffer header = read(channel, 0, Integer.BYTES);
+      intervals = new long[ReadWriteIOUtils.readInt(header)];
+      header = read(channel, Integer.BYTES, intervals.length * Long.BYTES);
+      for (int i = 0; i < intervals.length; i++) {
+        intervals[i] = ReadWriteIOUtils.readLong(header);
+      }
+
+      long indexOffset = ReadWriteIOUtils.readLong(read(channel, fileSize - Long.BYTES,
+          Long.BYTES));
+      ByteBuffer indexBuffer = read(channel, indexOffset,
+          (int) (fileSize - Long.BYTES - indexOffset));
+      int seriesNum = ReadWriteIOUtils.readInt(indexBuffer);
+      for (int i = 0; i < seriesNum; i++) {
+        String path = ReadWriteIOUtils.readString(indexBuffer);
+        long offset = ReadWriteIOUtils.readLong(indexBuffer);
+        int length = ReadWriteIOUtils.readInt(indexBuffer);
+        index.put(path, new long[]{offset, length});
+      }
+    }
+  }
+
+  public boolean hasInterval(long interval) {
+    for (long rollupInterval : intervals) {
+      if (rollupInterval == interval) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * read the rollups of a series on the given interval.
+   *
+   * @return the buckets of the series in time order, an empty list if the series has no data in
+   * the TsFile, or null if the TsFile has no rollup on the interval.
+   */
+  public List<RollupBucket> read(String seriesPath, long interval) throws IOException {
+    int intervalIndex = -1;
+    for (int i = 0; i < intervals.length; i++) {
+      if (intervals[i] == interval) {
+        intervalIndex = i;
+      }
+    }
+    if (intervalIndex == -1) {
+      return null;
+    }
+    long[] position = index.get(seriesPath);
+    if (position == null) {
+      return Collections.emptyList();
+    }
+
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(rollupFile.toPath(), StandardOpenOption.READ)) {
+      buffer = read(channel, position[0], (int) position[1]);
+    }
+    TSDataType dataType = ReadWriteIOUtils.readDataType(buffer);
+    for (int i = 0; i < intervalIndex; i++) {
+      int length = ReadWriteIOUtils.readInt(buffer);
+      buffer.position(buffer.position() + length);
+    }
+    ReadWriteIOUtils.readInt(buffer);
+    int bucketNum = ReadWriteIOUtils.readInt(buffer);
+    List<RollupBucket> buckets = new ArrayList<>(bucketNum);
+    for (int i = 0; i < bucketNum; i++) {
+      buckets.add(RollupBucket.deserializeFrom(buffer, interval, dataType));
+    }
+    return buckets;
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int length)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of the rollup file");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+}
@@ -22,21 +22,42 @@ import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFF
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.cache.ChunkCache;
+import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
+import org.apache.iotdb.db.engine.cache.LastPointCache;
+import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
+import org.apache.iotdb.db.engine.merge.CompactionFileSelector;
+import org.apache.iotdb.db.engine.merge.CompactionTask;
+import org.apache.iotdb.db.engine.merge.MergeFileSelector;
+import org.apache.iotdb.db.engine.merge.MergeLogger;
+import org.apache.iotdb.db.engine.merge.MergeTask;
 import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
@@ -49,14 +70,18 @@ import org.apache.iotdb.db.exception.TsFileProcessorException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.utils.CopyOnReadLinkedList;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
 import org.apache.iotdb.db.writelog.recover.TsFileRecoverPerformer;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.schema.FileSchema;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
@@ -81,18 +106,37 @@ import org.slf4j.LoggerFactory;
  * method will be called as a callback.<br/>
  *
  * When a TsFileProcessor is closed, the closeUnsealedTsFileProcessor() method will be called as a
- * callback.
+ * callback.<br/>
+ *
+ * If partitioning is enabled, the data are split into time partitions by their timestamps. Each
+ * partition has its own working TsFileProcessors, latest (flushed) times, version controller and
+ * folders ({data folder}/{storage group}/{partition}/ and {system folder}/{storage group}/{partition}/),
+ * so the data of a partition are sequence or unsequence only with respect to the partition. Merges
+ * and compactions take the files of one partition, and queries skip the partitions out of their
+ * time filters. Otherwise all the data are in partition 0 and in the folders of the storage group.
  */
 public class StorageGroupProcessor {
 
   private static final Logger logger = LoggerFactory.getLogger(StorageGroupProcessor.class);
   /**
    * a read write lock for guaranteeing concurrent safety when accessing all fields in this class
-   * (i.e., fileSchema, (un)sequenceFileList, work(un)SequenceTsFileProcessor,
-   * closing(Un)SequenceTsFileProcessor, latestTimeForEachDevice, and
-   * latestFlushedTimeForEachDevice)
+   * (i.e., fileSchema, (un)sequenceFileList, work(un)SequenceTsFileProcessors,
+   * closing(Un)SequenceTsFileProcessor, latestTimeForEachDevice,
+   * partitionLatestTimeForEachDevice and partitionLatestFlushedTimeForEachDevice). Insertions hold
+   * the read lock together with the lock stripe of their device, so insertions of devices in
+   * different stripes run concurrently. The write lock is held to create, flush or close the
+   * working TsFileProcessors, and by deletions and merges.
    */
   private final ReadWriteLock insertLock = new ReentrantReadWriteLock();
+  /**
+   * the number of deviceLockStripes, a power of 2.
+   */
+  private static final int DEVICE_LOCK_STRIPE_NUM = 64;
+  /**
+   * the locks serializing the insertions of a device under the read lock of insertLock. A device
+   * is mapped to a stripe by its hash, so the number of locks does not grow with the devices.
+   */
+  private final Object[] deviceLockStripes = new Object[DEVICE_LOCK_STRIPE_NUM];
   /**
    *
    */
@@ -105,40 +149,78 @@ public class StorageGroupProcessor {
    * the schema of time series that belong this storage group
    */
   private FileSchema fileSchema;
-  // includes sealed and unsealed sequence TsFiles
+  // includes sealed and unsealed sequence TsFiles, ordered by time partition and then by creation
   private List<TsFileResource> sequenceFileList = new ArrayList<>();
-  private TsFileProcessor workSequenceTsFileProcessor = null;
+  // time partition -> the working sequence TsFileProcessor of the partition
+  private TreeMap<Long, TsFileProcessor> workSequenceTsFileProcessors = new TreeMap<>();
   private CopyOnReadLinkedList<TsFileProcessor> closingSequenceTsFileProcessor = new CopyOnReadLinkedList<>();
   // includes sealed and unsealed unSequence TsFiles
   private List<TsFileResource> unSequenceFileList = new ArrayList<>();
-  private TsFileProcessor workUnSequenceTsFileProcessor = null;
+  // time partition -> the working unsequence TsFileProcessor of the partition
+  private TreeMap<Long, TsFileProcessor> workUnSequenceTsFileProcessors = new TreeMap<>();
   private CopyOnReadLinkedList<TsFileProcessor> closingUnSequenceTsFileProcessor = new CopyOnReadLinkedList<>();
   /**
-   * device -> global latest timestamp of each device latestTimeForEachDevice caches non-flushed
-   * changes upon timestamps of each device, and is used to update latestFlushedTimeForEachDevice
-   * when a flush is issued.
+   * device -> global latest timestamp of each device in all partitions, including the non-flushed
+   * data.
+   */
+  private Map<String, Long> latestTimeForEachDevice = new ConcurrentHashMap<>();
+  /**
+   * time partition -> device -> latest timestamp of each device in the partition.
+   * partitionLatestTimeForEachDevice caches non-flushed changes upon timestamps of each device,
+   * and is used to update partitionLatestFlushedTimeForEachDevice when a flush is issued.
    */
-  private Map<String, Long> latestTimeForEachDevice = new HashMap<>();
+  private Map<Long, Map<String, Long>> partitionLatestTimeForEachDevice = new ConcurrentHashMap<>();
   /**
-   * device -> largest timestamp of the latest memtable to be submitted to asyncTryToFlush
-   * latestFlushedTimeForEachDevice determines whether a data point should be put into a sequential
-   * file or an unsequential file. Data of some device with timestamp less than or equals to the
-   * device's latestFlushedTime should go into an unsequential file.
+   * time partition -> device -> largest timestamp of the latest memtable of the partition to be
+   * submitted to asyncTryToFlush. partitionLatestFlushedTimeForEachDevice determines whether a
+   * data point should be put into a sequential file or an unsequential file of its partition. Data
+   * of some device with timestamp less than or equals to the device's latestFlushedTime in the
+   * partition should go into an unsequential file.
    */
-  private Map<String, Long> latestFlushedTimeForEachDevice = new HashMap<>();
+  private Map<Long, Map<String, Long>> partitionLatestFlushedTimeForEachDevice = new ConcurrentHashMap<>();
   private String storageGroupName;
   /**
    * versionController assigns a version for each MemTable and deletion/update such that after they
-   * are persisted, the order of insertions, deletions and updates can be re-determined.
+   * are persisted, the order of insertions, deletions and updates can be re-determined. It is null
+   * if partitioning is enabled, then each time partition has its own controller.
    */
   private VersionController versionController;
+  /**
+   * time partition -> the version controller of the partition, the versions are only compared
+   * within the files of a partition.
+   */
+  private final Map<Long, VersionController> partitionVersionControllers = new HashMap<>();
 
   /**
-   * mergeDeleteLock is to be used in the merge process. Concurrent deletion and merge may result in
-   * losing some deletion in the merged new file, so a lock is necessary. TODO reconsidering this
-   * when implementing the merge process.
+   * whether partitioning is enabled and the time range of a partition, they are fixed when the
+   * processor is created.
+   */
+  private final boolean enablePartition;
+  private final long partitionIntervalInMs;
+
+  /**
+   * the time in the name of the last created TsFile. As the versions of different partitions may
+   * be the same, the time is increased to keep the names (and the WAL nodes) of the TsFiles of the
+   * storage group unique.
+   */
+  private long lastFileTime = Long.MIN_VALUE;
+
+  /**
+   * the time to live (in ms) of the data, when <= 0, the data never expire.
+   */
+  private volatile long dataTTL;
+
+  /**
+   * the last point of each series, updated by insertions under the lock of the device and
+   * invalidated by deletions under the write lock.
+   */
+  private LastPointCache lastPointCache = new LastPointCache();
+
+  /**
+   * mergeDeleteLock is used in the merge process. Concurrent deletion and merge may result in
+   * losing some deletion in the merged new file, so a merge starts and ends under this lock, and a
+   * deletion is written into the modification files under it.
    */
-  @SuppressWarnings("unused") // to be used in merge
   private ReentrantLock mergeDeleteLock = new ReentrantLock();
 
   /**
@@ -147,16 +229,49 @@ public class StorageGroupProcessor {
    */
   private ModificationFile mergingModification;
 
+  /**
+   * the time partition of the current merge, the deletions during the merge are recorded in
+   * mergingModification with the version of the partition.
+   */
+  private long mergingTimePartition;
+
+  /**
+   * whether a merge, a compaction or a TTL check is running, at most one of them runs in a storage
+   * group at the same time.
+   */
+  private AtomicBoolean isMerging = new AtomicBoolean(false);
+
+  /**
+   * the tokens of the running queries, see {@link #beginQuery()}.
+   */
+  private Set<Integer> runningQueryTokens = ConcurrentHashMap.newKeySet();
+  private AtomicInteger queryTokenGenerator = new AtomicInteger();
+
+  /**
+   * the files replaced by merges which are not deleted yet because some queries may still read
+   * them.
+   */
+  private final List<ReplacedFiles> replacedFilesList = new ArrayList<>();
+
+  private File storageGroupSysDir;
+
 
   public StorageGroupProcessor(String systemInfoDir, String storageGroupName)
       throws ProcessorException {
     this.storageGroupName = storageGroupName;
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    this.enablePartition = config.isEnablePartition();
+    this.partitionIntervalInMs = config.getPartitionIntervalInSecond() * 1000;
+    this.dataTTL = MManager.getInstance().getTTL(storageGroupName);
+    for (int i = 0; i < DEVICE_LOCK_STRIPE_NUM; i++) {
+      deviceLockStripes[i] = new Object();
+    }
 
     // construct the file schema
     this.fileSchema = constructFileSchema(storageGroupName);
 
     try {
-      File storageGroupSysDir = new File(systemInfoDir, storageGroupName);
+      storageGroupSysDir = new File(systemInfoDir, storageGroupName);
       if (storageGroupSysDir.mkdirs()) {
         logger.info("Storage Group system Directory {} doesn't exist, create it",
             storageGroupSysDir.getPath());
@@ -165,7 +280,9 @@ public class StorageGroupProcessor {
             storageGroupSysDir.getPath());
       }
 
-      versionController = new SimpleFileVersionController(storageGroupSysDir.getPath());
+      if (!enablePartition) {
+        versionController = new SimpleFileVersionController(storageGroupSysDir.getPath());
+      }
     } catch (IOException e) {
       throw new StorageGroupProcessorException(e);
     }
@@ -176,6 +293,15 @@ public class StorageGroupProcessor {
   private void recover() throws ProcessorException {
     logger.info("recover Storage Group  {}", storageGroupName);
 
+    // finish or roll back the interrupted merges before loading the files they replace
+    try {
+      for (File partitionSysDir : getPartitionSysDirs()) {
+        MergeLogger.recover(partitionSysDir);
+      }
+    } catch (IOException e) {
+      throw new StorageGroupProcessorException(e);
+    }
+
     // collect TsFiles from sequential data directory
     List<File> tsFiles = getAllFiles(DirectoryManager.getInstance().getAllSequenceFileFolders());
     recoverSeqFiles(tsFiles);
@@ -185,53 +311,103 @@ public class StorageGroupProcessor {
     recoverUnseqFiles(tsFiles);
 
     for (TsFileResource resource : sequenceFileList) {
-      latestTimeForEachDevice.putAll(resource.getEndTimeMap());
-      latestFlushedTimeForEachDevice.putAll(resource.getEndTimeMap());
+      long timePartition = getTimePartition(resource);
+      getDeviceTimeMap(partitionLatestTimeForEachDevice, timePartition)
+          .putAll(resource.getEndTimeMap());
+      getDeviceTimeMap(partitionLatestFlushedTimeForEachDevice, timePartition)
+          .putAll(resource.getEndTimeMap());
+      for (Entry<String, Long> endTime : resource.getEndTimeMap().entrySet()) {
+        latestTimeForEachDevice.merge(endTime.getKey(), endTime.getValue(), Math::max);
+      }
     }
   }
 
   private List<File> getAllFiles(List<String> folders) {
     List<File> tsFiles = new ArrayList<>();
     for (String baseDir : folders) {
-      File fileFolder = new File(baseDir, storageGroupName);
-      if (!fileFolder.exists()) {
+      File storageGroupFolder = new File(baseDir, storageGroupName);
+      if (!storageGroupFolder.exists()) {
         continue;
       }
-      Collections
-          .addAll(tsFiles, fileFolder.listFiles(file -> file.getName().endsWith(TSFILE_SUFFIX)));
+      List<File> fileFolders = enablePartition ? listPartitionFolders(storageGroupFolder)
+          : Collections.singletonList(storageGroupFolder);
+      for (File fileFolder : fileFolders) {
+        Collections
+            .addAll(tsFiles, fileFolder.listFiles(file -> file.getName().endsWith(TSFILE_SUFFIX)));
+      }
     }
     return tsFiles;
   }
 
+  /**
+   * @return the sub-folders of a folder of the storage group named by time partitions.
+   */
+  private static List<File> listPartitionFolders(File storageGroupFolder) {
+    File[] partitionFolders = storageGroupFolder
+        .listFiles(file -> file.isDirectory() && file.getName().matches("-?\\d+"));
+    return partitionFolders == null ? Collections.emptyList() : Arrays.asList(partitionFolders);
+  }
+
+  /**
+   * @return the system folders of all time partitions, or the system folder of the storage group
+   * if partitioning is disabled.
+   */
+  private List<File> getPartitionSysDirs() {
+    return enablePartition ? listPartitionFolders(storageGroupSysDir)
+        : Collections.singletonList(storageGroupSysDir);
+  }
+
   private void recoverSeqFiles(List<File> tsFiles) throws ProcessorException {
-    tsFiles.sort(this::compareFileName);
+    tsFiles.sort(this::compareTsFile);
     for (File tsFile : tsFiles) {
       TsFileResource tsFileResource = new TsFileResource(tsFile);
       sequenceFileList.add(tsFileResource);
       TsFileRecoverPerformer recoverPerformer = new TsFileRecoverPerformer(storageGroupName + "-"
-          , fileSchema, versionController, tsFileResource, false);
+          , fileSchema, getRecoverVersionController(tsFile), tsFileResource, false);
       recoverPerformer.recover();
     }
   }
 
   private void recoverUnseqFiles(List<File> tsFiles) throws ProcessorException {
-    tsFiles.sort(this::compareFileName);
+    tsFiles.sort(this::compareTsFile);
     for (File tsFile : tsFiles) {
       TsFileResource tsFileResource = new TsFileResource(tsFile);
       unSequenceFileList.add(tsFileResource);
       TsFileRecoverPerformer recoverPerformer = new TsFileRecoverPerformer(storageGroupName + "-",
           fileSchema,
-          versionController, tsFileResource, true);
+          getRecoverVersionController(tsFile), tsFileResource, true);
       recoverPerformer.recover();
     }
   }
 
+  private VersionController getRecoverVersionController(File tsFile)
+      throws StorageGroupProcessorException {
+    try {
+      return getVersionController(getTimePartition(tsFile));
+    } catch (IOException e) {
+      throw new StorageGroupProcessorException(e);
+    }
+  }
+
+  /**
+   * compare TsFiles by their time partitions and then by their names.
+   */
+  private int compareTsFile(File o1, File o2) {
+    int cmp = Long.compare(getTimePartition(o1), getTimePartition(o2));
+    return cmp != 0 ? cmp : compareFileName(o1, o2);
+  }
+
   // TsFileNameComparator compares TsFiles by the version number in its name
-  // ({systemTime}-{versionNum}.tsfile)
+  // ({systemTime}-{versionNum}.tsfile, or {systemTime}-{versionNum}-{mergeCnt}.tsfile if it is
+  // merged)
   public int compareFileName(File o1, File o2) {
     String[] items1 = o1.getName().replace(TSFILE_SUFFIX, "").split("-");
     String[] items2 = o2.getName().replace(TSFILE_SUFFIX, "").split("-");
     if (Long.valueOf(items1[0]) - Long.valueOf(items2[0]) == 0) {
+      if (Long.valueOf(items1[1]) - Long.valueOf(items2[1]) == 0) {
+        return Long.compare(items1.length > 2 ? Long.valueOf(items1[2]) : 0,
+            items2.length > 2 ? Long.valueOf(items2[2]) : 0);
+      }
       return Long.compare(Long.valueOf(items1[1]), Long.valueOf(items2[1]));
     } else {
       return Long.compare(Long.valueOf(items1[0]), Long.valueOf(items2[0]));
@@ -265,74 +441,318 @@ public class StorageGroupProcessor {
   }
 
   public boolean insert(InsertPlan insertPlan) {
+    String deviceId = insertPlan.getDeviceId();
+    if (insertPlan.getTime() < getTTLLowerBound()) {
+      logger.warn("The insertion of device {} at {} is rejected, which is expired by the TTL {} of "
+          + "storage group {}", deviceId, insertPlan.getTime(), dataTTL, storageGroupName);
+      return false;
+    }
+    long timePartition = getTimePartition(insertPlan.getTime());
+    while (true) {
+      TsFileProcessor tsFileProcessor;
+      boolean sequence;
+      boolean result = false;
+      insertLock.readLock().lock();
+      try {
+        // init map
+        Map<String, Long> latestFlushedTime = initDeviceTimeMaps(deviceId, timePartition);
+
+        // insert to sequence or unSequence file
+        sequence = insertPlan.getTime() > latestFlushedTime.get(deviceId);
+        tsFileProcessor = getWorkTsFileProcessor(timePartition, sequence);
+        if (tsFileProcessor != null) {
+          synchronized (getDeviceLock(deviceId)) {
+            result = insertToTsFileProcessor(tsFileProcessor, insertPlan, timePartition);
+          }
+        }
+      } finally {
+        insertLock.readLock().unlock();
+      }
+
+      if (tsFileProcessor == null) {
+        // the processor is created under the write lock, then decide the file again
+        if (!createWorkTsFileProcessor(timePartition, sequence)) {
+          return false;
+        }
+        continue;
+      }
+      checkMemTableSize(tsFileProcessor, timePartition, sequence);
+      return result;
+    }
+  }
+
+  /**
+   * insert the rows of a tablet. Consecutive rows which go to the same (sequence or unsequence)
+   * TsFile of a time partition are inserted together under one lock acquisition. The rows expired
+   * by the TTL are skipped.
+   *
+   * @return true if and only if all rows are inserted
+   */
+  public boolean insertTablet(InsertTabletPlan insertTabletPlan) {
+    String deviceId = insertTabletPlan.getDeviceId();
+    long[] times = insertTabletPlan.getTimes();
+    int rowCount = insertTabletPlan.getRowCount();
+    long ttlLowerBound = getTTLLowerBound();
+    boolean allInserted = true;
+    int start = 0;
+    while (start < rowCount) {
+      if (times[start] < ttlLowerBound) {
+        logger.warn("The insertion of device {} at {} is rejected, which is expired by the TTL {} "
+            + "of storage group {}", deviceId, times[start], dataTTL, storageGroupName);
+        allInserted = false;
+        start++;
+        continue;
+      }
+      long timePartition = getTimePartition(times[start]);
+      TsFileProcessor tsFileProcessor;
+      boolean sequence;
+      int end;
+      boolean result = false;
+      insertLock.readLock().lock();
+      try {
+        // init map, a flush caused by the last part may advance the flushed time
+        long latestFlushedTime = initDeviceTimeMaps(deviceId, timePartition).get(deviceId);
+        sequence = times[start] > latestFlushedTime;
+        long maxTime = times[start];
+        end = start + 1;
+        while (end < rowCount && times[end] >= ttlLowerBound
+            && getTimePartition(times[end]) == timePartition
+            && (times[end] > latestFlushedTime) == sequence) {
+          maxTime = Math.max(maxTime, times[end]);
+          end++;
+        }
+        tsFileProcessor = getWorkTsFileProcessor(timePartition, sequence);
+        if (tsFileProcessor != null) {
+          synchronized (getDeviceLock(deviceId)) {
+            result = insertTabletToTsFileProcessor(tsFileProcessor, insertTabletPlan, start, end,
+                maxTime, timePartition);
+          }
+        }
+      } finally {
+        insertLock.readLock().unlock();
+      }
+
+      if (tsFileProcessor == null) {
+        if (!createWorkTsFileProcessor(timePartition, sequence)) {
+          return false;
+        }
+        continue;
+      }
+      checkMemTableSize(tsFileProcessor, timePartition, sequence);
+      if (!result) {
+        return false;
+      }
+      start = end;
+    }
+    return allInserted;
+  }
+
+  private Object getDeviceLock(String deviceId) {
+    return deviceLockStripes[deviceId.hashCode() & (DEVICE_LOCK_STRIPE_NUM - 1)];
+  }
+
+  /**
+   * init the latest (flushed) times of a device in a time partition, called with the read lock of
+   * insertLock.
+   *
+   * @return the latest flushed times of the devices in the partition.
+   */
+  private Map<String, Long> initDeviceTimeMaps(String deviceId, long timePartition) {
+    latestTimeForEachDevice.putIfAbsent(deviceId, Long.MIN_VALUE);
+    getDeviceTimeMap(partitionLatestTimeForEachDevice, timePartition)
+        .putIfAbsent(deviceId, Long.MIN_VALUE);
+    Map<String, Long> latestFlushedTime = getDeviceTimeMap(
+        partitionLatestFlushedTimeForEachDevice, timePartition);
+    latestFlushedTime.putIfAbsent(deviceId, Long.MIN_VALUE);
+    return latestFlushedTime;
+  }
+
+  private static Map<String, Long> getDeviceTimeMap(Map<Long, Map<String, Long>> partitionMap,
+      long timePartition) {
+    return partitionMap.computeIfAbsent(timePartition, k -> new ConcurrentHashMap<>());
+  }
+
+  /**
+   * try to update the latest time of a device in its time partition and in all partitions, called
+   * with the read lock of insertLock and the lock of the device.
+   */
+  private void updateLatestTime(String deviceId, long timePartition, long time) {
+    Map<String, Long> partitionLatestTime = partitionLatestTimeForEachDevice.get(timePartition);
+    if (partitionLatestTime.get(deviceId) < time) {
+      partitionLatestTime.put(deviceId, time);
+    }
+    if (latestTimeForEachDevice.get(deviceId) < time) {
+      latestTimeForEachDevice.put(deviceId, time);
+    }
+  }
+
+  /**
+   * called with the read lock of insertLock and the lock of the device.
+   */
+  private boolean insertToTsFileProcessor(TsFileProcessor tsFileProcessor,
+      InsertPlan insertPlan, long timePartition) {
+    // insert TsFileProcessor
+    boolean result = tsFileProcessor.insert(insertPlan);
+
+    if (result && IoTDBDescriptor.getInstance().getConfig().isEnableLastPointCache()) {
+      boolean isNewest =
+          insertPlan.getTime() >= latestTimeForEachDevice.get(insertPlan.getDeviceId());
+      for (int i = 0; i < insertPlan.getMeasurements().length; i++) {
+        lastPointCache.update(insertPlan.getDeviceId(), insertPlan.getMeasurements()[i],
+            insertPlan.getDataTypes()[i], insertPlan.getTime(), insertPlan.getValues()[i],
+            isNewest);
+      }
+    }
+
+    // try to update the latest time of the device of this tsRecord
+    if (result) {
+      updateLatestTime(insertPlan.getDeviceId(), timePartition, insertPlan.getTime());
+    }
+    return result;
+  }
+
+  /**
+   * called with the read lock of insertLock and the lock of the device.
+   */
+  private boolean insertTabletToTsFileProcessor(TsFileProcessor tsFileProcessor,
+      InsertTabletPlan insertTabletPlan, int start, int end, long maxTime, long timePartition) {
+    boolean result = tsFileProcessor.insertTablet(insertTabletPlan, start, end);
+
+    // try to update the latest time of the device of this tablet
+    String deviceId = insertTabletPlan.getDeviceId();
+    if (result && IoTDBDescriptor.getInstance().getConfig().isEnableLastPointCache()) {
+      // the last row of the maximum time is the last point of each measurement
+      long[] times = insertTabletPlan.getTimes();
+      int lastRow = start;
+      for (int row = start + 1; row < end; row++) {
+        if (times[row] >= times[lastRow]) {
+          lastRow = row;
+        }
+      }
+      boolean isNewest = maxTime >= latestTimeForEachDevice.get(deviceId);
+      for (int i = 0; i < insertTabletPlan.getMeasurements().length; i++) {
+        lastPointCache.update(deviceId, insertTabletPlan.getMeasurements()[i], maxTime,
+            TsPrimitiveType.getByType(insertTabletPlan.getDataTypes()[i],
+                insertTabletPlan.getValue(i, lastRow)), isNewest);
+      }
+    }
+    if (result) {
+      updateLatestTime(deviceId, timePartition, maxTime);
+    }
+    return result;
+  }
+
+  private TsFileProcessor getWorkTsFileProcessor(long timePartition, boolean sequence) {
+    return (sequence ? workSequenceTsFileProcessors : workUnSequenceTsFileProcessors)
+        .get(timePartition);
+  }
+
+  /**
+   * create the working TsFileProcessor of a time partition under the write lock if it does not
+   * exist.
+   *
+   * @return false if it cannot be created
+   */
+  private boolean createWorkTsFileProcessor(long timePartition, boolean sequence) {
     writeLock();
     try {
-      // init map
-      latestTimeForEachDevice.putIfAbsent(insertPlan.getDeviceId(), Long.MIN_VALUE);
-      latestFlushedTimeForEachDevice.putIfAbsent(insertPlan.getDeviceId(), Long.MIN_VALUE);
-
-      // insert to sequence or unSequence file
-      return insertToTsFileProcessor(insertPlan,
-          insertPlan.getTime() > latestFlushedTimeForEachDevice.get(insertPlan.getDeviceId()));
+      return getOrCreateTsFileProcessor(timePartition, sequence) != null;
     } catch (IOException e) {
-      logger.error("insert tsRecord to unsealed data file failed, because {}", e.getMessage(), e);
+      logger.error("create TsFile processor failed, because {}", e.getMessage(), e);
       return false;
     } finally {
       writeUnlock();
     }
   }
 
-  private boolean insertToTsFileProcessor(InsertPlan insertPlan, boolean sequence)
+  /**
+   * @return the working TsFileProcessor of a time partition, or null if it cannot be created
+   */
+  private TsFileProcessor getOrCreateTsFileProcessor(long timePartition, boolean sequence)
       throws IOException {
-    TsFileProcessor tsFileProcessor;
-    boolean result;
-
+    TreeMap<Long, TsFileProcessor> workProcessors =
+        sequence ? workSequenceTsFileProcessors : workUnSequenceTsFileProcessors;
+    TsFileProcessor tsFileProcessor = workProcessors.get(timePartition);
+    if (tsFileProcessor != null) {
+      return tsFileProcessor;
+    }
     try {
-      if (sequence) {
-        if (workSequenceTsFileProcessor == null) {
-          // create a new TsfileProcessor
-          workSequenceTsFileProcessor = createTsFileProcessor(true);
-          sequenceFileList.add(workSequenceTsFileProcessor.getTsFileResource());
-        }
-        tsFileProcessor = workSequenceTsFileProcessor;
-      } else {
-        if (workUnSequenceTsFileProcessor == null) {
-          // create a new TsfileProcessor
-          workUnSequenceTsFileProcessor = createTsFileProcessor(false);
-          unSequenceFileList.add(workUnSequenceTsFileProcessor.getTsFileResource());
-        }
-        tsFileProcessor = workUnSequenceTsFileProcessor;
-      }
+      closeOldestWorkingPartition(timePartition);
+      // create a new TsfileProcessor
+      tsFileProcessor = createTsFileProcessor(timePartition, sequence);
     } catch (DiskSpaceInsufficientException e) {
       logger.error("disk space is insufficient when creating TsFile processor, change system mode to read-only", e);
       IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
-      return false;
+      return null;
     }
+    workProcessors.put(timePartition, tsFileProcessor);
+    if (sequence) {
+      // keep the sequence files ordered by time partition
+      int index = sequenceFileList.size();
+      while (index > 0 && getTimePartition(sequenceFileList.get(index - 1)) > timePartition) {
+        index--;
+      }
+      sequenceFileList.add(index, tsFileProcessor.getTsFileResource());
+    } else {
+      unSequenceFileList.add(tsFileProcessor.getTsFileResource());
+    }
+    return tsFileProcessor;
+  }
 
-    // insert TsFileProcessor
-    result = tsFileProcessor.insert(insertPlan);
-
-    // try to update the latest time of the device of this tsRecord
-    if (result && latestTimeForEachDevice.get(insertPlan.getDeviceId()) < insertPlan.getTime()) {
-      latestTimeForEachDevice.put(insertPlan.getDeviceId(), insertPlan.getTime());
+  /**
+   * close the working TsFileProcessors of the oldest working time partition if the partition to be
+   * written is not working and the number of working partitions reaches the limit, as each
+   * working processor holds a memtable. Called under the write lock.
+   */
+  private void closeOldestWorkingPartition(long timePartition) {
+    TreeSet<Long> workingPartitions = new TreeSet<>(workSequenceTsFileProcessors.keySet());
+    workingPartitions.addAll(workUnSequenceTsFileProcessors.keySet());
+    if (workingPartitions.contains(timePartition) || workingPartitions.size()
+        < IoTDBDescriptor.getInstance().getConfig().getConcurrentWritingTimePartition()) {
+      return;
+    }
+    long oldestPartition = workingPartitions.first();
+    logger.info("Too many working time partitions in storage group {}, close the TsFiles of "
+        + "partition {}", storageGroupName, oldestPartition);
+    if (workSequenceTsFileProcessors.containsKey(oldestPartition)) {
+      moveOneWorkProcessorToClosingList(oldestPartition, true);
+    }
+    if (workUnSequenceTsFileProcessors.containsKey(oldestPartition)) {
+      moveOneWorkProcessorToClosingList(oldestPartition, false);
     }
+  }
 
-    // check memtable size and may asyncTryToFlush the work memtable
-    if (tsFileProcessor.shouldFlush()) {
+  /**
+   * check memtable size and may asyncTryToFlush the work memtable. The memtable is flushed under
+   * the write lock if the processor is still the working one.
+   */
+  private void checkMemTableSize(TsFileProcessor tsFileProcessor, long timePartition,
+      boolean sequence) {
+    if (!tsFileProcessor.shouldFlush()) {
+      return;
+    }
+    writeLock();
+    try {
+      // another insertion may have flushed or closed it
+      if (getWorkTsFileProcessor(timePartition, sequence) != tsFileProcessor
+          || !tsFileProcessor.shouldFlush()) {
+        return;
+      }
       logger.info("The memtable size {} reaches the threshold, async flush it to tsfile: {}",
           tsFileProcessor.getWorkMemTableMemory(),
           tsFileProcessor.getTsFileResource().getFile().getAbsolutePath());
 
       if (tsFileProcessor.shouldClose()) {
-        moveOneWorkProcessorToClosingList(sequence);
+        moveOneWorkProcessorToClosingList(timePartition, sequence);
       } else {
         tsFileProcessor.asyncFlush();
       }
+    } finally {
+      writeUnlock();
     }
-    return result;
   }
 
-  private TsFileProcessor createTsFileProcessor(boolean sequence)
+  private TsFileProcessor createTsFileProcessor(long timePartition, boolean sequence)
       throws IOException, DiskSpaceInsufficientException {
     String baseDir;
     if (sequence) {
@@ -340,50 +760,126 @@ public class StorageGroupProcessor {
     } else {
       baseDir = DirectoryManager.getInstance().getNextFolderForUnSequenceFile();
     }
-    new File(baseDir, storageGroupName).mkdirs();
+    File fileFolder = getPartitionFolder(baseDir, timePartition);
+    fileFolder.mkdirs();
 
-    String filePath = Paths.get(baseDir, storageGroupName,
-        System.currentTimeMillis() + "-" + versionController.nextVersion()).toString()
+    VersionController partitionVersionController = getVersionController(timePartition);
+    lastFileTime = Math.max(System.currentTimeMillis(), lastFileTime + 1);
+    String filePath = new File(fileFolder,
+        lastFileTime + "-" + partitionVersionController.nextVersion()).getPath()
         + TSFILE_SUFFIX;
 
     if (sequence) {
       return new TsFileProcessor(storageGroupName, new File(filePath),
-          fileSchema, versionController, this::closeUnsealedTsFileProcessor,
-          this::updateLatestFlushTimeCallback, sequence);
+          fileSchema, partitionVersionController, this::closeUnsealedTsFileProcessor,
+          () -> updateLatestFlushTimeCallback(timePartition), sequence);
     } else {
       return new TsFileProcessor(storageGroupName, new File(filePath),
-          fileSchema, versionController, this::closeUnsealedTsFileProcessor,
+          fileSchema, partitionVersionController, this::closeUnsealedTsFileProcessor,
           () -> true, sequence);
     }
   }
 
   /**
-   * only called by insert(), thread-safety should be ensured by caller
+   * called under the write lock.
    */
-  private void moveOneWorkProcessorToClosingList(boolean sequence) {
+  private void moveOneWorkProcessorToClosingList(long timePartition, boolean sequence) {
     //for sequence tsfile, we update the endTimeMap only when the file is prepared to be closed.
     //for unsequence tsfile, we have maintained the endTimeMap when an insertion comes.
     if (sequence) {
-      closingSequenceTsFileProcessor.add(workSequenceTsFileProcessor);
-      updateEndTimeMap(workSequenceTsFileProcessor);
-      workSequenceTsFileProcessor.asyncClose();
-      workSequenceTsFileProcessor = null;
+      TsFileProcessor tsFileProcessor = workSequenceTsFileProcessors.remove(timePartition);
+      closingSequenceTsFileProcessor.add(tsFileProcessor);
+      updateEndTimeMap(tsFileProcessor, timePartition);
+      tsFileProcessor.asyncClose();
     } else {
-      closingUnSequenceTsFileProcessor.add(workUnSequenceTsFileProcessor);
-      workUnSequenceTsFileProcessor.asyncClose();
-      workUnSequenceTsFileProcessor = null;
+      TsFileProcessor tsFileProcessor = workUnSequenceTsFileProcessors.remove(timePartition);
+      closingUnSequenceTsFileProcessor.add(tsFileProcessor);
+      tsFileProcessor.asyncClose();
+    }
+  }
+
+  /**
+   * @return the time partition of a timestamp, 0 if partitioning is disabled.
+   */
+  private long getTimePartition(long time) {
+    return enablePartition ? Math.floorDiv(time, partitionIntervalInMs) : 0;
+  }
+
+  /**
+   * @return the time partition of a TsFile, which is the name of its folder.
+   */
+  private long getTimePartition(File tsFile) {
+    return enablePartition ? Long.parseLong(tsFile.getParentFile().getName()) : 0;
+  }
+
+  private long getTimePartition(TsFileResource tsFileResource) {
+    return getTimePartition(tsFileResource.getFile());
+  }
+
+  /**
+   * @return the folder of the TsFiles of a time partition in a data folder.
+   */
+  private File getPartitionFolder(String baseDir, long timePartition) {
+    File storageGroupFolder = new File(baseDir, storageGroupName);
+    return enablePartition ? new File(storageGroupFolder, Long.toString(timePartition))
+        : storageGroupFolder;
+  }
+
+  /**
+   * @return the system folder of a time partition, where its versions and merge logs are.
+   */
+  private File getPartitionSysDir(long timePartition) {
+    return enablePartition ? new File(storageGroupSysDir, Long.toString(timePartition))
+        : storageGroupSysDir;
+  }
+
+  /**
+   * @return the version controller of a time partition, which is created if it does not exist.
+   */
+  private VersionController getVersionController(long timePartition) throws IOException {
+    if (!enablePartition) {
+      return versionController;
+    }
+    synchronized (partitionVersionControllers) {
+      VersionController controller = partitionVersionControllers.get(timePartition);
+      if (controller == null) {
+        File partitionSysDir = getPartitionSysDir(timePartition);
+        partitionSysDir.mkdirs();
+        controller = new SimpleFileVersionController(partitionSysDir.getPath());
+        partitionVersionControllers.put(timePartition, controller);
+      }
+      return controller;
     }
   }
 
+  /**
+   * @return the timestamp before which the data are expired, Long.MIN_VALUE if they never expire.
+   */
+  private long getTTLLowerBound() {
+    long ttl = dataTTL;
+    return ttl > 0 ? System.currentTimeMillis() - ttl : Long.MIN_VALUE;
+  }
+
+  /**
+   * remove the cached chunks and metadata of a deleted file.
+   */
+  private void removeCachedData(String filePath) {
+    ChunkCache.getInstance().remove(filePath);
+    TsFileMetaDataCache.getInstance().remove(filePath);
+    DeviceMetaDataCache.getInstance().remove(filePath);
+  }
+
   public void syncDeleteDataFiles() {
     waitForAllCurrentTsFileProcessorsClosed();
     writeLock();
     try {
       for (TsFileResource tsFileResource : unSequenceFileList) {
         tsFileResource.close();
+        removeCachedData(tsFileResource.getFile().getPath());
       }
       for (TsFileResource tsFileResource : sequenceFileList) {
         tsFileResource.close();
+        removeCachedData(tsFileResource.getFile().getPath());
       }
       List<String> folder = DirectoryManager.getInstance().getAllSequenceFileFolders();
       folder.addAll(DirectoryManager.getInstance().getAllUnSequenceFileFolders());
@@ -397,12 +893,14 @@ public class StorageGroupProcessor {
           }
         }
       }
-      this.workSequenceTsFileProcessor = null;
-      this.workUnSequenceTsFileProcessor = null;
+      this.workSequenceTsFileProcessors.clear();
+      this.workUnSequenceTsFileProcessors.clear();
       this.sequenceFileList.clear();
       this.unSequenceFileList.clear();
-      this.latestFlushedTimeForEachDevice.clear();
+      this.partitionLatestFlushedTimeForEachDevice.clear();
+      this.partitionLatestTimeForEachDevice.clear();
       this.latestTimeForEachDevice.clear();
+      this.lastPointCache.clear();
     } catch (IOException e) {
       logger.error("Cannot delete files in storage group {}, because", storageGroupName, e);
     } finally {
@@ -433,11 +931,11 @@ public class StorageGroupProcessor {
     writeLock();
     try {
       logger.info("async force close all files in storage group: {}", storageGroupName);
-      if (workSequenceTsFileProcessor != null) {
-        moveOneWorkProcessorToClosingList(true);
+      for (long timePartition : new ArrayList<>(workSequenceTsFileProcessors.keySet())) {
+        moveOneWorkProcessorToClosingList(timePartition, true);
       }
-      if (workUnSequenceTsFileProcessor != null) {
-        moveOneWorkProcessorToClosingList(false);
+      for (long timePartition : new ArrayList<>(workUnSequenceTsFileProcessors.keySet())) {
+        moveOneWorkProcessorToClosingList(timePartition, false);
       }
     } finally {
       writeUnlock();
@@ -446,12 +944,23 @@ public class StorageGroupProcessor {
 
   // TODO need a read lock, please consider the concurrency with flush manager threads.
   public QueryDataSource query(String deviceId, String measurementId, QueryContext context) {
+    return query(deviceId, measurementId, context, null);
+  }
+
+  /**
+   * get the files of a series for a query, the files of the time partitions which have no data
+   * satisfying the time filter are skipped.
+   *
+   * @param timeFilter the filter of the query, null if there is no filter
+   */
+  public QueryDataSource query(String deviceId, String measurementId, QueryContext context,
+      Filter timeFilter) {
     insertLock.readLock().lock();
     try {
       List<TsFileResource> seqResources = getFileReSourceListForQuery(sequenceFileList,
-          deviceId, measurementId, context);
+          deviceId, measurementId, context, timeFilter);
       List<TsFileResource> unseqResources = getFileReSourceListForQuery(unSequenceFileList,
-          deviceId, measurementId, context);
+          deviceId, measurementId, context, timeFilter);
       return new QueryDataSource(new Path(deviceId, measurementId), seqResources, unseqResources);
     } finally {
       insertLock.readLock().unlock();
@@ -472,15 +981,15 @@ public class StorageGroupProcessor {
    * @return fill unsealed tsfile resources with memory data and ChunkMetadataList of data in disk
    */
   private List<TsFileResource> getFileReSourceListForQuery(List<TsFileResource> tsFileResources,
-      String deviceId, String measurementId, QueryContext context) {
+      String deviceId, String measurementId, QueryContext context, Filter timeFilter) {
 
     MeasurementSchema mSchema = fileSchema.getMeasurementSchema(measurementId);
     TSDataType dataType = mSchema.getType();
 
     List<TsFileResource> tsfileResourcesForQuery = new ArrayList<>();
     for (TsFileResource tsFileResource : tsFileResources) {
-      // TODO: try filtering files if the query contains time filter
-      if (!tsFileResource.containsDevice(deviceId)) {
+      if (!tsFileResource.containsDevice(deviceId)
+          || !satisfyTimePartition(tsFileResource, timeFilter)) {
         continue;
       }
       if (!tsFileResource.getStartTimeMap().isEmpty()) {
@@ -507,6 +1016,18 @@ public class StorageGroupProcessor {
     return tsfileResourcesForQuery;
   }
 
+  /**
+   * @return false if no timestamp in the time partition of the file satisfies the filter.
+   */
+  private boolean satisfyTimePartition(TsFileResource tsFileResource, Filter timeFilter) {
+    if (!enablePartition || timeFilter == null) {
+      return true;
+    }
+    long timePartition = getTimePartition(tsFileResource);
+    return timeFilter.satisfyStartEndTime(timePartition * partitionIntervalInMs,
+        (timePartition + 1) * partitionIntervalInMs - 1);
+  }
+
 
   /**
    * Delete data whose timestamp <= 'timestamp' and belongs to the timeseries
@@ -519,6 +1040,7 @@ public class StorageGroupProcessor {
   public void delete(String deviceId, String measurementId, long timestamp) throws IOException {
     // TODO: how to avoid partial deletion?
     writeLock();
+    mergeDeleteLock.lock();
 
     // record files which are updated so that we can roll back them in case of exception
     List<ModificationFile> updatedModFiles = new ArrayList<>();
@@ -533,26 +1055,28 @@ public class StorageGroupProcessor {
 
       // write log
       if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
-        if (workSequenceTsFileProcessor != null) {
-          workSequenceTsFileProcessor.getLogNode()
+        for (TsFileProcessor tsFileProcessor : workSequenceTsFileProcessors.values()) {
+          tsFileProcessor.getLogNode()
               .write(new DeletePlan(timestamp, new Path(deviceId, measurementId)));
         }
-        if (workUnSequenceTsFileProcessor != null) {
-          workUnSequenceTsFileProcessor.getLogNode()
+        for (TsFileProcessor tsFileProcessor : workUnSequenceTsFileProcessors.values()) {
+          tsFileProcessor.getLogNode()
               .write(new DeletePlan(timestamp, new Path(deviceId, measurementId)));
         }
       }
 
+      // the deletion of each time partition has a version of the partition
+      Map<Long, Deletion> deletions = new HashMap<>();
       Path fullPath = new Path(deviceId, measurementId);
-      Deletion deletion = new Deletion(fullPath, versionController.nextVersion(), timestamp);
       if (mergingModification != null) {
-        //TODO check me when implementing the merge process.
-        mergingModification.write(deletion);
+        mergingModification.write(
+            getDeletion(deletions, mergingTimePartition, fullPath, timestamp));
         updatedModFiles.add(mergingModification);
       }
 
-      deleteDataInFiles(sequenceFileList, deletion, updatedModFiles);
-      deleteDataInFiles(unSequenceFileList, deletion, updatedModFiles);
+      deleteDataInFiles(sequenceFileList, deletions, fullPath, timestamp, updatedModFiles);
+      deleteDataInFiles(unSequenceFileList, deletions, fullPath, timestamp, updatedModFiles);
+      lastPointCache.invalidate(deviceId, measurementId, timestamp);
 
     } catch (Exception e) {
       // roll back
@@ -561,20 +1085,35 @@ public class StorageGroupProcessor {
       }
       throw new IOException(e);
     } finally {
+      mergeDeleteLock.unlock();
       writeUnlock();
     }
   }
 
 
-  private void deleteDataInFiles(List<TsFileResource> tsFileResourceList, Deletion deletion,
+  private Deletion getDeletion(Map<Long, Deletion> deletions, long timePartition, Path fullPath,
+      long timestamp) throws IOException {
+    Deletion deletion = deletions.get(timePartition);
+    if (deletion == null) {
+      deletion = new Deletion(fullPath, getVersionController(timePartition).nextVersion(),
+          timestamp);
+      deletions.put(timePartition, deletion);
+    }
+    return deletion;
+  }
+
+  private void deleteDataInFiles(List<TsFileResource> tsFileResourceList,
+      Map<Long, Deletion> deletions, Path fullPath, long timestamp,
       List<ModificationFile> updatedModFiles)
       throws IOException {
-    String deviceId = deletion.getDevice();
+    String deviceId = fullPath.getDevice();
     for (TsFileResource tsFileResource : tsFileResourceList) {
       if (!tsFileResource.containsDevice(deviceId) ||
-          deletion.getTimestamp() < tsFileResource.getStartTimeMap().get(deviceId)) {
+          timestamp < tsFileResource.getStartTimeMap().get(deviceId)) {
         continue;
       }
+      Deletion deletion = getDeletion(deletions, getTimePartition(tsFileResource), fullPath,
+          timestamp);
 
       // write deletion into modification file
       tsFileResource.getModFile().write(deletion);
@@ -594,20 +1133,29 @@ public class StorageGroupProcessor {
    * when close an TsFileProcessor, update its EndTimeMap immediately
    *
    * @param tsFileProcessor processor to be closed
+   * @param timePartition the time partition of the processor
    */
-  private void updateEndTimeMap(TsFileProcessor tsFileProcessor) {
+  private void updateEndTimeMap(TsFileProcessor tsFileProcessor, long timePartition) {
     TsFileResource resource = tsFileProcessor.getTsFileResource();
+    Map<String, Long> partitionLatestTime = partitionLatestTimeForEachDevice.get(timePartition);
     for (Entry<String, Long> startTime : resource.getStartTimeMap().entrySet()) {
       String deviceId = startTime.getKey();
-      resource.forceUpdateEndTime(deviceId, latestTimeForEachDevice.get(deviceId));
+      resource.forceUpdateEndTime(deviceId, partitionLatestTime.get(deviceId));
     }
   }
 
 
-  private boolean updateLatestFlushTimeCallback() {
-    // update the largest timestamp in the last flushing memtable
-    for (Entry<String, Long> entry : latestTimeForEachDevice.entrySet()) {
-      latestFlushedTimeForEachDevice.put(entry.getKey(), entry.getValue());
+  private boolean updateLatestFlushTimeCallback(long timePartition) {
+    // update the largest timestamp in the last flushing memtable of the partition
+    Map<String, Long> partitionLatestTime = partitionLatestTimeForEachDevice.get(timePartition);
+    if (partitionLatestTime == null) {
+      // the partition is dropped by the TTL
+      return true;
+    }
+    Map<String, Long> partitionLatestFlushedTime = getDeviceTimeMap(
+        partitionLatestFlushedTimeForEachDevice, timePartition);
+    for (Entry<String, Long> entry : partitionLatestTime.entrySet()) {
+      partitionLatestFlushedTime.put(entry.getKey(), entry.getValue());
     }
     return true;
   }
@@ -637,8 +1185,507 @@ public class StorageGroupProcessor {
   }
 
 
+  /**
+   * begin a query in this storage group. The files replaced by a merge are deleted only after the
+   * queries running at the time of the replacement end, so a query must call this before it gets
+   * the files by {@link #query} and call {@link #endQuery} at last.
+   *
+   * @return a token for the query.
+   */
+  public int beginQuery() {
+    int token = queryTokenGenerator.incrementAndGet();
+    runningQueryTokens.add(token);
+    return token;
+  }
+
+  /**
+   * end a query in this storage group and delete the replaced files no query uses.
+   */
+  public void endQuery(int token) {
+    runningQueryTokens.remove(token);
+    deleteReplacedFiles();
+  }
+
+  /**
+   * merge the unsequence files into the sequence files they overlap in each time partition, the
+   * files are selected under the IO and memory budgets of a merge. The merged files replace the
+   * sequence files and the unsequence files are removed, which are deleted after the queries
+   * reading them end.
+   *
+   * @return whether any file is merged.
+   */
+  public boolean merge() {
+    if (!isMerging.compareAndSet(false, true)) {
+      logger.info("Storage group {} is being merged, skip this merge", storageGroupName);
+      return false;
+    }
+    try {
+      deleteReplacedFiles();
+      boolean merged = false;
+      for (long timePartition : getTimePartitions(unSequenceFileList)) {
+        merged |= merge(timePartition);
+      }
+      return merged;
+    } finally {
+      isMerging.set(false);
+    }
+  }
+
+  private boolean merge(long timePartition) {
+    List<TsFileResource> seqFiles;
+    List<TsFileResource> unseqFiles;
+    insertLock.readLock().lock();
+    try {
+      seqFiles = getFilesOfPartition(sequenceFileList, timePartition);
+      unseqFiles = getFilesOfPartition(unSequenceFileList, timePartition);
+    } finally {
+      insertLock.readLock().unlock();
+    }
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    MergeFileSelector selector = new MergeFileSelector(seqFiles, unseqFiles,
+        config.getMergeIoBudgetInByte(), config.getMergeMemoryBudgetInByte());
+    if (!selector.select()) {
+      return false;
+    }
+    List<TsFileResource> selectedSeqFiles = selector.getSelectedSeqFiles();
+    List<TsFileResource> selectedUnseqFiles = selector.getSelectedUnseqFiles();
+    logger.info("Start merging {} sequence files and {} unsequence files in partition {} of "
+            + "storage group {}", selectedSeqFiles.size(), selectedUnseqFiles.size(),
+        timePartition, storageGroupName);
+
+    long mergeVersion;
+    try {
+      mergeVersion = startMergingModification(timePartition);
+    } catch (IOException e) {
+      logger.error("Cannot start the merge in storage group {}", storageGroupName, e);
+      return false;
+    }
+    MergeTask mergeTask = new MergeTask(seqFiles, selectedSeqFiles, selectedUnseqFiles,
+        fileSchema, mergeVersion, config.getRollupIntervals(storageGroupName));
+    MergeLogger mergeLogger = null;
+    try {
+      mergeLogger = new MergeLogger(getPartitionSysDir(timePartition), mergeVersion);
+      List<File> mergedFiles = new ArrayList<>();
+      for (TsFileResource seqFile : selectedSeqFiles) {
+        mergedFiles.add(MergeTask.getMergedFile(seqFile.getFile()));
+      }
+      mergeLogger.logFiles(selectedSeqFiles, mergedFiles, selectedUnseqFiles);
+      List<TsFileResource> mergedResources = mergeTask.merge();
+      if (replaceMergedFiles(selectedSeqFiles, selectedUnseqFiles, mergedResources,
+          mergeLogger)) {
+        deleteReplacedFiles();
+        return true;
+      }
+      logger.warn("The files of storage group {} are changed during the merge, abort it",
+          storageGroupName);
+    } catch (IOException | RuntimeException e) {
+      logger.error("Merge failed in storage group {}", storageGroupName, e);
+    }
+    abortMerge(mergeTask::abort, mergeLogger);
+    return false;
+  }
+
+  /**
+   * @return the time partitions of the files in ascending order.
+   */
+  private TreeSet<Long> getTimePartitions(List<TsFileResource> tsFileResources) {
+    TreeSet<Long> timePartitions = new TreeSet<>();
+    insertLock.readLock().lock();
+    try {
+      for (TsFileResource tsFileResource : tsFileResources) {
+        timePartitions.add(getTimePartition(tsFileResource));
+      }
+    } finally {
+      insertLock.readLock().unlock();
+    }
+    return timePartitions;
+  }
+
+  /**
+   * called with the read lock of insertLock.
+   */
+  private List<TsFileResource> getFilesOfPartition(List<TsFileResource> tsFileResources,
+      long timePartition) {
+    List<TsFileResource> partitionFiles = new ArrayList<>();
+    for (TsFileResource tsFileResource : tsFileResources) {
+      if (getTimePartition(tsFileResource) == timePartition) {
+        partitionFiles.add(tsFileResource);
+      }
+    }
+    return partitionFiles;
+  }
+
+  /**
+   * compact the adjacent small sequence files into larger ones until no files can be compacted,
+   * the compacted files are deleted after the queries reading them end.
+   *
+   * @return whether any file is compacted.
+   */
+  public boolean compact() {
+    if (!isMerging.compareAndSet(false, true)) {
+      logger.info("Storage group {} is being merged, skip this compaction", storageGroupName);
+      return false;
+    }
+    try {
+      boolean compacted = false;
+      while (compactOnce()) {
+        compacted = true;
+      }
+      return compacted;
+    } finally {
+      isMerging.set(false);
+    }
+  }
+
+  private boolean compactOnce() {
+    deleteReplacedFiles();
+    for (long timePartition : getTimePartitions(sequenceFileList)) {
+      if (compactOnce(timePartition)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean compactOnce(long timePartition) {
+    List<TsFileResource> seqFiles;
+    insertLock.readLock().lock();
+    try {
+      seqFiles = getFilesOfPartition(sequenceFileList, timePartition);
+    } finally {
+      insertLock.readLock().unlock();
+    }
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    CompactionFileSelector selector = new CompactionFileSelector(seqFiles,
+        config.getSeqFileCompactionFileNum(), config.getSeqFileCompactionMaxLevel(),
+        config.getTsFileSizeThreshold());
+    if (!selector.select()) {
+      return false;
+    }
+    List<TsFileResource> selectedFiles = selector.getSelectedFiles();
+    logger.info("Start compacting {} sequence files in partition {} of storage group {}",
+        selectedFiles.size(), timePartition, storageGroupName);
+
+    long compactionVersion;
+    try {
+      compactionVersion = startMergingModification(timePartition);
+    } catch (IOException e) {
+      logger.error("Cannot start the compaction in storage group {}", storageGroupName, e);
+      return false;
+    }
+    CompactionTask compactionTask = new CompactionTask(selectedFiles, fileSchema,
+        compactionVersion, config.getRollupIntervals(storageGroupName),
+        config.getCompactionThroughputInMbPerSec() * 1024L * 1024L);
+    MergeLogger mergeLogger = null;
+    try {
+      // a compaction is logged as a merge whose sequence files are all merged into one file
+      mergeLogger = new MergeLogger(getPartitionSysDir(timePartition), compactionVersion);
+      mergeLogger.logFiles(selectedFiles,
+          Collections.nCopies(selectedFiles.size(), compactionTask.getTargetFile()),
+          Collections.emptyList());
+      TsFileResource compactedFile = compactionTask.compact();
+      if (replaceMergedFiles(selectedFiles, Collections.emptyList(),
+          Collections.singletonList(compactedFile), mergeLogger)) {
+        deleteReplacedFiles();
+        return true;
+      }
+      logger.warn("The files of storage group {} are changed during the compaction, abort it",
+          storageGroupName);
+    } catch (IOException | RuntimeException e) {
+      logger.error("Compaction failed in storage group {}", storageGroupName, e);
+    }
+    abortMerge(compactionTask::abort, mergeLogger);
+    return false;
+  }
+
+  /**
+   * the deletions before this are applied to the files written by a merge or a compaction, and the
+   * ones after this are recorded in mergingModification.
+   *
+   * @param timePartition the time partition of the merged files
+   * @return the version of the chunk groups in the written files.
+   */
+  private long startMergingModification(long timePartition) throws IOException {
+    mergeDeleteLock.lock();
+    try {
+      long mergeVersion = getVersionController(timePartition).nextVersion();
+      mergingModification = new ModificationFile(MergeLogger
+          .getMergingModificationFile(getPartitionSysDir(timePartition), mergeVersion).getPath());
+      mergingTimePartition = timePartition;
+      return mergeVersion;
+    } finally {
+      mergeDeleteLock.unlock();
+    }
+  }
+
+  /**
+   * replace the merged sequence files with the new files and remove the merged unsequence files,
+   * the deletions during the merge are written into the new files in the meantime. The i-th merged
+   * sequence file is replaced by the i-th new file, and the ones without a new file are removed,
+   * e.g., a run of compacted files is replaced by the compacted file.
+   *
+   * @return false if some merged file is removed during the merge, e.g., the storage group is
+   * deleted.
+   */
+  private boolean replaceMergedFiles(List<TsFileResource> seqFiles,
+      List<TsFileResource> unseqFiles, List<TsFileResource> mergedFiles, MergeLogger mergeLogger)
+      throws IOException {
+    writeLock();
+    closeQueryLock.writeLock().lock();
+    mergeDeleteLock.lock();
+    try {
+      if (!sequenceFileList.containsAll(seqFiles) || !unSequenceFileList.containsAll(unseqFiles)) {
+        return false;
+      }
+      for (Modification modification : mergingModification.getModifications()) {
+        for (TsFileResource mergedFile : mergedFiles) {
+          if (mergedFile.containsDevice(modification.getDevice())) {
+            mergedFile.getModFile().write(modification);
+          }
+        }
+      }
+      mergeLogger.logEnd();
+
+      for (int i = 0; i < seqFiles.size(); i++) {
+        if (i < mergedFiles.size()) {
+          sequenceFileList.set(sequenceFileList.indexOf(seqFiles.get(i)), mergedFiles.get(i));
+        } else {
+          sequenceFileList.remove(seqFiles.get(i));
+        }
+      }
+      unSequenceFileList.removeAll(unseqFiles);
+      List<TsFileResource> replacedFiles = new ArrayList<>(seqFiles);
+      replacedFiles.addAll(unseqFiles);
+      synchronized (replacedFilesList) {
+        replacedFilesList.add(new ReplacedFiles(replacedFiles, new HashSet<>(runningQueryTokens),
+            mergeLogger));
+      }
+      removeMergingModification();
+      return true;
+    } finally {
+      mergeDeleteLock.unlock();
+      closeQueryLock.writeLock().unlock();
+      writeUnlock();
+    }
+  }
+
+  private void abortMerge(Runnable abortTask, MergeLogger mergeLogger) {
+    abortTask.run();
+    try {
+      if (mergeLogger != null) {
+        mergeLogger.delete();
+      }
+    } catch (IOException e) {
+      logger.error("Cannot delete the merge log of storage group {}", storageGroupName, e);
+    }
+    mergeDeleteLock.lock();
+    try {
+      removeMergingModification();
+    } catch (IOException e) {
+      logger.error("Cannot delete the merging modification file of storage group {}",
+          storageGroupName, e);
+    } finally {
+      mergeDeleteLock.unlock();
+    }
+  }
+
+  private void removeMergingModification() throws IOException {
+    mergingModification.close();
+    Files.deleteIfExists(Paths.get(mergingModification.getFilePath()));
+    mergingModification = null;
+  }
+
+  /**
+   * delete the files replaced by merges or expired by the TTL which are no longer read by any
+   * query, i.e., the queries running at the time of the replacement have ended and no reader of the
+   * files is referenced.
+   */
+  private void deleteReplacedFiles() {
+    synchronized (replacedFilesList) {
+      Iterator<ReplacedFiles> iterator = replacedFilesList.iterator();
+      while (iterator.hasNext()) {
+        ReplacedFiles replacedFiles = iterator.next();
+        replacedFiles.queryTokens.retainAll(runningQueryTokens);
+        if (!replacedFiles.queryTokens.isEmpty() || replacedFiles.isUsed()) {
+          continue;
+        }
+        try {
+          for (TsFileResource resource : replacedFiles.files) {
+            FileReaderManager.getInstance().closeFileAndRemoveReader(resource.getFile().getPath());
+            resource.remove();
+          }
+          if (replacedFiles.mergeLogger != null) {
+            replacedFiles.mergeLogger.delete();
+          }
+          iterator.remove();
+        } catch (IOException e) {
+          logger.error("Cannot delete the merged files of storage group {}", storageGroupName, e);
+        }
+      }
+    }
+  }
+
+  public LastPointCache getLastPointCache() {
+    return lastPointCache;
+  }
+
+  /**
+   * @return the working sequence TsFileProcessor of the latest time partition.
+   */
   public TsFileProcessor getWorkSequenceTsFileProcessor() {
-    return workSequenceTsFileProcessor;
+    Entry<Long, TsFileProcessor> lastEntry = workSequenceTsFileProcessors.lastEntry();
+    return lastEntry == null ? null : lastEntry.getValue();
+  }
+
+  public long getDataTTL() {
+    return dataTTL;
+  }
+
+  /**
+   * set the time to live (in ms) of the data and remove the expired data.
+   *
+   * @param dataTTL when <= 0, the data never expire
+   */
+  public void setDataTTL(long dataTTL) {
+    this.dataTTL = dataTTL;
+    checkTTL();
+  }
+
+  /**
+   * remove the data expired by the TTL. The time partitions whose time ranges are expired are
+   * dropped as a whole, including their working TsFiles, which are closed and dropped in the next
+   * check, and their folders. In the other partitions, the closed TsFiles whose data are all
+   * expired are removed. The removed files are deleted after the queries reading them end.
+   */
+  public void checkTTL() {
+    long ttlLowerBound = getTTLLowerBound();
+    if (ttlLowerBound == Long.MIN_VALUE) {
+      return;
+    }
+    if (!isMerging.compareAndSet(false, true)) {
+      logger.info("Storage group {} is being merged, skip this TTL check", storageGroupName);
+      return;
+    }
+    try {
+      writeLock();
+      closeQueryLock.writeLock().lock();
+      try {
+        for (long timePartition : new ArrayList<>(workSequenceTsFileProcessors.keySet())) {
+          if (isPartitionExpired(timePartition, ttlLowerBound)) {
+            moveOneWorkProcessorToClosingList(timePartition, true);
+          }
+        }
+        for (long timePartition : new ArrayList<>(workUnSequenceTsFileProcessors.keySet())) {
+          if (isPartitionExpired(timePartition, ttlLowerBound)) {
+            moveOneWorkProcessorToClosingList(timePartition, false);
+          }
+        }
+        partitionLatestTimeForEachDevice.keySet()
+            .removeIf(timePartition -> isPartitionExpired(timePartition, ttlLowerBound));
+        partitionLatestFlushedTimeForEachDevice.keySet()
+            .removeIf(timePartition -> isPartitionExpired(timePartition, ttlLowerBound));
+
+        List<TsFileResource> expiredFiles = new ArrayList<>();
+        collectExpiredFiles(sequenceFileList, ttlLowerBound, expiredFiles);
+        collectExpiredFiles(unSequenceFileList, ttlLowerBound, expiredFiles);
+        if (!expiredFiles.isEmpty()) {
+          logger.info("{} TsFiles of storage group {} are expired by the TTL {}",
+              expiredFiles.size(), storageGroupName, dataTTL);
+          sequenceFileList.removeAll(expiredFiles);
+          unSequenceFileList.removeAll(expiredFiles);
+          synchronized (replacedFilesList) {
+            replacedFilesList.add(new ReplacedFiles(expiredFiles,
+                new HashSet<>(runningQueryTokens), null));
+          }
+        }
+      } finally {
+        closeQueryLock.writeLock().unlock();
+        writeUnlock();
+      }
+      deleteReplacedFiles();
+      deleteExpiredPartitionFolders(ttlLowerBound);
+    } finally {
+      isMerging.set(false);
+    }
+  }
+
+  private boolean isPartitionExpired(long timePartition, long ttlLowerBound) {
+    return enablePartition && (timePartition + 1) * partitionIntervalInMs <= ttlLowerBound;
+  }
+
+  /**
+   * called under the write lock.
+   */
+  private void collectExpiredFiles(List<TsFileResource> tsFileResources, long ttlLowerBound,
+      List<TsFileResource> expiredFiles) {
+    for (TsFileResource tsFileResource : tsFileResources) {
+      if (!tsFileResource.isClosed()) {
+        continue;
+      }
+      boolean expired = isPartitionExpired(getTimePartition(tsFileResource), ttlLowerBound)
+          || tsFileResource.getEndTimeMap().values().stream()
+          .allMatch(endTime -> endTime < ttlLowerBound);
+      if (expired) {
+        expiredFiles.add(tsFileResource);
+      }
+    }
+  }
+
+  /**
+   * delete the folders of the expired time partitions whose files are all deleted.
+   */
+  private void deleteExpiredPartitionFolders(long ttlLowerBound) {
+    if (!enablePartition) {
+      return;
+    }
+    List<String> folders = new ArrayList<>(
+        DirectoryManager.getInstance().getAllSequenceFileFolders());
+    folders.addAll(DirectoryManager.getInstance().getAllUnSequenceFileFolders());
+    writeLock();
+    try {
+      for (String baseDir : folders) {
+        for (File partitionFolder : listPartitionFolders(new File(baseDir, storageGroupName))) {
+          String[] remainingFiles = partitionFolder.list();
+          if (isPartitionExpired(Long.parseLong(partitionFolder.getName()), ttlLowerBound)
+              && remainingFiles != null && remainingFiles.length == 0) {
+            Files.deleteIfExists(partitionFolder.toPath());
+            logger.info("The expired partition folder {} is dropped", partitionFolder);
+          }
+        }
+      }
+    } catch (IOException e) {
+      logger.error("Cannot delete the expired partition folders of storage group {}",
+          storageGroupName, e);
+    } finally {
+      writeUnlock();
+    }
+  }
+
+  /**
+   * the files replaced by a merge or expired by the TTL and the queries that may read them.
+   */
+  private static class ReplacedFiles {
+
+    private List<TsFileResource> files;
+    private Set<Integer> queryTokens;
+    // null if the files are expired by the TTL
+    private MergeLogger mergeLogger;
+
+    private ReplacedFiles(List<TsFileResource> files, Set<Integer> queryTokens,
+        MergeLogger mergeLogger) {
+      this.files = files;
+      this.queryTokens = queryTokens;
+      this.mergeLogger = mergeLogger;
+    }
+
+    private boolean isUsed() {
+      for (TsFileResource file : files) {
+        if (FileReaderManager.getInstance().hasReference(file.getFile().getPath())) {
+          return true;
+        }
+      }
+      return false;
+    }
   }
 
   @FunctionalInterface
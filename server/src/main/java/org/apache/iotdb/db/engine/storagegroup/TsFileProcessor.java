@@ -35,6 +35,7 @@ import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.MemSeriesLazyMerger;
 import org.apache.iotdb.db.engine.memtable.MemTableFlushTask;
+import org.apache.iotdb.db.engine.rollup.TsFileRollup;
 import org.apache.iotdb.db.engine.memtable.NotifyFlushMemTable;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
@@ -45,6 +46,7 @@ import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.TsFileProcessorException;
 import org.apache.iotdb.db.qp.constant.DatetimeUtils;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.rescon.MemTablePool;
 import org.apache.iotdb.db.utils.QueryUtils;
@@ -83,7 +85,14 @@ public class TsFileProcessor {
    */
   private volatile boolean shouldClose;
 
-  private IMemTable workMemTable;
+  /**
+   * the working memtable, allocated by the first insertion after a flush. Insertions of different
+   * devices use it concurrently, and it is only replaced under the write lock of the
+   * StorageGroupProcessor.
+   */
+  private volatile IMemTable workMemTable;
+
+  private final Object workMemTableLock = new Object();
 
   /**
    * sync this object in query() and asyncTryToFlush()
@@ -103,12 +112,17 @@ public class TsFileProcessor {
    */
   private Supplier updateLatestFlushTimeCallback;
 
-  private WriteLogNode logNode;
+  private volatile WriteLogNode logNode;
 
   private boolean sequence;
 
   private long totalMemTableSize;
 
+  /**
+   * the rollups of a sequence TsFile, null if its storage group defines no rollup.
+   */
+  private TsFileRollup rollup;
+
   TsFileProcessor(String storageGroupName, File tsfile, FileSchema fileSchema,
       VersionController versionController,
       CloseTsFileCallBack closeTsFileCallback,
@@ -122,6 +136,11 @@ public class TsFileProcessor {
     this.closeTsFileCallback = closeTsFileCallback;
     this.updateLatestFlushTimeCallback = updateLatestFlushTimeCallback;
     this.sequence = sequence;
+    long[] rollupIntervals = IoTDBDescriptor.getInstance().getConfig()
+        .getRollupIntervals(storageGroupName);
+    if (sequence && rollupIntervals.length > 0) {
+      this.rollup = new TsFileRollup(rollupIntervals);
+    }
     logger.info("create a new tsfile processor {}", tsfile.getAbsolutePath());
   }
 
@@ -133,14 +152,10 @@ public class TsFileProcessor {
    */
   public boolean insert(InsertPlan insertPlan) {
 
-    if (workMemTable == null) {
-      // TODO change the impl of getAvailableMemTable to non-blocking
-      workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
-
-      // no empty memtable, return failure
-      if (workMemTable == null) {
-        return false;
-      }
+    IMemTable memTable = getOrCreateWorkMemTable();
+    // no empty memtable, return failure
+    if (memTable == null) {
+      return false;
     }
 
     if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
@@ -160,11 +175,84 @@ public class TsFileProcessor {
     }
 
     // insert insertPlan to the work memtable
-    workMemTable.insert(insertPlan);
+    memTable.insert(insertPlan);
+
+    return true;
+  }
+
+  /**
+   * insert the rows in [start, end) of an InsertTabletPlan into the workingMemtable, the rows are
+   * logged as one WAL entry if they fit in the WAL buffer.
+   *
+   * @return succeed or fail
+   */
+  public boolean insertTablet(InsertTabletPlan insertTabletPlan, int start, int end) {
+
+    IMemTable memTable = getOrCreateWorkMemTable();
+    // no empty memtable, return failure
+    if (memTable == null) {
+      return false;
+    }
+
+    if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
+      try {
+        writeTabletLog(insertTabletPlan, start, end);
+      } catch (IOException e) {
+        logger.error("write WAL failed", e);
+        return false;
+      }
+    }
+
+    long[] times = insertTabletPlan.getTimes();
+    long minTime = Long.MAX_VALUE;
+    long maxTime = Long.MIN_VALUE;
+    for (int i = start; i < end; i++) {
+      minTime = Math.min(minTime, times[i]);
+      maxTime = Math.max(maxTime, times[i]);
+    }
+    // update start time of this memtable
+    tsFileResource.updateStartTime(insertTabletPlan.getDeviceId(), minTime);
+    //for unsequence tsfile, we have to update the endTime for each insertion.
+    if (!sequence) {
+      tsFileResource.updateEndTime(insertTabletPlan.getDeviceId(), maxTime);
+    }
+
+    memTable.insertTablet(insertTabletPlan, start, end);
 
     return true;
   }
 
+  private IMemTable getOrCreateWorkMemTable() {
+    IMemTable memTable = workMemTable;
+    if (memTable == null) {
+      synchronized (workMemTableLock) {
+        memTable = workMemTable;
+        if (memTable == null) {
+          // TODO change the impl of getAvailableMemTable to non-blocking
+          memTable = MemTablePool.getInstance().getAvailableMemTable(this);
+          workMemTable = memTable;
+        }
+      }
+    }
+    return memTable;
+  }
+
+  /**
+   * split the rows until each part fits in the WAL buffer.
+   */
+  private void writeTabletLog(InsertTabletPlan insertTabletPlan, int start, int end)
+      throws IOException {
+    if (end - start > 1 && insertTabletPlan.getSerializedSize(start, end) > IoTDBDescriptor
+        .getInstance().getConfig().getWalBufferSize()) {
+      int mid = (start + end) >>> 1;
+      writeTabletLog(insertTabletPlan, start, mid);
+      writeTabletLog(insertTabletPlan, mid, end);
+      return;
+    }
+    insertTabletPlan.setRange(start, end);
+    getLogNode().write(insertTabletPlan);
+  }
+
   /**
    * Delete data which belongs to the timeseries `deviceId.measurementId` and the timestamp of which
    * <= 'timestamp' in the deletion. <br/>
@@ -193,7 +281,8 @@ public class TsFileProcessor {
 
 
   boolean shouldFlush() {
-    return workMemTable != null && workMemTable.memSize() > IoTDBDescriptor.getInstance()
+    IMemTable memTable = workMemTable;
+    return memTable != null && memTable.memSize() > IoTDBDescriptor.getInstance()
         .getConfig().getMemtableSizeThreshold();
   }
 
@@ -373,7 +462,7 @@ public class TsFileProcessor {
     // signal memtable only may appear when calling asyncClose()
     if (!memTableToFlush.isSignalMemTable()) {
       MemTableFlushTask flushTask = new MemTableFlushTask(memTableToFlush, fileSchema, writer,
-          storageGroupName);
+          storageGroupName, rollup);
       try {
         writer.mark();
         flushTask.syncFlushMemTable();
@@ -439,6 +528,9 @@ public class TsFileProcessor {
 
     tsFileResource.serialize();
     writer.endFile(fileSchema);
+    if (rollup != null) {
+      serializeRollup();
+    }
 
     // remove this processor from Closing list in StorageGroupProcessor,
     // mark the TsFileResource closed, no need writer anymore
@@ -458,6 +550,26 @@ public class TsFileProcessor {
   }
 
 
+  /**
+   * write the rollups of the complete TsFile. Queries read the data instead if the rollups cannot
+   * be written, so a failure does not fail the close.
+   */
+  private void serializeRollup() {
+    try {
+      rollup.serialize(tsFileResource.getFile());
+    } catch (IOException e) {
+      logger.error("Storage group {} cannot write the rollups of {}", storageGroupName,
+          tsFileResource.getFile(), e);
+      try {
+        TsFileRollup.deleteRollupFile(tsFileResource.getFile());
+      } catch (IOException e1) {
+        logger.error("Cannot delete the incomplete rollup file of {}", tsFileResource.getFile(),
+            e1);
+      }
+    }
+    rollup = null;
+  }
+
   boolean isManagedByFlushManager() {
     return managedByFlushManager;
   }
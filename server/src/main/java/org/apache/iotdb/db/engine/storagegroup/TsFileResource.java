@@ -26,12 +26,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.engine.rollup.TsFileRollup;
+import org.apache.iotdb.db.engine.rollup.TsFileRollupReader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
@@ -57,6 +61,11 @@ public class TsFileResource {
 
   private volatile boolean closed = false;
 
+  /**
+   * Reader of the rollup file, created when the rollups are queried for the first time.
+   */
+  private TsFileRollupReader rollupReader;
+
   /**
    * Chunk metadata list of unsealed tsfile. Only be set in a temporal TsFileResource in a query
    * process.
@@ -78,8 +87,9 @@ public class TsFileResource {
 
   public TsFileResource(File file, TsFileProcessor processor) {
     this.file = file;
-    this.startTimeMap = new HashMap<>();
-    this.endTimeMap = new HashMap<>();
+    // the time of different devices of an unsealed file is updated concurrently
+    this.startTimeMap = new ConcurrentHashMap<>();
+    this.endTimeMap = new ConcurrentHashMap<>();
     this.processor = processor;
   }
 
@@ -179,6 +189,20 @@ public class TsFileResource {
     return modFile;
   }
 
+  /**
+   * @return the reader of the rollups of this TsFile, or null if the TsFile is unsealed or has no
+   * rollup file.
+   */
+  public synchronized TsFileRollupReader getRollupReader() throws IOException {
+    if (rollupReader == null && closed) {
+      File rollupFile = TsFileRollup.getRollupFile(file);
+      if (rollupFile.exists()) {
+        rollupReader = new TsFileRollupReader(rollupFile);
+      }
+    }
+    return rollupReader;
+  }
+
   public boolean containsDevice(String deviceId) {
     return startTimeMap.containsKey(deviceId);
   }
@@ -217,6 +241,19 @@ public class TsFileResource {
     chunkMetaDatas = null;
   }
 
+  /**
+   * close the resource and delete the TsFile together with its resource file, modification file
+   * and rollup file. Files that do not exist are ignored.
+   */
+  public void remove() throws IOException {
+    close();
+    rollupReader = null;
+    Files.deleteIfExists(file.toPath());
+    Files.deleteIfExists(new File(file.getPath() + RESOURCE_SUFFIX).toPath());
+    Files.deleteIfExists(new File(file.getPath() + ModificationFile.FILE_SUFFIX).toPath());
+    TsFileRollup.deleteRollupFile(file);
+  }
+
   public TsFileProcessor getUnsealedFileProcessor() {
     return processor;
   }
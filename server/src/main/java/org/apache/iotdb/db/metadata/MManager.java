@@ -39,6 +39,7 @@ import org.apache.iotdb.db.exception.ConfigAdjusterException;
 import org.apache.iotdb.db.exception.MetadataErrorException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.monitor.MonitorConstants;
+import org.apache.iotdb.db.rescon.TVListAllocator;
 import org.apache.iotdb.db.utils.RandomDeleteCache;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.cache.CacheException;
@@ -74,6 +75,10 @@ public class MManager {
   private RandomDeleteCache<String, MNode> mNodeCache;
 
   private Map<String, Integer> seriesNumberInStorageGroups = new HashMap<>();
+  /**
+   * the TTLs set by setTTL(), a storage group absent here uses default_ttl.
+   */
+  private Map<String, Long> storageGroupTTLs = new HashMap<>();
   private long maxSeriesNumberAmongStorageGroup;
   private boolean initialized;
 
@@ -182,6 +187,7 @@ public class MManager {
       this.checkAndGetDataTypeCache.clear();
       this.mNodeCache.clear();
       this.seriesNumberInStorageGroups.clear();
+      this.storageGroupTTLs.clear();
       this.maxSeriesNumberAmongStorageGroup = 0;
       if (logWriter != null) {
         logWriter.close();
@@ -236,6 +242,9 @@ public class MManager {
       case MetadataOperationType.UNLINK_MNODE_FROM_PTREE:
         unlinkMNodeFromPTree(args[1], args[2]);
         break;
+      case MetadataOperationType.SET_TTL:
+        setTTL(args[1], Long.parseLong(args[2]));
+        break;
       default:
         logger.error("Unrecognizable command {}", cmd);
     }
@@ -449,6 +458,7 @@ public class MManager {
           throw new MetadataErrorException(e);
         }
         String emptiedStorageGroup = deletePath(p);
+        TVListAllocator.getInstance().removeArraySizeHints(p);
         if (emptiedStorageGroup != null) {
           emptyStorageGroups.add(emptiedStorageGroup);
         }
@@ -558,6 +568,46 @@ public class MManager {
     }
   }
 
+  /**
+   * set the time to live (in ms) of the data of a storage group, it is kept in the metadata log
+   * so that it is restored on restart.
+   *
+   * @param dataTTL when <= 0, the data never expire
+   */
+  public void setTTL(String storageGroup, long dataTTL) throws MetadataErrorException {
+    lock.writeLock().lock();
+    try {
+      if (!storageGroup.equals(mgraph.getStorageGroupNameByPath(storageGroup))) {
+        throw new MetadataErrorException(
+            String.format("%s is not a storage group", storageGroup));
+      }
+      storageGroupTTLs.put(storageGroup, dataTTL);
+      if (writeToLog) {
+        BufferedWriter writer = getLogWriter();
+        writer.write(MetadataOperationType.SET_TTL + "," + storageGroup + "," + dataTTL);
+        writer.newLine();
+        writer.flush();
+      }
+    } catch (IOException | PathErrorException e) {
+      throw new MetadataErrorException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the TTL (in ms) set by setTTL(), or default_ttl if it has never been set
+   */
+  public long getTTL(String storageGroup) {
+    lock.readLock().lock();
+    try {
+      Long dataTTL = storageGroupTTLs.get(storageGroup);
+      return dataTTL != null ? dataTTL : IoTDBDescriptor.getInstance().getConfig().getDefaultTTL();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
   /**
    * function for checking if the given path is storage level of mTree or not.
    *
@@ -135,6 +135,7 @@ public class QueryProcessor {
       case DELETE_TIMESERIES:
       case PROPERTY:
       case LOADDATA:
+      case TTL:
       case INSERT:
       case INDEX:
       case INDEXQUERY:
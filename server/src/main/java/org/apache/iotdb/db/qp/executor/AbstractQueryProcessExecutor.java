@@ -31,6 +31,7 @@ import org.apache.iotdb.db.qp.physical.crud.AggregationPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.FillQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.GroupByPlan;
+import org.apache.iotdb.db.qp.physical.crud.LastQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.QueryPlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -67,7 +68,8 @@ public abstract class AbstractQueryProcessExecutor implements IQueryProcessExecu
     if (queryPlan instanceof GroupByPlan) {
       GroupByPlan groupByPlan = (GroupByPlan) queryPlan;
       return groupBy(groupByPlan.getPaths(), groupByPlan.getAggregations(),
-          groupByPlan.getExpression(), groupByPlan.getUnit(), groupByPlan.getOrigin(),
+          groupByPlan.getExpression(), groupByPlan.getUnit(), groupByPlan.getSlidingStep(),
+          groupByPlan.getOrigin(),
           groupByPlan.getIntervals(), context);
     }
 
@@ -81,8 +83,15 @@ public abstract class AbstractQueryProcessExecutor implements IQueryProcessExecu
       return fill(queryPlan.getPaths(), fillQueryPlan.getQueryTime(),
           fillQueryPlan.getFillType(), context);
     }
+
+    if (queryPlan instanceof LastQueryPlan) {
+      return lastQuery(queryPlan.getPaths(), context);
+    }
     QueryExpression queryExpression = QueryExpression.create().setSelectSeries(queryPlan.getPaths())
             .setExpression(queryPlan.getExpression());
+    if (queryPlan.isDescending()) {
+      return queryRouter.descQuery(queryExpression, queryPlan.getRowLimit(), context);
+    }
     return queryRouter.query(queryExpression, context);
   }
 
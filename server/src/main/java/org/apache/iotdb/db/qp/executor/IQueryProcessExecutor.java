@@ -28,6 +28,7 @@ import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.fill.IFill;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
@@ -68,7 +69,8 @@ public interface IQueryProcessExecutor {
    * process group by plan of qp layer, construct queryDataSet.
    */
   QueryDataSet groupBy(List<Path> paths, List<String> aggres, IExpression expression,
-      long unit, long origin, List<Pair<Long, Long>> intervals, QueryContext context)
+      long unit, long slidingStep, long origin, List<Pair<Long, Long>> intervals,
+      QueryContext context)
       throws ProcessorException, IOException, PathErrorException, StorageEngineException, QueryFilterOptimizationException;
 
   /**
@@ -78,6 +80,12 @@ public interface IQueryProcessExecutor {
       QueryContext context)
       throws ProcessorException, IOException, PathErrorException, StorageEngineException;
 
+  /**
+   * process last-value query plan of qp layer, construct queryDataSet.
+   */
+  QueryDataSet lastQuery(List<Path> paths, QueryContext context)
+      throws ProcessorException, IOException, PathErrorException, StorageEngineException;
+
   /**
    * execute update command and return whether the operator is successful.
    *
@@ -114,6 +122,11 @@ public interface IQueryProcessExecutor {
    */
   boolean insert(InsertPlan insertPlan) throws ProcessorException;
 
+  /**
+   * execute a columnar batch insertion of one device and return whether it is successful.
+   */
+  boolean insertTablet(InsertTabletPlan insertTabletPlan) throws ProcessorException;
+
   boolean judgePathExists(Path fullPath);
 
   /**
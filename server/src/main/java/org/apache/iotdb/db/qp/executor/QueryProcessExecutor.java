@@ -48,10 +48,12 @@ import org.apache.iotdb.db.qp.logical.sys.PropertyOperator;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.qp.physical.sys.MetadataPlan;
 import org.apache.iotdb.db.qp.physical.sys.PropertyPlan;
+import org.apache.iotdb.db.qp.physical.sys.SetTTLPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.dataset.AuthDataSet;
 import org.apache.iotdb.db.query.fill.IFill;
@@ -91,6 +93,8 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
         return flag;
       case INSERT:
         return insert((InsertPlan)plan);
+      case INSERT_TABLET:
+        return insertTablet((InsertTabletPlan) plan);
       case CREATE_ROLE:
       case DELETE_ROLE:
       case CREATE_USER:
@@ -113,6 +117,8 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
       case PROPERTY:
         PropertyPlan property = (PropertyPlan) plan;
         return operateProperty(property);
+      case TTL:
+        return operateTTL((SetTTLPlan) plan);
       default:
         throw new UnsupportedOperationException(
             String.format("operation %s does not support", plan.getOperatorType()));
@@ -153,12 +159,20 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
     return queryRouter.fill(fillPaths, queryTime, fillTypes, context);
   }
 
+  @Override
+  public QueryDataSet lastQuery(List<Path> paths, QueryContext context)
+      throws ProcessorException, IOException, PathErrorException, StorageEngineException {
+    return queryRouter.lastQuery(paths, context);
+  }
+
   @Override
   public QueryDataSet groupBy(List<Path> paths, List<String> aggres, IExpression expression,
-      long unit, long origin, List<Pair<Long, Long>> intervals, QueryContext context)
+      long unit, long slidingStep, long origin, List<Pair<Long, Long>> intervals,
+      QueryContext context)
       throws ProcessorException, StorageEngineException, QueryFilterOptimizationException,
       PathErrorException, IOException {
-    return queryRouter.groupBy(paths, aggres, expression, unit, origin, intervals, context);
+    return queryRouter
+        .groupBy(paths, aggres, expression, unit, slidingStep, origin, intervals, context);
   }
 
   @Override
@@ -234,6 +248,42 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
     }
   }
 
+  @Override
+  public boolean insertTablet(InsertTabletPlan insertTabletPlan) throws ProcessorException {
+
+    try {
+      String[] measurementList = insertTabletPlan.getMeasurements();
+      String deviceId = insertTabletPlan.getDeviceId();
+      MNode node = mManager.getNodeByDeviceIdFromCache(deviceId);
+      TSDataType[] dataTypes = insertTabletPlan.getDataTypes();
+
+      for (int i = 0; i < measurementList.length; i++) {
+        if (!node.hasChild(measurementList[i])) {
+          throw new ProcessorException(
+              String.format("Current deviceId[%s] does not contains measurement:%s",
+                  deviceId, measurementList[i]));
+        }
+        MNode measurementNode = node.getChild(measurementList[i]);
+        if (!measurementNode.isLeaf()) {
+          throw new ProcessorException(
+              String.format("Current Path is not leaf node. %s.%s", deviceId,
+                  measurementList[i]));
+        }
+        // values are already decoded, so the type must be the same as the schema
+        TSDataType dataType = measurementNode.getSchema().getType();
+        if (dataType != dataTypes[i]) {
+          throw new ProcessorException(
+              String.format("The data type of %s.%s is %s, but %s is inserted", deviceId,
+                  measurementList[i], dataType, dataTypes[i]));
+        }
+      }
+      return storageEngine.insertTablet(insertTabletPlan);
+
+    } catch (PathErrorException | StorageEngineException e) {
+      throw new ProcessorException(e);
+    }
+  }
+
   @Override
   public List<String> getAllPaths(String originPath) throws MetadataErrorException {
     return MManager.getInstance().getPaths(originPath);
@@ -378,6 +428,15 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
     }
   }
 
+  private boolean operateTTL(SetTTLPlan setTTLPlan) throws ProcessorException {
+    try {
+      storageEngine.setTTL(setTTLPlan.getStorageGroup().getFullPath(), setTTLPlan.getDataTTL());
+    } catch (StorageEngineException e) {
+      throw new ProcessorException(e);
+    }
+    return true;
+  }
+
   private boolean operateProperty(PropertyPlan propertyPlan) throws ProcessorException {
     PropertyOperator.PropertyType propertyType = propertyPlan.getPropertyType();
     Path propertyPath = propertyPlan.getPropertyPath();
@@ -31,14 +31,20 @@ import org.apache.iotdb.tsfile.utils.Pair;
 public class QueryOperator extends SFWOperator {
 
   private long unit;
+  private long slidingStep;
   private long origin;
   private List<Pair<Long, Long>> intervals;
   private boolean isGroupBy = false;
   private Map<TSDataType, IFill> fillTypes;
   private boolean isFill = false;
+  private boolean isLastQuery = false;
   private int seriesLimit;
   private int seriesOffset;
   private boolean hasSlimit = false; // false if sql does not contain SLIMIT clause
+  private boolean isDescending = false;
+  private int rowLimit;
+  private int rowOffset;
+  private boolean hasLimit = false; // false if sql does not contain LIMIT clause
   public QueryOperator(int tokenIntType) {
     super(tokenIntType);
     operatorType = Operator.OperatorType.QUERY;
@@ -52,6 +58,14 @@ public class QueryOperator extends SFWOperator {
     isFill = fill;
   }
 
+  public boolean isLastQuery() {
+    return isLastQuery;
+  }
+
+  public void setLastQuery(boolean isLastQuery) {
+    this.isLastQuery = isLastQuery;
+  }
+
   public Map<TSDataType, IFill> getFillTypes() {
     return fillTypes;
   }
@@ -93,6 +107,35 @@ public class QueryOperator extends SFWOperator {
     return hasSlimit;
   }
 
+  public boolean isDescending() {
+    return isDescending;
+  }
+
+  public void setDescending(boolean isDescending) {
+    this.isDescending = isDescending;
+  }
+
+  public int getRowLimit() {
+    return rowLimit;
+  }
+
+  public void setRowLimit(int rowLimit) {
+    this.rowLimit = rowLimit;
+    this.hasLimit = true;
+  }
+
+  public int getRowOffset() {
+    return rowOffset;
+  }
+
+  public void setRowOffset(int rowOffset) {
+    this.rowOffset = rowOffset;
+  }
+
+  public boolean hasLimit() {
+    return hasLimit;
+  }
+
   public long getUnit() {
     return unit;
   }
@@ -101,6 +144,14 @@ public class QueryOperator extends SFWOperator {
     this.unit = unit;
   }
 
+  public long getSlidingStep() {
+    return slidingStep;
+  }
+
+  public void setSlidingStep(long slidingStep) {
+    this.slidingStep = slidingStep;
+  }
+
   public long getOrigin() {
     return origin;
   }
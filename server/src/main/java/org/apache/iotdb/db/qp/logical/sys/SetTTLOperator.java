@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.logical.sys;
+
+import org.apache.iotdb.db.qp.logical.RootOperator;
+import org.apache.iotdb.tsfile.read.common.Path;
+
+/**
+ * this class maintains information in SET TTL and UNSET TTL statements.
+ */
+public class SetTTLOperator extends RootOperator {
+
+  private final Path storageGroup;
+  private final long dataTTL;
+
+  /**
+   * Constructor of SetTTLOperator.
+   *
+   * @param dataTTL the time to live (in ms) of the data, when <= 0, the data never expire
+   */
+  public SetTTLOperator(int tokenIntType, Path storageGroup, long dataTTL) {
+    super(tokenIntType);
+    operatorType = OperatorType.TTL;
+    this.storageGroup = storageGroup;
+    this.dataTTL = dataTTL;
+  }
+
+  public Path getStorageGroup() {
+    return storageGroup;
+  }
+
+  public long getDataTTL() {
+    return dataTTL;
+  }
+}
@@ -25,6 +25,7 @@ import java.util.List;
 import org.apache.iotdb.db.qp.logical.Operator;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
@@ -118,6 +119,10 @@ public abstract class PhysicalPlan {
           plan = new DeletePlan();
           plan.deserializeFrom(buffer);
           break;
+        case INSERT_TABLET:
+          plan = new InsertTabletPlan();
+          plan.deserializeFrom(buffer);
+          break;
         default:
           throw new IOException("unrecognized log type " + type);
       }
@@ -126,7 +131,7 @@ public abstract class PhysicalPlan {
   }
 
   public enum PhysicalPlanType {
-    INSERT, DELETE
+    INSERT, DELETE, INSERT_TABLET
   }
 
 
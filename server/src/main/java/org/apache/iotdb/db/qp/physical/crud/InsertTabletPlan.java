@@ -0,0 +1,381 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.physical.crud;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * InsertTabletPlan inserts rows of one device in a columnar form. The timestamps are kept in a
+ * long[] and the values of each measurement in a primitive array (boolean[], int[], long[],
+ * float[], double[] or Binary[] according to its data type), so no value is parsed from string
+ * or boxed.
+ */
+public class InsertTabletPlan extends PhysicalPlan {
+
+  private String deviceId;
+  private String[] measurements;
+  private TSDataType[] dataTypes;
+  private long[] times;
+  private Object[] columns;
+  private int rowCount;
+
+  /**
+   * only rows in [start, end) are serialized, so that a tablet split into several TsFiles is
+   * logged in the WAL of each file separately.
+   */
+  private int start;
+  private int end;
+
+  public InsertTabletPlan() {
+    super(false, OperatorType.INSERT_TABLET);
+  }
+
+  public InsertTabletPlan(String deviceId, String[] measurements, TSDataType[] dataTypes,
+      long[] times, Object[] columns, int rowCount) {
+    super(false, OperatorType.INSERT_TABLET);
+    this.deviceId = deviceId;
+    this.measurements = measurements;
+    this.dataTypes = dataTypes;
+    this.times = times;
+    this.columns = columns;
+    this.rowCount = rowCount;
+    this.end = rowCount;
+  }
+
+  @Override
+  public List<Path> getPaths() {
+    List<Path> ret = new ArrayList<>();
+    for (String m : measurements) {
+      ret.add(new Path(deviceId, m));
+    }
+    return ret;
+  }
+
+  public String getDeviceId() {
+    return deviceId;
+  }
+
+  public String[] getMeasurements() {
+    return measurements;
+  }
+
+  public TSDataType[] getDataTypes() {
+    return dataTypes;
+  }
+
+  public long[] getTimes() {
+    return times;
+  }
+
+  public Object[] getColumns() {
+    return columns;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getStart() {
+    return start;
+  }
+
+  public int getEnd() {
+    return end;
+  }
+
+  /**
+   * set the rows to be serialized.
+   */
+  public void setRange(int start, int end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * @return the size of the serialized rows in [start, end)
+   */
+  public long getSerializedSize(int start, int end) {
+    // type, deviceId, measurement number and row number
+    long size = Byte.BYTES + getStringSize(deviceId) + 2 * Integer.BYTES;
+    for (String measurement : measurements) {
+      size += getStringSize(measurement) + Short.BYTES;
+    }
+    size += (long) Long.BYTES * (end - start);
+    for (int i = 0; i < measurements.length; i++) {
+      switch (dataTypes[i]) {
+        case BOOLEAN:
+          size += end - start;
+          break;
+        case INT32:
+        case FLOAT:
+          size += (long) Integer.BYTES * (end - start);
+          break;
+        case INT64:
+        case DOUBLE:
+          size += (long) Long.BYTES * (end - start);
+          break;
+        case TEXT:
+          Binary[] values = (Binary[]) columns[i];
+          for (int j = start; j < end; j++) {
+            size += Integer.BYTES + values[j].getLength();
+          }
+          break;
+        default:
+          throw new UnSupportedDataTypeException(String.valueOf(dataTypes[i]));
+      }
+    }
+    return size;
+  }
+
+  private static long getStringSize(String value) {
+    return value == null ? Integer.BYTES : Integer.BYTES + value.getBytes().length;
+  }
+
+  @Override
+  public void serializeTo(ByteBuffer buffer) {
+    int type = PhysicalPlanType.INSERT_TABLET.ordinal();
+    buffer.put((byte) type);
+    putString(buffer, deviceId);
+
+    buffer.putInt(measurements.length);
+    for (int i = 0; i < measurements.length; i++) {
+      putString(buffer, measurements[i]);
+      buffer.putShort(dataTypes[i].serialize());
+    }
+
+    buffer.putInt(end - start);
+    for (int i = start; i < end; i++) {
+      buffer.putLong(times[i]);
+    }
+    for (int i = 0; i < measurements.length; i++) {
+      serializeColumn(buffer, dataTypes[i], columns[i]);
+    }
+  }
+
+  private void serializeColumn(ByteBuffer buffer, TSDataType dataType, Object column) {
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = (boolean[]) column;
+        for (int j = start; j < end; j++) {
+          buffer.put((byte) (booleans[j] ? 1 : 0));
+        }
+        break;
+      case INT32:
+        int[] ints = (int[]) column;
+        for (int j = start; j < end; j++) {
+          buffer.putInt(ints[j]);
+        }
+        break;
+      case INT64:
+        long[] longs = (long[]) column;
+        for (int j = start; j < end; j++) {
+          buffer.putLong(longs[j]);
+        }
+        break;
+      case FLOAT:
+        float[] floats = (float[]) column;
+        for (int j = start; j < end; j++) {
+          buffer.putFloat(floats[j]);
+        }
+        break;
+      case DOUBLE:
+        double[] doubles = (double[]) column;
+        for (int j = start; j < end; j++) {
+          buffer.putDouble(doubles[j]);
+        }
+        break;
+      case TEXT:
+        Binary[] binaries = (Binary[]) column;
+        for (int j = start; j < end; j++) {
+          buffer.putInt(binaries[j].getLength());
+          buffer.put(binaries[j].getValues());
+        }
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  @Override
+  public void deserializeFrom(ByteBuffer buffer) {
+    this.deviceId = readString(buffer);
+
+    int measurementSize = buffer.getInt();
+    this.measurements = new String[measurementSize];
+    this.dataTypes = new TSDataType[measurementSize];
+    for (int i = 0; i < measurementSize; i++) {
+      measurements[i] = readString(buffer);
+      dataTypes[i] = TSDataType.deserialize(buffer.getShort());
+    }
+
+    this.rowCount = buffer.getInt();
+    checkRemaining(buffer, rowCount, Long.BYTES);
+    this.start = 0;
+    this.end = rowCount;
+    this.times = new long[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      times[i] = buffer.getLong();
+    }
+    this.columns = new Object[measurementSize];
+    for (int i = 0; i < measurementSize; i++) {
+      columns[i] = deserializeColumn(buffer, dataTypes[i], rowCount);
+    }
+  }
+
+  /**
+   * read a column of rowCount values of the given type, the format is shared by the WAL and the
+   * insertTablet RPC.
+   *
+   * @throws IllegalArgumentException if the buffer does not hold rowCount values
+   */
+  public static Object deserializeColumn(ByteBuffer buffer, TSDataType dataType, int rowCount) {
+    switch (dataType) {
+      case BOOLEAN:
+        checkRemaining(buffer, rowCount, 1);
+        boolean[] booleans = new boolean[rowCount];
+        for (int j = 0; j < rowCount; j++) {
+          booleans[j] = buffer.get() != 0;
+        }
+        return booleans;
+      case INT32:
+        checkRemaining(buffer, rowCount, Integer.BYTES);
+        int[] ints = new int[rowCount];
+        buffer.asIntBuffer().get(ints);
+        buffer.position(buffer.position() + rowCount * Integer.BYTES);
+        return ints;
+      case INT64:
+        checkRemaining(buffer, rowCount, Long.BYTES);
+        long[] longs = new long[rowCount];
+        buffer.asLongBuffer().get(longs);
+        buffer.position(buffer.position() + rowCount * Long.BYTES);
+        return longs;
+      case FLOAT:
+        checkRemaining(buffer, rowCount, Float.BYTES);
+        float[] floats = new float[rowCount];
+        buffer.asFloatBuffer().get(floats);
+        buffer.position(buffer.position() + rowCount * Float.BYTES);
+        return floats;
+      case DOUBLE:
+        checkRemaining(buffer, rowCount, Double.BYTES);
+        double[] doubles = new double[rowCount];
+        buffer.asDoubleBuffer().get(doubles);
+        buffer.position(buffer.position() + rowCount * Double.BYTES);
+        return doubles;
+      case TEXT:
+        // each value takes at least the 4 bytes of its length
+        checkRemaining(buffer, rowCount, Integer.BYTES);
+        Binary[] binaries = new Binary[rowCount];
+        for (int j = 0; j < rowCount; j++) {
+          int length = buffer.getInt();
+          checkRemaining(buffer, length, 1);
+          byte[] bytes = new byte[length];
+          buffer.get(bytes);
+          binaries[j] = new Binary(bytes);
+        }
+        return binaries;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  /**
+   * check the size read from a buffer before allocating an array of it, so that a corrupted or
+   * malicious input cannot cause a huge allocation.
+   *
+   * @throws IllegalArgumentException if size is negative or the buffer has less than size *
+   * unitBytes bytes remaining
+   */
+  public static void checkRemaining(ByteBuffer buffer, int size, int unitBytes) {
+    if (size < 0 || (long) size * unitBytes > buffer.remaining()) {
+      throw new IllegalArgumentException(String.format(
+          "Cannot read %d values of %d bytes from a buffer of %d bytes remaining", size, unitBytes,
+          buffer.remaining()));
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    InsertTabletPlan that = (InsertTabletPlan) o;
+    if (!Objects.equals(deviceId, that.deviceId)
+        || !Arrays.equals(measurements, that.measurements)
+        || !Arrays.equals(dataTypes, that.dataTypes)
+        || end - start != that.end - that.start) {
+      return false;
+    }
+    for (int i = 0; i < end - start; i++) {
+      if (times[start + i] != that.times[that.start + i]) {
+        return false;
+      }
+      for (int j = 0; j < measurements.length; j++) {
+        if (!getValue(j, start + i).equals(that.getValue(j, that.start + i))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the boxed value of the given measurement at the given row.
+   */
+  public Object getValue(int measurementIndex, int row) {
+    switch (dataTypes[measurementIndex]) {
+      case BOOLEAN:
+        return ((boolean[]) columns[measurementIndex])[row];
+      case INT32:
+        return ((int[]) columns[measurementIndex])[row];
+      case INT64:
+        return ((long[]) columns[measurementIndex])[row];
+      case FLOAT:
+        return ((float[]) columns[measurementIndex])[row];
+      case DOUBLE:
+        return ((double[]) columns[measurementIndex])[row];
+      case TEXT:
+        return ((Binary[]) columns[measurementIndex])[row];
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataTypes[measurementIndex]));
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(deviceId, end - start);
+  }
+
+  @Override
+  public String toString() {
+    return "deviceId: " + deviceId + ", rows: " + (end - start);
+  }
+}
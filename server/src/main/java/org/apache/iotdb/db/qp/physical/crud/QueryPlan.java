@@ -31,6 +31,16 @@ public class QueryPlan extends PhysicalPlan {
   private List<Path> paths = null;
   private IExpression expression = null;
 
+  /**
+   * true to return the rows in descending order of time.
+   */
+  private boolean descending = false;
+
+  /**
+   * the max number of rows the query needs to return, 0 for no limit.
+   */
+  private int rowLimit = 0;
+
   public QueryPlan() {
     super(true);
     setOperatorType(Operator.OperatorType.QUERY);
@@ -67,4 +77,20 @@ public class QueryPlan extends PhysicalPlan {
   public void setPaths(List<Path> paths) {
     this.paths = paths;
   }
+
+  public boolean isDescending() {
+    return descending;
+  }
+
+  public void setDescending(boolean descending) {
+    this.descending = descending;
+  }
+
+  public int getRowLimit() {
+    return rowLimit;
+  }
+
+  public void setRowLimit(int rowLimit) {
+    this.rowLimit = rowLimit;
+  }
 }
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.physical.sys;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.apache.iotdb.db.qp.logical.Operator;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.tsfile.read.common.Path;
+
+public class SetTTLPlan extends PhysicalPlan {
+
+  private final Path storageGroup;
+  private final long dataTTL;
+
+  /**
+   * Constructor of SetTTLPlan.
+   *
+   * @param dataTTL the time to live (in ms) of the data, when <= 0, the data never expire
+   */
+  public SetTTLPlan(Path storageGroup, long dataTTL) {
+    super(false, Operator.OperatorType.TTL);
+    this.storageGroup = storageGroup;
+    this.dataTTL = dataTTL;
+  }
+
+  @Override
+  public List<Path> getPaths() {
+    return Collections.singletonList(storageGroup);
+  }
+
+  public Path getStorageGroup() {
+    return storageGroup;
+  }
+
+  public long getDataTTL() {
+    return dataTTL;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SetTTLPlan)) {
+      return false;
+    }
+    SetTTLPlan that = (SetTTLPlan) o;
+    return dataTTL == that.dataTTL && Objects.equals(storageGroup, that.storageGroup);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(storageGroup, dataTTL);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("storage group: %s, TTL: %d", storageGroup, dataTTL);
+  }
+}
@@ -50,6 +50,7 @@ import org.apache.iotdb.db.qp.logical.sys.AuthorOperator;
 import org.apache.iotdb.db.qp.logical.sys.LoadDataOperator;
 import org.apache.iotdb.db.qp.logical.sys.MetadataOperator;
 import org.apache.iotdb.db.qp.logical.sys.PropertyOperator;
+import org.apache.iotdb.db.qp.logical.sys.SetTTLOperator;
 import org.apache.iotdb.db.query.fill.IFill;
 import org.apache.iotdb.db.query.fill.LinearFill;
 import org.apache.iotdb.db.query.fill.PreviousFill;
@@ -106,6 +107,10 @@ public class LogicalGenerator {
       case TSParser.TOK_SELECT:
         analyzeSelectedPath(astNode);
         return;
+      case TSParser.TOK_SELECT_LAST:
+        analyzeSelectedPath(astNode);
+        ((QueryOperator) initializedOperator).setLastQuery(true);
+        return;
       case TSParser.TOK_FROM:
         analyzeFrom(astNode);
         return;
@@ -139,7 +144,14 @@ public class LogicalGenerator {
         }
         return;
       case TSParser.TOK_SET:
-        analyzeMetadataSetFileLevel(astNode);
+        if (astNode.getChild(0).getType() == TSParser.TOK_TTL) {
+          analyzeSetTTL(astNode);
+        } else {
+          analyzeMetadataSetFileLevel(astNode);
+        }
+        return;
+      case TSParser.TOK_UNSET:
+        analyzeUnsetTTL(astNode);
         return;
       case TSParser.TOK_ADD:
         analyzePropertyAddLabel(astNode);
@@ -194,6 +206,9 @@ public class LogicalGenerator {
       case TSParser.TOK_LIST:
         analyzeList(astNode);
         return;
+      case TSParser.TOK_ORDERBY:
+        analyzeOrderBy(astNode);
+        return;
       case TSParser.TOK_LIMIT:
         analyzeLimit(astNode);
         return;
@@ -253,6 +268,22 @@ public class LogicalGenerator {
       throw new LogicalOperatorException(
           "LIMIT <N>: N must be a positive integer and can not be zero.");
     }
+    ((QueryOperator) initializedOperator).setRowLimit(rowsLimit);
+    if (astNode.getChildCount() > 1) {
+      try {
+        // NOTE rowsOffset is ensured to be a non negative integer after the lexical examination.
+        ((QueryOperator) initializedOperator)
+            .setRowOffset(Integer.parseInt(astNode.getChild(1).getText().trim()));
+      } catch (NumberFormatException e) {
+        throw new LogicalOperatorException("OFFSET <OFFSETValue>: OFFSETValue should be Int32.");
+      }
+    }
+  }
+
+  private void analyzeOrderBy(AstNode astNode) {
+    if (astNode.getChildCount() > 0 && astNode.getChild(0).getType() == TSParser.KW_DESC) {
+      ((QueryOperator) initializedOperator).setDescending(true);
+    }
   }
 
   private void analyzeList(AstNode astNode) {
@@ -431,6 +462,28 @@ public class LogicalGenerator {
     initializedOperator = metadataOperator;
   }
 
+  private void analyzeSetTTL(AstNode astNode) throws LogicalOperatorException {
+    AstNode ttlNode = astNode.getChild(0);
+    Path storageGroup = parsePath(ttlNode.getChild(0));
+    long dataTTL;
+    try {
+      dataTTL = Long.parseLong(ttlNode.getChild(1).getText().trim());
+    } catch (NumberFormatException e) {
+      throw new LogicalOperatorException("SET TTL TO <SG> <TTL>: TTL should be Int64.");
+    }
+    if (dataTTL <= 0) {
+      throw new LogicalOperatorException(
+          "SET TTL TO <SG> <TTL>: TTL should be positive, use UNSET TTL to remove it.");
+    }
+    initializedOperator = new SetTTLOperator(SQLConstant.TOK_SET_TTL, storageGroup, dataTTL);
+  }
+
+  private void analyzeUnsetTTL(AstNode astNode) {
+    Path storageGroup = parsePath(astNode.getChild(0).getChild(0));
+    // a TTL <= 0 means the data never expire
+    initializedOperator = new SetTTLOperator(SQLConstant.TOK_UNSET_TTL, storageGroup, 0);
+  }
+
   private void analyzeInsert(AstNode astNode) throws QueryProcessorException {
     InsertOperator insertOp = new InsertOperator(SQLConstant.TOK_INSERT);
     initializedOperator = insertOp;
@@ -552,11 +605,15 @@ public class LogicalGenerator {
   private void analyzeSelectedPath(AstNode astNode) throws LogicalOperatorException {
     int tokenIntType = astNode.getType();
     SelectOperator selectOp = new SelectOperator(TSParser.TOK_SELECT);
-    if (tokenIntType == TSParser.TOK_SELECT) {
+    if (tokenIntType == TSParser.TOK_SELECT || tokenIntType == TSParser.TOK_SELECT_LAST) {
       int selChildCount = astNode.getChildCount();
       for (int i = 0; i < selChildCount; i++) {
         AstNode child = astNode.getChild(i);
         if (child.getChild(0).getType() == TSParser.TOK_CLUSTER) {
+          if (tokenIntType == TSParser.TOK_SELECT_LAST) {
+            throw new LogicalOperatorException(
+                "Last-value query does not support aggregation, actual:" + astNode.dump());
+          }
           AstNode cluster = child.getChild(0);
           AstNode pathChild = cluster.getChild(0);
           Path selectPath = parsePath(pathChild);
@@ -655,6 +712,19 @@ public class LogicalGenerator {
     long value = parseTimeUnit(unit);
     ((QueryOperator) initializedOperator).setUnit(value);
 
+    // parse sliding step, the windows are tumbling without it
+    long slidingStep = value;
+    AstNode originNode = null;
+    for (int i = 1; i < childCount - 1; i++) {
+      AstNode child = astNode.getChild(i);
+      if (child.getType() == TSParser.TOK_SLIDINGSTEP) {
+        slidingStep = parseTimeUnit(child);
+      } else if (child.getType() == TSParser.TOK_TIMEORIGIN) {
+        originNode = child.getChild(0);
+      }
+    }
+    ((QueryOperator) initializedOperator).setSlidingStep(slidingStep);
+
     // parse show intervals
     AstNode intervalsNode = astNode.getChild(childCount - 1);
     int intervalCount = intervalsNode.getChildCount();
@@ -683,8 +753,7 @@ public class LogicalGenerator {
 
     // parse time origin
     long originTime;
-    if (childCount == 3) {
-      AstNode originNode = astNode.getChild(1).getChild(0);
+    if (originNode != null) {
       if (originNode.getType() == TSParser.TOK_DATETIME) {
         originTime = Long.valueOf(parseTokenTime(originNode));
       } else {
@@ -34,17 +34,20 @@ import org.apache.iotdb.db.qp.logical.sys.AuthorOperator;
 import org.apache.iotdb.db.qp.logical.sys.LoadDataOperator;
 import org.apache.iotdb.db.qp.logical.sys.MetadataOperator;
 import org.apache.iotdb.db.qp.logical.sys.PropertyOperator;
+import org.apache.iotdb.db.qp.logical.sys.SetTTLOperator;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.AggregationPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.FillQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.GroupByPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.LastQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.QueryPlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.qp.physical.sys.LoadDataPlan;
 import org.apache.iotdb.db.qp.physical.sys.MetadataPlan;
 import org.apache.iotdb.db.qp.physical.sys.PropertyPlan;
+import org.apache.iotdb.db.qp.physical.sys.SetTTLPlan;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 
@@ -87,6 +90,9 @@ public class PhysicalGenerator {
         PropertyOperator property = (PropertyOperator) operator;
         return new PropertyPlan(property.getPropertyType(), property.getPropertyPath(),
             property.getMetadataPath());
+      case TTL:
+        SetTTLOperator setTTL = (SetTTLOperator) operator;
+        return new SetTTLPlan(setTTL.getStorageGroup(), setTTL.getDataTTL());
       case DELETE:
         DeleteOperator delete = (DeleteOperator) operator;
         paths = delete.getSelectedPaths();
@@ -234,9 +240,15 @@ public class PhysicalGenerator {
 
     QueryPlan queryPlan;
 
+    if (queryOperator.isDescending() && (queryOperator.isGroupBy() || queryOperator.isFill()
+        || queryOperator.isLastQuery() || queryOperator.hasAggregation())) {
+      throw new QueryProcessorException("ORDER BY time DESC is only supported in raw data queries");
+    }
+
     if (queryOperator.isGroupBy()) {
       queryPlan = new GroupByPlan();
       ((GroupByPlan) queryPlan).setUnit(queryOperator.getUnit());
+      ((GroupByPlan) queryPlan).setSlidingStep(queryOperator.getSlidingStep());
       ((GroupByPlan) queryPlan).setOrigin(queryOperator.getOrigin());
       ((GroupByPlan) queryPlan).setIntervals(queryOperator.getIntervals());
       ((GroupByPlan) queryPlan).setAggregations(queryOperator.getSelectOperator().getAggregations());
@@ -249,12 +261,24 @@ public class PhysicalGenerator {
       long time = Long.parseLong(((BasicFunctionOperator) timeFilter).getValue());
       ((FillQueryPlan) queryPlan).setQueryTime(time);
       ((FillQueryPlan) queryPlan).setFillType(queryOperator.getFillTypes());
+    } else if (queryOperator.isLastQuery()) {
+      if (queryOperator.getFilterOperator() != null) {
+        throw new QueryProcessorException("Last-value query does not support where clause");
+      }
+      queryPlan = new LastQueryPlan();
     } else if (queryOperator.hasAggregation()) { // ordinary query
       queryPlan = new AggregationPlan();
       ((AggregationPlan) queryPlan)
           .setAggregations(queryOperator.getSelectOperator().getAggregations());
     } else {
       queryPlan = new QueryPlan();
+      queryPlan.setDescending(queryOperator.isDescending());
+      if (queryOperator.hasLimit()) {
+        // the offset is applied along with the limit by the client, so the rows it skips are
+        // still to be returned
+        long rowLimit = (long) queryOperator.getRowLimit() + queryOperator.getRowOffset();
+        queryPlan.setRowLimit((int) Math.min(rowLimit, Integer.MAX_VALUE));
+      }
     }
 
     // set selected paths
@@ -53,7 +53,19 @@ public abstract class AggregateFunction {
    *
    * @param pageHeader <code>PageHeader</code>
    */
-  public abstract void calculateValueFromPageHeader(PageHeader pageHeader)
+  public void calculateValueFromPageHeader(PageHeader pageHeader) throws ProcessorException {
+    calculateValueFromDigest(new DigestForAggregation(pageHeader));
+  }
+
+  /**
+   * <p>
+   * Calculate the aggregation using the digest of a page, a chunk or a TsFile without reading its
+   * data.
+   * </p>
+   *
+   * @param digest <code>DigestForAggregation</code>
+   */
+  public abstract void calculateValueFromDigest(DigestForAggregation digest)
       throws ProcessorException;
 
   /**
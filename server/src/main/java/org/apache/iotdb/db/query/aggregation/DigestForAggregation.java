@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.query.aggregation;
+
+import java.io.IOException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+
+/**
+ * Sums up a run of sequence data of one series, i.e. a page, a chunk or all chunks of the series
+ * in a TsFile, so that aggregations can be calculated without reading the data.
+ */
+public class DigestForAggregation {
+
+  private long minTime;
+  private long maxTime;
+  private long numOfValues;
+  private Statistics<?> statistics;
+
+  public DigestForAggregation(long minTime, long maxTime, long numOfValues,
+      Statistics<?> statistics) {
+    this.minTime = minTime;
+    this.maxTime = maxTime;
+    this.numOfValues = numOfValues;
+    this.statistics = statistics;
+  }
+
+  public DigestForAggregation(PageHeader pageHeader) {
+    this(pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp(), pageHeader.getNumOfValues(),
+        pageHeader.getStatistics());
+  }
+
+  /**
+   * construct the digest of a chunk from its metadata.
+   *
+   * @return null if some data in the chunk are deleted or the chunk has no statistics, in which
+   * case the chunk must be read by pages.
+   */
+  public static DigestForAggregation fromChunkMetaData(ChunkMetaData chunkMetaData)
+      throws IOException {
+    if (chunkMetaData.getDeletedAt() >= chunkMetaData.getStartTime()) {
+      return null;
+    }
+    Statistics<?> statistics = Statistics
+        .deserialize(chunkMetaData.getDigest(), chunkMetaData.getTsDataType());
+    if (statistics == null) {
+      return null;
+    }
+    return new DigestForAggregation(chunkMetaData.getStartTime(), chunkMetaData.getEndTime(),
+        chunkMetaData.getNumOfPoints(), statistics);
+  }
+
+  /**
+   * merge the digest of the data right after the data of this digest into this one.
+   */
+  public void merge(DigestForAggregation digest) {
+    minTime = Math.min(minTime, digest.minTime);
+    maxTime = Math.max(maxTime, digest.maxTime);
+    numOfValues += digest.numOfValues;
+    statistics.mergeStatistics(digest.statistics);
+  }
+
+  public long getMinTime() {
+    return minTime;
+  }
+
+  public long getMaxTime() {
+    return maxTime;
+  }
+
+  public long getNumOfValues() {
+    return numOfValues;
+  }
+
+  public Statistics<?> getStatistics() {
+    return statistics;
+  }
+}
@@ -0,0 +1,258 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.query.aggregation;
+
+import java.io.IOException;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+/**
+ * Incremental aggregation state of one series in sliding windows. The windows move forward
+ * monotonically, so each point is added once when the window end passes it and removed once when
+ * the window start passes it, however much the windows overlap:
+ * <ul>
+ * <li>count, sum and mean keep running totals and subtract the removed points;</li>
+ * <li>first, last, min_time and max_time are the oldest or the newest point in the window;</li>
+ * <li>min_value and max_value keep a monotonic queue of the candidates in the window.</li>
+ * </ul>
+ */
+public class SlidingWindowAggregator {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private String aggregation;
+  private TSDataType seriesDataType;
+  private AggreResultData resultData;
+
+  /**
+   * the points in the window in time order. They are kept in ring buffers indexed by their
+   * sequence numbers, the oldest point of the window has the sequence number headSeq.
+   */
+  private long[] times;
+  private Object[] values;
+  private long headSeq;
+  private long tailSeq;
+
+  /**
+   * sequence numbers of the candidates of min_value or max_value, whose values are monotonic.
+   */
+  private long[] extremeSeqs;
+  private long extremeHead;
+  private long extremeTail;
+
+  private double sum;
+
+  /**
+   * construct.
+   *
+   * @param aggregation aggregation name
+   * @param seriesDataType data type of the series
+   */
+  public SlidingWindowAggregator(String aggregation, TSDataType seriesDataType)
+      throws ProcessorException {
+    this.aggregation = aggregation.toLowerCase();
+    this.seriesDataType = seriesDataType;
+    switch (this.aggregation) {
+      case StatisticConstant.COUNT:
+      case StatisticConstant.MIN_TIME:
+      case StatisticConstant.MAX_TIME:
+        resultData = new AggreResultData(TSDataType.INT64);
+        break;
+      case StatisticConstant.SUM:
+      case StatisticConstant.MEAN:
+        if (seriesDataType == TSDataType.TEXT || seriesDataType == TSDataType.BOOLEAN) {
+          throw new ProcessorException(String
+              .format("Unsupported data type in aggregation %s : %s", aggregation,
+                  seriesDataType));
+        }
+        resultData = new AggreResultData(TSDataType.DOUBLE);
+        break;
+      case StatisticConstant.MIN_VALUE:
+      case StatisticConstant.MAX_VALUE:
+      case StatisticConstant.FIRST:
+      case StatisticConstant.LAST:
+        resultData = new AggreResultData(seriesDataType);
+        break;
+      default:
+        throw new ProcessorException("aggregate does not support " + aggregation + " function.");
+    }
+    this.times = new long[INITIAL_CAPACITY];
+    this.values = new Object[INITIAL_CAPACITY];
+    this.extremeSeqs = new long[INITIAL_CAPACITY];
+  }
+
+  public TSDataType getResultDataType() {
+    return resultData.getDataType();
+  }
+
+  /**
+   * add a point newer than all points in the window.
+   */
+  public void add(long time, Object value) {
+    if (tailSeq - headSeq == times.length) {
+      enlarge();
+    }
+    int index = index(tailSeq);
+    times[index] = time;
+    values[index] = value;
+    switch (aggregation) {
+      case StatisticConstant.SUM:
+      case StatisticConstant.MEAN:
+        sum += toDouble(value);
+        break;
+      case StatisticConstant.MIN_VALUE:
+        addCandidate(tailSeq, value, 1);
+        break;
+      case StatisticConstant.MAX_VALUE:
+        addCandidate(tailSeq, value, -1);
+        break;
+      default:
+        break;
+    }
+    tailSeq++;
+  }
+
+  /**
+   * remove the points whose timestamps are less than the given time from the window.
+   */
+  public void removeBefore(long time) {
+    while (headSeq < tailSeq && times[index(headSeq)] < time) {
+      int index = index(headSeq);
+      if (aggregation.equals(StatisticConstant.SUM) || aggregation.equals(StatisticConstant.MEAN)) {
+        sum -= toDouble(values[index]);
+      }
+      values[index] = null;
+      if (extremeHead < extremeTail && extremeSeqs[index(extremeHead)] == headSeq) {
+        extremeHead++;
+      }
+      headSeq++;
+    }
+    if (headSeq == tailSeq) {
+      // do not carry the rounding errors of the subtractions into the next points
+      sum = 0;
+    }
+  }
+
+  /**
+   * @return the aggregation of the points in the window.
+   */
+  public AggreResultData getResult() {
+    resultData.reset();
+    long size = tailSeq - headSeq;
+    switch (aggregation) {
+      case StatisticConstant.COUNT:
+        resultData.setTimestamp(0);
+        resultData.setLongRet(size);
+        return resultData;
+      case StatisticConstant.SUM:
+        // sum is 0 for empty windows as SumAggrFunc
+        resultData.setTimestamp(0);
+        resultData.setDoubleRet(sum);
+        return resultData;
+      default:
+        break;
+    }
+    if (size == 0) {
+      return resultData;
+    }
+    int head = index(headSeq);
+    int tail = index(tailSeq - 1);
+    switch (aggregation) {
+      case StatisticConstant.MEAN:
+        resultData.setTimestamp(0);
+        resultData.setDoubleRet(sum / size);
+        break;
+      case StatisticConstant.MIN_TIME:
+        resultData.setTimestamp(0);
+        resultData.setLongRet(times[head]);
+        break;
+      case StatisticConstant.MAX_TIME:
+        resultData.setTimestamp(0);
+        resultData.setLongRet(times[tail]);
+        break;
+      case StatisticConstant.FIRST:
+        resultData.putTimeAndValue(0, values[head]);
+        break;
+      case StatisticConstant.LAST:
+        resultData.putTimeAndValue(0, values[tail]);
+        break;
+      default:
+        // min_value or max_value
+        resultData.putTimeAndValue(0, values[index(extremeSeqs[index(extremeHead)])]);
+        break;
+    }
+    return resultData;
+  }
+
+  /**
+   * append a point to the monotonic queue after removing the candidates it beats.
+   *
+   * @param sign 1 if the queue keeps the minimum, -1 if it keeps the maximum
+   */
+  @SuppressWarnings("unchecked")
+  private void addCandidate(long seq, Object value, int sign) {
+    while (extremeHead < extremeTail) {
+      Object last = values[index(extremeSeqs[index(extremeTail - 1)])];
+      if (((Comparable<Object>) last).compareTo(value) * sign < 0) {
+        break;
+      }
+      extremeTail--;
+    }
+    extremeSeqs[index(extremeTail++)] = seq;
+  }
+
+  private double toDouble(Object value) {
+    switch (seriesDataType) {
+      case INT32:
+        return (int) value;
+      case INT64:
+        return (long) value;
+      case FLOAT:
+        return (float) value;
+      default:
+        return (double) value;
+    }
+  }
+
+  private int index(long seq) {
+    return (int) (seq & (times.length - 1));
+  }
+
+  /**
+   * double the ring buffers, the points keep their sequence numbers.
+   */
+  private void enlarge() {
+    long[] oldTimes = times;
+    Object[] oldValues = values;
+    long[] oldExtremeSeqs = extremeSeqs;
+    int oldMask = oldTimes.length - 1;
+    times = new long[oldTimes.length * 2];
+    values = new Object[oldTimes.length * 2];
+    extremeSeqs = new long[oldTimes.length * 2];
+    for (long seq = headSeq; seq < tailSeq; seq++) {
+      times[index(seq)] = oldTimes[(int) (seq & oldMask)];
+      values[index(seq)] = oldValues[(int) (seq & oldMask)];
+    }
+    for (long i = extremeHead; i < extremeTail; i++) {
+      extremeSeqs[index(i)] = oldExtremeSeqs[(int) (i & oldMask)];
+    }
+  }
+}
@@ -22,9 +22,9 @@ package org.apache.iotdb.db.query.aggregation.impl;
 import java.io.IOException;
 import org.apache.iotdb.db.query.aggregation.AggreResultData;
 import org.apache.iotdb.db.query.aggregation.AggregateFunction;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
-import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.slf4j.Logger;
@@ -51,13 +51,13 @@ public class CountAggrFunc extends AggregateFunction {
   }
 
   @Override
-  public void calculateValueFromPageHeader(PageHeader pageHeader) {
+  public void calculateValueFromDigest(DigestForAggregation digest) {
     if (logger.isDebugEnabled()) {
-      logger.debug("PageHeader>>>>>>>>>>>>num of rows:{}, minTimeStamp:{}, maxTimeStamp{}",
-          pageHeader.getNumOfValues(), pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp());
+      logger.debug("Digest>>>>>>>>>>>>num of rows:{}, minTimeStamp:{}, maxTimeStamp{}",
+          digest.getNumOfValues(), digest.getMinTime(), digest.getMaxTime());
     }
     long preValue = resultData.getLongRet();
-    preValue += pageHeader.getNumOfValues();
+    preValue += digest.getNumOfValues();
     resultData.setLongRet(preValue);
 
   }
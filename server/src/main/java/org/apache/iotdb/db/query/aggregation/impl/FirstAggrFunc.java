@@ -23,9 +23,9 @@ import java.io.IOException;
 import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.query.aggregation.AggreResultData;
 import org.apache.iotdb.db.query.aggregation.AggregateFunction;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
-import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 
@@ -46,14 +46,14 @@ public class FirstAggrFunc extends AggregateFunction {
   }
 
   @Override
-  public void calculateValueFromPageHeader(PageHeader pageHeader) throws ProcessorException {
+  public void calculateValueFromDigest(DigestForAggregation digest) throws ProcessorException {
     if (resultData.isSetTime()) {
       return;
     }
 
-    Object firstVal = pageHeader.getStatistics().getFirst();
+    Object firstVal = digest.getStatistics().getFirst();
     if (firstVal == null) {
-      throw new ProcessorException("PageHeader contains no FIRST value");
+      throw new ProcessorException("Digest contains no FIRST value");
     }
     resultData.putTimeAndValue(0, firstVal);
   }
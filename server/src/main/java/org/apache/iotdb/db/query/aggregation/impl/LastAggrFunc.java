@@ -22,10 +22,10 @@ package org.apache.iotdb.db.query.aggregation.impl;
 import java.io.IOException;
 import org.apache.iotdb.db.query.aggregation.AggreResultData;
 import org.apache.iotdb.db.query.aggregation.AggregateFunction;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
 import org.apache.iotdb.db.utils.TimeValuePair;
-import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 
@@ -49,9 +49,9 @@ public class LastAggrFunc extends AggregateFunction {
   }
 
   @Override
-  public void calculateValueFromPageHeader(PageHeader pageHeader) {
-    Object lastVal = pageHeader.getStatistics().getLast();
-    updateLastResult(pageHeader.getMaxTimestamp(), lastVal);
+  public void calculateValueFromDigest(DigestForAggregation digest) {
+    Object lastVal = digest.getStatistics().getLast();
+    updateLastResult(digest.getMaxTime(), lastVal);
   }
 
   @Override
@@ -22,9 +22,9 @@ package org.apache.iotdb.db.query.aggregation.impl;
 import java.io.IOException;
 import org.apache.iotdb.db.query.aggregation.AggreResultData;
 import org.apache.iotdb.db.query.aggregation.AggregateFunction;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
-import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 
@@ -45,8 +45,8 @@ public class MaxValueAggrFunc extends AggregateFunction {
   }
 
   @Override
-  public void calculateValueFromPageHeader(PageHeader pageHeader) {
-    Comparable<Object> maxVal = (Comparable<Object>) pageHeader.getStatistics().getMax();
+  public void calculateValueFromDigest(DigestForAggregation digest) {
+    Comparable<Object> maxVal = (Comparable<Object>) digest.getStatistics().getMax();
     updateResult(maxVal);
   }
 
@@ -20,9 +20,10 @@
 package org.apache.iotdb.db.query.context;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 
@@ -35,13 +36,20 @@ public class QueryContext {
    * The outer key is the path of a ModificationFile, the inner key in the name of a timeseries and
    * the value is the Modifications of a timeseries in this file.
    */
-  private Map<String, Map<String, List<Modification>>> filePathModCache = new HashMap<>();
+  private Map<String, Map<String, List<Modification>>> filePathModCache = new ConcurrentHashMap<>();
   /**
    * The key is the path of a ModificationFile and the value is all Modifications in this file. We
    * use this field because each call of Modification.getModifications() return a copy of the
    * Modifications, and we do not want it to create multiple copies within a query.
    */
-  private Map<String, List<Modification>> fileModCache = new HashMap<>();
+  private Map<String, List<Modification>> fileModCache = new ConcurrentHashMap<>();
+
+  /**
+   * The key is the name of a query phase and the value is the wall time and CPU time in nanoseconds
+   * spent in this phase. As the tasks of a phase may run in parallel, the CPU time can be larger
+   * than the wall time.
+   */
+  private Map<String, long[]> timeCosts = new LinkedHashMap<>();
 
   private long jobId;
 
@@ -54,37 +62,62 @@ public class QueryContext {
 
   /**
    * Find the modifications of timeseries 'path' in 'modFile'. If they are not in the cache, read
-   * them from 'modFile' and put then into the cache.
+   * them from 'modFile' and put then into the cache. This method is thread-safe as the series of
+   * a query may be read in parallel.
    */
   public List<Modification> getPathModifications(ModificationFile modFile, String path) {
 
     Map<String, List<Modification>> fileModifications =
-        filePathModCache.computeIfAbsent(modFile.getFilePath(), k -> new HashMap<>());
-    List<Modification> pathModifications = fileModifications.get(path);
-
-    if (pathModifications == null) {
-      List<Modification> allModifications = fileModCache.get(modFile.getFilePath());
-      if (allModifications == null) {
-        allModifications = (List<Modification>) modFile.getModifications();
-        fileModCache.put(modFile.getFilePath(), allModifications);
-      }
-      pathModifications = new ArrayList<>();
-      if (!allModifications.isEmpty()) {
-        List<Modification> finalPathModifications = pathModifications;
-        allModifications.forEach(modification -> {
-          if (modification.getPathString().equals(path)) {
-            finalPathModifications.add(modification);
-          }
-        });
+        filePathModCache.computeIfAbsent(modFile.getFilePath(), k -> new ConcurrentHashMap<>());
+    return fileModifications.computeIfAbsent(path, k -> {
+      List<Modification> allModifications = fileModCache.computeIfAbsent(modFile.getFilePath(),
+          filePath -> (List<Modification>) modFile.getModifications());
+      List<Modification> pathModifications = new ArrayList<>();
+      for (Modification modification : allModifications) {
+        if (modification.getPathString().equals(path)) {
+          pathModifications.add(modification);
+        }
       }
-      fileModifications.put(path, pathModifications);
-    }
-
-    return pathModifications;
+      return pathModifications;
+    });
   }
 
   public long getJobId() {
     return jobId;
   }
 
+  /**
+   * add the wall time and CPU time spent in a phase of this query.
+   */
+  public synchronized void addTimeCost(String phase, long wallTimeNs, long cpuTimeNs) {
+    long[] cost = timeCosts.computeIfAbsent(phase, k -> new long[2]);
+    cost[0] += wallTimeNs;
+    cost[1] += cpuTimeNs;
+  }
+
+  /**
+   * @return the wall time and CPU time in nanoseconds spent in each phase of this query, in the
+   * order the phases happen.
+   */
+  public synchronized Map<String, long[]> getTimeCostBreakdown() {
+    Map<String, long[]> breakdown = new LinkedHashMap<>();
+    timeCosts.forEach((phase, cost) -> breakdown.put(phase, cost.clone()));
+    return breakdown;
+  }
+
+  /**
+   * @return the time costs of this query in the form of "phase: wall time ms (CPU time ms), ...".
+   */
+  public synchronized String getTimeCostString() {
+    StringBuilder builder = new StringBuilder();
+    timeCosts.forEach((phase, cost) -> {
+      if (builder.length() > 0) {
+        builder.append(", ");
+      }
+      builder.append(phase).append(": ").append(cost[0] / 1000_000).append("ms (CPU ")
+          .append(cost[1] / 1000_000).append("ms)");
+    });
+    return builder.toString();
+  }
+
 }
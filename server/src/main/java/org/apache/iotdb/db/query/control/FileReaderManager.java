@@ -26,6 +26,9 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.cache.ChunkCache;
+import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
+import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
@@ -171,11 +174,25 @@ public class FileReaderManager implements IService {
     }
   }
 
+  /**
+   * @return whether the reader of the file is still used by any query, a file can be deleted only
+   * when it is not.
+   */
+  public synchronized boolean hasReference(String filePath) {
+    AtomicInteger closedReference = closedReferenceMap.get(filePath);
+    AtomicInteger unclosedReference = unclosedReferenceMap.get(filePath);
+    return (closedReference != null && closedReference.get() > 0)
+        || (unclosedReference != null && unclosedReference.get() > 0);
+  }
+
   /**
    * This method is used when the given file path is deleted.
    */
   public synchronized void closeFileAndRemoveReader(String filePath)
       throws IOException {
+    ChunkCache.getInstance().remove(filePath);
+    TsFileMetaDataCache.getInstance().remove(filePath);
+    DeviceMetaDataCache.getInstance().remove(filePath);
     if (unclosedFileReaderMap.containsKey(filePath)) {
       unclosedReferenceMap.remove(filePath);
       unclosedFileReaderMap.get(filePath).close();
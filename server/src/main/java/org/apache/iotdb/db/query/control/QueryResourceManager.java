@@ -34,6 +34,7 @@ import org.apache.iotdb.tsfile.read.expression.ExpressionType;
 import org.apache.iotdb.tsfile.read.expression.IBinaryExpression;
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 /**
  * <p>
@@ -158,8 +159,18 @@ public class QueryResourceManager {
 
   public QueryDataSource getQueryDataSource(Path selectedPath,
       QueryContext context) throws StorageEngineException {
+    return getQueryDataSource(selectedPath, context, null);
+  }
+
+  /**
+   * @param filter the filter of the query, which is used to skip the files out of its time range,
+   * null if there is no filter.
+   */
+  public QueryDataSource getQueryDataSource(Path selectedPath, QueryContext context,
+      Filter filter) throws StorageEngineException {
 
-    SingleSeriesExpression singleSeriesExpression = new SingleSeriesExpression(selectedPath, null);
+    SingleSeriesExpression singleSeriesExpression = new SingleSeriesExpression(selectedPath,
+        filter);
     QueryDataSource queryDataSource = StorageEngine
         .getInstance().query(singleSeriesExpression, context);
 
@@ -178,14 +189,15 @@ public class QueryResourceManager {
       // no resource need to be released.
       return;
     }
+    // remove usage of opened file paths of current thread before ending the query, so that the
+    // files replaced by a merge can be deleted when the query ends
+    filePathsManager.removeUsedFilesForGivenJob(jobId);
     for (Map.Entry<String, List<Integer>> entry : queryTokensMap.get(jobId).entrySet()) {
       for (int token : entry.getValue()) {
         StorageEngine.getInstance().endQuery(entry.getKey(), token);
       }
     }
     queryTokensMap.remove(jobId);
-    // remove usage of opened file paths of current thread
-    filePathsManager.removeUsedFilesForGivenJob(jobId);
   }
 
   private void getUniquePaths(IExpression expression, Set<String> deviceIdSet) {
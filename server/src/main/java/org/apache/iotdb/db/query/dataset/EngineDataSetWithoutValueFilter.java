@@ -16,36 +16,70 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-
 package org.apache.iotdb.db.query.dataset;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Set;
+import org.apache.iotdb.db.query.reader.IBatchReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TsPrimitiveType;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Field;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
- * TODO implement this class as TsFile DataSetWithoutTimeGenerator.
+ * Align the series without value filter by time. The series whose readers are also {@link
+ * IBatchReader}s are read in batches, the others point by point. The current time of each series
+ * is kept in a primitive heap, so a row only touches the series having a value at its time.
  */
 public class EngineDataSetWithoutValueFilter extends QueryDataSet {
 
   private List<IPointReader> seriesReaderWithoutValueFilterList;
 
-  private TimeValuePair[] cacheTimeValueList;
+  /**
+   * the batch reader of each series, or null if the series is read point by point.
+   */
+  private IBatchReader[] batchReaders;
+
+  /**
+   * the current batch of each series read in batches, positioned at its current point.
+   */
+  private BatchData[] cachedBatchDataList;
 
-  private PriorityQueue<Long> timeHeap;
+  /**
+   * the current point of each series read point by point.
+   */
+  private TimeValuePair[] cachedTimeValueList;
+
+  private TSDataType[] dataTypeArray;
+
+  private TimeHeap timeHeap;
+
+  /**
+   * the series polled from the heap for the current row.
+   */
+  private int[] polledSeries;
+  private int polledNum;
+
+  /**
+   * True if the readers return their points in descending order of time, in which case the rows
+   * are also returned in descending order and all the readers are read point by point.
+   */
+  private boolean descending;
 
-  private Set<Long> timeSet;
+  /**
+   * the max number of rows to return, so that no more data is read once it is reached.
+   */
+  private int rowLimit = Integer.MAX_VALUE;
+  private int rowNum = 0;
 
   /**
    * constructor of EngineDataSetWithoutValueFilter.
@@ -58,55 +92,203 @@ public class EngineDataSetWithoutValueFilter extends QueryDataSet {
   public EngineDataSetWithoutValueFilter(List<Path> paths, List<TSDataType> dataTypes,
                                          List<IPointReader> readers)
       throws IOException {
+    this(paths, dataTypes, readers, false);
+  }
+
+  /**
+   * constructor of EngineDataSetWithoutValueFilter.
+   *
+   * @param paths paths in List structure
+   * @param dataTypes time series data type
+   * @param readers readers in List(IPointReader) structure
+   * @param descending true if the readers return their points in descending order of time
+   * @throws IOException IOException
+   */
+  public EngineDataSetWithoutValueFilter(List<Path> paths, List<TSDataType> dataTypes,
+      List<IPointReader> readers, boolean descending) throws IOException {
     super(paths, dataTypes);
     this.seriesReaderWithoutValueFilterList = readers;
+    this.descending = descending;
     initHeap();
   }
 
+  /**
+   * set the max number of rows to return, the points after them are never read.
+   */
+  public void setRowLimit(int rowLimit) {
+    this.rowLimit = rowLimit;
+  }
+
   private void initHeap() throws IOException {
-    timeSet = new HashSet<>();
-    timeHeap = new PriorityQueue<>();
-    cacheTimeValueList = new TimeValuePair[seriesReaderWithoutValueFilterList.size()];
+    int seriesNum = seriesReaderWithoutValueFilterList.size();
+    timeHeap = new TimeHeap(seriesNum, descending);
+    polledSeries = new int[seriesNum];
+    dataTypeArray = dataTypes.toArray(new TSDataType[0]);
+    batchReaders = new IBatchReader[seriesNum];
+    cachedBatchDataList = new BatchData[seriesNum];
+    cachedTimeValueList = new TimeValuePair[seriesNum];
 
-    for (int i = 0; i < seriesReaderWithoutValueFilterList.size(); i++) {
+    for (int i = 0; i < seriesNum; i++) {
       IPointReader reader = seriesReaderWithoutValueFilterList.get(i);
-      if (reader.hasNext()) {
-        TimeValuePair timeValuePair = reader.next();
-        cacheTimeValueList[i] = timeValuePair;
-        timeHeapPut(timeValuePair.getTimestamp());
+      if (!descending && reader instanceof IBatchReader) {
+        batchReaders[i] = (IBatchReader) reader;
+        fetchBatch(i);
+      } else if (reader.hasNext()) {
+        cachedTimeValueList[i] = reader.next();
+        timeHeap.push(cachedTimeValueList[i].getTimestamp(), i);
       }
     }
   }
 
   @Override
   public boolean hasNext() {
-    return !timeHeap.isEmpty();
+    return rowNum < rowLimit && !timeHeap.isEmpty();
   }
 
   @Override
   public RowRecord next() throws IOException {
-    long minTime = timeHeapGet();
+    long minTime = pollMinTime();
+    rowNum++;
+
+    Field[] fields = new Field[seriesReaderWithoutValueFilterList.size()];
+    for (int k = 0; k < polledNum; k++) {
+      int i = polledSeries[k];
+      if (batchReaders[i] != null) {
+        fields[i] = getField(cachedBatchDataList[i]);
+      } else {
+        fields[i] = getField(cachedTimeValueList[i].getValue(), dataTypes.get(i));
+      }
+      if (rowNum < rowLimit) {
+        advance(i);
+      }
+    }
 
     RowRecord record = new RowRecord(minTime);
+    for (Field field : fields) {
+      record.addField(field == null ? new Field(null) : field);
+    }
+    return record;
+  }
 
-    for (int i = 0; i < seriesReaderWithoutValueFilterList.size(); i++) {
-      IPointReader reader = seriesReaderWithoutValueFilterList.get(i);
-      if (cacheTimeValueList[i] == null) {
-        record.addField(new Field(null));
-      } else {
-        if (cacheTimeValueList[i].getTimestamp() == minTime) {
-          record.addField(getField(cacheTimeValueList[i].getValue(), dataTypes.get(i)));
-          if (seriesReaderWithoutValueFilterList.get(i).hasNext()) {
-            cacheTimeValueList[i] = reader.next();
-            timeHeapPut(cacheTimeValueList[i].getTimestamp());
-          }
-        } else {
-          record.addField(new Field(null));
+  /**
+   * fill the next rows into primitive columns without creating RowRecords or Fields.
+   *
+   * @param maxRowNum max number of rows to fill
+   * @param times the time of each row
+   * @param columns the column of each series, a boolean[], int[], long[], float[], double[] or
+   * Binary[] according to its data type, into which only the non-null values are put
+   * @param valueCounts returns the number of values put into each column
+   * @param bitmaps the bitmap of each series, bit (bitmapOffset + i) is set if row i has a value
+   * @param bitmapOffset the bit of the first row in the bitmaps
+   * @return number of rows filled
+   */
+  public int fillColumns(int maxRowNum, long[] times, Object[] columns, int[] valueCounts,
+      BitSet[] bitmaps, int bitmapOffset) throws IOException {
+    Arrays.fill(valueCounts, 0);
+    maxRowNum = Math.min(maxRowNum, rowLimit - rowNum);
+    int rowCount = 0;
+    while (rowCount < maxRowNum && !timeHeap.isEmpty()) {
+      times[rowCount] = pollMinTime();
+      for (int k = 0; k < polledNum; k++) {
+        int i = polledSeries[k];
+        if (batchReaders[i] != null) {
+          putValue(columns[i], valueCounts[i]++, cachedBatchDataList[i]);
+          bitmaps[i].set(bitmapOffset + rowCount);
+        } else if (cachedTimeValueList[i].getValue() != null) {
+          putValue(columns[i], valueCounts[i]++, cachedTimeValueList[i].getValue(),
+              dataTypeArray[i]);
+          bitmaps[i].set(bitmapOffset + rowCount);
+        }
+        if (rowNum + rowCount + 1 < rowLimit) {
+          advance(i);
         }
       }
+      rowCount++;
     }
+    rowNum += rowCount;
+    return rowCount;
+  }
 
-    return record;
+  /**
+   * poll all the series at the min time (the max time if descending) into polledSeries. The series are advanced only after all
+   * of them are polled, so that the heap does not mix the entries of two rows while polling,
+   * which keeps both polling and pushing cheap when the series are aligned.
+   *
+   * @return the min time
+   */
+  private long pollMinTime() {
+    long minTime = timeHeap.peekTime();
+    polledNum = 0;
+    while (!timeHeap.isEmpty() && timeHeap.peekTime() == minTime) {
+      polledSeries[polledNum++] = timeHeap.poll();
+    }
+    return minTime;
+  }
+
+  /**
+   * move the series to its next point and put the point into the heap.
+   */
+  private void advance(int seriesIndex) throws IOException {
+    if (batchReaders[seriesIndex] != null) {
+      BatchData batchData = cachedBatchDataList[seriesIndex];
+      batchData.next();
+      if (batchData.hasNext()) {
+        timeHeap.push(batchData.currentTime(), seriesIndex);
+      } else {
+        fetchBatch(seriesIndex);
+      }
+    } else {
+      IPointReader reader = seriesReaderWithoutValueFilterList.get(seriesIndex);
+      if (reader.hasNext()) {
+        cachedTimeValueList[seriesIndex] = reader.next();
+        timeHeap.push(cachedTimeValueList[seriesIndex].getTimestamp(), seriesIndex);
+      } else {
+        cachedTimeValueList[seriesIndex] = null;
+      }
+    }
+  }
+
+  /**
+   * read the next non-empty batch of the series and put its first point into the heap.
+   */
+  private void fetchBatch(int seriesIndex) throws IOException {
+    IBatchReader reader = batchReaders[seriesIndex];
+    while (reader.hasNext()) {
+      BatchData batchData = reader.nextBatch();
+      if (batchData.hasNext()) {
+        cachedBatchDataList[seriesIndex] = batchData;
+        timeHeap.push(batchData.currentTime(), seriesIndex);
+        return;
+      }
+    }
+    cachedBatchDataList[seriesIndex] = null;
+  }
+
+  private Field getField(BatchData batchData) {
+    Field field = new Field(batchData.getDataType());
+    switch (batchData.getDataType()) {
+      case INT32:
+        field.setIntV(batchData.getInt());
+        break;
+      case INT64:
+        field.setLongV(batchData.getLong());
+        break;
+      case FLOAT:
+        field.setFloatV(batchData.getFloat());
+        break;
+      case DOUBLE:
+        field.setDoubleV(batchData.getDouble());
+        break;
+      case BOOLEAN:
+        field.setBoolV(batchData.getBoolean());
+        break;
+      case TEXT:
+        field.setBinaryV(batchData.getBinary());
+        break;
+      default:
+        throw new UnSupportedDataTypeException("UnSupported: " + batchData.getDataType());
+    }
+    return field;
   }
 
   private Field getField(TsPrimitiveType tsPrimitiveType, TSDataType dataType) {
@@ -139,20 +321,55 @@ public class EngineDataSetWithoutValueFilter extends QueryDataSet {
     return field;
   }
 
-  /**
-   * keep heap from storing duplicate time.
-   */
-  private void timeHeapPut(long time) {
-    if (!timeSet.contains(time)) {
-      timeSet.add(time);
-      timeHeap.add(time);
+  private void putValue(Object column, int index, BatchData batchData) {
+    switch (batchData.getDataType()) {
+      case INT32:
+        ((int[]) column)[index] = batchData.getInt();
+        break;
+      case INT64:
+        ((long[]) column)[index] = batchData.getLong();
+        break;
+      case FLOAT:
+        ((float[]) column)[index] = batchData.getFloat();
+        break;
+      case DOUBLE:
+        ((double[]) column)[index] = batchData.getDouble();
+        break;
+      case BOOLEAN:
+        ((boolean[]) column)[index] = batchData.getBoolean();
+        break;
+      case TEXT:
+        ((Binary[]) column)[index] = batchData.getBinary();
+        break;
+      default:
+        throw new UnSupportedDataTypeException("UnSupported: " + batchData.getDataType());
     }
   }
 
-  private Long timeHeapGet() {
-    Long t = timeHeap.poll();
-    timeSet.remove(t);
-    return t;
+  private void putValue(Object column, int index, TsPrimitiveType tsPrimitiveType,
+      TSDataType dataType) {
+    switch (dataType) {
+      case INT32:
+        ((int[]) column)[index] = tsPrimitiveType.getInt();
+        break;
+      case INT64:
+        ((long[]) column)[index] = tsPrimitiveType.getLong();
+        break;
+      case FLOAT:
+        ((float[]) column)[index] = tsPrimitiveType.getFloat();
+        break;
+      case DOUBLE:
+        ((double[]) column)[index] = tsPrimitiveType.getDouble();
+        break;
+      case BOOLEAN:
+        ((boolean[]) column)[index] = tsPrimitiveType.getBoolean();
+        break;
+      case TEXT:
+        ((Binary[]) column)[index] = tsPrimitiveType.getBinary();
+        break;
+      default:
+        throw new UnSupportedDataTypeException("UnSupported: " + dataType);
+    }
   }
 
   public List<IPointReader> getReaders() {
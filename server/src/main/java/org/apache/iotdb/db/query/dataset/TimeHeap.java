@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of (time, series index) in primitive arrays, used to merge the points of
+ * several series by time without boxing the timestamps. Series with the same time are polled one
+ * after another. A descending heap keeps the bitwise complement of each time, which reverses the
+ * order of all long values without overflow, so that it polls the max time first.
+ */
+class TimeHeap {
+
+  private long[] times;
+  private int[] seriesIndexes;
+  private int size = 0;
+  private boolean descending;
+
+  TimeHeap(int capacity) {
+    this(capacity, false);
+  }
+
+  TimeHeap(int capacity, boolean descending) {
+    this.descending = descending;
+    capacity = Math.max(capacity, 1);
+    times = new long[capacity];
+    seriesIndexes = new int[capacity];
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void push(long time, int seriesIndex) {
+    if (descending) {
+      time = ~time;
+    }
+    if (size == times.length) {
+      times = Arrays.copyOf(times, size * 2);
+      seriesIndexes = Arrays.copyOf(seriesIndexes, size * 2);
+    }
+    int i = size++;
+    // sift up
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (times[parent] <= time) {
+        break;
+      }
+      times[i] = times[parent];
+      seriesIndexes[i] = seriesIndexes[parent];
+      i = parent;
+    }
+    times[i] = time;
+    seriesIndexes[i] = seriesIndex;
+  }
+
+  /**
+   * @return the min time, or the max time if the heap is descending. The heap must not be empty.
+   */
+  long peekTime() {
+    return descending ? ~times[0] : times[0];
+  }
+
+  /**
+   * remove the entry with the min time, or with the max time if the heap is descending.
+   *
+   * @return the series index of the entry
+   */
+  int poll() {
+    int result = seriesIndexes[0];
+    size--;
+    if (size > 0) {
+      long time = times[size];
+      int seriesIndex = seriesIndexes[size];
+      // sift down
+      int i = 0;
+      int half = size >>> 1;
+      while (i < half) {
+        int child = 2 * i + 1;
+        if (child + 1 < size && times[child + 1] < times[child]) {
+          child++;
+        }
+        if (time <= times[child]) {
+          break;
+        }
+        times[i] = times[child];
+        seriesIndexes[i] = seriesIndexes[child];
+        i = child;
+      }
+      times[i] = time;
+      seriesIndexes[i] = seriesIndex;
+    }
+    return result;
+  }
+}
@@ -38,9 +38,9 @@ public abstract class GroupByEngineDataSet extends QueryDataSet {
 
   protected long jobId;
   protected List<Path> selectedSeries;
-  private long unit;
-  private long origin;
-  private List<Pair<Long, Long>> mergedIntervals;
+  protected long unit;
+  protected long origin;
+  protected List<Pair<Long, Long>> mergedIntervals;
 
   protected long startTime;
   protected long endTime;
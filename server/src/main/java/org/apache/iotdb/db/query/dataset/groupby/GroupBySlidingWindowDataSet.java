@@ -0,0 +1,236 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.query.dataset.groupby;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.query.aggregation.SlidingWindowAggregator;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderByTimestamp;
+import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
+import org.apache.iotdb.db.query.timegenerator.EngineTimeGenerator;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.expression.ExpressionType;
+import org.apache.iotdb.tsfile.read.expression.IExpression;
+import org.apache.iotdb.tsfile.read.expression.impl.GlobalTimeExpression;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.query.timegenerator.TimeGenerator;
+import org.apache.iotdb.tsfile.utils.Pair;
+
+/**
+ * GroupBySlidingWindowDataSet answers GROUP BY queries whose groups are windows of length unit
+ * starting every slidingStep from the origin, which overlap if slidingStep is less than unit.
+ * The windows starting inside the merged intervals are returned, each row is timestamped with the
+ * start time of its window.
+ *
+ * The data of each series is read once in time order, and the aggregations are maintained
+ * incrementally by {@link SlidingWindowAggregator} as the windows move forward.
+ */
+public class GroupBySlidingWindowDataSet extends GroupByEngineDataSet {
+
+  private long slidingStep;
+  private List<SlidingWindowAggregator> aggregators;
+  /**
+   * index of the merged interval that the current window starts in.
+   */
+  private int intervalIndex;
+  private boolean hasWindow;
+  private QueryContext context;
+
+  /**
+   * readers of the series without value filter.
+   */
+  private List<IPointReader> pointReaders;
+
+  /**
+   * the timestamps satisfying the value filter and the readers of the series by them.
+   */
+  private TimeGenerator timestampGenerator;
+  private List<IReaderByTimestamp> readersByTimestamp;
+  private long timestamp;
+  private boolean hasCachedTimestamp;
+
+  /**
+   * constructor.
+   */
+  public GroupBySlidingWindowDataSet(long jobId, List<Path> paths, long unit, long slidingStep,
+      long origin, List<Pair<Long, Long>> mergedIntervals) {
+    super(jobId, paths, unit, origin, mergedIntervals);
+    this.slidingStep = slidingStep;
+    this.aggregators = new ArrayList<>();
+  }
+
+  /**
+   * init readers and aggregators.
+   */
+  public void initGroupBy(QueryContext context, List<String> aggres, IExpression expression)
+      throws StorageEngineException, PathErrorException, ProcessorException, IOException {
+    this.context = context;
+    List<TSDataType> types = new ArrayList<>();
+    for (int i = 0; i < selectedSeries.size(); i++) {
+      TSDataType tsDataType = MManager.getInstance()
+          .getSeriesType(selectedSeries.get(i).getFullPath());
+      SlidingWindowAggregator aggregator = new SlidingWindowAggregator(aggres.get(i), tsDataType);
+      aggregators.add(aggregator);
+      types.add(aggregator.getResultDataType());
+    }
+    setDataTypes(types);
+
+    if (expression == null || expression.getType() == ExpressionType.GLOBAL_TIME) {
+      Filter timeFilter = expression == null ? null
+          : ((GlobalTimeExpression) expression).getFilter();
+      QueryResourceManager.getInstance().beginQueryOfGivenQueryPaths(jobId, selectedSeries);
+      pointReaders = new ArrayList<>();
+      for (Path path : selectedSeries) {
+        QueryDataSource queryDataSource = QueryResourceManager.getInstance()
+            .getQueryDataSource(path, context, timeFilter);
+        pointReaders.add(new SeriesReaderWithoutValueFilter(
+            new SeqResourceIterateReader(queryDataSource.getSeriesPath(),
+                queryDataSource.getSeqResources(), timeFilter, context),
+            new UnseqResourceMergeReader(queryDataSource.getSeriesPath(),
+                queryDataSource.getUnseqResources(), context, timeFilter)));
+      }
+    } else {
+      QueryResourceManager.getInstance().beginQueryOfGivenExpression(jobId, expression);
+      QueryResourceManager.getInstance().beginQueryOfGivenQueryPaths(jobId, selectedSeries);
+      timestampGenerator = new EngineTimeGenerator(expression, context);
+      readersByTimestamp = new ArrayList<>();
+      for (Path path : selectedSeries) {
+        readersByTimestamp.add(new SeriesReaderByTimestamp(path, context));
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (hasCachedTimeInterval) {
+      return true;
+    }
+    // the windows start at origin + k * slidingStep
+    long nextStartTime = hasWindow ? startTime + slidingStep : Long.MIN_VALUE;
+    while (intervalIndex < mergedIntervals.size()) {
+      Pair<Long, Long> interval = mergedIntervals.get(intervalIndex);
+      long firstStartTime =
+          origin - Math.floorDiv(origin - interval.left, slidingStep) * slidingStep;
+      nextStartTime = Math.max(nextStartTime, firstStartTime);
+      if (nextStartTime <= interval.right) {
+        startTime = nextStartTime;
+        endTime = startTime + unit;
+        hasWindow = true;
+        hasCachedTimeInterval = true;
+        return true;
+      }
+      intervalIndex++;
+    }
+    return false;
+  }
+
+  @Override
+  public RowRecord next() throws IOException {
+    if (!hasCachedTimeInterval) {
+      throw new IOException("need to call hasNext() before calling next() "
+          + "in GroupBySlidingWindowDataSet.");
+    }
+    hasCachedTimeInterval = false;
+    for (SlidingWindowAggregator aggregator : aggregators) {
+      aggregator.removeBefore(startTime);
+    }
+    if (pointReaders != null) {
+      // the series are independent, so they are moved forward in the query thread pool
+      List<Callable<Void>> seriesTasks = new ArrayList<>();
+      for (int i = 0; i < aggregators.size(); i++) {
+        int idx = i;
+        seriesTasks.add(() -> {
+          nextSeries(idx);
+          return null;
+        });
+      }
+      try {
+        QueryTaskPoolManager.getInstance().invokeAll(seriesTasks, context, "group by");
+      } catch (ProcessorException e) {
+        throw new IOException(e);
+      }
+    } else {
+      nextTimestamps();
+    }
+
+    RowRecord record = new RowRecord(startTime);
+    for (SlidingWindowAggregator aggregator : aggregators) {
+      record.addField(getField(aggregator.getResult()));
+    }
+    return record;
+  }
+
+  /**
+   * add the points of the series indexed by idx in the current window that are not added yet.
+   */
+  private void nextSeries(int idx) throws IOException {
+    IPointReader reader = pointReaders.get(idx);
+    SlidingWindowAggregator aggregator = aggregators.get(idx);
+    while (reader.hasNext() && reader.current().getTimestamp() < endTime) {
+      TimeValuePair pair = reader.next();
+      // the points between two windows that do not overlap
+      if (pair.getTimestamp() >= startTime) {
+        aggregator.add(pair.getTimestamp(), pair.getValue().getValue());
+      }
+    }
+  }
+
+  /**
+   * add the values at the timestamps in the current window that are not added yet.
+   */
+  private void nextTimestamps() throws IOException {
+    while (hasCachedTimestamp || timestampGenerator.hasNext()) {
+      if (!hasCachedTimestamp) {
+        timestamp = timestampGenerator.next();
+      }
+      if (timestamp >= endTime) {
+        hasCachedTimestamp = true;
+        return;
+      }
+      hasCachedTimestamp = false;
+      if (timestamp < startTime) {
+        continue;
+      }
+      for (int i = 0; i < aggregators.size(); i++) {
+        Object value = readersByTimestamp.get(i).getValueInTimestamp(timestamp);
+        if (value != null) {
+          aggregators.get(i).add(timestamp, value);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,241 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset.groupby;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.rollup.RollupBucket;
+import org.apache.iotdb.db.engine.rollup.TsFileRollupReader;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.query.aggregation.AggreResultData;
+import org.apache.iotdb.db.query.aggregation.AggregateFunction;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.expression.IExpression;
+import org.apache.iotdb.tsfile.read.expression.impl.GlobalTimeExpression;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.utils.Pair;
+
+/**
+ * GroupByWithRollupDataSet answers GROUP BY queries with only time filter or no filter from the
+ * rollups of the sealed sequence TsFiles, and reads the data of the other TsFiles and the memory.
+ *
+ * The rollups of a TsFile are used only if no unsequence data overlaps the TsFile, no data of the
+ * series in it is deleted, and each of its buckets is either inside the time filter or outside
+ * it, so that the buckets and the data read are disjoint in time and are aggregated in time order.
+ * Each bucket is inside a group as the unit and the origin are multiples of the rollup interval.
+ */
+public class GroupByWithRollupDataSet extends GroupByEngineDataSet {
+
+  /**
+   * the rollup interval used by each series, 0 if the series uses no rollup.
+   */
+  private long[] rollupIntervals;
+  private List<SeriesRollupReader> seriesReaders;
+  private Filter timeFilter;
+  private QueryContext context;
+
+  /**
+   * constructor.
+   */
+  public GroupByWithRollupDataSet(long jobId, List<Path> paths, long unit, long origin,
+      List<Pair<Long, Long>> mergedIntervals, long[] rollupIntervals) {
+    super(jobId, paths, unit, origin, mergedIntervals);
+    this.rollupIntervals = rollupIntervals;
+    this.seriesReaders = new ArrayList<>();
+  }
+
+  /**
+   * init readers and aggregate functions.
+   */
+  public void initGroupBy(QueryContext context, List<String> aggres, IExpression expression)
+      throws StorageEngineException, PathErrorException, ProcessorException, IOException {
+    this.context = context;
+    initAggreFuction(aggres);
+    QueryResourceManager.getInstance().beginQueryOfGivenQueryPaths(jobId, selectedSeries);
+    if (expression != null) {
+      timeFilter = ((GlobalTimeExpression) expression).getFilter();
+    }
+    for (int i = 0; i < selectedSeries.size(); i++) {
+      QueryDataSource queryDataSource = QueryResourceManager.getInstance()
+          .getQueryDataSource(selectedSeries.get(i), context);
+      seriesReaders.add(new SeriesRollupReader(queryDataSource, rollupIntervals[i]));
+    }
+  }
+
+  @Override
+  public RowRecord next() throws IOException {
+    if (!hasCachedTimeInterval) {
+      throw new IOException("need to call hasNext() before calling next() "
+          + "in GroupByWithRollupDataSet.");
+    }
+    hasCachedTimeInterval = false;
+    RowRecord record = new RowRecord(startTime);
+    List<Callable<AggreResultData>> seriesTasks = new ArrayList<>();
+    for (int i = 0; i < functions.size(); i++) {
+      int idx = i;
+      seriesTasks.add(() -> seriesReaders.get(idx).nextGroup(functions.get(idx)));
+    }
+    List<AggreResultData> results;
+    try {
+      results = QueryTaskPoolManager.getInstance().invokeAll(seriesTasks, context, "group by");
+    } catch (ProcessorException e) {
+      throw new IOException(e);
+    }
+    for (AggreResultData res : results) {
+      record.addField(getField(res));
+    }
+    return record;
+  }
+
+  /**
+   * SeriesRollupReader provides the rollup buckets and the other data of a series in time order.
+   */
+  private class SeriesRollupReader {
+
+    private String seriesPath;
+    private String device;
+    private long interval;
+
+    /**
+     * the data of the series which are not covered by rollups
+     */
+    private IPointReader dataReader;
+
+    /**
+     * the sequence TsFiles whose rollups are used, in time order. The buckets of a TsFile are read
+     * when the groups reach it.
+     */
+    private List<TsFileResource> rollupResources = new ArrayList<>();
+    private int nextResourceIndex = 0;
+    private List<RollupBucket> buckets = Collections.emptyList();
+    private int bucketIndex = 0;
+
+    private SeriesRollupReader(QueryDataSource queryDataSource, long interval)
+        throws IOException {
+      Path path = queryDataSource.getSeriesPath();
+      this.seriesPath = path.getFullPath();
+      this.device = path.getDevice();
+      this.interval = interval;
+
+      List<TsFileResource> seqResources = new ArrayList<>();
+      for (TsFileResource resource : queryDataSource.getSeqResources()) {
+        if (interval > 0 && canUseRollup(resource, queryDataSource.getUnseqResources())) {
+          rollupResources.add(resource);
+        } else {
+          seqResources.add(resource);
+        }
+      }
+      dataReader = new SeriesReaderWithoutValueFilter(
+          new SeqResourceIterateReader(path, seqResources, timeFilter, context),
+          new UnseqResourceMergeReader(path, queryDataSource.getUnseqResources(), context,
+              timeFilter));
+    }
+
+    private boolean canUseRollup(TsFileResource resource, List<TsFileResource> unseqResources)
+        throws IOException {
+      if (!resource.isClosed() || !resource.containsDevice(device)) {
+        return false;
+      }
+      TsFileRollupReader rollupReader = resource.getRollupReader();
+      if (rollupReader == null || !rollupReader.hasInterval(interval)) {
+        return false;
+      }
+      long fileStartTime = resource.getStartTimeMap().get(device);
+      long fileEndTime = resource.getEndTimeMap().get(device);
+      // the buckets are not split by the time filter
+      if (timeFilter != null && !timeFilter
+          .containStartEndTime(Math.floorDiv(fileStartTime, interval) * interval,
+              Math.floorDiv(fileEndTime, interval) * interval + interval - 1)) {
+        return false;
+      }
+      // unsequence data may overwrite the points in the rollups
+      for (TsFileResource unseqResource : unseqResources) {
+        Long unseqStartTime = unseqResource.getStartTimeMap().get(device);
+        if (unseqStartTime != null && unseqStartTime <= fileEndTime
+            && unseqResource.getEndTimeMap().getOrDefault(device, Long.MAX_VALUE)
+            >= fileStartTime) {
+          return false;
+        }
+      }
+      // the rollups still contain the deleted points
+      return context.getPathModifications(resource.getModFile(), seriesPath).isEmpty();
+    }
+
+    /**
+     * @return the next bucket whose start time is less than the bound, or null if there is none.
+     */
+    private RollupBucket peekBucket(long bound) throws IOException {
+      while (bucketIndex >= buckets.size()) {
+        if (nextResourceIndex >= rollupResources.size()) {
+          return null;
+        }
+        TsFileResource resource = rollupResources.get(nextResourceIndex);
+        if (resource.getStartTimeMap().get(device) >= bound) {
+          return null;
+        }
+        buckets = resource.getRollupReader().read(seriesPath, interval);
+        bucketIndex = 0;
+        nextResourceIndex++;
+      }
+      RollupBucket bucket = buckets.get(bucketIndex);
+      return bucket.getStartTime() < bound ? bucket : null;
+    }
+
+    /**
+     * calculate the result of the current group [startTime, endTime).
+     */
+    private AggreResultData nextGroup(AggregateFunction function)
+        throws IOException, ProcessorException {
+      function.init();
+      // skip the data before the group, which are left by functions that need only the first point
+      while (dataReader.hasNext() && dataReader.current().getTimestamp() < startTime) {
+        dataReader.next();
+      }
+      RollupBucket bucket;
+      while (peekBucket(startTime) != null) {
+        bucketIndex++;
+      }
+      while ((bucket = peekBucket(endTime)) != null) {
+        // the data before the bucket, then the bucket
+        function.calculateValueFromUnsequenceReader(dataReader, bucket.getMinTime());
+        function.calculateValueFromDigest(new DigestForAggregation(bucket.getMinTime(),
+            bucket.getMaxTime(), bucket.getCount(), bucket.getStatistics()));
+        bucketIndex++;
+      }
+      function.calculateValueFromUnsequenceReader(dataReader, endTime);
+      return function.getResult().deepCopy();
+    }
+  }
+}
@@ -22,6 +22,7 @@ package org.apache.iotdb.db.query.dataset.groupby;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
@@ -30,6 +31,7 @@ import org.apache.iotdb.db.query.aggregation.AggreResultData;
 import org.apache.iotdb.db.query.aggregation.AggregateFunction;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
@@ -51,6 +53,7 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
   private List<BatchData> batchDataList;
   private List<Boolean> hasCachedSequenceDataList;
   private Filter timeFilter;
+  private QueryContext context;
 
   /**
    * constructor.
@@ -74,6 +77,7 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
    */
   public void initGroupBy(QueryContext context, List<String> aggres, IExpression expression)
       throws StorageEngineException, PathErrorException, ProcessorException, IOException {
+    this.context = context;
     initAggreFuction(aggres);
     // init reader
     QueryResourceManager.getInstance().beginQueryOfGivenQueryPaths(jobId, selectedSeries);
@@ -82,7 +86,7 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
     }
     for (Path path : selectedSeries) {
       QueryDataSource queryDataSource = QueryResourceManager.getInstance()
-          .getQueryDataSource(path, context);
+          .getQueryDataSource(path, context, timeFilter);
 
       // sequence reader for sealed tsfile, unsealed tsfile, memory
       IAggregateReader seqResourceIterateReader = new SeqResourceIterateReader(
@@ -108,13 +112,19 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
     }
     hasCachedTimeInterval = false;
     RowRecord record = new RowRecord(startTime);
+    // the series only share the current interval, so they are calculated in the query thread pool
+    List<Callable<AggreResultData>> seriesTasks = new ArrayList<>();
     for (int i = 0; i < functions.size(); i++) {
-      AggreResultData res;
-      try {
-        res = nextSeries(i);
-      } catch (ProcessorException e) {
-        throw new IOException(e);
-      }
+      int idx = i;
+      seriesTasks.add(() -> nextSeries(idx));
+    }
+    List<AggreResultData> results;
+    try {
+      results = QueryTaskPoolManager.getInstance().invokeAll(seriesTasks, context, "group by");
+    } catch (ProcessorException e) {
+      throw new IOException(e);
+    }
+    for (AggreResultData res : results) {
       if (res == null) {
         record.addField(new Field(null));
       } else {
@@ -303,6 +313,10 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
   private boolean canUseHeader(long minTime, long maxTime, IPointReader unSequenceReader,
       AggregateFunction function)
       throws IOException, ProcessorException {
+    // the page also has data of the next groups
+    if (maxTime >= endTime) {
+      return false;
+    }
     if (timeFilter != null && !timeFilter.containStartEndTime(minTime, maxTime)) {
       return false;
     }
@@ -22,6 +22,7 @@ package org.apache.iotdb.db.query.executor;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.PathErrorException;
@@ -30,6 +31,7 @@ import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.query.aggregation.AggreResultData;
 import org.apache.iotdb.db.query.aggregation.AggregateFunction;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.db.query.aggregation.impl.LastAggrFunc;
 import org.apache.iotdb.db.query.aggregation.impl.MaxTimeAggrFunc;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -37,6 +39,8 @@ import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.dataset.AggreResultDataPointReader;
 import org.apache.iotdb.db.query.dataset.EngineDataSetWithoutValueFilter;
 import org.apache.iotdb.db.query.factory.AggreFuncFactory;
+import org.apache.iotdb.db.query.fill.IFill;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
@@ -44,6 +48,7 @@ import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader
 import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
 import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderByTimestamp;
 import org.apache.iotdb.db.query.timegenerator.EngineTimeGenerator;
+import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -52,9 +57,13 @@ import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.expression.impl.GlobalTimeExpression;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class AggregateEngineExecutor {
 
+  private static final Logger logger = LoggerFactory.getLogger(AggregateEngineExecutor.class);
+
   private List<Path> selectedSeries;
   private List<String> aggres;
   private IExpression expression;
@@ -82,54 +91,73 @@ public class AggregateEngineExecutor {
    */
   public QueryDataSet executeWithoutValueFilter(QueryContext context)
       throws StorageEngineException, IOException, PathErrorException, ProcessorException {
-    Filter timeFilter = null;
-    if (expression != null) {
-      timeFilter = ((GlobalTimeExpression) expression).getFilter();
-    }
+    Filter timeFilter =
+        expression == null ? null : ((GlobalTimeExpression) expression).getFilter();
+    long startTime = System.nanoTime();
     QueryResourceManager
         .getInstance().beginQueryOfGivenQueryPaths(context.getJobId(), selectedSeries);
 
-    List<IAggregateReader> readersOfSequenceData = new ArrayList<>();
-    List<IPointReader> readersOfUnSequenceData = new ArrayList<>();
-    List<AggregateFunction> aggregateFunctions = new ArrayList<>();
+    // functions and data sources are prepared in this thread, as the resources a query uses are
+    // registered to the query in it
+    List<Callable<AggreResultData>> aggregateTasks = new ArrayList<>();
     for (int i = 0; i < selectedSeries.size(); i++) {
       // construct AggregateFunction
       TSDataType tsDataType = MManager.getInstance()
           .getSeriesType(selectedSeries.get(i).getFullPath());
       AggregateFunction function = AggreFuncFactory.getAggrFuncByName(aggres.get(i), tsDataType);
       function.init();
-      aggregateFunctions.add(function);
 
-      QueryDataSource queryDataSource = QueryResourceManager.getInstance()
-          .getQueryDataSource(selectedSeries.get(i), context);
-
-      // sequence reader for sealed tsfile, unsealed tsfile, memory
-      IAggregateReader seqResourceIterateReader;
-      if (function instanceof MaxTimeAggrFunc || function instanceof LastAggrFunc) {
-        seqResourceIterateReader = new SeqResourceIterateReader(queryDataSource.getSeriesPath(),
-            queryDataSource.getSeqResources(), timeFilter, context, true);
-      } else {
-        seqResourceIterateReader = new SeqResourceIterateReader(queryDataSource.getSeriesPath(),
-            queryDataSource.getSeqResources(), timeFilter, context, false);
+      if (timeFilter == null
+          && (function instanceof LastAggrFunc || function instanceof MaxTimeAggrFunc)) {
+        // the last point of the series is served by the last point cache
+        TimeValuePair lastPoint = LastQueryExecutor
+            .getLastPoint(selectedSeries.get(i), tsDataType, context);
+        function.calculateValueFromUnsequenceReader(new IFill.TimeValuePairPointReader(lastPoint));
+        aggregateTasks.add(function::getResult);
+        continue;
       }
 
-      // unseq reader for all chunk groups in unSeqFile, memory
-      IPointReader unseqResourceMergeReader= new UnseqResourceMergeReader(queryDataSource.getSeriesPath(),
-          queryDataSource.getUnseqResources(), context, timeFilter);
-
-      readersOfSequenceData.add(seqResourceIterateReader);
-      readersOfUnSequenceData.add(unseqResourceMergeReader);
+      QueryDataSource queryDataSource = QueryResourceManager.getInstance()
+          .getQueryDataSource(selectedSeries.get(i), context, timeFilter);
+      aggregateTasks.add(() -> aggregateSeries(function, queryDataSource, timeFilter, context));
     }
-    List<AggreResultData> aggreResultDataList = new ArrayList<>();
-    //TODO use multi-thread
-    for (int i = 0; i < selectedSeries.size(); i++) {
-      AggreResultData aggreResultData = aggregateWithoutValueFilter(aggregateFunctions.get(i),
-          readersOfSequenceData.get(i), readersOfUnSequenceData.get(i), timeFilter);
-      aggreResultDataList.add(aggreResultData);
+    context.addTimeCost("prepare", System.nanoTime() - startTime, 0);
+
+    // the series are independent, so they are aggregated in the query thread pool
+    List<AggreResultData> aggreResultDataList = QueryTaskPoolManager.getInstance()
+        .invokeAll(aggregateTasks, context, "aggregate");
+    if (logger.isDebugEnabled()) {
+      logger.debug("Aggregation of {} series in query {} costs {}", selectedSeries.size(),
+          context.getJobId(), context.getTimeCostString());
     }
     return constructDataSet(aggreResultDataList);
   }
 
+  /**
+   * construct the readers of one series and calculate its aggregate result with only time filter
+   * or no filter.
+   */
+  private AggreResultData aggregateSeries(AggregateFunction function,
+      QueryDataSource queryDataSource, Filter timeFilter, QueryContext context)
+      throws IOException, ProcessorException {
+    // sequence reader for sealed tsfile, unsealed tsfile, memory
+    IAggregateReader seqResourceIterateReader;
+    if (function instanceof MaxTimeAggrFunc || function instanceof LastAggrFunc) {
+      seqResourceIterateReader = new SeqResourceIterateReader(queryDataSource.getSeriesPath(),
+          queryDataSource.getSeqResources(), timeFilter, context, true);
+    } else {
+      seqResourceIterateReader = new SeqResourceIterateReader(queryDataSource.getSeriesPath(),
+          queryDataSource.getSeqResources(), timeFilter, context, false);
+    }
+
+    // unseq reader for all chunk groups in unSeqFile, memory
+    IPointReader unseqResourceMergeReader = new UnseqResourceMergeReader(
+        queryDataSource.getSeriesPath(), queryDataSource.getUnseqResources(), context, timeFilter);
+
+    return aggregateWithoutValueFilter(function, seqResourceIterateReader,
+        unseqResourceMergeReader, timeFilter);
+  }
+
   /**
    * calculation aggregate result with only time filter or no filter for one series.
    *
@@ -147,7 +175,25 @@ public class AggregateEngineExecutor {
           filter);
     }
 
-    while (sequenceReader.hasNext()) {
+    while (true) {
+      DigestForAggregation digest = sequenceReader.nextDigest();
+      if (digest != null) {
+        // judge if the whole TsFile or chunk can be calculated without loading it
+        if (canUseDigest(function, digest.getMinTime(), digest.getMaxTime(), unSequenceReader,
+            filter)) {
+          function.calculateValueFromDigest(digest);
+          sequenceReader.skipDigestData();
+          if (function.isCalculatedAggregationResult()) {
+            return function.getResult();
+          }
+        }
+        // otherwise the next call of nextDigest turns to a finer digest or to pages
+        continue;
+      }
+      if (!sequenceReader.hasNext()) {
+        break;
+      }
+
       PageHeader pageHeader = sequenceReader.nextPageHeader();
       // judge if overlap with unsequence data
       if (canUseHeader(function, pageHeader, unSequenceReader, filter)) {
@@ -181,12 +227,18 @@ public class AggregateEngineExecutor {
     if (pageHeader == null) {
       return false;
     }
+    return canUseDigest(function, pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp(),
+        unSequenceReader, filter);
+  }
 
-    long minTime = pageHeader.getMinTimestamp();
-    long maxTime = pageHeader.getMaxTimestamp();
-
-    // If there are points in the page that do not satisfy the time filter,
-    // page header cannot be used to calculate.
+  /**
+   * determine whether the digest of a page, chunk or TsFile whose data are within [minTime,
+   * maxTime] can be used to compute aggregation results.
+   */
+  private boolean canUseDigest(AggregateFunction function, long minTime, long maxTime,
+      IPointReader unSequenceReader, Filter filter) throws IOException, ProcessorException {
+    // If there are points in the data that do not satisfy the time filter,
+    // the digest cannot be used to calculate.
     if (filter != null && !filter.containStartEndTime(minTime, maxTime)) {
       return false;
     }
@@ -211,7 +263,22 @@ public class AggregateEngineExecutor {
       throws IOException, ProcessorException {
     long lastBatchTimeStamp = Long.MIN_VALUE;
     boolean isChunkEnd = false;
-    while (sequenceReader.hasNext()) {
+    while (true) {
+      DigestForAggregation digest = sequenceReader.nextDigest();
+      if (digest != null) {
+        // the sequence data are in reverse order, so the first usable digest has the result
+        if (canUseDigest(function, digest.getMinTime(), digest.getMaxTime(), unSequenceReader,
+            timeFilter)) {
+          function.calculateValueFromDigest(digest);
+          sequenceReader.skipDigestData();
+          break;
+        }
+        continue;
+      }
+      if (!sequenceReader.hasNext()) {
+        break;
+      }
+
       PageHeader pageHeader = sequenceReader.nextPageHeader();
       // judge if overlap with unsequence data
       if (canUseHeader(function, pageHeader, unSequenceReader, timeFilter)) {
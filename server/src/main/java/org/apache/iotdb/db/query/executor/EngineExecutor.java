@@ -30,6 +30,7 @@ import org.apache.iotdb.db.query.dataset.EngineDataSetWithValueFilter;
 import org.apache.iotdb.db.query.dataset.EngineDataSetWithoutValueFilter;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
+import org.apache.iotdb.db.query.reader.seriesRelated.ReverseSeriesReaderWithoutValueFilter;
 import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderByTimestamp;
 import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
 import org.apache.iotdb.db.query.timegenerator.EngineTimeGenerator;
@@ -86,6 +87,43 @@ public class EngineExecutor {
     }
   }
 
+  /**
+   * without filter or with global time filter, returning the rows from the newest to the oldest.
+   * The series are scanned backwards from their last pages, so with a row limit only the newest
+   * pages are read.
+   *
+   * @param rowLimit the max number of rows to return, 0 for no limit
+   */
+  public QueryDataSet executeInDescendingOrder(QueryContext context, int rowLimit)
+      throws StorageEngineException, IOException {
+    QueryResourceManager.getInstance()
+        .beginQueryOfGivenQueryPaths(context.getJobId(), queryExpression.getSelectedSeries());
+
+    Filter timeFilter = null;
+    if (queryExpression.hasQueryFilter()) {
+      timeFilter = ((GlobalTimeExpression) queryExpression.getExpression()).getFilter();
+    }
+
+    List<IPointReader> readersOfSelectedSeries = new ArrayList<>();
+    List<TSDataType> dataTypes = new ArrayList<>();
+    for (Path path : queryExpression.getSelectedSeries()) {
+      try {
+        dataTypes.add(MManager.getInstance().getSeriesType(path.getFullPath()));
+      } catch (PathErrorException e) {
+        throw new StorageEngineException(e);
+      }
+      readersOfSelectedSeries
+          .add(new ReverseSeriesReaderWithoutValueFilter(path, timeFilter, context));
+    }
+
+    EngineDataSetWithoutValueFilter dataSet = new EngineDataSetWithoutValueFilter(
+        queryExpression.getSelectedSeries(), dataTypes, readersOfSelectedSeries, true);
+    if (rowLimit > 0) {
+      dataSet.setRowLimit(rowLimit);
+    }
+    return dataSet;
+  }
+
   /**
    * executeWithValueFilter query.
    *
@@ -23,10 +23,14 @@ import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.dataset.groupby.GroupBySlidingWindowDataSet;
+import org.apache.iotdb.db.query.dataset.groupby.GroupByWithRollupDataSet;
 import org.apache.iotdb.db.query.dataset.groupby.GroupByWithoutValueFilterDataSet;
 import org.apache.iotdb.db.query.dataset.groupby.GroupByWithValueFilterDataSet;
 import org.apache.iotdb.db.query.fill.IFill;
@@ -80,6 +84,25 @@ public class EngineQueryRouter implements IEngineQueryRouter {
     }
   }
 
+  @Override
+  public QueryDataSet descQuery(QueryExpression queryExpression, int rowLimit,
+      QueryContext context) throws StorageEngineException {
+    try {
+      if (queryExpression.hasQueryFilter()) {
+        IExpression optimizedExpression = ExpressionOptimizer.getInstance()
+            .optimize(queryExpression.getExpression(), queryExpression.getSelectedSeries());
+        if (optimizedExpression.getType() != ExpressionType.GLOBAL_TIME) {
+          throw new StorageEngineException(
+              "ORDER BY time DESC only supports filters on time, but got " + optimizedExpression);
+        }
+        queryExpression.setExpression(optimizedExpression);
+      }
+      return new EngineExecutor(queryExpression).executeInDescendingOrder(context, rowLimit);
+    } catch (QueryFilterOptimizationException | IOException e) {
+      throw new StorageEngineException(e);
+    }
+  }
+
   @Override
   public QueryDataSet aggregate(List<Path> selectedSeries, List<String> aggres,
       IExpression expression, QueryContext context) throws QueryFilterOptimizationException,
@@ -104,8 +127,8 @@ public class EngineQueryRouter implements IEngineQueryRouter {
 
   @Override
   public QueryDataSet groupBy(List<Path> selectedSeries, List<String> aggres,
-      IExpression expression, long unit, long origin, List<Pair<Long, Long>> intervals,
-      QueryContext context)
+      IExpression expression, long unit, long slidingStep, long origin,
+      List<Pair<Long, Long>> intervals, QueryContext context)
       throws ProcessorException, QueryFilterOptimizationException, StorageEngineException,
       PathErrorException, IOException {
 
@@ -123,6 +146,10 @@ public class EngineQueryRouter implements IEngineQueryRouter {
                 + "found error interval<%d, %d>", pair.left, pair.right));
       }
     }
+    if (slidingStep <= 0) {
+      throw new ProcessorException(
+          String.format("Sliding step %d must be greater than 0.", slidingStep));
+    }
     // merge intervals
     List<Pair<Long, Long>> mergedIntervalList = mergeInterval(intervals);
 
@@ -148,7 +175,20 @@ public class EngineQueryRouter implements IEngineQueryRouter {
 
     IExpression optimizedExpression = ExpressionOptimizer.getInstance()
         .optimize(expression, selectedSeries);
+    if (slidingStep != unit) {
+      GroupBySlidingWindowDataSet groupByEngine = new GroupBySlidingWindowDataSet(nextJobId,
+          selectedSeries, unit, slidingStep, origin, mergedIntervalList);
+      groupByEngine.initGroupBy(context, aggres, optimizedExpression);
+      return groupByEngine;
+    }
     if (optimizedExpression.getType() == ExpressionType.GLOBAL_TIME) {
+      long[] rollupIntervals = chooseRollupIntervals(selectedSeries, unit, origin);
+      if (rollupIntervals != null) {
+        GroupByWithRollupDataSet groupByEngine = new GroupByWithRollupDataSet(nextJobId,
+            selectedSeries, unit, origin, mergedIntervalList, rollupIntervals);
+        groupByEngine.initGroupBy(context, aggres, optimizedExpression);
+        return groupByEngine;
+      }
       GroupByWithoutValueFilterDataSet groupByEngine = new GroupByWithoutValueFilterDataSet(
           nextJobId, selectedSeries, unit, origin, mergedIntervalList);
       groupByEngine.initGroupBy(context, aggres, optimizedExpression);
@@ -174,6 +214,43 @@ public class EngineQueryRouter implements IEngineQueryRouter {
     return fillEngineExecutor.execute(context);
   }
 
+  @Override
+  public QueryDataSet lastQuery(List<Path> selectedSeries, QueryContext context)
+      throws StorageEngineException, PathErrorException, IOException {
+    return new LastQueryExecutor(selectedSeries).execute(context);
+  }
+
+  /**
+   * choose for each series the largest rollup interval of its storage group that the groups are
+   * made of, i.e., the unit and the origin are multiples of the interval.
+   *
+   * @return the chosen interval of each series, 0 if a series has no such interval, or null if
+   * no series has one.
+   */
+  private long[] chooseRollupIntervals(List<Path> selectedSeries, long unit, long origin)
+      throws PathErrorException {
+    if (IoTDBDescriptor.getInstance().getConfig().getRollupIntervals().isEmpty()) {
+      return null;
+    }
+    long[] chosenIntervals = new long[selectedSeries.size()];
+    boolean anyChosen = false;
+    for (int i = 0; i < selectedSeries.size(); i++) {
+      String storageGroup = MManager.getInstance()
+          .getStorageGroupNameByPath(selectedSeries.get(i).getFullPath());
+      long[] intervals = IoTDBDescriptor.getInstance().getConfig()
+          .getRollupIntervals(storageGroup);
+      // the intervals are in ascending order
+      for (int j = intervals.length - 1; j >= 0; j--) {
+        if (unit % intervals[j] == 0 && Math.floorMod(origin, intervals[j]) == 0) {
+          chosenIntervals[i] = intervals[j];
+          anyChosen = true;
+          break;
+        }
+      }
+    }
+    return anyChosen ? chosenIntervals : null;
+  }
+
   /**
    * sort intervals by start time and merge overlapping intervals.
    *
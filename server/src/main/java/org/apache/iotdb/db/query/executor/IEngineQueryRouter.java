@@ -42,6 +42,15 @@ public interface IEngineQueryRouter {
   QueryDataSet query(QueryExpression queryExpression, QueryContext context)
       throws StorageEngineException, PathErrorException;
 
+  /**
+   * Execute physical plan and return the rows in descending order of time. Only global time
+   * filters are supported.
+   *
+   * @param rowLimit the max number of rows to return, 0 for no limit
+   */
+  QueryDataSet descQuery(QueryExpression queryExpression, int rowLimit, QueryContext context)
+      throws StorageEngineException;
+
   /**
    * Execute aggregation query.
    */
@@ -56,13 +65,15 @@ public interface IEngineQueryRouter {
    * @param aggres aggregation name list
    * @param expression filter expression
    * @param unit time granularity for interval partitioning, unit is ms.
+   * @param slidingStep the distance between the start times of two adjacent groups, unit is ms.
+   * The groups overlap if it is less than unit.
    * @param origin the datum time point for interval division is divided into a time interval for
    * each TimeUnit time from this point forward and backward.
    * @param intervals time intervals, closed interval.
    */
   QueryDataSet groupBy(List<Path> selectedSeries, List<String> aggres,
-      IExpression expression, long unit, long origin, List<Pair<Long, Long>> intervals,
-      QueryContext context)
+      IExpression expression, long unit, long slidingStep, long origin,
+      List<Pair<Long, Long>> intervals, QueryContext context)
       throws ProcessorException, QueryFilterOptimizationException, StorageEngineException,
       PathErrorException, IOException;
   /**
@@ -75,4 +86,12 @@ public interface IEngineQueryRouter {
   QueryDataSet fill(List<Path> fillPaths, long queryTime, Map<TSDataType, IFill> fillType,
       QueryContext context) throws StorageEngineException, PathErrorException, IOException;
 
+  /**
+   * Execute last-value query.
+   *
+   * @param selectedSeries select path list
+   */
+  QueryDataSet lastQuery(List<Path> selectedSeries, QueryContext context)
+      throws StorageEngineException, PathErrorException, IOException;
+
 }
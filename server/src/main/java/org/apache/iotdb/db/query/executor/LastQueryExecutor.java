@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.executor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.PathErrorException;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.dataset.EngineDataSetWithoutValueFilter;
+import org.apache.iotdb.db.query.fill.IFill;
+import org.apache.iotdb.db.query.reader.IAggregateReader;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+
+/**
+ * This class executes a last-value query, which returns the last point of each selected series.
+ * The points are served from the last point cache of the storage groups, a series which is not
+ * cached is loaded by reading the sequence TsFiles from the newest one until a point is found and
+ * the unsequence data after that point.
+ */
+public class LastQueryExecutor {
+
+  private List<Path> selectedSeries;
+
+  public LastQueryExecutor(List<Path> selectedSeries) {
+    this.selectedSeries = selectedSeries;
+  }
+
+  /**
+   * execute the last-value query, each series without data has no row.
+   *
+   * @param context query context
+   */
+  public QueryDataSet execute(QueryContext context)
+      throws StorageEngineException, PathErrorException, IOException {
+    QueryResourceManager.getInstance()
+        .beginQueryOfGivenQueryPaths(context.getJobId(), selectedSeries);
+
+    List<TSDataType> dataTypes = new ArrayList<>();
+    List<IPointReader> readers = new ArrayList<>();
+    for (Path path : selectedSeries) {
+      TSDataType dataType = MManager.getInstance().getSeriesType(path.getFullPath());
+      dataTypes.add(dataType);
+      readers.add(new IFill.TimeValuePairPointReader(getLastPoint(path, dataType, context)));
+    }
+    return new EngineDataSetWithoutValueFilter(selectedSeries, dataTypes, readers);
+  }
+
+  /**
+   * get the last point of a series from the last point cache, or from its data if the cache is
+   * disabled. The query paths must have been registered to the query.
+   *
+   * @return the last point, or null if the series has no data
+   */
+  public static TimeValuePair getLastPoint(Path path, TSDataType dataType, QueryContext context)
+      throws StorageEngineException, IOException {
+    if (!IoTDBDescriptor.getInstance().getConfig().isEnableLastPointCache()) {
+      return loadLastPoint(path, dataType, context);
+    }
+    return StorageEngine.getInstance().getLastPointCache(path.getDevice())
+        .get(path.getDevice(), path.getMeasurement(),
+            () -> loadLastPoint(path, dataType, context));
+  }
+
+  private static TimeValuePair loadLastPoint(Path path, TSDataType dataType, QueryContext context)
+      throws StorageEngineException, IOException {
+    QueryDataSource queryDataSource = QueryResourceManager.getInstance()
+        .getQueryDataSource(path, context);
+
+    // the sequence TsFiles are disjoint in time, so the newest one with data has the last point
+    TimeValuePair lastPoint = null;
+    List<TsFileResource> seqResources = queryDataSource.getSeqResources();
+    for (int i = seqResources.size() - 1; i >= 0 && lastPoint == null; i--) {
+      lastPoint = readLastPoint(new SeqResourceIterateReader(path,
+          Collections.singletonList(seqResources.get(i)), null, context), dataType);
+    }
+
+    // an unsequence point overwrites the sequence point of the same time
+    IPointReader unseqReader = new UnseqResourceMergeReader(path,
+        queryDataSource.getUnseqResources(), context,
+        lastPoint == null ? null : TimeFilter.gtEq(lastPoint.getTimestamp()));
+    TimeValuePair unseqLastPoint = null;
+    while (unseqReader.hasNext()) {
+      unseqLastPoint = unseqReader.next();
+    }
+    unseqReader.close();
+    // the point is cached, so it is not shared with the reader
+    return unseqLastPoint == null ? lastPoint
+        : new TimeValuePair(unseqLastPoint.getTimestamp(), unseqLastPoint.getValue());
+  }
+
+  /**
+   * read the last point of a sequence reader, using the digests and page headers whenever they
+   * are available.
+   */
+  private static TimeValuePair readLastPoint(IAggregateReader reader, TSDataType dataType)
+      throws IOException {
+    long time = 0;
+    Object value = null;
+    while (true) {
+      DigestForAggregation digest = reader.nextDigest();
+      if (digest != null) {
+        time = digest.getMaxTime();
+        value = digest.getStatistics().getLast();
+        reader.skipDigestData();
+        continue;
+      }
+      if (!reader.hasNext()) {
+        break;
+      }
+      PageHeader pageHeader = reader.nextPageHeader();
+      if (pageHeader != null) {
+        time = pageHeader.getMaxTimestamp();
+        value = pageHeader.getStatistics().getLast();
+        reader.skipPageData();
+      } else {
+        BatchData batchData = reader.nextBatch();
+        while (batchData.hasNext()) {
+          time = batchData.currentTime();
+          value = batchData.currentValue();
+          batchData.next();
+        }
+      }
+    }
+    reader.close();
+    return value == null ? null
+        : new TimeValuePair(time, TsPrimitiveType.getByType(dataType, value));
+  }
+}
@@ -78,7 +78,7 @@ public abstract class IFill {
     return TimeFilter.gtEq(queryTime - beforeRange);
   }
 
-  class TimeValuePairPointReader implements IPointReader {
+  public static class TimeValuePairPointReader implements IPointReader {
 
     private boolean isUsed;
     private TimeValuePair pair;
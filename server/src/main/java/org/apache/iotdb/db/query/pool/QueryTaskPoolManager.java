@@ -0,0 +1,228 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.pool;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.query.context.QueryContext;
+
+/**
+ * QueryTaskPoolManager runs the independent tasks of queries, e.g., aggregating different series,
+ * in a shared thread pool. The tasks of one query never occupy more than maxParallelismPerQuery
+ * threads, so that a query of thousands of series does not starve the other queries.
+ */
+public class QueryTaskPoolManager {
+
+  private static final int EXIT_WAIT_TIME = 60 * 1000;
+
+  private ExecutorService pool;
+  private int threadCnt;
+  private int maxParallelismPerQuery;
+
+  private ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+  private QueryTaskPoolManager() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    this.threadCnt = config.getConcurrentQueryThread();
+    this.maxParallelismPerQuery = config.getMaxParallelismPerQuery();
+    this.pool = IoTDBThreadPoolFactory
+        .newFixedThreadPool(threadCnt, ThreadName.QUERY_SERVICE.getName());
+  }
+
+  public static QueryTaskPoolManager getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  /**
+   * Run the tasks of a query with at most maxParallelismPerQuery of them at the same time and wait
+   * for all of them. The tasks are run in the calling thread if there is only one of them. The wall
+   * time of the whole call and the CPU time of all tasks are added into the context as the cost of
+   * the given phase.
+   *
+   * @param tasks independent tasks of one query
+   * @param context the context of the query, null if the costs are not recorded
+   * @param phase the name of the query phase the tasks belong to
+   * @return the results of the tasks in the same order as the tasks
+   * @throws IOException if any task throws an IOException, the remaining tasks are cancelled.
+   * @throws ProcessorException if any task throws a ProcessorException or other checked
+   * exceptions, or the waiting thread is interrupted.
+   */
+  public <T> List<T> invokeAll(List<Callable<T>> tasks, QueryContext context, String phase)
+      throws IOException, ProcessorException {
+    if (tasks.isEmpty()) {
+      return Collections.emptyList();
+    }
+    long startTime = System.nanoTime();
+    AtomicLong cpuTime = new AtomicLong();
+    List<T> results;
+    if (tasks.size() == 1 || maxParallelismPerQuery <= 1) {
+      results = new ArrayList<>(tasks.size());
+      for (Callable<T> task : tasks) {
+        results.add(callAndMeasure(task, cpuTime));
+      }
+    } else {
+      results = invokeInPool(tasks, cpuTime);
+    }
+    if (context != null) {
+      context.addTimeCost(phase, System.nanoTime() - startTime, cpuTime.get());
+    }
+    return results;
+  }
+
+  private <T> List<T> invokeInPool(List<Callable<T>> tasks, AtomicLong cpuTime)
+      throws IOException, ProcessorException {
+    CompletionService<Integer> completionService = new ExecutorCompletionService<>(pool);
+    List<Future<Integer>> futures = new ArrayList<>(tasks.size());
+    List<T> results = new ArrayList<>(Collections.nCopies(tasks.size(), null));
+    int parallelism = Math.min(maxParallelismPerQuery, tasks.size());
+    try {
+      for (int i = 0; i < parallelism; i++) {
+        futures.add(submit(completionService, tasks, i, results, cpuTime));
+      }
+      for (int finished = 0; finished < tasks.size(); finished++) {
+        completionService.take().get();
+        if (futures.size() < tasks.size()) {
+          futures.add(submit(completionService, tasks, futures.size(), results, cpuTime));
+        }
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProcessorException("Interrupted while waiting for the query tasks. ", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof ProcessorException) {
+        throw (ProcessorException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ProcessorException(cause);
+    } finally {
+      // do not interrupt the running tasks, as interrupting a thread closes the file channels
+      // it is reading, which are shared by other queries
+      for (Future<Integer> future : futures) {
+        future.cancel(false);
+      }
+    }
+  }
+
+  private <T> Future<Integer> submit(CompletionService<Integer> completionService,
+      List<Callable<T>> tasks, int index, List<T> results, AtomicLong cpuTime) {
+    Callable<T> task = tasks.get(index);
+    return completionService.submit(() -> {
+      T result = callAndMeasure(task, cpuTime);
+      synchronized (results) {
+        results.set(index, result);
+      }
+      return index;
+    });
+  }
+
+  private <T> T callAndMeasure(Callable<T> task, AtomicLong cpuTime)
+      throws IOException, ProcessorException {
+    long startCpuTime = currentThreadCpuTime();
+    try {
+      return task.call();
+    } catch (IOException | ProcessorException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ProcessorException(e);
+    } finally {
+      cpuTime.addAndGet(currentThreadCpuTime() - startCpuTime);
+    }
+  }
+
+  private long currentThreadCpuTime() {
+    return threadMXBean.isCurrentThreadCpuTimeSupported()
+        ? threadMXBean.getCurrentThreadCpuTime() : 0;
+  }
+
+  /**
+   * Block new submits and exit when all RUNNING THREADS AND TASKS IN THE QUEUE end.
+   *
+   * @param block if set to true, this method will wait for timeOut milliseconds.
+   * @param timeout block time out in milliseconds.
+   * @throws ProcessorException if timeOut is reached or being interrupted while waiting to exit.
+   */
+  public void close(boolean block, long timeout) throws ProcessorException {
+    pool.shutdown();
+    if (block) {
+      try {
+        if (!pool.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+          throw new ProcessorException("Query thread pool doesn't exit after "
+              + EXIT_WAIT_TIME + " ms");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ProcessorException("Interrupted while waiting query thread pool to exit. ", e);
+      }
+    }
+  }
+
+  public int getActiveCnt() {
+    return ((ThreadPoolExecutor) pool).getActiveCount();
+  }
+
+  public int getThreadCnt() {
+    return threadCnt;
+  }
+
+  public int getMaxParallelismPerQuery() {
+    return maxParallelismPerQuery;
+  }
+
+  public void setMaxParallelismPerQuery(int maxParallelismPerQuery) {
+    this.maxParallelismPerQuery = maxParallelismPerQuery;
+  }
+
+  public int getWaitingTasksNumber() {
+    return ((ThreadPoolExecutor) pool).getQueue().size();
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+      //allowed to do nothing
+    }
+
+    private static QueryTaskPoolManager instance = new QueryTaskPoolManager();
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.query.reader;
 
 import java.io.IOException;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 
 public interface IAggregateReader extends IBatchReader {
@@ -32,4 +33,20 @@ public interface IAggregateReader extends IBatchReader {
   PageHeader nextPageHeader() throws IOException;
 
   void skipPageData() throws IOException;
+
+  /**
+   * Returns the digest of the next chunk or TsFile that has not been read, so that it can be
+   * aggregated as a whole by {@link DigestForAggregation} and skipped by skipDigestData.
+   * <p>
+   * Returns null if the next data have no such digest, e.g. they are in memory or the rest of a
+   * chunk whose pages have been partly read, and then they should be read by pages. If the
+   * returned digest is not used, calling this method again returns a finer digest, i.e. that of the
+   * first chunk of a TsFile, or null for the pages of a chunk.
+   */
+  DigestForAggregation nextDigest() throws IOException;
+
+  /**
+   * Skips the data of the digest returned by the last nextDigest.
+   */
+  void skipDigestData() throws IOException;
 }
@@ -39,12 +39,38 @@ public class DiskChunkReader implements IPointReader {
   private ChunkReader chunkReader;
   private BatchData data;
 
+  /**
+   * True to return the points from the newest to the oldest.
+   */
+  private boolean isReverse;
+
+  /**
+   * the index of the current point in data when the points are returned in reverse order.
+   */
+  private int reverseIndex = -1;
+
   public DiskChunkReader(ChunkReader chunkReader) {
+    this(chunkReader, false);
+  }
+
+  /**
+   * Constructor function.
+   *
+   * @param chunkReader reader of the chunk
+   * @param isReverse True to read the pages from the last to the first and each page back-to-front
+   * so that the points are returned in descending order of time; False to return them in ascending
+   * order.
+   */
+  public DiskChunkReader(ChunkReader chunkReader, boolean isReverse) {
     this.chunkReader = chunkReader;
+    this.isReverse = isReverse;
   }
 
   @Override
   public boolean hasNext() throws IOException {
+    if (isReverse) {
+      return hasNextInReverse();
+    }
     if (data != null && data.hasNext()) {
       return true;
     }
@@ -57,8 +83,27 @@ public class DiskChunkReader implements IPointReader {
     return false;
   }
 
+  private boolean hasNextInReverse() throws IOException {
+    if (reverseIndex >= 0) {
+      return true;
+    }
+    // the page headers are only scanned on the first call
+    chunkReader.enableReverse();
+    while (chunkReader.hasNextBatch()) {
+      data = chunkReader.nextBatch();
+      reverseIndex = data.length() - 1;
+      if (reverseIndex >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public TimeValuePair next() {
+    if (isReverse) {
+      return TimeValuePairUtils.getTimeValuePairByIndex(data, reverseIndex--);
+    }
     TimeValuePair timeValuePair = TimeValuePairUtils.getCurrentTimeValuePair(data);
     data.next();
     return timeValuePair;
@@ -66,6 +111,9 @@ public class DiskChunkReader implements IPointReader {
 
   @Override
   public TimeValuePair current() {
+    if (isReverse) {
+      return TimeValuePairUtils.getTimeValuePairByIndex(data, reverseIndex);
+    }
     return TimeValuePairUtils.getCurrentTimeValuePair(data);
   }
 
@@ -20,10 +20,12 @@ package org.apache.iotdb.db.query.reader.chunkRelated;
 
 import java.util.Iterator;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.fileRelated.UnSealedTsFileIterateReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TimeValuePairUtils;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -46,7 +48,20 @@ public class MemChunkReader implements IPointReader, IAggregateReader {
   private TSDataType dataType;
 
   public MemChunkReader(ReadOnlyMemChunk readableChunk, Filter filter) {
-    timeValuePairIterator = readableChunk.getIterator();
+    this(readableChunk, filter, false);
+  }
+
+  /**
+   * Constructor function.
+   *
+   * @param readableChunk the data source
+   * @param filter filter condition. Null if no filter.
+   * @param isReverse True to return the points from the newest to the oldest, in which case the
+   * reader is only to be read point by point as a batch must be in ascending order of time.
+   */
+  public MemChunkReader(ReadOnlyMemChunk readableChunk, Filter filter, boolean isReverse) {
+    timeValuePairIterator =
+        isReverse ? readableChunk.getReverseIterator() : readableChunk.getIterator();
     this.filter = filter;
     this.dataType = readableChunk.getDataType();
   }
@@ -58,8 +73,7 @@ public class MemChunkReader implements IPointReader, IAggregateReader {
     }
     while (timeValuePairIterator.hasNext()) {
       TimeValuePair timeValuePair = timeValuePairIterator.next();
-      if (filter == null || filter
-          .satisfy(timeValuePair.getTimestamp(), timeValuePair.getValue().getValue())) {
+      if (filter == null || TimeValuePairUtils.satisfy(filter, timeValuePair)) {
         hasCachedTimeValuePair = true;
         cachedTimeValuePair = timeValuePair;
         break;
@@ -97,8 +111,7 @@ public class MemChunkReader implements IPointReader, IAggregateReader {
     }
     while (timeValuePairIterator.hasNext()) {
       TimeValuePair timeValuePair = timeValuePairIterator.next();
-      if (filter == null || filter
-          .satisfy(timeValuePair.getTimestamp(), timeValuePair.getValue().getValue())) {
+      if (filter == null || TimeValuePairUtils.satisfy(filter, timeValuePair)) {
         batchData.putTime(timeValuePair.getTimestamp());
         batchData.putAnObject(timeValuePair.getValue().getValue());
       }
@@ -120,4 +133,14 @@ public class MemChunkReader implements IPointReader, IAggregateReader {
   public void skipPageData() {
     nextBatch();
   }
+
+  @Override
+  public DigestForAggregation nextDigest() {
+    return null;
+  }
+
+  @Override
+  public void skipDigestData() {
+    // data in memory have no digest to skip
+  }
 }
\ No newline at end of file
@@ -19,8 +19,10 @@
 package org.apache.iotdb.db.query.reader.fileRelated;
 
 import java.io.IOException;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReader;
 
@@ -38,6 +40,11 @@ public class FileSeriesReaderAdapter implements IAggregateReader {
 
   private FileSeriesReader fileSeriesReader;
 
+  /**
+   * Whether the digest of the next chunk has been returned by nextDigest but not skipped.
+   */
+  private boolean isDigestReturned;
+
   public FileSeriesReaderAdapter(FileSeriesReader fileSeriesReader) {
     this.fileSeriesReader = fileSeriesReader;
   }
@@ -52,6 +59,28 @@ public class FileSeriesReaderAdapter implements IAggregateReader {
     fileSeriesReader.skipPageData();
   }
 
+  @Override
+  public DigestForAggregation nextDigest() throws IOException {
+    if (isDigestReturned) {
+      // the digest of the chunk is not used, so the chunk is to be read by pages
+      isDigestReturned = false;
+      return null;
+    }
+    ChunkMetaData chunkMetaData = fileSeriesReader.nextChunkMetaData();
+    if (chunkMetaData == null) {
+      return null;
+    }
+    DigestForAggregation digest = DigestForAggregation.fromChunkMetaData(chunkMetaData);
+    isDigestReturned = digest != null;
+    return digest;
+  }
+
+  @Override
+  public void skipDigestData() {
+    fileSeriesReader.skipChunkData();
+    isDigestReturned = false;
+  }
+
   @Override
   public boolean hasNext() throws IOException {
     return fileSeriesReader.hasNextBatch();
@@ -57,6 +57,11 @@ public class UnSealedTsFileIterateReader extends IterateReader {
    */
   private boolean enableReverse;
 
+  /**
+   * True to also read the pages in each chunk on disk from the last to the first.
+   */
+  private boolean enablePageReverse;
+
   /**
    * Constructor function.
    * <p>
@@ -73,8 +78,23 @@ public class UnSealedTsFileIterateReader extends IterateReader {
    */
   public UnSealedTsFileIterateReader(TsFileResource unsealedTsFile, Filter filter,
       boolean isReverse) {
+    this(unsealedTsFile, filter, isReverse, false);
+  }
+
+  /**
+   * Constructor function.
+   *
+   * @param unsealedTsFile the TsFileResource corresponding to the unsealed TsFile
+   * @param filter filter condition
+   * @param isReverse True to iterate over chunk data in reverse chronological order
+   * @param isPageReverse True to also iterate over the pages in each chunk in reverse chronological
+   * order. The data in memory is still returned as one chronological batch.
+   */
+  public UnSealedTsFileIterateReader(TsFileResource unsealedTsFile, Filter filter,
+      boolean isReverse, boolean isPageReverse) {
     super(2);
     this.enableReverse = isReverse;
+    this.enablePageReverse = isReverse && isPageReverse;
     this.unsealedTsFile = unsealedTsFile;
     this.filter = filter;
   }
@@ -124,6 +144,9 @@ public class UnSealedTsFileIterateReader extends IterateReader {
     } else {
       fileSeriesReader = new FileSeriesReaderWithFilter(chunkLoader, metaDataList, filter);
     }
+    if (enablePageReverse) {
+      fileSeriesReader.enablePageReverse();
+    }
 
     return new FileSeriesReaderAdapter(fileSeriesReader);
   }
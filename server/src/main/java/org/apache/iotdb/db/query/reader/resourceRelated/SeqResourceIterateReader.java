@@ -21,8 +21,11 @@ package org.apache.iotdb.db.query.reader.resourceRelated;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import org.apache.iotdb.db.engine.cache.CachedChunkLoader;
+import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
@@ -34,8 +37,6 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
-import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
-import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReader;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderWithFilter;
@@ -65,10 +66,23 @@ public class SeqResourceIterateReader extends IterateReader {
    */
   private boolean enableReverse;
 
+  /**
+   * True to also read the pages in each chunk from the last to the first, so that the batches are
+   * returned from the newest to the oldest, each batch still being in chronological order. Only
+   * used along with <code>enableReverse</code>.
+   */
+  private boolean enablePageReverse;
+
   private List<TsFileResource> seqResources;
   private Filter filter;
   private QueryContext context;
 
+  /**
+   * The chunk metadata of the series in the current sealed TsFile, null if the current TsFile is
+   * unsealed.
+   */
+  private List<ChunkMetaData> currentChunkMetaDataList;
+
   /**
    * Constructor function.
    * <p>
@@ -86,9 +100,26 @@ public class SeqResourceIterateReader extends IterateReader {
    */
   public SeqResourceIterateReader(Path seriesPath, List<TsFileResource> seqResources,
       Filter filter, QueryContext context, boolean isReverse) {
+    this(seriesPath, seqResources, filter, context, isReverse, false);
+  }
+
+  /**
+   * Constructor function.
+   *
+   * @param seriesPath the path of the series data
+   * @param seqResources a list of sequence TsFile resources in chronological order
+   * @param filter filter condition. Null if no filter.
+   * @param context query context
+   * @param isReverse True to iterate over the TsFiles and chunks in reverse chronological order
+   * @param isPageReverse True to also iterate over the pages in each chunk in reverse chronological
+   * order, so that the series can be scanned from the newest batch to the oldest one.
+   */
+  public SeqResourceIterateReader(Path seriesPath, List<TsFileResource> seqResources,
+      Filter filter, QueryContext context, boolean isReverse, boolean isPageReverse) {
     super(seqResources.size());
     this.seriesPath = seriesPath;
     this.enableReverse = isReverse;
+    this.enablePageReverse = isReverse && isPageReverse;
     if (isReverse) {
       Collections.reverse(seqResources);
     }
@@ -120,6 +151,7 @@ public class SeqResourceIterateReader extends IterateReader {
       currentSeriesReader = initSealedTsFileReader(tsFileResource, filter, context);
       return true;
     } else {
+      currentChunkMetaDataList = null;
       // an unsealed sequence TsFile's endTimeMap size may be equal to 0 or greater than 0
       // If endTimeMap size is 0, conservatively assume that this TsFile might satisfy this filter.
       // If endTimeMap size is not 0, call isTsFileNotSatisfied to check.
@@ -129,7 +161,7 @@ public class SeqResourceIterateReader extends IterateReader {
         }
       }
       currentSeriesReader = new UnSealedTsFileIterateReader(tsFileResource, filter,
-          enableReverse);
+          enableReverse, enablePageReverse);
       return true;
     }
   }
@@ -155,13 +187,42 @@ public class SeqResourceIterateReader extends IterateReader {
     return !filter.satisfyStartEndTime(startTime, endTime);
   }
 
+  /**
+   * Sums up the series in the current sealed TsFile by merging the digests of all its chunks, so
+   * that the whole TsFile can be aggregated without loading any chunk.
+   *
+   * @return null if the TsFile is unsealed or any of the chunks has no digest for aggregation.
+   */
+  @Override
+  protected DigestForAggregation getCurrentReaderDigest() throws IOException {
+    if (currentChunkMetaDataList == null || currentChunkMetaDataList.isEmpty()) {
+      return null;
+    }
+    DigestForAggregation fileDigest = null;
+    int size = currentChunkMetaDataList.size();
+    for (int i = 0; i < size; i++) {
+      // the statistics must be merged in chronological order to keep the first and last values
+      ChunkMetaData chunkMetaData = currentChunkMetaDataList.get(enableReverse ? size - 1 - i : i);
+      DigestForAggregation chunkDigest = DigestForAggregation.fromChunkMetaData(chunkMetaData);
+      if (chunkDigest == null) {
+        return null;
+      }
+      if (fileDigest == null) {
+        fileDigest = chunkDigest;
+      } else {
+        fileDigest.merge(chunkDigest);
+      }
+    }
+    return fileDigest;
+  }
+
   private IAggregateReader initSealedTsFileReader(TsFileResource sealedTsFile, Filter filter,
       QueryContext context) throws IOException {
     // prepare metaDataList
     TsFileSequenceReader tsFileReader = FileReaderManager.getInstance()
         .get(sealedTsFile.getFile().getPath(), true);
-    MetadataQuerierByFileImpl metadataQuerier = new MetadataQuerierByFileImpl(tsFileReader);
-    List<ChunkMetaData> metaDataList = metadataQuerier.getChunkMetaDataList(seriesPath);
+    List<ChunkMetaData> metaDataList = DeviceMetaDataCache.getInstance()
+        .getChunkMetaDataList(sealedTsFile.getFile().getPath(), seriesPath, tsFileReader);
     List<Modification> pathModifications = context.getPathModifications(sealedTsFile.getModFile(),
         seriesPath.getFullPath());
     if (!pathModifications.isEmpty()) {
@@ -171,8 +232,10 @@ public class SeqResourceIterateReader extends IterateReader {
     if (enableReverse) {
       Collections.reverse(metaDataList);
     }
+    currentChunkMetaDataList = metaDataList;
     // prepare chunkLoader
-    ChunkLoader chunkLoader = new ChunkLoaderImpl(tsFileReader);
+    ChunkLoader chunkLoader = new CachedChunkLoader(sealedTsFile.getFile().getPath(),
+        tsFileReader);
 
     // init fileSeriesReader
     FileSeriesReader fileSeriesReader;
@@ -181,6 +244,9 @@ public class SeqResourceIterateReader extends IterateReader {
     } else {
       fileSeriesReader = new FileSeriesReaderWithFilter(chunkLoader, metaDataList, filter);
     }
+    if (enablePageReverse) {
+      fileSeriesReader.enablePageReverse();
+    }
     return new FileSeriesReaderAdapter(fileSeriesReader);
   }
 }
\ No newline at end of file
@@ -20,6 +20,8 @@ package org.apache.iotdb.db.query.reader.resourceRelated;
 
 import java.io.IOException;
 import java.util.List;
+import org.apache.iotdb.db.engine.cache.CachedChunkLoader;
+import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -32,8 +34,6 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
-import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
-import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderByTimestamp;
 
 /**
@@ -173,15 +173,16 @@ public class SeqResourceReaderByTimestamp implements IReaderByTimestamp {
     // prepare metaDataList
     TsFileSequenceReader tsFileReader = FileReaderManager.getInstance()
         .get(sealedTsFile.getFile().getPath(), true);
-    MetadataQuerierByFileImpl metadataQuerier = new MetadataQuerierByFileImpl(tsFileReader);
-    List<ChunkMetaData> metaDataList = metadataQuerier.getChunkMetaDataList(seriesPath);
+    List<ChunkMetaData> metaDataList = DeviceMetaDataCache.getInstance()
+        .getChunkMetaDataList(sealedTsFile.getFile().getPath(), seriesPath, tsFileReader);
     List<Modification> pathModifications = context.getPathModifications(sealedTsFile.getModFile(),
         seriesPath.getFullPath());
     if (!pathModifications.isEmpty()) {
       QueryUtils.modifyChunkMetaData(metaDataList, pathModifications);
     }
     // prepare chunkLoader
-    ChunkLoader chunkLoader = new ChunkLoaderImpl(tsFileReader);
+    ChunkLoader chunkLoader = new CachedChunkLoader(sealedTsFile.getFile().getPath(),
+        tsFileReader);
 
     return new FileSeriesReaderByTimestampAdapter(
         new FileSeriesReaderByTimestamp(chunkLoader, metaDataList));
@@ -20,6 +20,8 @@ package org.apache.iotdb.db.query.reader.resourceRelated;
 
 import java.io.IOException;
 import java.util.List;
+import org.apache.iotdb.db.engine.cache.CachedChunkLoader;
+import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -33,8 +35,8 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.controller.ChunkLoader;
 import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
-import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
@@ -57,6 +59,22 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
 
   public UnseqResourceMergeReader(Path seriesPath, List<TsFileResource> unseqResources,
       QueryContext context, Filter filter) throws IOException {
+    this(seriesPath, unseqResources, context, filter, false);
+  }
+
+  /**
+   * Constructor function.
+   *
+   * @param seriesPath the path of the series data
+   * @param unseqResources unsequence TsFile resources
+   * @param context query context
+   * @param filter filter condition. Null if no filter.
+   * @param isReverse True to merge the data from the newest to the oldest, each chunk being read
+   * from its last page; False to merge in chronological order.
+   */
+  public UnseqResourceMergeReader(Path seriesPath, List<TsFileResource> unseqResources,
+      QueryContext context, Filter filter, boolean isReverse) throws IOException {
+    super(isReverse);
     this.seriesPath = seriesPath;
 
     int priorityValue = 1;
@@ -71,8 +89,8 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
         }
         tsFileReader = FileReaderManager.getInstance()
             .get(tsFileResource.getFile().getPath(), true);
-        MetadataQuerierByFileImpl metadataQuerier = new MetadataQuerierByFileImpl(tsFileReader);
-        metaDataList = metadataQuerier.getChunkMetaDataList(seriesPath);
+        metaDataList = DeviceMetaDataCache.getInstance()
+            .getChunkMetaDataList(tsFileResource.getFile().getPath(), seriesPath, tsFileReader);
         List<Modification> pathModifications = context
             .getPathModifications(tsFileResource.getModFile(), seriesPath.getFullPath());
         if (!pathModifications.isEmpty()) {
@@ -90,7 +108,9 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
       }
 
       // create and add ChunkReader with priority
-      ChunkLoaderImpl chunkLoader = new ChunkLoaderImpl(tsFileReader);
+      ChunkLoader chunkLoader = tsFileResource.isClosed()
+          ? new CachedChunkLoader(tsFileResource.getFile().getPath(), tsFileReader)
+          : new ChunkLoaderImpl(tsFileReader);
       for (ChunkMetaData chunkMetaData : metaDataList) {
 
         if (filter != null) {
@@ -108,13 +128,14 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
         ChunkReader chunkReader = filter != null ? new ChunkReaderWithFilter(chunk, filter)
             : new ChunkReaderWithoutFilter(chunk);
 
-        addReaderWithPriority(new DiskChunkReader(chunkReader), priorityValue++);
+        addReaderWithPriority(new DiskChunkReader(chunkReader, isReverse), priorityValue++);
       }
 
       if (!tsFileResource.isClosed()) {
         // create and add MemChunkReader with priority
         addReaderWithPriority(
-            new MemChunkReader(tsFileResource.getReadOnlyMemChunk(), filter), priorityValue++);
+            new MemChunkReader(tsFileResource.getReadOnlyMemChunk(), filter, isReverse),
+            priorityValue++);
       }
     }
   }
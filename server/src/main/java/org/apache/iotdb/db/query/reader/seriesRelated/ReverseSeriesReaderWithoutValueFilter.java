@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.seriesRelated;
+
+import java.io.IOException;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.reader.IBatchReader;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TimeValuePairUtils;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+
+/**
+ * To read series data without value filter from the newest point to the oldest one, this class
+ * implements {@link IPointReader} for the data.
+ * <p>
+ * The sequence TsFiles, their chunks and the pages in the chunks are all read in reverse order, so
+ * only the pages holding the returned points are decoded. Each decoded page is a batch in
+ * chronological order and is read back-to-front. The unsequence data is merged in descending order
+ * of time by a reversed {@link UnseqResourceMergeReader}, which overwrites the sequence data at the
+ * same time as in {@link SeriesReaderWithoutValueFilter}.
+ */
+public class ReverseSeriesReaderWithoutValueFilter implements IPointReader {
+
+  private IBatchReader seqResourceIterateReader;
+  private IPointReader unseqResourceMergeReader;
+
+  /**
+   * the current batch of the sequence data and the index of its current point, which moves from
+   * the end of the batch to the start.
+   */
+  private BatchData batchData;
+  private int batchIndex = -1;
+
+  public ReverseSeriesReaderWithoutValueFilter(IBatchReader seqResourceIterateReader,
+      IPointReader unseqResourceMergeReader) {
+    this.seqResourceIterateReader = seqResourceIterateReader;
+    this.unseqResourceMergeReader = unseqResourceMergeReader;
+  }
+
+  /**
+   * Constructor function.
+   *
+   * @param seriesPath the path of the series data
+   * @param filter time filter condition. Null if no filter.
+   * @param context query context
+   */
+  public ReverseSeriesReaderWithoutValueFilter(Path seriesPath, Filter filter,
+      QueryContext context) throws StorageEngineException, IOException {
+    QueryDataSource queryDataSource = QueryResourceManager.getInstance()
+        .getQueryDataSource(seriesPath, context, filter);
+    this.seqResourceIterateReader = new SeqResourceIterateReader(
+        queryDataSource.getSeriesPath(), queryDataSource.getSeqResources(), filter, context, true,
+        true);
+    this.unseqResourceMergeReader = new UnseqResourceMergeReader(seriesPath,
+        queryDataSource.getUnseqResources(), context, filter, true);
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    return hasNextInBatch() || unseqResourceMergeReader.hasNext();
+  }
+
+  @Override
+  public TimeValuePair next() throws IOException {
+    boolean hasNextInBatch = hasNextInBatch();
+    boolean hasNextPoint = unseqResourceMergeReader.hasNext();
+    if (hasNextInBatch && hasNextPoint) {
+      long timeInPointReader = unseqResourceMergeReader.current().getTimestamp();
+      long timeInBatch = batchData.getTimeByIndex(batchIndex);
+      if (timeInPointReader < timeInBatch) {
+        return TimeValuePairUtils.getTimeValuePairByIndex(batchData, batchIndex--);
+      }
+      if (timeInPointReader == timeInBatch) {
+        // the sequence point is overwritten by the unsequence one
+        batchIndex--;
+      }
+      return unseqResourceMergeReader.next();
+    }
+    if (hasNextInBatch) {
+      return TimeValuePairUtils.getTimeValuePairByIndex(batchData, batchIndex--);
+    }
+    if (hasNextPoint) {
+      return unseqResourceMergeReader.next();
+    }
+    return null;
+  }
+
+  @Override
+  public TimeValuePair current() throws IOException {
+    boolean hasNextInBatch = hasNextInBatch();
+    boolean hasNextPoint = unseqResourceMergeReader.hasNext();
+    if (hasNextPoint && (!hasNextInBatch || unseqResourceMergeReader.current().getTimestamp()
+        >= batchData.getTimeByIndex(batchIndex))) {
+      return unseqResourceMergeReader.current();
+    }
+    return hasNextInBatch ? TimeValuePairUtils.getTimeValuePairByIndex(batchData, batchIndex)
+        : null;
+  }
+
+  private boolean hasNextInBatch() throws IOException {
+    if (batchIndex >= 0) {
+      return true;
+    }
+    while (seqResourceIterateReader.hasNext()) {
+      batchData = seqResourceIterateReader.nextBatch();
+      batchIndex = batchData.length() - 1;
+      if (batchIndex >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    seqResourceIterateReader.close();
+    unseqResourceMergeReader.close();
+  }
+}
@@ -24,6 +24,8 @@ import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.reader.IBatchReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TimeValuePairUtils;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
@@ -64,7 +66,7 @@ public class SeriesReaderWithValueFilter extends SeriesReaderWithoutValueFilter
     }
     while (super.hasNext()) {
       timeValuePair = super.next();
-      if (filter.satisfy(timeValuePair.getTimestamp(), timeValuePair.getValue().getValue())) {
+      if (TimeValuePairUtils.satisfy(filter, timeValuePair)) {
         hasCachedValue = true;
         return true;
       }
@@ -82,6 +84,11 @@ public class SeriesReaderWithValueFilter extends SeriesReaderWithoutValueFilter
     }
   }
 
+  @Override
+  public BatchData nextBatch() throws IOException {
+    return nextBatchOfPoints();
+  }
+
   @Override
   public TimeValuePair current() {
     return timeValuePair;
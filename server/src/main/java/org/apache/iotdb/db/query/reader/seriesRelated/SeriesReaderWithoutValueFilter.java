@@ -35,12 +35,17 @@ import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 /**
  * To read series data without value filter, this class implements {@link IPointReader} for the
- * data.
+ * data, and {@link IBatchReader} to read the data in batches, which can be mixed with next().
  * <p>
  * Note that filters include value filter and time filter. "without value filter" is equivalent to
  * "with global time filter or simply without any filter".
  */
-public class SeriesReaderWithoutValueFilter implements IPointReader {
+public class SeriesReaderWithoutValueFilter implements IPointReader, IBatchReader {
+
+  /**
+   * max number of points in a batch merged from sequence and unsequence data.
+   */
+  private static final int MERGED_BATCH_SIZE = 4096;
 
   private boolean hasCachedBatchData;
   private BatchData batchData;
@@ -72,7 +77,7 @@ public class SeriesReaderWithoutValueFilter implements IPointReader {
   protected SeriesReaderWithoutValueFilter(Path seriesPath, Filter filter, QueryContext context,
       boolean pushdownUnseq) throws StorageEngineException, IOException {
     QueryDataSource queryDataSource = QueryResourceManager.getInstance()
-        .getQueryDataSource(seriesPath, context);
+        .getQueryDataSource(seriesPath, context, filter);
 
     // reader for sequence resources
     IBatchReader seqResourceIterateReader = new SeqResourceIterateReader(
@@ -139,6 +144,41 @@ public class SeriesReaderWithoutValueFilter implements IPointReader {
     return null;
   }
 
+  /**
+   * get the next batch of points. The rest of a sequence batch is returned as it is if no
+   * unsequence point falls in its time range, otherwise the points are merged into a new batch.
+   *
+   * @return the next batch, which is empty if there is no more point
+   */
+  @Override
+  public BatchData nextBatch() throws IOException {
+    if (hasNextInBatchDataOrBatchReader()) {
+      long lastTimeInBatch = batchData.getTimeByIndex(batchData.length() - 1);
+      if (unseqResourceMergeReader == null || !unseqResourceMergeReader.hasNext()
+          || unseqResourceMergeReader.current().getTimestamp() > lastTimeInBatch) {
+        hasCachedBatchData = false;
+        return batchData;
+      }
+    }
+    return nextBatchOfPoints();
+  }
+
+  /**
+   * put the next points got by next() into a new batch.
+   */
+  protected BatchData nextBatchOfPoints() throws IOException {
+    BatchData mergedBatch = null;
+    while ((mergedBatch == null || mergedBatch.length() < MERGED_BATCH_SIZE) && hasNext()) {
+      TimeValuePair timeValuePair = next();
+      if (mergedBatch == null) {
+        mergedBatch = new BatchData(timeValuePair.getValue().getDataType(), true);
+      }
+      mergedBatch.putTime(timeValuePair.getTimestamp());
+      mergedBatch.putAnObject(timeValuePair.getValue().getValue());
+    }
+    return mergedBatch == null ? new BatchData() : mergedBatch;
+  }
+
   private boolean hasNextInBatchDataOrBatchReader() throws IOException {
     // has value in batchData
     if (hasCachedBatchData && batchData.hasNext()) {
@@ -158,9 +198,18 @@ public class SeriesReaderWithoutValueFilter implements IPointReader {
     return false;
   }
 
+  /**
+   * get the point that next() will return without moving to the next one.
+   */
   @Override
   public TimeValuePair current() throws IOException {
-    throw new IOException("current() in SeriesReaderWithoutValueFilter is an empty method.");
+    boolean hasNextBatch = hasNextInBatchDataOrBatchReader();
+    boolean hasNextPoint = unseqResourceMergeReader != null && unseqResourceMergeReader.hasNext();
+    if (hasNextPoint && (!hasNextBatch
+        || unseqResourceMergeReader.current().getTimestamp() <= batchData.currentTime())) {
+      return unseqResourceMergeReader.current();
+    }
+    return hasNextBatch ? TimeValuePairUtils.getCurrentTimeValuePair(batchData) : null;
   }
 
   @Override
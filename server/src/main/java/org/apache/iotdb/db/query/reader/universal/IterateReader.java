@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.query.reader.universal;
 
 import java.io.IOException;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -33,6 +34,11 @@ public abstract class IterateReader implements IAggregateReader {
   private int nextSeriesReaderIndex;
   private int readerSize;
 
+  /**
+   * The digest of all data of <code>currentSeriesReader</code>, which has been returned by
+   * nextDigest but neither skipped nor declined.
+   */
+  private DigestForAggregation currentReaderDigest;
 
   public IterateReader(int readerSize) {
     this.curReaderInitialized = false;
@@ -42,6 +48,7 @@ public abstract class IterateReader implements IAggregateReader {
 
   @Override
   public boolean hasNext() throws IOException {
+    currentReaderDigest = null;
 
     if (curReaderInitialized && currentSeriesReader.hasNext()) {
       return true;
@@ -68,6 +75,14 @@ public abstract class IterateReader implements IAggregateReader {
    */
   protected abstract boolean constructNextReader(int idx) throws IOException;
 
+  /**
+   * Returns the digest of all data of <code>currentSeriesReader</code> right after it is
+   * constructed, or null if there is no such digest.
+   */
+  protected DigestForAggregation getCurrentReaderDigest() throws IOException {
+    return null;
+  }
+
   @Override
   public BatchData nextBatch() throws IOException {
     return currentSeriesReader.nextBatch();
@@ -83,6 +98,41 @@ public abstract class IterateReader implements IAggregateReader {
     currentSeriesReader.skipPageData();
   }
 
+  @Override
+  public DigestForAggregation nextDigest() throws IOException {
+    // a digest of the whole current reader that is not skipped is declined here
+    currentReaderDigest = null;
+    while (true) {
+      if (curReaderInitialized) {
+        DigestForAggregation digest = currentSeriesReader.nextDigest();
+        if (digest != null || currentSeriesReader.hasNext()) {
+          return digest;
+        }
+        curReaderInitialized = false;
+      }
+      if (nextSeriesReaderIndex >= readerSize) {
+        return null;
+      }
+      if (constructNextReader(nextSeriesReaderIndex++)) {
+        curReaderInitialized = true;
+        currentReaderDigest = getCurrentReaderDigest();
+        if (currentReaderDigest != null) {
+          return currentReaderDigest;
+        }
+      }
+    }
+  }
+
+  @Override
+  public void skipDigestData() throws IOException {
+    if (currentReaderDigest != null) {
+      currentReaderDigest = null;
+      curReaderInitialized = false;
+    } else {
+      currentSeriesReader.skipDigestData();
+    }
+  }
+
   @Override
   public void close() {
     // file stream is managed in QueryResourceManager.
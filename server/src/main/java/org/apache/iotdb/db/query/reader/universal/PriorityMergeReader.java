@@ -26,7 +26,9 @@ import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
 
 /**
- * This class implements {@link IPointReader} for data sources with different priorities.
+ * This class implements {@link IPointReader} for data sources with different priorities. The
+ * points are merged in ascending order of time, or in descending order if the reader is reversed,
+ * in which case all the data sources must return their points in descending order.
  */
 public class PriorityMergeReader implements IPointReader {
 
@@ -34,6 +36,19 @@ public class PriorityMergeReader implements IPointReader {
   private List<Integer> priorityList = new ArrayList<>();
   private PriorityQueue<Element> heap = new PriorityQueue<>();
 
+  /**
+   * True to merge the points from the newest to the oldest.
+   */
+  private boolean isReverse;
+
+  public PriorityMergeReader() {
+    this(false);
+  }
+
+  public PriorityMergeReader(boolean isReverse) {
+    this.isReverse = isReverse;
+  }
+
   public void addReaderWithPriority(IPointReader reader, int priority) throws IOException {
     if (reader.hasNext()) {
       heap.add(new Element(readerList.size(), reader.next(), priority));
@@ -94,11 +109,11 @@ public class PriorityMergeReader implements IPointReader {
         Element o) {
 
       if (this.timeValuePair.getTimestamp() > o.timeValuePair.getTimestamp()) {
-        return 1;
+        return isReverse ? -1 : 1;
       }
 
       if (this.timeValuePair.getTimestamp() < o.timeValuePair.getTimestamp()) {
-        return -1;
+        return isReverse ? 1 : -1;
       }
 
       return o.priority.compareTo(this.priority);
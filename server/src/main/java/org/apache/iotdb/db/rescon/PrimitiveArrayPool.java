@@ -19,139 +19,298 @@
 package org.apache.iotdb.db.rescon;
 
 import java.util.ArrayDeque;
-import java.util.EnumMap;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
  * Manage all primitive data list in memory, including get and release operation.
+ *
+ * <p>Arrays are pooled by data type and array size, the size of an array is a power of two. Each
+ * thread keeps a small cache of arrays of each data type and size, so most gets and releases do
+ * not need any lock. When a thread cache is empty or full, arrays are moved in batches from or to
+ * a shared pool of that data type and size, which is guarded by its own lock. The memory held by
+ * the shared pools is bounded by the memory budget of all memtables; arrays released beyond it
+ * are left to the GC.
  */
-public class PrimitiveArrayPool {
+public class PrimitiveArrayPool implements PrimitiveArrayPoolMBean, IService {
+
+  /**
+   * max memory of the arrays of each data type and size cached by a thread, arrays are moved
+   * between a thread cache and a shared pool half of the capacity at a time
+   */
+  private static final int THREAD_CACHE_BYTES = 64 * 1024;
 
   /**
-   * data type -> Array<PrimitiveArray>
+   * the size of a pooled array is 2^0 to 2^MAX_ARRAY_SIZE_SHIFT
    */
-  private static final EnumMap<TSDataType, ArrayDeque> primitiveArraysMap = new EnumMap<>(TSDataType.class);
+  private static final int MAX_ARRAY_SIZE_SHIFT = 30;
 
-  public static final int ARRAY_SIZE = 128;
+  private static final int SIZE_CLASS_NUM = MAX_ARRAY_SIZE_SHIFT + 1;
 
-  static {
-    primitiveArraysMap.put(TSDataType.BOOLEAN, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.INT32, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.INT64, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.FLOAT, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.DOUBLE, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.TEXT, new ArrayDeque());
-  }
+  private static final TSDataType[] DATA_TYPES = TSDataType.values();
+
+  private static final PrimitiveArrayPool INSTANCE = new PrimitiveArrayPool();
 
   public static PrimitiveArrayPool getInstance() {
     return INSTANCE;
   }
 
-  private static final PrimitiveArrayPool INSTANCE = new PrimitiveArrayPool();
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private String mbeanName = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
+          getID().getJmxName());
+
+  /**
+   * pool index -> shared arrays of the data type and size, each pool is guarded by itself
+   */
+  private final ArrayDeque<Object>[] sharedPools;
+
+  private final AtomicLong sharedPoolBytes = new AtomicLong();
+
+  /**
+   * pool index -> arrays of the data type and size cached by the current thread, created lazily
+   */
+  @SuppressWarnings("unchecked")
+  private final ThreadLocal<ArrayDeque<Object>[]> threadCaches = ThreadLocal
+      .withInitial(() -> new ArrayDeque[DATA_TYPES.length * SIZE_CLASS_NUM]);
+
+  private final LongAdder threadCacheHitCount = new LongAdder();
+  private final LongAdder sharedPoolHitCount = new LongAdder();
+  private final LongAdder allocatedArrayCount = new LongAdder();
+  private final LongAdder droppedArrayCount = new LongAdder();
+
+  @SuppressWarnings("unchecked")
+  private PrimitiveArrayPool() {
+    sharedPools = new ArrayDeque[DATA_TYPES.length * SIZE_CLASS_NUM];
+    for (int i = 0; i < sharedPools.length; i++) {
+      sharedPools[i] = new ArrayDeque<>();
+    }
+  }
+
+  private static int poolIndex(TSDataType dataType, int arraySize) {
+    return dataType.ordinal() * SIZE_CLASS_NUM + Integer.numberOfTrailingZeros(arraySize);
+  }
+
+  /**
+   * @return an array of the data type whose size is the configured primitive_array_size
+   */
+  public Object getPrimitiveDataListByType(TSDataType dataType) {
+    return getPrimitiveDataListByType(dataType, config.getPrimitiveArraySize());
+  }
 
+  /**
+   * @param arraySize a power of two
+   */
+  public Object getPrimitiveDataListByType(TSDataType dataType, int arraySize) {
+    int index = poolIndex(dataType, arraySize);
+    ArrayDeque<Object> threadCache = getThreadCache(index);
+    Object dataArray = threadCache.poll();
+    if (dataArray != null) {
+      threadCacheHitCount.increment();
+      return dataArray;
+    }
+    if (refill(index, threadCacheCapacity(dataType, arraySize) / 2,
+        arrayBytes(dataType, arraySize), threadCache)) {
+      sharedPoolHitCount.increment();
+      return threadCache.poll();
+    }
+    allocatedArrayCount.increment();
+    return newArray(dataType, arraySize);
+  }
 
-  private PrimitiveArrayPool() {}
+  private ArrayDeque<Object> getThreadCache(int index) {
+    ArrayDeque<Object>[] caches = threadCaches.get();
+    if (caches[index] == null) {
+      caches[index] = new ArrayDeque<>();
+    }
+    return caches[index];
+  }
 
-  public synchronized Object getPrimitiveDataListByType(TSDataType dataType) {
-    ArrayDeque dataListQueue = primitiveArraysMap.computeIfAbsent(dataType, k ->new ArrayDeque<>());
-    Object dataArray = dataListQueue.poll();
+  private static Object newArray(TSDataType dataType, int arraySize) {
     switch (dataType) {
       case BOOLEAN:
-        if (dataArray == null) {
-          dataArray = new boolean[ARRAY_SIZE];
-        }
-        break;
+        return new boolean[arraySize];
       case INT32:
-        if (dataArray == null) {
-          dataArray = new int[ARRAY_SIZE];
-        }
-        break;
+        return new int[arraySize];
       case INT64:
-        if (dataArray == null) {
-          dataArray = new long[ARRAY_SIZE];
-        }
-        break;
+        return new long[arraySize];
       case FLOAT:
-        if (dataArray == null) {
-          dataArray = new float[ARRAY_SIZE];
-        }
-        break;
+        return new float[arraySize];
       case DOUBLE:
-        if (dataArray == null) {
-          dataArray = new double[ARRAY_SIZE];
-        }
-        break;
+        return new double[arraySize];
       case TEXT:
-        if (dataArray == null) {
-          dataArray = new Binary[ARRAY_SIZE];
-        }
-        break;
+        return new Binary[arraySize];
       default:
         throw new UnSupportedDataTypeException("DataType: " + dataType);
     }
-    return dataArray;
   }
 
+  /**
+   * move a batch of arrays from the shared pool into the thread cache.
+   *
+   * @return false if the shared pool is empty
+   */
+  private boolean refill(int index, int batchSize, long arrayBytes,
+      ArrayDeque<Object> threadCache) {
+    ArrayDeque<Object> sharedPool = sharedPools[index];
+    int moved = 0;
+    synchronized (sharedPool) {
+      Object dataArray;
+      while (moved < batchSize && (dataArray = sharedPool.poll()) != null) {
+        threadCache.push(dataArray);
+        moved++;
+      }
+    }
+    sharedPoolBytes.addAndGet(-moved * arrayBytes);
+    return moved > 0;
+  }
 
-  public synchronized void release(Object dataArray) {
+  public void release(Object dataArray) {
+    TSDataType dataType;
+    int arraySize;
     if (dataArray instanceof boolean[]) {
-      primitiveArraysMap.get(TSDataType.BOOLEAN).add(dataArray);
+      dataType = TSDataType.BOOLEAN;
+      arraySize = ((boolean[]) dataArray).length;
     } else if (dataArray instanceof int[]) {
-      primitiveArraysMap.get(TSDataType.INT32).add(dataArray);
-    } else if (dataArray instanceof long[]){
-      primitiveArraysMap.get(TSDataType.INT64).add(dataArray);
+      dataType = TSDataType.INT32;
+      arraySize = ((int[]) dataArray).length;
+    } else if (dataArray instanceof long[]) {
+      dataType = TSDataType.INT64;
+      arraySize = ((long[]) dataArray).length;
     } else if (dataArray instanceof float[]) {
-      primitiveArraysMap.get(TSDataType.FLOAT).add(dataArray);
+      dataType = TSDataType.FLOAT;
+      arraySize = ((float[]) dataArray).length;
     } else if (dataArray instanceof double[]) {
-      primitiveArraysMap.get(TSDataType.DOUBLE).add(dataArray);
+      dataType = TSDataType.DOUBLE;
+      arraySize = ((double[]) dataArray).length;
     } else if (dataArray instanceof Binary[]) {
-      primitiveArraysMap.get(TSDataType.TEXT).add(dataArray);
+      // do not keep the released values reachable from the pool
+      Arrays.fill((Binary[]) dataArray, null);
+      dataType = TSDataType.TEXT;
+      arraySize = ((Binary[]) dataArray).length;
+    } else {
+      return;
+    }
+    if (Integer.bitCount(arraySize) != 1) {
+      // not allocated by the pool
+      return;
+    }
+    int index = poolIndex(dataType, arraySize);
+    ArrayDeque<Object> threadCache = getThreadCache(index);
+    threadCache.push(dataArray);
+    int capacity = threadCacheCapacity(dataType, arraySize);
+    if (threadCache.size() > capacity) {
+      spill(index, capacity / 2, arrayBytes(dataType, arraySize), threadCache);
+    }
+  }
+
+  /**
+   * move a batch of arrays from the thread cache into the shared pool, or drop them if the shared
+   * pools are full.
+   */
+  private void spill(int index, int batchSize, long arrayBytes, ArrayDeque<Object> threadCache) {
+    long batchBytes = batchSize * arrayBytes;
+    if (sharedPoolBytes.addAndGet(batchBytes) > getMaxPooledMemoryInBytes()) {
+      sharedPoolBytes.addAndGet(-batchBytes);
+      for (int i = 0; i < batchSize; i++) {
+        threadCache.pollLast();
+      }
+      droppedArrayCount.add(batchSize);
+      return;
+    }
+    ArrayDeque<Object> sharedPool = sharedPools[index];
+    synchronized (sharedPool) {
+      for (int i = 0; i < batchSize; i++) {
+        sharedPool.push(threadCache.pollLast());
+      }
+    }
+  }
+
+  /**
+   * @return max number of arrays of the data type and size cached by a thread, at least 2
+   */
+  private static int threadCacheCapacity(TSDataType dataType, int arraySize) {
+    return (int) Math.max(2, THREAD_CACHE_BYTES / arrayBytes(dataType, arraySize));
+  }
+
+  /**
+   * @return estimated memory size of a pooled array of the data type and size
+   */
+  private static long arrayBytes(TSDataType dataType, int arraySize) {
+    switch (dataType) {
+      case BOOLEAN:
+        return arraySize;
+      case INT32:
+      case FLOAT:
+        return 4L * arraySize;
+      default:
+        // 8 bytes per long or double, or per reference for TEXT
+        return 8L * arraySize;
     }
   }
 
   /**
    * @param size needed capacity
+   * @return an array of primitive data arrays whose size is the configured primitive_array_size
+   */
+  public Object getDataListsByType(TSDataType dataType, int size) {
+    return getDataListsByType(dataType, size, config.getPrimitiveArraySize());
+  }
+
+  /**
+   * @param size needed capacity
+   * @param arraySize size of each primitive data array, a power of two
    * @return an array of primitive data arrays
    */
-  public synchronized Object getDataListsByType(TSDataType dataType, int size) {
-    int arrayNumber = (int) Math.ceil((float) size / (float)ARRAY_SIZE);
+  public Object getDataListsByType(TSDataType dataType, int size, int arraySize) {
+    int arrayNumber = (size + arraySize - 1) / arraySize;
     switch (dataType) {
       case BOOLEAN:
         boolean[][] booleans = new boolean[arrayNumber][];
         for (int i = 0; i < arrayNumber; i++) {
-          booleans[i] = (boolean[]) getPrimitiveDataListByType(dataType);
+          booleans[i] = (boolean[]) getPrimitiveDataListByType(dataType, arraySize);
         }
         return booleans;
       case INT32:
         int[][] ints = new int[arrayNumber][];
         for (int i = 0; i < arrayNumber; i++) {
-          ints[i] = (int[]) getPrimitiveDataListByType(dataType);
+          ints[i] = (int[]) getPrimitiveDataListByType(dataType, arraySize);
         }
         return ints;
       case INT64:
         long[][] longs = new long[arrayNumber][];
         for (int i = 0; i < arrayNumber; i++) {
-          longs[i] = (long[]) getPrimitiveDataListByType(dataType);
+          longs[i] = (long[]) getPrimitiveDataListByType(dataType, arraySize);
         }
         return longs;
       case FLOAT:
         float[][] floats = new float[arrayNumber][];
         for (int i = 0; i < arrayNumber; i++) {
-          floats[i] = (float[]) getPrimitiveDataListByType(dataType);
+          floats[i] = (float[]) getPrimitiveDataListByType(dataType, arraySize);
         }
         return floats;
       case DOUBLE:
         double[][] doubles = new double[arrayNumber][];
         for (int i = 0; i < arrayNumber; i++) {
-          doubles[i] = (double[]) getPrimitiveDataListByType(dataType);
+          doubles[i] = (double[]) getPrimitiveDataListByType(dataType, arraySize);
         }
         return doubles;
       case TEXT:
         Binary[][] binaries = new Binary[arrayNumber][];
         for (int i = 0; i < arrayNumber; i++) {
-          binaries[i] = (Binary[]) getPrimitiveDataListByType(dataType);
+          binaries[i] = (Binary[]) getPrimitiveDataListByType(dataType, arraySize);
         }
         return binaries;
       default:
@@ -159,4 +318,82 @@ public class PrimitiveArrayPool {
     }
   }
 
+  @Override
+  public long getThreadCacheHitCount() {
+    return threadCacheHitCount.sum();
+  }
+
+  @Override
+  public long getSharedPoolHitCount() {
+    return sharedPoolHitCount.sum();
+  }
+
+  @Override
+  public long getAllocatedArrayCount() {
+    return allocatedArrayCount.sum();
+  }
+
+  @Override
+  public long getDroppedArrayCount() {
+    return droppedArrayCount.sum();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hit = getThreadCacheHitCount() + getSharedPoolHitCount();
+    long total = hit + getAllocatedArrayCount();
+    return total == 0 ? 0 : (double) hit / total;
+  }
+
+  @Override
+  public int getNumberOfPooledArrays() {
+    int number = 0;
+    for (ArrayDeque<Object> sharedPool : sharedPools) {
+      synchronized (sharedPool) {
+        number += sharedPool.size();
+      }
+    }
+    return number;
+  }
+
+  @Override
+  public long getPooledMemoryInBytes() {
+    return sharedPoolBytes.get();
+  }
+
+  /**
+   * the shared pools never hold more memory than all memtables may use.
+   */
+  @Override
+  public long getMaxPooledMemoryInBytes() {
+    return config.getMemtableSizeThreshold() * config.getMaxMemtableNumber();
+  }
+
+  @Override
+  public void start() throws StartupException {
+    try {
+      JMXService.registerMBean(INSTANCE, mbeanName);
+    } catch (Exception e) {
+      String errorMessage = String
+          .format("Failed to start %s because of %s", this.getID().getName(),
+              e.getMessage());
+      throw new StartupException(errorMessage, e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    JMXService.deregisterMBean(mbeanName);
+    for (ArrayDeque<Object> sharedPool : sharedPools) {
+      synchronized (sharedPool) {
+        sharedPool.clear();
+      }
+    }
+    sharedPoolBytes.set(0);
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.PRIMITIVE_ARRAY_POOL_SERVICE;
+  }
 }
@@ -21,9 +21,13 @@ package org.apache.iotdb.db.rescon;
 
 import java.util.ArrayDeque;
 import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Queue;
+import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.StartupException;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.JMXService;
@@ -35,11 +39,36 @@ import org.apache.iotdb.db.utils.datastructure.FloatTVList;
 import org.apache.iotdb.db.utils.datastructure.IntTVList;
 import org.apache.iotdb.db.utils.datastructure.LongTVList;
 import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 
 public class TVListAllocator implements TVListAllocatorMBean, IService {
 
+  /**
+   * an adaptive array size makes a series use 2^ADAPTIVE_ARRAY_NUMBER_SHIFT to
+   * 2^(ADAPTIVE_ARRAY_NUMBER_SHIFT + 1) arrays for as many points as in its last flushed memtable,
+   * so the unused tail of its last array is small compared with its points.
+   */
+  private static final int ADAPTIVE_ARRAY_NUMBER_SHIFT = 3;
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
   private Map<TSDataType, Queue<TVList>> tvListCache = new EnumMap<>(TSDataType.class);
+
+  /**
+   * full path of a series -> array size for its next TVList if it is not primitive_array_size,
+   * only used when enable_adaptive_array_size is true. It is an LRU map of at most
+   * adaptive_array_size_series_num series, and the series deleted from the schema are removed
+   * from it. Guarded by itself.
+   */
+  private final Map<String, Integer> arraySizeHints = new LinkedHashMap<String, Integer>(16, 0.75f,
+      true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+      return size() > config.getAdaptiveArraySizeSeriesNum();
+    }
+  };
+
   private String mbeanName = String
       .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
           getID().getJmxName());
@@ -50,11 +79,92 @@ public class TVListAllocator implements TVListAllocatorMBean, IService {
     return INSTANCE;
   }
 
-  public synchronized TVList allocate(TSDataType dataType) {
+  public TVList allocate(TSDataType dataType) {
+    return allocate(dataType, config.getPrimitiveArraySize());
+  }
+
+  /**
+   * allocate a TVList for a series. If enable_adaptive_array_size is true, its array size is
+   * chosen from the number of points the series had in its last flushed memtable.
+   */
+  public TVList allocate(String deviceId, String measurement, TSDataType dataType) {
+    int arraySize = config.getPrimitiveArraySize();
+    if (config.isEnableAdaptiveArraySize()) {
+      synchronized (arraySizeHints) {
+        arraySize = arraySizeHints.getOrDefault(getPath(deviceId, measurement), arraySize);
+      }
+    }
+    return allocate(dataType, arraySize);
+  }
+
+  private synchronized TVList allocate(TSDataType dataType, int arraySize) {
     Queue<TVList> tvLists = tvListCache.computeIfAbsent(dataType,
         k -> new ArrayDeque<>());
     TVList list = tvLists.poll();
-    return list != null ? list : TVList.newList(dataType);
+    if (list == null) {
+      list = TVList.newList(dataType);
+    }
+    if (list.getArraySize() != arraySize) {
+      list.setArraySize(arraySize);
+    }
+    return list;
+  }
+
+  /**
+   * release the TVList of a flushed series and remember its size for the next TVList of the
+   * series if enable_adaptive_array_size is true.
+   */
+  public void release(String deviceId, String measurement, TVList list) {
+    if (config.isEnableAdaptiveArraySize()) {
+      String path = getPath(deviceId, measurement);
+      int arraySize = getAdaptiveArraySize(list.size());
+      synchronized (arraySizeHints) {
+        if (arraySize == config.getPrimitiveArraySize()) {
+          arraySizeHints.remove(path);
+        } else {
+          arraySizeHints.put(path, arraySize);
+        }
+      }
+    }
+    release(list);
+  }
+
+  /**
+   * forget the array sizes of a deleted series, or of all series under a deleted storage group or
+   * device.
+   */
+  public void removeArraySizeHints(String path) {
+    String prefix = path + TsFileConstant.PATH_SEPARATOR;
+    synchronized (arraySizeHints) {
+      Iterator<String> iterator = arraySizeHints.keySet().iterator();
+      while (iterator.hasNext()) {
+        String seriesPath = iterator.next();
+        if (seriesPath.equals(path) || seriesPath.startsWith(prefix)) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  int getArraySizeHintNum() {
+    synchronized (arraySizeHints) {
+      return arraySizeHints.size();
+    }
+  }
+
+  /**
+   * @return the power of two that makes pointNumber points fill 2^ADAPTIVE_ARRAY_NUMBER_SHIFT to
+   * 2^(ADAPTIVE_ARRAY_NUMBER_SHIFT + 1) arrays, bounded by primitive_array_size and
+   * max_primitive_array_size
+   */
+  int getAdaptiveArraySize(int pointNumber) {
+    int arraySize = Integer.highestOneBit(Math.max(1, pointNumber >> ADAPTIVE_ARRAY_NUMBER_SHIFT));
+    arraySize = Math.max(arraySize, config.getPrimitiveArraySize());
+    return Math.min(arraySize, config.getMaxPrimitiveArraySize());
+  }
+
+  private static String getPath(String deviceId, String measurement) {
+    return deviceId + TsFileConstant.PATH_SEPARATOR + measurement;
   }
 
   public synchronized void release(TSDataType dataType, TVList list) {
@@ -104,6 +214,9 @@ public class TVListAllocator implements TVListAllocatorMBean, IService {
   public void stop() {
     JMXService.deregisterMBean(mbeanName);
     tvListCache.clear();
+    synchronized (arraySizeHints) {
+      arraySizeHints.clear();
+    }
   }
 
   @Override
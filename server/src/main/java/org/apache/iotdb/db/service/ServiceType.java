@@ -32,7 +32,11 @@ public enum ServiceType {
   FILE_READER_MANAGER_SERVICE("File reader manager ServerService", ""),
   SYNC_SERVICE("SYNC ServerService", ""),
   PERFORMANCE_STATISTIC_SERVICE("PERFORMANCE_STATISTIC_SERVICE","PERFORMANCE_STATISTIC_SERVICE"),
-  TVLIST_ALLOCATOR_SERVICE("TVList Allocator", "");
+  TVLIST_ALLOCATOR_SERVICE("TVList Allocator", ""),
+  PRIMITIVE_ARRAY_POOL_SERVICE("Primitive Array Pool", "PrimitiveArrayPool"),
+  CHUNK_CACHE_SERVICE("Chunk Cache", "ChunkCache"),
+  TSFILE_METADATA_CACHE_SERVICE("TsFile Metadata Cache", "TsFileMetaDataCache"),
+  DEVICE_METADATA_CACHE_SERVICE("Device Metadata Cache", "DeviceMetaDataCache");
 
   private String name;
   private String jmxName;
@@ -59,6 +59,7 @@ import org.apache.iotdb.db.qp.QueryProcessor;
 import org.apache.iotdb.db.qp.executor.QueryProcessExecutor;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
@@ -81,6 +82,7 @@ import org.apache.iotdb.service.rpc.thrift.TSFetchResultsResp;
 import org.apache.iotdb.service.rpc.thrift.TSGetTimeZoneResp;
 import org.apache.iotdb.service.rpc.thrift.TSHandleIdentifier;
 import org.apache.iotdb.service.rpc.thrift.TSIService;
+import org.apache.iotdb.service.rpc.thrift.TSInsertTabletReq;
 import org.apache.iotdb.service.rpc.thrift.TSInsertionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionResp;
@@ -628,6 +630,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     switch (plan.getOperatorType()) {
       case QUERY:
       case FILL:
+      case LAST:
         for (Path p : paths) {
           columns.add(p.getFullPath());
         }
@@ -674,10 +677,15 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       }
 
       int fetchSize = req.getFetch_size();
-      TSQueryDataSet result = QueryDataSetUtils
-          .convertQueryDataSetByFetchSize(queryDataSet, fetchSize);
-
-      boolean hasResultSet = !result.getRecords().isEmpty();
+      TSQueryDataSet result;
+      boolean hasResultSet;
+      if (req.isColumnar()) {
+        result = QueryDataSetUtils.convertQueryDataSetToColumns(queryDataSet, fetchSize);
+        hasResultSet = result.getRowCount() > 0;
+      } else {
+        result = QueryDataSetUtils.convertQueryDataSetByFetchSize(queryDataSet, fetchSize);
+        hasResultSet = !result.getRecords().isEmpty();
+      }
       if (!hasResultSet && queryRet.get() != null) {
         queryRet.get().remove(statement);
       }
@@ -928,6 +936,35 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
   }
 
+  @Override
+  public TSExecuteStatementResp insertTablet(TSInsertTabletReq req) {
+    if (!checkLogin()) {
+      logger.info(INFO_NOT_LOGIN, IoTDBConstant.GLOBAL_DB_NAME);
+      return getTSExecuteStatementResp(TS_StatusCode.ERROR_STATUS, ERROR_NOT_LOGIN);
+    }
+
+    try {
+      if (req.getMeasurementsSize() != req.getDataTypesSize()) {
+        return getTSExecuteStatementResp(TS_StatusCode.ERROR_STATUS, String
+            .format("%d measurements but %d data types", req.getMeasurementsSize(),
+                req.getDataTypesSize()));
+      }
+      TSDataType[] dataTypes = new TSDataType[req.getDataTypesSize()];
+      for (int i = 0; i < dataTypes.length; i++) {
+        dataTypes[i] = TSDataType.valueOf(req.getDataTypes().get(i));
+      }
+      int size = req.getSize();
+      InsertTabletPlan plan = new InsertTabletPlan(req.getDeviceId(),
+          req.getMeasurements().toArray(new String[0]), dataTypes,
+          QueryDataSetUtils.readTimesFromBuffer(req.bufferForTimestamps(), size),
+          QueryDataSetUtils.readValuesFromBuffer(req.bufferForValues(), dataTypes, size), size);
+      return executeUpdateStatement(plan);
+    } catch (Exception e) {
+      logger.info("meet error while executing a tablet insertion into {}", req.getDeviceId(), e);
+      return getTSExecuteStatementResp(TS_StatusCode.ERROR_STATUS, e.getMessage());
+    }
+  }
+
   @Override
   public long requestStatementId() {
     return globalStmtId.incrementAndGet();
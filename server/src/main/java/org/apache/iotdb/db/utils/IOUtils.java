@@ -22,6 +22,8 @@ import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import org.apache.iotdb.db.auth.entity.PathPrivilege;
 
@@ -177,4 +179,37 @@ public class IOUtils {
       }
     }
   }
+
+  /**
+   * Release the native memory of a direct or mapped buffer at once instead of waiting for it to be
+   * collected, the buffer must not be accessed afterwards. A heap buffer is ignored.
+   *
+   * @param buffer the buffer to be released.
+   * @throws IOException when the buffer cannot be released on this JVM.
+   */
+  public static void cleanDirectBuffer(ByteBuffer buffer) throws IOException {
+    if (buffer == null || !buffer.isDirect()) {
+      return;
+    }
+    try {
+      try {
+        // Java 9 and later
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        invokeCleaner.invoke(theUnsafe.get(null), buffer);
+      } catch (NoSuchMethodException e) {
+        // Java 8
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        if (cleaner != null) {
+          cleaner.getClass().getMethod("clean").invoke(cleaner);
+        }
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      throw new IOException("Cannot release the direct buffer", e);
+    }
+  }
 }
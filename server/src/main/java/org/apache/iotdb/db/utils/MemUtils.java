@@ -20,6 +20,7 @@ package org.apache.iotdb.db.utils;
 
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
 import org.apache.iotdb.tsfile.write.record.datapoint.BooleanDataPoint;
@@ -67,6 +68,34 @@ public class MemUtils {
     return memSize;
   }
 
+  /**
+   * function for getting the size of the rows in [start, end) of an InsertTabletPlan.
+   */
+  public static long getRecordSize(InsertTabletPlan insertTabletPlan, int start, int end) {
+    long memSize = 0;
+    for (int i = 0; i < insertTabletPlan.getMeasurements().length; i++) {
+      switch (insertTabletPlan.getDataTypes()[i]) {
+        case INT32:
+        case FLOAT:
+          memSize += (8L + 4L) * (end - start); break;
+        case INT64:
+        case DOUBLE:
+          memSize += (8L + 8L) * (end - start); break;
+        case BOOLEAN:
+          memSize += (8L + 1L) * (end - start); break;
+        case TEXT:
+          Binary[] values = (Binary[]) insertTabletPlan.getColumns()[i];
+          for (int j = start; j < end; j++) {
+            memSize += 8L + values[j].getLength();
+          }
+          break;
+        default:
+          memSize += (8L + 8L) * (end - start);
+      }
+    }
+    return memSize;
+  }
+
   /**
    * Calculate how much memory will be used if the given record is written to sequence file.
    */
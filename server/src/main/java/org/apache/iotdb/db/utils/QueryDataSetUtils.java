@@ -16,21 +16,33 @@ package org.apache.iotdb.db.utils;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.io.DataOutputStream;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
+import org.apache.iotdb.db.query.dataset.EngineDataSetWithoutValueFilter;
 import org.apache.iotdb.service.rpc.thrift.TSDataValue;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSRowRecord;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Field;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
 
 /**
  * TimeValuePairUtils to convert between thrift format and TsFile format.
  */
 public class QueryDataSetUtils {
 
+  /**
+   * max number of rows taken from a data set at a time when converting it to columns.
+   */
+  private static final int COLUMN_BLOCK_SIZE = 1024;
+
   private QueryDataSetUtils(){}
 
   /**
@@ -56,6 +68,204 @@ public class QueryDataSetUtils {
     return tsQueryDataSet;
   }
 
+  /**
+   * convert query data set by fetch size into the columnar form of TSQueryDataSet, in which the
+   * values are packed into one binary column for each series instead of a TSDataValue for each
+   * value.
+   *
+   * @param queryDataSet -query dataset
+   * @param fetchSize -fetch size
+   * @return -the rows in columnar form, records is empty
+   */
+  public static TSQueryDataSet convertQueryDataSetToColumns(QueryDataSet queryDataSet,
+      int fetchSize) throws IOException {
+    PublicBAOS timeBAOS = new PublicBAOS();
+    DataOutputStream timeStream = new DataOutputStream(timeBAOS);
+    ValueColumns columns = null;
+
+    int rowCount = 0;
+    if (queryDataSet instanceof EngineDataSetWithoutValueFilter) {
+      // the columns are filled by the data set directly
+      columns = new ValueColumns(queryDataSet.getDataTypes().size());
+      rowCount = fillColumns((EngineDataSetWithoutValueFilter) queryDataSet, fetchSize, timeBAOS,
+          columns);
+    }
+    while (rowCount < fetchSize && queryDataSet.hasNext()) {
+      RowRecord rowRecord = queryDataSet.next();
+      List<Field> fields = rowRecord.getFields();
+      if (columns == null) {
+        columns = new ValueColumns(fields.size());
+      }
+
+      timeStream.writeLong(rowRecord.getTimestamp());
+      for (int i = 0; i < fields.size(); i++) {
+        Field field = fields.get(i);
+        if (field.getDataType() == null) {
+          continue;
+        }
+        columns.bitmaps[i].set(rowCount);
+        columns.dataTypes[i] = field.getDataType();
+        writeValue(columns.streams[i], field);
+      }
+      rowCount++;
+    }
+
+    TSQueryDataSet tsQueryDataSet = new TSQueryDataSet(new ArrayList<>());
+    tsQueryDataSet.setTime(ByteBuffer.wrap(timeBAOS.getBuf(), 0, timeBAOS.size()));
+    tsQueryDataSet.setValueList(new ArrayList<>());
+    tsQueryDataSet.setBitmapList(new ArrayList<>());
+    tsQueryDataSet.setDataTypeList(new ArrayList<>());
+    if (columns != null) {
+      for (int i = 0; i < columns.streams.length; i++) {
+        tsQueryDataSet.getValueList()
+            .add(ByteBuffer.wrap(columns.buffers[i].getBuf(), 0, columns.buffers[i].size()));
+        tsQueryDataSet.getBitmapList().add(ByteBuffer.wrap(columns.bitmaps[i].toByteArray()));
+        tsQueryDataSet.getDataTypeList()
+            .add(columns.dataTypes[i] == null ? "" : columns.dataTypes[i].toString());
+      }
+    }
+    tsQueryDataSet.setRowCount(rowCount);
+    return tsQueryDataSet;
+  }
+
+  /**
+   * fill the columns block by block with primitive arrays taken from the data set, and write each
+   * block in bulk instead of value by value.
+   *
+   * @return number of rows
+   */
+  private static int fillColumns(EngineDataSetWithoutValueFilter dataSet, int fetchSize,
+      PublicBAOS timeBAOS, ValueColumns columns) throws IOException {
+    List<TSDataType> dataTypes = dataSet.getDataTypes();
+    int blockSize = Math.min(fetchSize, COLUMN_BLOCK_SIZE);
+    long[] times = new long[blockSize];
+    Object[] blockColumns = new Object[dataTypes.size()];
+    for (int i = 0; i < blockColumns.length; i++) {
+      blockColumns[i] = createColumn(dataTypes.get(i), blockSize);
+    }
+    int[] valueCounts = new int[blockColumns.length];
+    ByteBuffer buffer = ByteBuffer.allocate(blockSize * Long.BYTES);
+
+    int rowCount = 0;
+    while (rowCount < fetchSize) {
+      int blockRowNum = dataSet.fillColumns(Math.min(blockSize, fetchSize - rowCount), times,
+          blockColumns, valueCounts, columns.bitmaps, rowCount);
+      if (blockRowNum == 0) {
+        break;
+      }
+      buffer.clear();
+      buffer.asLongBuffer().put(times, 0, blockRowNum);
+      timeBAOS.write(buffer.array(), 0, blockRowNum * Long.BYTES);
+      for (int i = 0; i < blockColumns.length; i++) {
+        if (valueCounts[i] > 0) {
+          columns.dataTypes[i] = dataTypes.get(i);
+          writeColumn(columns.streams[i], dataTypes.get(i), blockColumns[i], valueCounts[i],
+              buffer);
+        }
+      }
+      rowCount += blockRowNum;
+    }
+    return rowCount;
+  }
+
+  private static Object createColumn(TSDataType dataType, int size) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new boolean[size];
+      case INT32:
+        return new int[size];
+      case INT64:
+        return new long[size];
+      case FLOAT:
+        return new float[size];
+      case DOUBLE:
+        return new double[size];
+      case TEXT:
+        return new Binary[size];
+      default:
+        throw new UnSupportedDataTypeException(String.format(
+            "data type %s is not supported when convert data at server", dataType));
+    }
+  }
+
+  /**
+   * write the first size values of a primitive column in the form of the columns in
+   * TSInsertTabletReq, the buffer must be able to hold size longs.
+   */
+  private static void writeColumn(DataOutputStream stream, TSDataType dataType, Object column,
+      int size, ByteBuffer buffer) throws IOException {
+    buffer.clear();
+    int length;
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = (boolean[]) column;
+        for (int i = 0; i < size; i++) {
+          buffer.put(booleans[i] ? (byte) 1 : (byte) 0);
+        }
+        length = size;
+        break;
+      case INT32:
+        buffer.asIntBuffer().put((int[]) column, 0, size);
+        length = size * Integer.BYTES;
+        break;
+      case INT64:
+        buffer.asLongBuffer().put((long[]) column, 0, size);
+        length = size * Long.BYTES;
+        break;
+      case FLOAT:
+        buffer.asFloatBuffer().put((float[]) column, 0, size);
+        length = size * Float.BYTES;
+        break;
+      case DOUBLE:
+        buffer.asDoubleBuffer().put((double[]) column, 0, size);
+        length = size * Double.BYTES;
+        break;
+      case TEXT:
+        Binary[] binaries = (Binary[]) column;
+        for (int i = 0; i < size; i++) {
+          byte[] bytes = binaries[i].getValues();
+          stream.writeInt(bytes.length);
+          stream.write(bytes);
+        }
+        return;
+      default:
+        throw new UnSupportedDataTypeException(String.format(
+            "data type %s is not supported when convert data at server", dataType));
+    }
+    stream.write(buffer.array(), 0, length);
+  }
+
+  /**
+   * write a value in the form of the columns in TSInsertTabletReq.
+   */
+  private static void writeValue(DataOutputStream stream, Field field) throws IOException {
+    switch (field.getDataType()) {
+      case BOOLEAN:
+        stream.writeBoolean(field.getBoolV());
+        break;
+      case INT32:
+        stream.writeInt(field.getIntV());
+        break;
+      case INT64:
+        stream.writeLong(field.getLongV());
+        break;
+      case FLOAT:
+        stream.writeFloat(field.getFloatV());
+        break;
+      case DOUBLE:
+        stream.writeDouble(field.getDoubleV());
+        break;
+      case TEXT:
+        byte[] bytes = field.getBinaryV().getValues();
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.format(
+            "data type %s is not supported when convert data at server", field.getDataType()));
+    }
+  }
+
   /**
    * convert to tsRecord.
    *
@@ -101,4 +311,55 @@ public class QueryDataSetUtils {
     }
     return tsRowRecord;
   }
+
+  /**
+   * read the timestamps column of a TSInsertTabletReq.
+   *
+   * @throws IllegalArgumentException if the buffer does not hold size timestamps
+   */
+  public static long[] readTimesFromBuffer(ByteBuffer buffer, int size) {
+    InsertTabletPlan.checkRemaining(buffer, size, Long.BYTES);
+    long[] times = new long[size];
+    buffer.asLongBuffer().get(times);
+    return times;
+  }
+
+  /**
+   * read the value columns of a TSInsertTabletReq, each column is a primitive array (or Binary[]
+   * for TEXT) of size values.
+   *
+   * @throws IllegalArgumentException if the buffer does not hold size values of each column
+   */
+  public static Object[] readValuesFromBuffer(ByteBuffer buffer, TSDataType[] dataTypes,
+      int size) {
+    ByteBuffer values = buffer.duplicate();
+    Object[] columns = new Object[dataTypes.length];
+    for (int i = 0; i < dataTypes.length; i++) {
+      columns[i] = InsertTabletPlan.deserializeColumn(values, dataTypes[i], size);
+    }
+    return columns;
+  }
+
+  /**
+   * the value column, bitmap and data type of each series in the columnar form of TSQueryDataSet.
+   */
+  private static class ValueColumns {
+
+    private PublicBAOS[] buffers;
+    private DataOutputStream[] streams;
+    private BitSet[] bitmaps;
+    private TSDataType[] dataTypes;
+
+    private ValueColumns(int columnNum) {
+      buffers = new PublicBAOS[columnNum];
+      streams = new DataOutputStream[columnNum];
+      bitmaps = new BitSet[columnNum];
+      dataTypes = new TSDataType[columnNum];
+      for (int i = 0; i < columnNum; i++) {
+        buffers[i] = new PublicBAOS();
+        streams[i] = new DataOutputStream(buffers[i]);
+        bitmaps[i] = new BitSet();
+      }
+    }
+  }
 }
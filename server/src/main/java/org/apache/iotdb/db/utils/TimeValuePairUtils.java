@@ -21,10 +21,31 @@ package org.apache.iotdb.db.utils;
 import org.apache.iotdb.db.query.aggregation.AggreResultData;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 public class TimeValuePairUtils {
 
   private TimeValuePairUtils(){}
+
+  /**
+   * examine a (time,value) pair with the filter, numeric values are examined without boxing.
+   */
+  public static boolean satisfy(Filter filter, TimeValuePair timeValuePair) {
+    TsPrimitiveType value = timeValuePair.getValue();
+    switch (value.getDataType()) {
+      case INT32:
+        return filter.satisfyInt(timeValuePair.getTimestamp(), value.getInt());
+      case INT64:
+        return filter.satisfyLong(timeValuePair.getTimestamp(), value.getLong());
+      case FLOAT:
+        return filter.satisfyFloat(timeValuePair.getTimestamp(), value.getFloat());
+      case DOUBLE:
+        return filter.satisfyDouble(timeValuePair.getTimestamp(), value.getDouble());
+      default:
+        return filter.satisfy(timeValuePair.getTimestamp(), value.getValue());
+    }
+  }
+
   /**
    * get given data's current (time,value) pair.
    *
@@ -53,6 +74,34 @@ public class TimeValuePairUtils {
     }
   }
 
+  /**
+   * get the (time,value) pair at the given index of the data, regardless of its current position.
+   *
+   * @param data -batch data
+   * @param idx -index of the pair in the data
+   * @return -the (time,value) pair
+   */
+  public static TimeValuePair getTimeValuePairByIndex(BatchData data, int idx) {
+    long time = data.getTimeByIndex(idx);
+    switch (data.getDataType()) {
+      case INT32:
+        return new TimeValuePair(time, new TsPrimitiveType.TsInt(data.getIntByIndex(idx)));
+      case INT64:
+        return new TimeValuePair(time, new TsPrimitiveType.TsLong(data.getLongByIndex(idx)));
+      case FLOAT:
+        return new TimeValuePair(time, new TsPrimitiveType.TsFloat(data.getFloatByIndex(idx)));
+      case DOUBLE:
+        return new TimeValuePair(time, new TsPrimitiveType.TsDouble(data.getDoubleByIndex(idx)));
+      case TEXT:
+        return new TimeValuePair(time, new TsPrimitiveType.TsBinary(data.getBinaryByIndex(idx)));
+      case BOOLEAN:
+        return new TimeValuePair(time,
+            new TsPrimitiveType.TsBoolean(data.getBooleanByIndex(idx)));
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(data.getDataType()));
+    }
+  }
+
   /**
    * get given data's current (time,value) pair.
    *
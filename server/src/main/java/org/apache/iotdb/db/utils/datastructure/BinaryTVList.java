@@ -18,8 +18,6 @@
  */
 package org.apache.iotdb.db.utils.datastructure;
 
-import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
-
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.iotdb.db.rescon.PrimitiveArrayPool;
@@ -42,8 +40,8 @@ public class BinaryTVList extends TVList {
   @Override
   public void putBinary(long timestamp, Binary value) {
     checkExpansion();
-    int arrayIndex = size / ARRAY_SIZE;
-    int elementIndex = size % ARRAY_SIZE;
+    int arrayIndex = size >> arraySizeShift;
+    int elementIndex = size & arrayMask;
     minTime = minTime <= timestamp ? minTime : timestamp;
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
     values.get(arrayIndex)[elementIndex] = value;
@@ -53,13 +51,18 @@ public class BinaryTVList extends TVList {
     }
   }
 
+  @Override
+  public void putBinaries(long[] time, Binary[] value, int start, int end) {
+    putBatch(time, value, values, start, end);
+  }
+
   @Override
   public Binary getBinary(int index) {
     if (index >= size) {
       throw new ArrayIndexOutOfBoundsException(index);
     }
-    int arrayIndex = index / ARRAY_SIZE;
-    int elementIndex = index % ARRAY_SIZE;
+    int arrayIndex = index >> arraySizeShift;
+    int elementIndex = index & arrayMask;
     return values.get(arrayIndex)[elementIndex];
   }
 
@@ -67,8 +70,8 @@ public class BinaryTVList extends TVList {
     if (index >= size) {
       throw new ArrayIndexOutOfBoundsException(index);
     }
-    int arrayIndex = index / ARRAY_SIZE;
-    int elementIndex = index % ARRAY_SIZE;
+    int arrayIndex = index >> arraySizeShift;
+    int elementIndex = index & arrayMask;
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
     values.get(arrayIndex)[elementIndex] = value;
   }
@@ -83,6 +86,24 @@ public class BinaryTVList extends TVList {
     return cloneList;
   }
 
+  @Override
+  protected BinaryTVList shallowCopy() {
+    BinaryTVList copy = new BinaryTVList();
+    shallowCopyAs(copy);
+    copy.values.addAll(values);
+    return copy;
+  }
+
+  @Override
+  protected void copyValuesOnWrite() {
+    for (int i = 0; i < sharedArrayNum; i++) {
+      Binary[] copy = (Binary[]) PrimitiveArrayPool.getInstance()
+          .getPrimitiveDataListByType(TSDataType.TEXT, arraySize);
+      System.arraycopy(values.get(i), 0, copy, 0, arraySize);
+      values.set(i, copy);
+    }
+  }
+
   private Binary[] cloneValue(Binary[] array) {
     Binary[] cloneArray = new Binary[array.length];
     System.arraycopy(array, 0, cloneArray, 0, array.length);
@@ -90,13 +111,17 @@ public class BinaryTVList extends TVList {
   }
 
   public void sort() {
+    if (sorted) {
+      return;
+    }
+    copyOnWrite();
     if (sortedTimestamps == null || sortedTimestamps.length < size) {
       sortedTimestamps = (long[][]) PrimitiveArrayPool
-          .getInstance().getDataListsByType(TSDataType.INT64, size);
+          .getInstance().getDataListsByType(TSDataType.INT64, size, arraySize);
     }
     if (sortedValues == null || sortedValues.length < size) {
       sortedValues = (Binary[][]) PrimitiveArrayPool
-          .getInstance().getDataListsByType(TSDataType.TEXT, size);
+          .getInstance().getDataListsByType(TSDataType.TEXT, size, arraySize);
     }
     sort(0, size);
     clearSortedValue();
@@ -107,8 +132,8 @@ public class BinaryTVList extends TVList {
   @Override
   void clearValue() {
     if (values != null) {
-      for (Binary[] dataArray : values) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
+      for (int i = 0; i < values.size(); i++) {
+        releaseArray(i, values.get(i));
       }
       values.clear();
     }
@@ -126,7 +151,8 @@ public class BinaryTVList extends TVList {
 
   @Override
   protected void setFromSorted(int src, int dest) {
-    set(dest, sortedTimestamps[src/ARRAY_SIZE][src%ARRAY_SIZE], sortedValues[src/ARRAY_SIZE][src%ARRAY_SIZE]);
+    set(dest, sortedTimestamps[src >> arraySizeShift][src & arrayMask],
+        sortedValues[src >> arraySizeShift][src & arrayMask]);
   }
 
   protected void set(int src, int dest) {
@@ -136,8 +162,8 @@ public class BinaryTVList extends TVList {
   }
 
   protected void setToSorted(int src, int dest) {
-    sortedTimestamps[dest/ARRAY_SIZE][dest% ARRAY_SIZE] = getTime(src);
-    sortedValues[dest/ARRAY_SIZE][dest%ARRAY_SIZE] = getBinary(src);
+    sortedTimestamps[dest >> arraySizeShift][dest & arrayMask] = getTime(src);
+    sortedValues[dest >> arraySizeShift][dest & arrayMask] = getBinary(src);
   }
 
   protected void reverseRange(int lo, int hi) {
@@ -155,7 +181,7 @@ public class BinaryTVList extends TVList {
   @Override
   protected void expandValues() {
     values.add((Binary[]) PrimitiveArrayPool
-        .getInstance().getPrimitiveDataListByType(TSDataType.TEXT));
+        .getInstance().getPrimitiveDataListByType(TSDataType.TEXT, arraySize));
   }
 
   @Override
@@ -171,6 +197,6 @@ public class BinaryTVList extends TVList {
 
   @Override
   protected void releaseLastValueArray() {
-    PrimitiveArrayPool.getInstance().release(values.remove(values.size() - 1));
+    releaseArray(values.size() - 1, values.remove(values.size() - 1));
   }
 }
@@ -18,8 +18,6 @@
  */
 package org.apache.iotdb.db.utils.datastructure;
 
-import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
-
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.iotdb.db.rescon.PrimitiveArrayPool;
@@ -41,8 +39,8 @@ public class FloatTVList extends TVList {
   @Override
   public void putFloat(long timestamp, float value) {
     checkExpansion();
-    int arrayIndex = size / ARRAY_SIZE;
-    int elementIndex = size % ARRAY_SIZE;
+    int arrayIndex = size >> arraySizeShift;
+    int elementIndex = size & arrayMask;
     minTime = minTime <= timestamp ? minTime : timestamp;
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
     values.get(arrayIndex)[elementIndex] = value;
@@ -52,13 +50,18 @@ public class FloatTVList extends TVList {
     }
   }
 
+  @Override
+  public void putFloats(long[] time, float[] value, int start, int end) {
+    putBatch(time, value, values, start, end);
+  }
+
   @Override
   public float getFloat(int index) {
     if (index >= size) {
       throw new ArrayIndexOutOfBoundsException(index);
     }
-    int arrayIndex = index / ARRAY_SIZE;
-    int elementIndex = index % ARRAY_SIZE;
+    int arrayIndex = index >> arraySizeShift;
+    int elementIndex = index & arrayMask;
     return values.get(arrayIndex)[elementIndex];
   }
 
@@ -66,8 +69,8 @@ public class FloatTVList extends TVList {
     if (index >= size) {
       throw new ArrayIndexOutOfBoundsException(index);
     }
-    int arrayIndex = index / ARRAY_SIZE;
-    int elementIndex = index % ARRAY_SIZE;
+    int arrayIndex = index >> arraySizeShift;
+    int elementIndex = index & arrayMask;
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
     values.get(arrayIndex)[elementIndex] = value;
   }
@@ -82,6 +85,24 @@ public class FloatTVList extends TVList {
     return cloneList;
   }
 
+  @Override
+  protected FloatTVList shallowCopy() {
+    FloatTVList copy = new FloatTVList();
+    shallowCopyAs(copy);
+    copy.values.addAll(values);
+    return copy;
+  }
+
+  @Override
+  protected void copyValuesOnWrite() {
+    for (int i = 0; i < sharedArrayNum; i++) {
+      float[] copy = (float[]) PrimitiveArrayPool.getInstance()
+          .getPrimitiveDataListByType(TSDataType.FLOAT, arraySize);
+      System.arraycopy(values.get(i), 0, copy, 0, arraySize);
+      values.set(i, copy);
+    }
+  }
+
   private float[] cloneValue(float[] array) {
     float[] cloneArray = new float[array.length];
     System.arraycopy(array, 0, cloneArray, 0, array.length);
@@ -89,13 +110,17 @@ public class FloatTVList extends TVList {
   }
 
   public void sort() {
+    if (sorted) {
+      return;
+    }
+    copyOnWrite();
     if (sortedTimestamps == null || sortedTimestamps.length < size) {
       sortedTimestamps = (long[][]) PrimitiveArrayPool
-          .getInstance().getDataListsByType(TSDataType.INT64, size);
+          .getInstance().getDataListsByType(TSDataType.INT64, size, arraySize);
     }
     if (sortedValues == null || sortedValues.length < size) {
       sortedValues = (float[][]) PrimitiveArrayPool
-          .getInstance().getDataListsByType(TSDataType.FLOAT, size);
+          .getInstance().getDataListsByType(TSDataType.FLOAT, size, arraySize);
     }
     sort(0, size);
     clearSortedValue();
@@ -106,8 +131,8 @@ public class FloatTVList extends TVList {
   @Override
   void clearValue() {
     if (values != null) {
-      for (float[] dataArray : values) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
+      for (int i = 0; i < values.size(); i++) {
+        releaseArray(i, values.get(i));
       }
       values.clear();
     }
@@ -125,7 +150,8 @@ public class FloatTVList extends TVList {
 
   @Override
   protected void setFromSorted(int src, int dest) {
-    set(dest, sortedTimestamps[src/ARRAY_SIZE][src%ARRAY_SIZE], sortedValues[src/ARRAY_SIZE][src%ARRAY_SIZE]);
+    set(dest, sortedTimestamps[src >> arraySizeShift][src & arrayMask],
+        sortedValues[src >> arraySizeShift][src & arrayMask]);
   }
 
   protected void set(int src, int dest) {
@@ -135,8 +161,8 @@ public class FloatTVList extends TVList {
   }
 
   protected void setToSorted(int src, int dest) {
-    sortedTimestamps[dest/ARRAY_SIZE][dest% ARRAY_SIZE] = getTime(src);
-    sortedValues[dest/ARRAY_SIZE][dest%ARRAY_SIZE] = getFloat(src);
+    sortedTimestamps[dest >> arraySizeShift][dest & arrayMask] = getTime(src);
+    sortedValues[dest >> arraySizeShift][dest & arrayMask] = getFloat(src);
   }
 
   protected void reverseRange(int lo, int hi) {
@@ -154,7 +180,7 @@ public class FloatTVList extends TVList {
   @Override
   protected void expandValues() {
     values.add((float[]) PrimitiveArrayPool
-        .getInstance().getPrimitiveDataListByType(TSDataType.FLOAT));
+        .getInstance().getPrimitiveDataListByType(TSDataType.FLOAT, arraySize));
   }
 
   @Override
@@ -170,6 +196,6 @@ public class FloatTVList extends TVList {
 
   @Override
   protected void releaseLastValueArray() {
-    PrimitiveArrayPool.getInstance().release(values.remove(values.size() - 1));
+    releaseArray(values.size() - 1, values.remove(values.size() - 1));
   }
 }
@@ -19,10 +19,9 @@
 
 package org.apache.iotdb.db.utils.datastructure;
 
-import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
-
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.rescon.PrimitiveArrayPool;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -37,9 +36,24 @@ public abstract class TVList {
   protected List<long[]> timestamps;
   protected int size;
 
+  /**
+   * number of points in each primitive array, a power of two. The i-th point is at
+   * [i >> arraySizeShift][i & arrayMask] of the arrays.
+   */
+  protected int arraySize;
+  protected int arraySizeShift;
+  protected int arrayMask;
+
   protected long[][] sortedTimestamps;
   protected boolean sorted = true;
 
+  /**
+   * number of leading primitive arrays that are also referenced by snapshots of this list, arrays
+   * added after the last snapshot are private. Shared arrays are never modified below the size of
+   * a snapshot and never returned to the pool.
+   */
+  protected int sharedArrayNum;
+
   /**
    * this field is effective only in the Tvlist in a RealOnlyMemChunk.
    */
@@ -53,6 +67,27 @@ public abstract class TVList {
     timestamps = new ArrayList<>();
     size = 0;
     minTime = Long.MIN_VALUE;
+    setArraySize(IoTDBDescriptor.getInstance().getConfig().getPrimitiveArraySize());
+  }
+
+  public int getArraySize() {
+    return arraySize;
+  }
+
+  /**
+   * @param arraySize number of points in each primitive array, a power of two. It can only be
+   * changed when the list holds no arrays.
+   */
+  public void setArraySize(int arraySize) {
+    if (Integer.bitCount(arraySize) != 1) {
+      throw new IllegalArgumentException("Array size is not a power of two: " + arraySize);
+    }
+    if (!timestamps.isEmpty()) {
+      throw new IllegalStateException("Cannot change the array size of a non-empty TVList");
+    }
+    this.arraySize = arraySize;
+    this.arraySizeShift = Integer.numberOfTrailingZeros(arraySize);
+    this.arrayMask = arraySize - 1;
   }
 
   public int size() {
@@ -63,8 +98,8 @@ public abstract class TVList {
     if (index >= size) {
       throw new ArrayIndexOutOfBoundsException(index);
     }
-    int arrayIndex = index / ARRAY_SIZE;
-    int elementIndex = index % ARRAY_SIZE;
+    int arrayIndex = index >> arraySizeShift;
+    int elementIndex = index & arrayMask;
     return timestamps.get(arrayIndex)[elementIndex];
   }
 
@@ -92,6 +127,30 @@ public abstract class TVList {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
 
+  public void putLongs(long[] time, long[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
+  public void putInts(long[] time, int[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
+  public void putFloats(long[] time, float[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
+  public void putDoubles(long[] time, double[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
+  public void putBinaries(long[] time, Binary[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
+  public void putBooleans(long[] time, boolean[] value, int start, int end) {
+    throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+  }
+
   public long getLong(int index) {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
@@ -134,13 +193,75 @@ public abstract class TVList {
 
   public abstract TVList clone();
 
+  /**
+   * Get a read-only view of the points currently in this list without copying them. The view
+   * shares the primitive arrays with this list: appending to this list is not visible to the view,
+   * and any later in-place modification (sort or delete) of either list copies its arrays before
+   * writing. So a sorted list is never copied, and an unsorted view is copied and sorted only when
+   * it is read, which is outside the lock of the memtable.
+   *
+   * @return a list holding the first size() points of this list
+   */
+  public TVList snapshot() {
+    sharedArrayNum = Math.max(sharedArrayNum, timestamps.size());
+    return shallowCopy();
+  }
+
+  /**
+   * @return a list referencing the same primitive arrays as this one
+   */
+  protected abstract TVList shallowCopy();
+
+  protected void shallowCopyAs(TVList copy) {
+    copy.setArraySize(arraySize);
+    copy.timestamps.addAll(timestamps);
+    copy.size = size;
+    copy.sorted = sorted;
+    copy.minTime = minTime;
+    copy.sharedArrayNum = timestamps.size();
+  }
+
+  /**
+   * replace the arrays shared with snapshots by private copies before modifying them in place.
+   */
+  protected void copyOnWrite() {
+    if (sharedArrayNum == 0) {
+      return;
+    }
+    for (int i = 0; i < sharedArrayNum; i++) {
+      long[] copy = (long[]) PrimitiveArrayPool.getInstance()
+          .getPrimitiveDataListByType(TSDataType.INT64, arraySize);
+      System.arraycopy(timestamps.get(i), 0, copy, 0, arraySize);
+      timestamps.set(i, copy);
+    }
+    copyValuesOnWrite();
+    sharedArrayNum = 0;
+  }
+
+  /**
+   * replace the first sharedArrayNum value arrays by private copies.
+   */
+  protected abstract void copyValuesOnWrite();
+
+  /**
+   * return an array to the pool unless a snapshot may still be reading it.
+   *
+   * @param arrayIndex the index of the array in this list
+   */
+  protected void releaseArray(int arrayIndex, Object dataArray) {
+    if (arrayIndex >= sharedArrayNum) {
+      PrimitiveArrayPool.getInstance().release(dataArray);
+    }
+  }
+
   protected abstract void releaseLastValueArray();
 
   protected void releaseLastTimeArray() {
-    PrimitiveArrayPool.getInstance().release(timestamps.remove(timestamps.size() - 1));
+    releaseArray(timestamps.size() - 1, timestamps.remove(timestamps.size() - 1));
   }
 
   public void delete(long upperBound) {
+    copyOnWrite();
     int newSize = 0;
     minTime = Long.MAX_VALUE;
     for (int i = 0; i < size; i++) {
@@ -152,17 +273,15 @@ public abstract class TVList {
     }
     size = newSize;
     // release primitive arrays that are empty
-    int newArrayNum = newSize / ARRAY_SIZE;
-    if (newSize % ARRAY_SIZE != 0) {
-      newArrayNum ++;
-    }
-    for (int releaseIdx = newArrayNum; releaseIdx < timestamps.size(); releaseIdx++) {
+    int newArrayNum = (newSize + arrayMask) >> arraySizeShift;
+    while (timestamps.size() > newArrayNum) {
       releaseLastTimeArray();
       releaseLastValueArray();
     }
   }
 
   protected void cloneAs(TVList cloneList) {
+    cloneList.setArraySize(arraySize);
     for (long[] timestampArray : timestamps) {
       cloneList.timestamps.add(cloneTime(timestampArray));
     }
@@ -181,12 +300,13 @@ public abstract class TVList {
 
     clearValue();
     clearSortedValue();
+    sharedArrayNum = 0;
   }
 
   protected void clearTime() {
     if (timestamps != null) {
-      for (long[] dataArray : timestamps) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
+      for (int i = 0; i < timestamps.size(); i++) {
+        releaseArray(i, timestamps.get(i));
       }
       timestamps.clear();
     }
@@ -206,9 +326,46 @@ public abstract class TVList {
   abstract void clearSortedValue();
 
   protected void checkExpansion() {
-    if ((size % ARRAY_SIZE) == 0) {
+    if ((size & arrayMask) == 0) {
       expandValues();
-      timestamps.add((long[]) PrimitiveArrayPool.getInstance().getPrimitiveDataListByType(TSDataType.INT64));
+      timestamps.add((long[]) PrimitiveArrayPool.getInstance()
+          .getPrimitiveDataListByType(TSDataType.INT64, arraySize));
+    }
+  }
+
+  /**
+   * append the points in [start, end) of the input arrays, they are copied into the pooled arrays
+   * one array segment at a time.
+   *
+   * @param value the input value array, whose type is the same as the elements of valueArrays
+   * @param valueArrays the value arrays of the subclass
+   */
+  protected void putBatch(long[] time, Object value, List<?> valueArrays, int start, int end) {
+    if (start >= end) {
+      return;
+    }
+    // check the order of the input only once
+    long inputMinTime = time[start];
+    boolean inputSorted = size == 0 || time[start] >= getTime(size - 1);
+    for (int i = start + 1; i < end; i++) {
+      if (time[i] < time[i - 1]) {
+        inputSorted = false;
+      }
+      inputMinTime = Math.min(inputMinTime, time[i]);
+    }
+    minTime = minTime <= inputMinTime ? minTime : inputMinTime;
+    sorted = sorted && inputSorted;
+
+    int idx = start;
+    while (idx < end) {
+      checkExpansion();
+      int arrayIndex = size >> arraySizeShift;
+      int elementIndex = size & arrayMask;
+      int copyLength = Math.min(end - idx, arraySize - elementIndex);
+      System.arraycopy(time, idx, timestamps.get(arrayIndex), elementIndex, copyLength);
+      System.arraycopy(value, idx, valueArrays.get(arrayIndex), elementIndex, copyLength);
+      idx += copyLength;
+      size += copyLength;
     }
   }
 
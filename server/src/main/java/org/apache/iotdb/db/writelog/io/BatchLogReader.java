@@ -50,7 +50,7 @@ public class BatchLogReader implements ILogReader{
     while (buffer.position() != buffer.limit()) {
       try {
         plans.add(PhysicalPlan.Factory.create(buffer));
-      } catch (IOException e) {
+      } catch (IOException | IllegalArgumentException e) {
         logger.error("Cannot deserialize PhysicalPlans from ByteBuffer, ignore remaining logs", e);
         fileCorrupted = true;
         break;
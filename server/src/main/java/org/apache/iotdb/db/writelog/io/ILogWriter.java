@@ -38,6 +38,24 @@ public interface ILogWriter {
    */
   void write(ByteBuffer logBuffer) throws IOException;
 
+  /**
+   * Write the given logs to a persistent medium as one log batch, so that they share one size
+   * header and one check sum and are written by one gathering write.
+   * Notice: unlike write(ByteBuffer), the buffers must be ready to be read (flipped).
+   * @param logBuffers WAL logs that have been converted to bytes
+   * @throws IOException
+   */
+  void write(ByteBuffer[] logBuffers) throws IOException;
+
+  /**
+   * @param logSize total size of the logs in a batch
+   * @return whether a batch of logSize bytes can still be written by this writer. If not, the
+   * caller should write the batch into a new writer.
+   */
+  default boolean canWrite(int logSize) {
+    return true;
+  }
+
   /**
    * force the OS/FileSystem to flush its cache to make sure logs are persisted.
    * @throws IOException
@@ -51,20 +51,25 @@ public class LogWriter implements ILogWriter {
 
   @Override
   public void write(ByteBuffer logBuffer) throws IOException {
+    logBuffer.flip();
+    write(new ByteBuffer[]{logBuffer});
+  }
+
+  @Override
+  public void write(ByteBuffer[] logBuffers) throws IOException {
     if (channel == null) {
       fileOutputStream = new FileOutputStream(logFile, true);
       channel = fileOutputStream.getChannel();
     }
-    logBuffer.flip();
-    int logSize = logBuffer.limit();
     // 4 bytes size and 8 bytes check sum
-
+    int logSize = 0;
     checkSummer.reset();
-    checkSummer.update(logBuffer);
+    for (ByteBuffer logBuffer : logBuffers) {
+      logSize += logBuffer.remaining();
+      checkSummer.update(logBuffer.duplicate());
+    }
     long checkSum = checkSummer.getValue();
 
-    logBuffer.flip();
-
     lengthBuffer.clear();
     checkSumBuffer.clear();
     lengthBuffer.putInt(logSize);
@@ -72,9 +77,14 @@ public class LogWriter implements ILogWriter {
     lengthBuffer.flip();
     checkSumBuffer.flip();
 
-    channel.write(lengthBuffer);
-    channel.write(logBuffer);
-    channel.write(checkSumBuffer);
+    ByteBuffer[] buffers = new ByteBuffer[logBuffers.length + 2];
+    buffers[0] = lengthBuffer;
+    System.arraycopy(logBuffers, 0, buffers, 1, logBuffers.length);
+    buffers[buffers.length - 1] = checkSumBuffer;
+    long remaining = logSize + 12L;
+    while (remaining > 0) {
+      remaining -= channel.write(buffers);
+    }
 
     if (config.getForceWalPeriodInMs() == 0) {
       channel.force(true);
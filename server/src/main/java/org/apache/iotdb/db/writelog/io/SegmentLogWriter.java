@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.IOUtils;
+
+/**
+ * SegmentLogWriter writes logs into a preallocated segment file of fixed size through a
+ * MappedByteBuffer. A segment starts with a header of SEGMENT_MAGIC and a random generation, and
+ * each batch of logs is stored as (size, generation, logs, check sum). As a segment may be recycled
+ * from an older log file, the generation tells the batches of this segment from stale ones, and a
+ * reader stops at the first batch whose generation differs.
+ */
+public class SegmentLogWriter implements ILogWriter {
+
+  /**
+   * a negative int so that a legacy log reader regards a segment as an empty file.
+   */
+  public static final int SEGMENT_MAGIC = 0xCA5E_6A11;
+  // magic and generation
+  public static final int SEGMENT_HEADER_SIZE = 12;
+  // size and generation
+  private static final int BATCH_HEADER_SIZE = 12;
+  // batch header and check sum
+  private static final int BATCH_OVERHEAD = BATCH_HEADER_SIZE + 8;
+
+  private File logFile;
+  private long segmentSize;
+  private RandomAccessFile raf;
+  private MappedByteBuffer mappedBuffer;
+  private long generation;
+  private boolean closed = false;
+  private CRC32 checkSummer = new CRC32();
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  /**
+   * @param logFile a new file or a recycled segment whose content is abandoned
+   * @param segmentSize size of the segment, the file is enlarged if it is smaller
+   */
+  public SegmentLogWriter(File logFile, long segmentSize) {
+    this.logFile = logFile;
+    this.segmentSize = segmentSize;
+  }
+
+  /**
+   * @return the minimum segment size that can hold a batch of maxBatchSize bytes.
+   */
+  public static long minSegmentSize(int maxBatchSize) {
+    return (long) SEGMENT_HEADER_SIZE + BATCH_OVERHEAD + maxBatchSize;
+  }
+
+  /**
+   * clear the header of a segment whose logs are no longer needed, so that it is read as an empty
+   * file whenever it is moved back as a log file before being reopened.
+   */
+  public static void invalidate(File segment) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+      if (file.length() >= 4) {
+        file.writeInt(0);
+      }
+    }
+  }
+
+  private void open() throws IOException {
+    if (closed) {
+      // the header would be rewritten and the written batches lost
+      throw new IOException(String.format("Segment %s is closed and cannot be reopened", logFile));
+    }
+    raf = new RandomAccessFile(logFile, "rw");
+    if (raf.length() < segmentSize) {
+      raf.setLength(segmentSize);
+    }
+    mappedBuffer = raf.getChannel().map(MapMode.READ_WRITE, 0, segmentSize);
+    generation = ThreadLocalRandom.current().nextLong();
+    mappedBuffer.putInt(SEGMENT_MAGIC);
+    mappedBuffer.putLong(generation);
+    // a fresh segment is ended by a zero size, a recycled one by a stale generation
+    endBatches();
+  }
+
+  @Override
+  public void write(ByteBuffer logBuffer) throws IOException {
+    logBuffer.flip();
+    write(new ByteBuffer[]{logBuffer});
+  }
+
+  @Override
+  public void write(ByteBuffer[] logBuffers) throws IOException {
+    if (mappedBuffer == null) {
+      open();
+    }
+    int logSize = 0;
+    for (ByteBuffer logBuffer : logBuffers) {
+      logSize += logBuffer.remaining();
+    }
+    if (!canWrite(logSize)) {
+      throw new IOException(String.format("Segment %s has %d bytes left, cannot write %d bytes",
+          logFile, mappedBuffer.remaining(), logSize));
+    }
+
+    int batchStart = mappedBuffer.position();
+    mappedBuffer.position(batchStart + BATCH_HEADER_SIZE);
+    ByteBuffer logArea = mappedBuffer.slice();
+    for (ByteBuffer logBuffer : logBuffers) {
+      mappedBuffer.put(logBuffer);
+    }
+    logArea.limit(logSize);
+    checkSummer.reset();
+    checkSummer.update(logArea);
+    mappedBuffer.putLong(checkSummer.getValue());
+    endBatches();
+    // publish the batch only after its content is in place
+    mappedBuffer.putLong(batchStart + 4, generation);
+    mappedBuffer.putInt(batchStart, logSize);
+
+    if (config.getForceWalPeriodInMs() == 0) {
+      mappedBuffer.force();
+    }
+  }
+
+  /**
+   * mark the end of batches without moving the position, so the next batch overwrites it.
+   */
+  private void endBatches() {
+    if (mappedBuffer.remaining() >= 4) {
+      mappedBuffer.putInt(mappedBuffer.position(), 0);
+    }
+  }
+
+  @Override
+  public boolean canWrite(int logSize) {
+    long remaining = mappedBuffer == null ? segmentSize - SEGMENT_HEADER_SIZE
+        : mappedBuffer.remaining();
+    return remaining >= (long) logSize + BATCH_OVERHEAD;
+  }
+
+  @Override
+  public void force() throws IOException {
+    if (mappedBuffer != null) {
+      mappedBuffer.force();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (raf != null) {
+      mappedBuffer.force();
+      // unmap now, as the segment may be renamed and remapped by another writer once recycled
+      IOUtils.cleanDirectBuffer(mappedBuffer);
+      mappedBuffer = null;
+      raf.close();
+      raf = null;
+    }
+    closed = true;
+  }
+
+  public File getLogFile() {
+    return logFile;
+  }
+}
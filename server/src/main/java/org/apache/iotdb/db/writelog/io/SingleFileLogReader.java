@@ -53,6 +53,10 @@ public class SingleFileLogReader implements ILogReader {
 
   private boolean fileCorrupted = false;
 
+  // whether the file is a segment written by SegmentLogWriter
+  private boolean isSegment;
+  private long segmentGeneration;
+
   public SingleFileLogReader(File logFile) throws FileNotFoundException {
     open(logFile);
   }
@@ -72,6 +76,10 @@ public class SingleFileLogReader implements ILogReader {
       if (logSize <= 0) {
         return false;
       }
+      if (isSegment && logStream.readLong() != segmentGeneration) {
+        // the remaining batches are stale ones of a recycled segment
+        return false;
+      }
       buffer = new byte[logSize];
 
       int readLen = logStream.read(buffer, 0, logSize);
@@ -125,6 +133,21 @@ public class SingleFileLogReader implements ILogReader {
     logStream = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)));
     this.filepath = logFile.getPath();
     idx = 0;
+    isSegment = false;
+    try {
+      if (logStream.available() >= SegmentLogWriter.SEGMENT_HEADER_SIZE) {
+        logStream.mark(SegmentLogWriter.SEGMENT_HEADER_SIZE);
+        if (logStream.readInt() == SegmentLogWriter.SEGMENT_MAGIC) {
+          isSegment = true;
+          segmentGeneration = logStream.readLong();
+        } else {
+          logStream.reset();
+        }
+      }
+    } catch (IOException e) {
+      logger.error("Cannot read the header of {} because", filepath, e);
+      fileCorrupted = true;
+    }
   }
 
   public boolean isFileCorrupted() {
@@ -18,17 +18,30 @@
  */
 package org.apache.iotdb.db.writelog.manager;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.exception.StartupException;
 import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
 import org.apache.iotdb.db.service.ServiceType;
+import org.apache.iotdb.db.utils.IOUtils;
+import org.apache.iotdb.db.writelog.io.SegmentLogWriter;
 import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
+import org.apache.iotdb.db.writelog.node.GroupCommitMonitor;
+import org.apache.iotdb.db.writelog.node.GroupCommitWriteLogNode;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,8 +53,32 @@ import org.slf4j.LoggerFactory;
 public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
 
   private static final Logger logger = LoggerFactory.getLogger(MultiFileLogNodeManager.class);
+  public static final String SEGMENT_POOL_DIR = "segment_pool";
+  private static final String SEGMENT_FILE_PREFIX = "segment";
   private Map<String, WriteLogNode> nodeMap;
 
+  /**
+   * idle off-heap log buffers shared by all log nodes.
+   */
+  private final Deque<ByteBuffer> logBufferPool = new ArrayDeque<>();
+  /**
+   * number of off-heap log buffers allocated, either idle or held by a log node, it never exceeds
+   * wal_buffer_pool_size so the off-heap memory of log buffers is bounded.
+   */
+  private int directLogBufferNum = 0;
+
+  /**
+   * recycled WAL segments which can be reused by any log node, they are kept in SEGMENT_POOL_DIR.
+   */
+  private final Deque<File> segmentPool = new ArrayDeque<>();
+  private File segmentPoolDir;
+  private long segmentIdx = 0;
+
+  /**
+   * appender threads shared by all GroupCommitWriteLogNodes, created when it is first used.
+   */
+  private ExecutorService appenderPool;
+
   private Thread forceThread;
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
 
@@ -86,7 +123,8 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
   public WriteLogNode getNode(String identifier) {
     WriteLogNode node = nodeMap.get(identifier);
     if (node == null) {
-      node = new ExclusiveWriteLogNode(identifier);
+      node = config.isEnableWalGroupCommit() ? new GroupCommitWriteLogNode(identifier)
+          : new ExclusiveWriteLogNode(identifier);
       WriteLogNode oldNode = nodeMap.putIfAbsent(identifier, node);
       if (oldNode != null) {
         return oldNode;
@@ -95,6 +133,144 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
     return node;
   }
 
+  /**
+   * get a log buffer of wal_buffer_size bytes from the pool, the buffer should be returned by
+   * releaseLogBuffer() when it is no longer used. When wal_buffer_pool_size off-heap buffers are
+   * all held by log nodes, a heap buffer is returned instead.
+   */
+  public ByteBuffer allocateLogBuffer() {
+    synchronized (logBufferPool) {
+      ByteBuffer buffer;
+      while ((buffer = logBufferPool.poll()) != null) {
+        if (buffer.capacity() == config.getWalBufferSize()) {
+          return buffer;
+        }
+        // buffers of an outdated size are dropped
+        directLogBufferNum--;
+        cleanLogBuffer(buffer);
+      }
+      if (directLogBufferNum < config.getWalBufferPoolSize()) {
+        directLogBufferNum++;
+        return ByteBuffer.allocateDirect(config.getWalBufferSize());
+      }
+    }
+    return ByteBuffer.allocate(config.getWalBufferSize());
+  }
+
+  public void releaseLogBuffer(ByteBuffer buffer) {
+    if (!buffer.isDirect()) {
+      return;
+    }
+    buffer.clear();
+    synchronized (logBufferPool) {
+      if (buffer.capacity() == config.getWalBufferSize()
+          && directLogBufferNum <= config.getWalBufferPoolSize()) {
+        logBufferPool.push(buffer);
+        return;
+      }
+      directLogBufferNum--;
+    }
+    cleanLogBuffer(buffer);
+  }
+
+  private void cleanLogBuffer(ByteBuffer buffer) {
+    try {
+      IOUtils.cleanDirectBuffer(buffer);
+    } catch (IOException e) {
+      // the memory is released when the buffer is collected
+      logger.warn("Cannot release a log buffer at once, ", e);
+    }
+  }
+
+  public synchronized ExecutorService getAppenderPool() {
+    if (appenderPool == null) {
+      appenderPool = IoTDBThreadPoolFactory
+          .newFixedThreadPool(config.getConcurrentWalAppenderThread(),
+              ThreadName.WAL_APPENDER.getName());
+    }
+    return appenderPool;
+  }
+
+  private synchronized void shutdownAppenderPool() {
+    if (appenderPool != null) {
+      // the closed nodes have no logs left, so the pool has no task to wait for
+      appenderPool.shutdown();
+      appenderPool = null;
+    }
+  }
+
+  /**
+   * move a recycled segment to the given path.
+   *
+   * @return true if a recycled segment is moved to the path, false if there is no available one
+   */
+  public synchronized boolean allocateSegment(File target) {
+    loadSegmentPool();
+    File segment;
+    while ((segment = segmentPool.poll()) != null) {
+      if (segment.renameTo(target)) {
+        return true;
+      }
+      logger.warn("Cannot reuse WAL segment {} as {}", segment, target);
+    }
+    return false;
+  }
+
+  /**
+   * put a segment whose logs are no longer needed into the pool, or delete it if the pool is full.
+   */
+  public synchronized void recycleSegment(File segment) {
+    loadSegmentPool();
+    if (segmentPool.size() < config.getWalSegmentPoolSize()) {
+      File pooled = new File(segmentPoolDir, SEGMENT_FILE_PREFIX + segmentIdx++);
+      try {
+        SegmentLogWriter.invalidate(segment);
+        if ((segmentPoolDir.exists() || segmentPoolDir.mkdirs()) && segment.renameTo(pooled)) {
+          segmentPool.push(pooled);
+          return;
+        }
+      } catch (IOException e) {
+        logger.warn("Cannot recycle WAL segment {}", segment, e);
+      }
+    }
+    try {
+      Files.deleteIfExists(segment.toPath());
+    } catch (IOException e) {
+      logger.error("Old WAL segment {} cannot be deleted", segment, e);
+    }
+  }
+
+  public synchronized int getPooledSegmentNum() {
+    loadSegmentPool();
+    return segmentPool.size();
+  }
+
+  /**
+   * the segments left by the last run are reused, the pool is reloaded if the WAL folder is
+   * changed (e.g., cleaned in tests).
+   */
+  private void loadSegmentPool() {
+    File poolDir = new File(DirectoryManager.getInstance().getWALFolder(), SEGMENT_POOL_DIR);
+    if (poolDir.equals(segmentPoolDir) && poolDir.exists()) {
+      return;
+    }
+    segmentPoolDir = poolDir;
+    segmentPool.clear();
+    File[] segments = poolDir.listFiles();
+    if (segments == null) {
+      return;
+    }
+    for (File segment : segments) {
+      segmentPool.push(segment);
+      String idx = segment.getName().replace(SEGMENT_FILE_PREFIX, "");
+      try {
+        segmentIdx = Math.max(segmentIdx, Long.parseLong(idx) + 1);
+      } catch (NumberFormatException e) {
+        logger.warn("Unrecognized file {} in the WAL segment pool", segment);
+      }
+    }
+  }
+
   @Override
   public void deleteNode(String identifier) throws IOException {
     WriteLogNode node = nodeMap.remove(identifier);
@@ -105,11 +281,9 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
 
   @Override
   public void close() {
-    if (!isActivated(forceThread)) {
-      logger.error("MultiFileLogNodeManager has not yet started");
-      return;
-    }
     logger.info("LogNodeManager starts closing..");
+    // there is no force thread when force_wal_period_in_ms is 0 or the system is read-only, but
+    // the nodes still hold log buffers and mapped segments to be released
     if (isActivated(forceThread)) {
       forceThread.interrupt();
       logger.info("Waiting for force thread to stop");
@@ -135,6 +309,9 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
       if (!config.isEnableWal()) {
         return;
       }
+      if (config.isEnableWalGroupCommit()) {
+        JMXService.registerMBean(GroupCommitMonitor.getInstance(), GroupCommitMonitor.MBEAN_NAME);
+      }
       if (!isActivated(forceThread)) {
         if (config.getForceWalPeriodInMs() > 0) {
           InstanceHolder.instance.forceThread = new Thread(InstanceHolder.instance.forceTask,
@@ -155,9 +332,14 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
   @Override
   public void stop() {
     if (!config.isEnableWal()) {
+      shutdownAppenderPool();
       return;
     }
     close();
+    shutdownAppenderPool();
+    if (config.isEnableWalGroupCommit()) {
+      JMXService.deregisterMBean(GroupCommitMonitor.MBEAN_NAME);
+    }
   }
 
   @Override
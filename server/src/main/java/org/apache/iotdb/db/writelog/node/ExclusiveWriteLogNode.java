@@ -18,8 +18,10 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.io.FileUtils;
@@ -32,6 +34,8 @@ import org.apache.iotdb.db.writelog.io.ILogReader;
 import org.apache.iotdb.db.writelog.io.ILogWriter;
 import org.apache.iotdb.db.writelog.io.LogWriter;
 import org.apache.iotdb.db.writelog.io.MultiFileLogReader;
+import org.apache.iotdb.db.writelog.io.SegmentLogWriter;
+import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,7 +46,6 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   public static final String WAL_FILE_NAME = "wal";
   private static final Logger logger = LoggerFactory.getLogger(ExclusiveWriteLogNode.class);
-  private static int logBufferSize = IoTDBDescriptor.getInstance().getConfig().getWalBufferSize();
 
   private String identifier;
 
@@ -52,13 +55,19 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
 
-  private ByteBuffer logBuffer = ByteBuffer.allocate(logBufferSize);
+  private ByteBuffer logBuffer;
 
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  ReadWriteLock lock = new ReentrantReadWriteLock();
 
   private long fileId = 0;
   private long lastFlushedId = 0;
 
+  /**
+   * the id of the last log file of each flushing memtable. A memtable may have logs in more than
+   * one file when a WAL segment is full.
+   */
+  private Deque<Long> flushingFileIds = new ArrayDeque<>();
+
   private int bufferedLogNum = 0;
 
   /**
@@ -91,6 +100,9 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
   }
 
   private void putLog(PhysicalPlan plan) {
+    if (logBuffer == null) {
+      logBuffer = MultiFileLogNodeManager.getInstance().allocateLogBuffer();
+    }
     logBuffer.mark();
     try {
       plan.serializeTo(logBuffer);
@@ -98,13 +110,27 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
       logger.info("WAL BufferOverflow !");
       logBuffer.reset();
       sync();
-      plan.serializeTo(logBuffer);
+      if (logBuffer == null) {
+        logBuffer = MultiFileLogNodeManager.getInstance().allocateLogBuffer();
+      }
+      logBuffer.mark();
+      try {
+        plan.serializeTo(logBuffer);
+      } catch (BufferOverflowException e1) {
+        // do not leave a partial log in the buffer
+        logBuffer.reset();
+        throw e1;
+      }
     }
     bufferedLogNum ++;
   }
 
   @Override
   public void close() {
+    closeCurrentFile();
+  }
+
+  private void closeCurrentFile() {
     sync();
     forceWal();
     lock.writeLock().lock();
@@ -132,7 +158,8 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
   public void notifyStartFlush() {
     lock.writeLock().lock();
     try {
-      close();
+      closeCurrentFile();
+      flushingFileIds.add(fileId);
       nextFileWriter();
     } finally {
       lock.writeLock().unlock();
@@ -143,8 +170,14 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
   public void notifyEndFlush() {
     lock.writeLock().lock();
     try {
-      File logFile = new File(logDirectory, WAL_FILE_NAME + ++lastFlushedId);
-      discard(logFile);
+      Long flushedId = flushingFileIds.poll();
+      if (flushedId == null) {
+        logger.warn("Log node {} is notified of an end of flush without a start", identifier);
+        return;
+      }
+      while (lastFlushedId < flushedId) {
+        discard(new File(logDirectory, WAL_FILE_NAME + ++lastFlushedId));
+      }
     } finally {
       lock.writeLock().unlock();
     }
@@ -164,8 +197,14 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
   public void delete() throws IOException {
     lock.writeLock().lock();
     try {
-      logBuffer.clear();
+      bufferedLogNum = 0;
+      releaseLogBuffer();
       close();
+      if (config.isEnableMemoryMappedWal()) {
+        for (File logFile : listLogFiles()) {
+          MultiFileLogNodeManager.getInstance().recycleSegment(logFile);
+        }
+      }
       FileUtils.deleteDirectory(new File(logDirectory));
     } finally {
       lock.writeLock().unlock();
@@ -174,15 +213,24 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   @Override
   public ILogReader getLogReader() {
-    File[] logFiles = new File(logDirectory).listFiles();
+    File[] logFiles = listLogFiles();
     Arrays.sort(logFiles,
-        Comparator.comparingInt(f -> Integer.parseInt(f.getName().replace(WAL_FILE_NAME, ""))));
+        Comparator.comparingLong(f -> Long.parseLong(f.getName().replace(WAL_FILE_NAME, ""))));
     return new MultiFileLogReader(logFiles);
   }
 
+  private File[] listLogFiles() {
+    File[] logFiles = new File(logDirectory)
+        .listFiles((dir, name) -> name.matches(WAL_FILE_NAME + "\\d+"));
+    return logFiles == null ? new File[0] : logFiles;
+  }
+
   private void discard(File logFile) {
     if (!logFile.exists()) {
       logger.info("Log file does not exist");
+    } else if (config.isEnableMemoryMappedWal()) {
+      MultiFileLogNodeManager.getInstance().recycleSegment(logFile);
+      logger.info("Log node {} recycled old file", identifier);
     } else {
       try {
         FileUtils.forceDelete(logFile);
@@ -193,7 +241,7 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     }
   }
 
-  private void forceWal() {
+  void forceWal() {
     lock.writeLock().lock();
     try {
       try {
@@ -212,37 +260,67 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     lock.writeLock().lock();
     try {
       if (bufferedLogNum == 0) {
+        releaseLogBuffer();
         return;
       }
       try {
-        getCurrentFileWriter().write(logBuffer);
+        getCurrentFileWriter(logBuffer.position()).write(logBuffer);
       } catch (IOException e) {
         logger.error("Log node {} sync failed, change system mode to read-only", identifier, e);
         IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
         return;
       }
-      logBuffer.clear();
       bufferedLogNum = 0;
+      releaseLogBuffer();
       logger.debug("Log node {} ends sync.", identifier);
     } finally {
       lock.writeLock().unlock();
     }
   }
 
-  private ILogWriter getCurrentFileWriter() {
+  private void releaseLogBuffer() {
+    if (logBuffer != null) {
+      // the buffer is shared by all nodes, only hold it when there are unsynced logs
+      MultiFileLogNodeManager.getInstance().releaseLogBuffer(logBuffer);
+      logBuffer = null;
+    }
+  }
+
+  ILogWriter getCurrentFileWriter() {
     if (currentFileWriter == null) {
       nextFileWriter();
     }
     return currentFileWriter;
   }
 
+  /**
+   * @param logSize size of the logs to be written
+   * @return the writer of the current log file, or of a new one if the current segment is full.
+   */
+  ILogWriter getCurrentFileWriter(int logSize) throws IOException {
+    if (currentFileWriter != null && !currentFileWriter.canWrite(logSize)) {
+      currentFileWriter.close();
+      nextFileWriter();
+    }
+    return getCurrentFileWriter();
+  }
+
   private void nextFileWriter() {
     fileId++;
     File newFile = new File(logDirectory, WAL_FILE_NAME + fileId);
     if (newFile.getParentFile().mkdirs()) {
       logger.info("create WAL parent folder {}.", newFile.getParent());
     }
-    currentFileWriter = new LogWriter(newFile);
+    if (config.isEnableMemoryMappedWal()) {
+      MultiFileLogNodeManager.getInstance().allocateSegment(newFile);
+      currentFileWriter = new SegmentLogWriter(newFile, segmentSize());
+    } else {
+      currentFileWriter = new LogWriter(newFile);
+    }
+  }
+
+  private long segmentSize() {
+    return Math.max(config.getWalSegmentSize(), SegmentLogWriter.minSegmentSize(config.getWalBufferSize()));
   }
 
   @Override
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.node;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+
+/**
+ * GroupCommitMonitor collects the throughput and latency of the WAL appender threads of all
+ * GroupCommitWriteLogNodes.
+ */
+public class GroupCommitMonitor implements GroupCommitMonitorMBean {
+
+  public static final String MBEAN_NAME = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE, "WalGroupCommit");
+
+  private static final double NANOS_PER_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private LongAdder batchNum = new LongAdder();
+  private LongAdder logNum = new LongAdder();
+  private LongAdder writtenBytes = new LongAdder();
+  private LongAdder totalSyncTime = new LongAdder();
+  private LongAdder totalCommitLatency = new LongAdder();
+  private AtomicLong maxCommitLatency = new AtomicLong();
+  private volatile long startTime = System.nanoTime();
+
+  private GroupCommitMonitor() {
+  }
+
+  public static GroupCommitMonitor getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * record a written batch.
+   *
+   * @param logs number of logs in the batch
+   * @param bytes size of the batch
+   * @param syncTime time of writing (and forcing) the batch in nanoseconds
+   * @param commitLatencySum sum of the enqueue-to-written time of each log in nanoseconds
+   * @param commitLatencyMax max enqueue-to-written time of the logs in nanoseconds
+   */
+  void recordBatch(int logs, long bytes, long syncTime, long commitLatencySum,
+      long commitLatencyMax) {
+    batchNum.increment();
+    logNum.add(logs);
+    writtenBytes.add(bytes);
+    totalSyncTime.add(syncTime);
+    totalCommitLatency.add(commitLatencySum);
+    maxCommitLatency.accumulateAndGet(commitLatencyMax, Math::max);
+  }
+
+  @Override
+  public long getBatchNum() {
+    return batchNum.sum();
+  }
+
+  @Override
+  public long getLogNum() {
+    return logNum.sum();
+  }
+
+  @Override
+  public long getWrittenBytes() {
+    return writtenBytes.sum();
+  }
+
+  @Override
+  public double getAverageBatchSize() {
+    long batches = batchNum.sum();
+    return batches == 0 ? 0 : (double) logNum.sum() / batches;
+  }
+
+  @Override
+  public double getLogsPerSecond() {
+    long elapsed = System.nanoTime() - startTime;
+    return elapsed <= 0 ? 0 : logNum.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+  }
+
+  @Override
+  public double getAverageSyncTimeInMs() {
+    long batches = batchNum.sum();
+    return batches == 0 ? 0 : totalSyncTime.sum() / NANOS_PER_MS / batches;
+  }
+
+  @Override
+  public double getAverageCommitLatencyInMs() {
+    long logs = logNum.sum();
+    return logs == 0 ? 0 : totalCommitLatency.sum() / NANOS_PER_MS / logs;
+  }
+
+  @Override
+  public double getMaxCommitLatencyInMs() {
+    return maxCommitLatency.get() / NANOS_PER_MS;
+  }
+
+  @Override
+  public void reset() {
+    batchNum.reset();
+    logNum.reset();
+    writtenBytes.reset();
+    totalSyncTime.reset();
+    totalCommitLatency.reset();
+    maxCommitLatency.set(0);
+    startTime = System.nanoTime();
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+    }
+
+    private static final GroupCommitMonitor INSTANCE = new GroupCommitMonitor();
+  }
+}
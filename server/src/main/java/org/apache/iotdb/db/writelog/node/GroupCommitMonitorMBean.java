@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.node;
+
+public interface GroupCommitMonitorMBean {
+
+  /**
+   * @return the number of log batches written by the appender threads.
+   */
+  long getBatchNum();
+
+  /**
+   * @return the number of logs written by the appender threads.
+   */
+  long getLogNum();
+
+  /**
+   * @return the number of bytes of logs written by the appender threads.
+   */
+  long getWrittenBytes();
+
+  /**
+   * @return the average number of logs in a batch.
+   */
+  double getAverageBatchSize();
+
+  /**
+   * @return the average number of logs written per second since the last reset.
+   */
+  double getLogsPerSecond();
+
+  /**
+   * @return the average time of writing (and forcing) a batch, in milliseconds.
+   */
+  double getAverageSyncTimeInMs();
+
+  /**
+   * @return the average time from a log being enqueued to it being written, in milliseconds.
+   */
+  double getAverageCommitLatencyInMs();
+
+  /**
+   * @return the longest time from a log being enqueued to it being written, in milliseconds.
+   */
+  double getMaxCommitLatencyInMs();
+
+  /**
+   * clear all statistics.
+   */
+  void reset();
+}
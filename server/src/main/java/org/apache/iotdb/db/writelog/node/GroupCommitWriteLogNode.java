@@ -0,0 +1,287 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.node;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * GroupCommitWriteLogNode is an ExclusiveWriteLogNode whose logs are written by the appender
+ * threads shared by all log nodes. Writers serialize their plans outside of any lock and publish
+ * them into a preallocated ring of slots by sequence number, then an appender coalesces all
+ * published logs into one log batch (one size header, one check sum and one gathering write, plus
+ * one force if forceWalPeriodInMs is 0). A writer is blocked until the batch containing its log is
+ * written, and a node only occupies an appender thread while it has published logs.
+ */
+public class GroupCommitWriteLogNode extends ExclusiveWriteLogNode {
+
+  private static final Logger logger = LoggerFactory.getLogger(GroupCommitWriteLogNode.class);
+  private static final int INITIAL_SERIALIZE_BUFFER_SIZE = 4 * 1024;
+  /**
+   * number of slots in the ring, a power of two. Each writer has at most one log in the ring, so
+   * writers only wait for a free slot when there are more than RING_SIZE of them.
+   */
+  private static final int RING_SIZE = 1024;
+  private static final int RING_MASK = RING_SIZE - 1;
+  private static final long WAIT_TIME_NS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  /**
+   * the serialized log is only referenced by the appender before the writer returns, so each
+   * writer thread can reuse its own buffer.
+   */
+  private static final ThreadLocal<ByteBuffer> serializeBuffer = ThreadLocal
+      .withInitial(() -> ByteBuffer.allocate(INITIAL_SERIALIZE_BUFFER_SIZE));
+
+  private final int maxBatchSize = IoTDBDescriptor.getInstance().getConfig().getWalBufferSize();
+
+  private final Slot[] ring = new Slot[RING_SIZE];
+  /**
+   * the sequence number of the next log to be published.
+   */
+  private final AtomicLong claimSequence = new AtomicLong();
+  /**
+   * the sequence number of the next log to be written, only accessed by the appender task.
+   */
+  private long appendSequence = 0;
+  /**
+   * whether the appender task of this node is submitted or running, so that there is at most one.
+   */
+  private final AtomicBoolean appending = new AtomicBoolean();
+  private final Runnable appendTask = this::appendLogs;
+
+  public GroupCommitWriteLogNode(String identifier) {
+    super(identifier);
+    for (int i = 0; i < RING_SIZE; i++) {
+      ring[i] = new Slot(i);
+    }
+  }
+
+  @Override
+  public void write(PhysicalPlan plan) throws IOException {
+    ByteBuffer buffer = serialize(plan);
+    long sequence = claimSequence.getAndIncrement();
+    Slot slot = ring[(int) (sequence & RING_MASK)];
+    boolean interrupted = false;
+    // the slot is free once the writer of sequence - RING_SIZE has returned
+    while (slot.freeSequence != sequence) {
+      interrupted |= park();
+    }
+    slot.buffer = buffer;
+    slot.writer = Thread.currentThread();
+    slot.enqueueTime = System.nanoTime();
+    slot.publishedSequence = sequence;
+    scheduleAppender();
+
+    // the buffer belongs to the writer, so it must not return before the log is written
+    while (slot.committedSequence != sequence) {
+      interrupted |= park();
+    }
+    IOException error = slot.error;
+    slot.buffer = null;
+    slot.writer = null;
+    slot.error = null;
+    slot.freeSequence = sequence + RING_SIZE;
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (error != null) {
+      throw new IOException("Cannot write WAL", error);
+    }
+  }
+
+  /**
+   * @return whether the thread was interrupted, the flag is cleared or parking would return at once
+   */
+  private boolean park() {
+    LockSupport.parkNanos(this, WAIT_TIME_NS);
+    return Thread.interrupted();
+  }
+
+  private ByteBuffer serialize(PhysicalPlan plan) throws IOException {
+    ByteBuffer buffer = serializeBuffer.get();
+    while (true) {
+      buffer.clear();
+      try {
+        plan.serializeTo(buffer);
+        buffer.flip();
+        return buffer;
+      } catch (BufferOverflowException e) {
+        if (buffer.capacity() >= maxBatchSize) {
+          throw new IOException("Log cannot fit into buffer, please increase wal_buffer_size", e);
+        }
+        buffer = ByteBuffer.allocate(Math.min(buffer.capacity() * 2, maxBatchSize));
+        serializeBuffer.set(buffer);
+      }
+    }
+  }
+
+  private void scheduleAppender() {
+    if (appending.get() || !appending.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      MultiFileLogNodeManager.getInstance().getAppenderPool().execute(appendTask);
+    } catch (RejectedExecutionException e) {
+      // the pool is being shut down, append in the writer thread
+      appendTask.run();
+    }
+  }
+
+  private boolean isPublished(long sequence) {
+    return ring[(int) (sequence & RING_MASK)].publishedSequence == sequence;
+  }
+
+  private void appendLogs() {
+    do {
+      while (appendBatch()) {
+        // append until no log is published
+      }
+      appending.set(false);
+      // re-check after clearing the flag, a writer publishing in between may have seen it set
+    } while (isPublished(appendSequence) && appending.compareAndSet(false, true));
+  }
+
+  /**
+   * write the published logs from appendSequence as one batch.
+   *
+   * @return false if there is no published log
+   */
+  private boolean appendBatch() {
+    long start = appendSequence;
+    long end = start;
+    long batchSize = 0;
+    // a batch never wraps the ring, as a slot is published again only after it is committed
+    while (isPublished(end)) {
+      int logSize = ring[(int) (end & RING_MASK)].buffer.remaining();
+      if (end > start && batchSize + logSize > maxBatchSize) {
+        break;
+      }
+      batchSize += logSize;
+      end++;
+    }
+    if (end == start) {
+      return false;
+    }
+    commit(start, end, batchSize);
+    appendSequence = end;
+    return true;
+  }
+
+  private void commit(long start, long end, long batchSize) {
+    ByteBuffer[] buffers = new ByteBuffer[(int) (end - start)];
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = ring[(int) ((start + i) & RING_MASK)].buffer;
+    }
+    IOException error = null;
+    long startTime = System.nanoTime();
+    lock.writeLock().lock();
+    try {
+      getCurrentFileWriter((int) batchSize).write(buffers);
+    } catch (IOException e) {
+      logger.error("Log node {} sync failed, change system mode to read-only", getIdentifier(), e);
+      IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
+      error = e;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    long endTime = System.nanoTime();
+
+    long latencySum = 0;
+    long latencyMax = 0;
+    for (long sequence = start; sequence < end; sequence++) {
+      Slot slot = ring[(int) (sequence & RING_MASK)];
+      long latency = endTime - slot.enqueueTime;
+      latencySum += latency;
+      latencyMax = Math.max(latencyMax, latency);
+      // the writer clears the slot as soon as it sees the commit
+      Thread writer = slot.writer;
+      slot.error = error;
+      slot.committedSequence = sequence;
+      LockSupport.unpark(writer);
+    }
+    GroupCommitMonitor.getInstance()
+        .recordBatch(buffers.length, batchSize, endTime - startTime, latencySum, latencyMax);
+  }
+
+  /**
+   * wait until the appender task has written all published logs and exited.
+   */
+  private void waitAppended() {
+    boolean interrupted = false;
+    while (appending.get()) {
+      interrupted |= park();
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void forceSync() {
+    // the logs are synced by the appender, only force the file here
+    forceWal();
+  }
+
+  @Override
+  public void close() {
+    waitAppended();
+    super.close();
+  }
+
+  @Override
+  public void delete() throws IOException {
+    // the appender must exit before the node lock is held, or it may wait for the lock forever
+    waitAppended();
+    super.delete();
+  }
+
+  /**
+   * a slot of the ring, which is reused by the logs whose sequence numbers are congruent modulo
+   * RING_SIZE. The plain fields are published by the volatile sequence numbers.
+   */
+  private static class Slot {
+
+    /**
+     * the sequence number which may take this slot next.
+     */
+    private volatile long freeSequence;
+    private volatile long publishedSequence = -1;
+    private volatile long committedSequence = -1;
+
+    private ByteBuffer buffer;
+    private Thread writer;
+    private long enqueueTime;
+    private IOException error;
+
+    private Slot(long freeSequence) {
+      this.freeSequence = freeSequence;
+    }
+  }
+}
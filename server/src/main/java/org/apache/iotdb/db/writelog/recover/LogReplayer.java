@@ -33,6 +33,7 @@ import org.apache.iotdb.db.exception.ProcessorException;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
 import org.apache.iotdb.db.writelog.io.ILogReader;
 import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
@@ -92,6 +93,8 @@ public class LogReplayer {
         PhysicalPlan plan = logReader.next();
         if (plan instanceof InsertPlan) {
           replayInsert((InsertPlan) plan);
+        } else if (plan instanceof InsertTabletPlan) {
+          replayInsertTablet((InsertTabletPlan) plan);
         } else if (plan instanceof DeletePlan) {
           replayDelete((DeletePlan) plan);
         } else if (plan instanceof UpdatePlan) {
@@ -138,6 +141,37 @@ public class LogReplayer {
     recoverMemTable.insert(insertPlan);
   }
 
+  private void replayInsertTablet(InsertTabletPlan insertTabletPlan) {
+    String deviceId = insertTabletPlan.getDeviceId();
+    long[] times = insertTabletPlan.getTimes();
+    int rowCount = insertTabletPlan.getRowCount();
+    if (currentTsFileResource == null) {
+      recoverMemTable.insertTablet(insertTabletPlan, 0, rowCount);
+      return;
+    }
+    // the last chunk group may contain the same data with the logs, ignore such rows in seq file
+    Long lastEndTime = currentTsFileResource.getEndTimeMap().get(deviceId);
+    long minTime = acceptDuplication || lastEndTime == null ? Long.MIN_VALUE : lastEndTime;
+    int start = 0;
+    while (start < rowCount) {
+      if (times[start] <= minTime) {
+        start++;
+        continue;
+      }
+      int end = start;
+      while (end < rowCount && times[end] > minTime) {
+        tempStartTimeMap.putIfAbsent(deviceId, times[end]);
+        Long endTime = tempEndTimeMap.get(deviceId);
+        if (endTime == null || endTime < times[end]) {
+          tempEndTimeMap.put(deviceId, times[end]);
+        }
+        end++;
+      }
+      recoverMemTable.insertTablet(insertTabletPlan, start, end);
+      start = end;
+    }
+  }
+
   @SuppressWarnings("unused")
   private void replayUpdate(UpdatePlan updatePlan) {
     // TODO: support update
@@ -29,6 +29,7 @@ import java.util.concurrent.ExecutionException;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.MemTableFlushTask;
 import org.apache.iotdb.db.engine.memtable.PrimitiveMemTable;
+import org.apache.iotdb.db.engine.rollup.TsFileRollup;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.ProcessorException;
@@ -127,6 +128,13 @@ public class TsFileRecoverPerformer {
             + RESOURCE_SUFFIX, e);
       }
     } else {
+      // the rollups of a crashed file were lost with the memory, remove any stale rollup file so
+      // that queries read the recovered data instead
+      try {
+        TsFileRollup.deleteRollupFile(insertFile);
+      } catch (IOException e) {
+        throw new ProcessorException(e);
+      }
       // due to failure, the last ChunkGroup may contain the same data as the WALs, so the time
       // map must be updated first to avoid duplicated insertion
       for (ChunkGroupMetaData chunkGroupMetaData : restorableTsFileIOWriter
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChunkCacheTest {
+
+  private static final String FILE_PATH = "target/chunkCacheTest.tsfile";
+  private static final String DEVICE = "d0";
+  private static final int SERIES_NUM = 40;
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private long oldChunkCacheSize;
+  private ChunkCache cache = ChunkCache.getInstance();
+  private TsFileSequenceReader reader;
+  private List<ChunkMetaData> chunkMetaDataList = new ArrayList<>();
+
+  @Before
+  public void setUp() throws IOException, WriteProcessException {
+    oldChunkCacheSize = config.getAllocateMemoryForChunkCache();
+    cache.clear();
+
+    File file = new File(FILE_PATH);
+    file.getParentFile().mkdirs();
+    TsFileWriter writer = new TsFileWriter(file);
+    for (int i = 0; i < SERIES_NUM; i++) {
+      writer.addMeasurement(new MeasurementSchema("s" + i, TSDataType.INT64, TSEncoding.RLE));
+    }
+    for (long time = 0; time < 1000; time++) {
+      TSRecord record = new TSRecord(time, DEVICE);
+      for (int i = 0; i < SERIES_NUM; i++) {
+        record.addTuple(new LongDataPoint("s" + i, time * (i + 100)));
+      }
+      writer.write(record);
+    }
+    writer.close();
+
+    reader = new TsFileSequenceReader(FILE_PATH);
+    MetadataQuerierByFileImpl metadataQuerier = new MetadataQuerierByFileImpl(reader);
+    for (int i = 0; i < SERIES_NUM; i++) {
+      chunkMetaDataList.addAll(metadataQuerier.getChunkMetaDataList(new Path(DEVICE, "s" + i)));
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    config.setAllocateMemoryForChunkCache(oldChunkCacheSize);
+    config.setEnableChunkCache(true);
+    cache.clear();
+    reader.close();
+    new File(FILE_PATH).delete();
+  }
+
+  @Test
+  public void testHit() throws IOException {
+    ChunkMetaData metaData = chunkMetaDataList.get(0);
+    long requestCount = cache.getRequestCount();
+    long hitCount = cache.getHitCount();
+
+    Chunk first = cache.get(FILE_PATH, metaData, reader);
+    Chunk second = cache.get(FILE_PATH, metaData, reader);
+    assertEquals(requestCount + 2, cache.getRequestCount());
+    assertEquals(hitCount + 1, cache.getHitCount());
+    assertEquals(1, cache.getCachedChunkNumber());
+
+    // each caller gets its own view of the data
+    int size = first.getData().remaining();
+    first.getData().position(size);
+    assertEquals(size, second.getData().remaining());
+    assertEquals(size, cache.get(FILE_PATH, metaData, reader).getData().remaining());
+  }
+
+  @Test
+  public void testBoundedByMemory() throws IOException {
+    long minChunkSize = Long.MAX_VALUE;
+    long maxChunkSize = 0;
+    for (ChunkMetaData metaData : chunkMetaDataList) {
+      cache.get(FILE_PATH, metaData, reader);
+      minChunkSize = Math.min(minChunkSize, cache.getUsedMemoryInBytes());
+      maxChunkSize = Math.max(maxChunkSize, cache.getUsedMemoryInBytes());
+      cache.clear();
+    }
+    assertTrue(maxChunkSize < 2 * minChunkSize);
+
+    // each of the 16 segments can hold only one chunk
+    config.setAllocateMemoryForChunkCache(maxChunkSize * 16);
+    long evictionCount = cache.getEvictionCount();
+    for (ChunkMetaData metaData : chunkMetaDataList) {
+      cache.get(FILE_PATH, metaData, reader);
+    }
+    assertTrue(cache.getUsedMemoryInBytes() <= cache.getMaxMemoryInBytes());
+    assertTrue(cache.getCachedChunkNumber() <= 16);
+    assertEquals(SERIES_NUM - cache.getCachedChunkNumber(),
+        cache.getEvictionCount() - evictionCount);
+  }
+
+  @Test
+  public void testRemove() throws IOException {
+    for (ChunkMetaData metaData : chunkMetaDataList) {
+      cache.get(FILE_PATH, metaData, reader);
+    }
+    cache.get("another file", chunkMetaDataList.get(0), reader);
+    assertEquals(SERIES_NUM + 1, cache.getCachedChunkNumber());
+
+    cache.remove(FILE_PATH);
+    assertEquals(1, cache.getCachedChunkNumber());
+    cache.remove("another file");
+    assertEquals(0, cache.getCachedChunkNumber());
+    assertEquals(0, cache.getUsedMemoryInBytes());
+  }
+
+  @Test
+  public void testDisabled() throws IOException {
+    config.setEnableChunkCache(false);
+    long requestCount = cache.getRequestCount();
+    Chunk chunk = cache.get(FILE_PATH, chunkMetaDataList.get(0), reader);
+    assertTrue(chunk.getData().hasRemaining());
+    assertEquals(requestCount, cache.getRequestCount());
+    assertEquals(0, cache.getCachedChunkNumber());
+  }
+}
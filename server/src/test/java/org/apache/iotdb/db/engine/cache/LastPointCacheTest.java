@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsLong;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.junit.Test;
+
+public class LastPointCacheTest {
+
+  private static final String DEVICE = "root.sg.d0";
+  private static final String MEASUREMENT = "s0";
+
+  private LastPointCache cache = new LastPointCache();
+
+  @Test
+  public void testUpdate() {
+    // a point earlier than the device's latest time does not create an entry
+    cache.update(DEVICE, MEASUREMENT, 10, new TsLong(1), false);
+    assertNull(cache.get(DEVICE, MEASUREMENT));
+
+    cache.update(DEVICE, MEASUREMENT, TSDataType.INT64, 20, "2", true);
+    assertEquals(new TimeValuePair(20, new TsLong(2)), cache.get(DEVICE, MEASUREMENT));
+
+    // an out-of-order point updates an existing entry only if it is not earlier
+    cache.update(DEVICE, MEASUREMENT, 15, new TsLong(3), false);
+    assertEquals(new TimeValuePair(20, new TsLong(2)), cache.get(DEVICE, MEASUREMENT));
+    cache.update(DEVICE, MEASUREMENT, 20, new TsLong(4), false);
+    assertEquals(new TimeValuePair(20, new TsLong(4)), cache.get(DEVICE, MEASUREMENT));
+  }
+
+  @Test
+  public void testInvalidate() {
+    cache.update(DEVICE, MEASUREMENT, 20, new TsLong(2), true);
+    cache.invalidate(DEVICE, MEASUREMENT, 19);
+    assertEquals(new TimeValuePair(20, new TsLong(2)), cache.get(DEVICE, MEASUREMENT));
+    cache.invalidate(DEVICE, MEASUREMENT, 20);
+    assertNull(cache.get(DEVICE, MEASUREMENT));
+
+    // an invalidated series is not cached by an earlier point
+    cache.update(DEVICE, MEASUREMENT, 10, new TsLong(1), false);
+    assertNull(cache.get(DEVICE, MEASUREMENT));
+  }
+
+  @Test
+  public void testLoad() throws Exception {
+    AtomicInteger loadCount = new AtomicInteger();
+    TimeValuePair loaded = new TimeValuePair(30, new TsLong(3));
+    LastPointCache.LastPointLoader loader = () -> {
+      loadCount.incrementAndGet();
+      return loaded;
+    };
+    assertEquals(loaded, cache.get(DEVICE, MEASUREMENT, loader));
+    assertEquals(loaded, cache.get(DEVICE, MEASUREMENT, loader));
+    assertEquals(1, loadCount.get());
+
+    // a series without data is cached as well
+    assertNull(cache.get(DEVICE, "s1", () -> {
+      loadCount.incrementAndGet();
+      return null;
+    }));
+    assertNull(cache.get(DEVICE, "s1", loader));
+    assertEquals(2, loadCount.get());
+    cache.update(DEVICE, "s1", 5, new TsLong(5), false);
+    assertEquals(new TimeValuePair(5, new TsLong(5)), cache.get(DEVICE, "s1"));
+  }
+
+  @Test
+  public void testConcurrentModificationDuringLoad() throws Exception {
+    // a point inserted during the loading is kept if it is later than the loaded one
+    TimeValuePair result = cache.get(DEVICE, MEASUREMENT, () -> {
+      cache.update(DEVICE, MEASUREMENT, 40, new TsLong(4), false);
+      return new TimeValuePair(30, new TsLong(3));
+    });
+    assertEquals(new TimeValuePair(30, new TsLong(3)), result);
+    assertEquals(new TimeValuePair(40, new TsLong(4)), cache.get(DEVICE, MEASUREMENT));
+
+    // a loaded point deleted during the loading is not cached
+    cache.clear();
+    cache.get(DEVICE, MEASUREMENT, () -> {
+      cache.invalidate(DEVICE, MEASUREMENT, 50);
+      return new TimeValuePair(30, new TsLong(3));
+    });
+    assertNull(cache.get(DEVICE, MEASUREMENT));
+  }
+}
@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetaDataCacheTest {
+
+  private static final String FILE_PATH = "target/metaDataCacheTest.tsfile";
+  private static final int DEVICE_NUM = 4;
+  private static final int SERIES_NUM = 5;
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private TsFileMetaDataCache fileCache = TsFileMetaDataCache.getInstance();
+  private DeviceMetaDataCache deviceCache = DeviceMetaDataCache.getInstance();
+  private TsFileSequenceReader reader;
+
+  @Before
+  public void setUp() throws IOException, WriteProcessException {
+    fileCache.clear();
+    deviceCache.clear();
+
+    File file = new File(FILE_PATH);
+    file.getParentFile().mkdirs();
+    TsFileWriter writer = new TsFileWriter(file);
+    for (int i = 0; i < SERIES_NUM; i++) {
+      writer.addMeasurement(new MeasurementSchema("s" + i, TSDataType.INT64, TSEncoding.RLE));
+    }
+    for (long time = 0; time < 1000; time++) {
+      for (int d = 0; d < DEVICE_NUM; d++) {
+        TSRecord record = new TSRecord(time, "d" + d);
+        for (int i = 0; i < SERIES_NUM; i++) {
+          record.addTuple(new LongDataPoint("s" + i, time * i));
+        }
+        writer.write(record);
+      }
+      if (time % 300 == 0) {
+        // more than one chunk group for each device
+        writer.flushForTest();
+      }
+    }
+    writer.close();
+    reader = new TsFileSequenceReader(FILE_PATH);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    config.setEnableMetaDataCache(true);
+    fileCache.clear();
+    deviceCache.clear();
+    reader.close();
+    new File(FILE_PATH).delete();
+  }
+
+  @Test
+  public void testChunkMetaDataList() throws IOException {
+    MetadataQuerierByFileImpl metadataQuerier = new MetadataQuerierByFileImpl(reader);
+    for (int d = 0; d < DEVICE_NUM; d++) {
+      for (int i = 0; i < SERIES_NUM; i++) {
+        Path path = new Path("d" + d, "s" + i);
+        List<ChunkMetaData> expected = metadataQuerier.getChunkMetaDataList(path);
+        assertTrue(expected.size() > 1);
+        for (int round = 0; round < 2; round++) {
+          assertChunkMetaDataEquals(expected,
+              deviceCache.getChunkMetaDataList(FILE_PATH, path, reader));
+        }
+      }
+    }
+    assertEquals(1, fileCache.getCachedEntryNumber());
+    assertEquals(DEVICE_NUM, deviceCache.getCachedEntryNumber());
+    assertEquals(DEVICE_NUM, deviceCache.getMissCount());
+    assertEquals(DEVICE_NUM * SERIES_NUM * 2 - DEVICE_NUM, deviceCache.getHitCount());
+    assertTrue(deviceCache.getUsedMemoryInBytes() > 0);
+
+    // absent series
+    assertTrue(deviceCache.getChunkMetaDataList(FILE_PATH, new Path("d0", "s100"), reader)
+        .isEmpty());
+    assertTrue(deviceCache.getChunkMetaDataList(FILE_PATH, new Path("d100", "s0"), reader)
+        .isEmpty());
+  }
+
+  @Test
+  public void testCopy() throws IOException {
+    Path path = new Path("d0", "s1");
+    List<ChunkMetaData> first = deviceCache.getChunkMetaDataList(FILE_PATH, path, reader);
+    first.get(0).setDeletedAt(Long.MAX_VALUE);
+    first.remove(1);
+
+    List<ChunkMetaData> second = deviceCache.getChunkMetaDataList(FILE_PATH, path, reader);
+    assertEquals(first.size() + 1, second.size());
+    assertNotSame(first.get(0), second.get(0));
+    assertEquals(-1, second.get(0).getDeletedAt());
+  }
+
+  @Test
+  public void testRemove() throws IOException {
+    TsFileMetaData fileMetaData = fileCache.get(FILE_PATH, reader);
+    assertSame(fileMetaData, fileCache.get(FILE_PATH, reader));
+    deviceCache.getChunkMetaDataList(FILE_PATH, new Path("d0", "s0"), reader);
+    deviceCache.getChunkMetaDataList(FILE_PATH, new Path("d1", "s0"), reader);
+    assertEquals(2, deviceCache.getCachedEntryNumber());
+
+    fileCache.remove(FILE_PATH);
+    deviceCache.remove(FILE_PATH);
+    assertEquals(0, fileCache.getCachedEntryNumber());
+    assertEquals(0, deviceCache.getCachedEntryNumber());
+    assertEquals(0, deviceCache.getUsedMemoryInBytes());
+  }
+
+  @Test
+  public void testDisabled() throws IOException {
+    config.setEnableMetaDataCache(false);
+    long requestCount = deviceCache.getRequestCount();
+    assertTrue(deviceCache.getChunkMetaDataList(FILE_PATH, new Path("d0", "s0"), reader)
+        .size() > 1);
+    assertEquals(requestCount, deviceCache.getRequestCount());
+    assertEquals(0, fileCache.getCachedEntryNumber());
+    assertEquals(0, deviceCache.getCachedEntryNumber());
+  }
+
+  private void assertChunkMetaDataEquals(List<ChunkMetaData> expected,
+      List<ChunkMetaData> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getOffsetOfChunkHeader(),
+          actual.get(i).getOffsetOfChunkHeader());
+      assertEquals(expected.get(i).getStartTime(), actual.get(i).getStartTime());
+      assertEquals(expected.get(i).getEndTime(), actual.get(i).getEndTime());
+      assertEquals(expected.get(i).getNumOfPoints(), actual.get(i).getNumOfPoints());
+      assertEquals(expected.get(i).getVersion(), actual.get(i).getVersion());
+      assertEquals(expected.get(i).getTsDataType(), actual.get(i).getTsDataType());
+    }
+  }
+}
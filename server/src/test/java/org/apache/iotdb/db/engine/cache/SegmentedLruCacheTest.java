@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class SegmentedLruCacheTest {
+
+  private static final int SEGMENT_NUM = 4;
+
+  /**
+   * every entry takes 10 bytes.
+   */
+  private static class TestCache extends SegmentedLruCache<Integer, String> {
+
+    private long maxMemory;
+
+    TestCache(long maxMemory) {
+      super(SEGMENT_NUM);
+      this.maxMemory = maxMemory;
+    }
+
+    @Override
+    long estimateSize(Integer key, String value) {
+      return 10;
+    }
+
+    @Override
+    public long getMaxMemoryInBytes() {
+      return maxMemory;
+    }
+  }
+
+  @Test
+  public void testHitAndMiss() throws IOException {
+    TestCache cache = new TestCache(1000);
+    AtomicInteger loadCount = new AtomicInteger();
+    for (int i = 0; i < 3; i++) {
+      assertEquals("1", cache.get(1, key -> {
+        loadCount.incrementAndGet();
+        return key.toString();
+      }));
+    }
+    assertEquals(1, loadCount.get());
+    assertEquals(3, cache.getRequestCount());
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getCachedEntryNumber());
+    assertEquals(10, cache.getUsedMemoryInBytes());
+
+    // null values are not cached
+    assertNull(cache.get(2, key -> null));
+    assertEquals(1, cache.getCachedEntryNumber());
+  }
+
+  @Test
+  public void testLoadOnce() throws Exception {
+    TestCache cache = new TestCache(1000);
+    int threadNum = 8;
+    AtomicInteger loadCount = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(threadNum);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      results.add(pool.submit(() -> cache.get(1, key -> {
+        loadCount.incrementAndGet();
+        loading.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return key.toString();
+      })));
+      assertTrue(loading.await(10, TimeUnit.SECONDS));
+      for (int i = 1; i < threadNum; i++) {
+        results.add(pool.submit(() -> cache.get(1, key -> {
+          loadCount.incrementAndGet();
+          return key.toString();
+        })));
+      }
+      // let the other requests reach the cache before the loading finishes
+      while (cache.getRequestCount() < threadNum) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+      for (Future<String> result : results) {
+        assertEquals("1", result.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(1, loadCount.get());
+    assertEquals(threadNum - 1, cache.getHitCount());
+  }
+
+  @Test
+  public void testLoadFailure() throws IOException {
+    TestCache cache = new TestCache(1000);
+    try {
+      cache.get(1, key -> {
+        throw new IOException("load failed");
+      });
+      fail();
+    } catch (IOException e) {
+      assertEquals("load failed", e.getMessage());
+    }
+    // the failure is not cached
+    assertEquals("1", cache.get(1, key -> key.toString()));
+  }
+
+  @Test
+  public void testBoundedByMemory() throws IOException {
+    // each segment holds at most 2 entries
+    TestCache cache = new TestCache(SEGMENT_NUM * 20L);
+    for (int i = 0; i < 100; i++) {
+      cache.get(i, key -> key.toString());
+    }
+    assertEquals(SEGMENT_NUM * 2, cache.getCachedEntryNumber());
+    assertEquals(SEGMENT_NUM * 20L, cache.getUsedMemoryInBytes());
+    assertEquals(100 - SEGMENT_NUM * 2, cache.getEvictionCount());
+
+    // the most recently used entries are kept
+    long hitCount = cache.getHitCount();
+    cache.get(99, key -> key.toString());
+    assertEquals(hitCount + 1, cache.getHitCount());
+
+    cache.removeIf(key -> key >= 90);
+    assertTrue(cache.getCachedEntryNumber() < SEGMENT_NUM * 2);
+    assertEquals(cache.getCachedEntryNumber() * 10L, cache.getUsedMemoryInBytes());
+    cache.clear();
+    assertEquals(0, cache.getCachedEntryNumber());
+    assertEquals(0, cache.getUsedMemoryInBytes());
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.memtable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.schema.FileSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
+
+/**
+ * Memtable flush benchmark. Bench the sort and encoding of MemTableFlushTask with different
+ * primitive array sizes, with and without direct buffers, the series are like 1kHz sensors with
+ * some out-of-order points.
+ */
+public class MemTableFlushBenchmark {
+
+  private static String deviceId = "d0";
+  private static int numOfMeasurement = 50;
+  private static int numOfPoint = 100000;
+  private static int[] arraySizes = {128, 1024, 8192};
+  private static int rounds = 5;
+
+  private static String[] measurementId = new String[numOfMeasurement];
+  private static FileSchema fileSchema = new FileSchema();
+
+  static {
+    for (int i = 0; i < numOfMeasurement; i++) {
+      measurementId[i] = "m" + i;
+      fileSchema.registerMeasurement(
+          new MeasurementSchema(measurementId[i], TSDataType.INT64, TSEncoding.RLE));
+    }
+  }
+
+  public static void main(String[] args)
+      throws IOException, ExecutionException, InterruptedException {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    File file = new File("target", "MemTableFlushBenchmark.tsfile");
+    for (int round = 0; round < rounds; round++) {
+      for (int k = 0; k < arraySizes.length * 2; k++) {
+        int arraySize = arraySizes[k / 2];
+        boolean directBuffer = k % 2 == 1;
+        config.setPrimitiveArraySize(arraySize);
+        config.setDirectBufferFlushEnable(directBuffer);
+        IMemTable memTable = new PrimitiveMemTable();
+        for (int i = 0; i < numOfPoint; i++) {
+          // every 100th point arrives after its successor
+          long time = i % 100 == 0 ? i + 1 : (i % 100 == 1 ? i - 1 : i);
+          for (int j = 0; j < numOfMeasurement; j++) {
+            memTable.write(deviceId, measurementId[j], TSDataType.INT64, time, time);
+          }
+        }
+
+        file.getParentFile().mkdirs();
+        RestorableTsFileIOWriter writer = new RestorableTsFileIOWriter(file);
+        long startTime = System.nanoTime();
+        new MemTableFlushTask(memTable, fileSchema, writer, "root.sg").syncFlushMemTable();
+        long elapsed = System.nanoTime() - startTime;
+        writer.close();
+        memTable.release();
+        file.delete();
+
+        System.out.println(String.format(
+            "Round %d, array size: %d, direct buffer: %b, num of time series: %d, "
+                + "num of points for each time series: %d, flush time: %d ms.",
+            round, arraySize, directBuffer, numOfMeasurement, numOfPoint, elapsed / 1000_000));
+      }
+    }
+  }
+}
@@ -18,14 +18,24 @@
  */
 package org.apache.iotdb.db.engine.memtable;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.schema.FileSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.junit.After;
 import org.junit.Before;
@@ -78,4 +88,86 @@ public class MemTableFlushTaskTest {
     assertEquals(MemTableTestUtils.dataType0, chunkMetaData.getTsDataType());
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFlushMultipleDevices() throws ExecutionException, InterruptedException {
+    FileSchema fileSchema = new FileSchema();
+    int deviceNum = 3;
+    int measurementNum = 20;
+    for (int j = 0; j < measurementNum; j++) {
+      fileSchema.registerMeasurement(new MeasurementSchema("s" + j, TSDataType.INT64,
+          TSEncoding.RLE));
+    }
+    for (int i = 0; i < deviceNum; i++) {
+      for (int j = 0; j < measurementNum; j++) {
+        // reversed input so each series is sorted in the flush
+        for (long time = endTime; time >= startTime; time--) {
+          memTable.write("d" + i, "s" + j, TSDataType.INT64, time, time * j);
+        }
+      }
+    }
+    MemTableFlushTask memTableFlushTask = new MemTableFlushTask(memTable, fileSchema, writer,
+        storageGroup);
+    memTableFlushTask.syncFlushMemTable();
+    writer.makeMetadataVisible();
+
+    assertEquals(deviceNum, writer.getChunkGroupMetaDatas().size());
+    for (int i = 0; i < deviceNum; i++) {
+      for (int j = 0; j < measurementNum; j++) {
+        List<ChunkMetaData> chunkMetaDataList = writer
+            .getVisibleMetadataList("d" + i, "s" + j, TSDataType.INT64);
+        assertEquals(1, chunkMetaDataList.size());
+        assertEquals(startTime, chunkMetaDataList.get(0).getStartTime());
+        assertEquals(endTime, chunkMetaDataList.get(0).getEndTime());
+        assertEquals(endTime - startTime + 1, chunkMetaDataList.get(0).getNumOfPoints());
+      }
+    }
+  }
+
+  @Test
+  public void testFlushWithDirectBuffer() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    String heapFilePath = "data/testFlushWithHeapBuffer.tsfile";
+    RestorableTsFileIOWriter heapWriter = new RestorableTsFileIOWriter(new File(heapFilePath));
+    try {
+      flushMixedSeries(heapWriter);
+      config.setDirectBufferFlushEnable(true);
+      flushMixedSeries(writer);
+      // the chunks are the same as those flushed from the heap
+      assertArrayEquals(Files.readAllBytes(new File(heapFilePath).toPath()),
+          Files.readAllBytes(new File(filePath).toPath()));
+
+      // flush again with the pooled direct buffers
+      flushMixedSeries(writer);
+    } finally {
+      config.setDirectBufferFlushEnable(false);
+      heapWriter.close();
+    }
+    writer.makeMetadataVisible();
+    for (int i = 0; i < 2; i++) {
+      List<ChunkMetaData> chunkMetaDataList = writer.getVisibleMetadataList("d" + i, "s1",
+          TSDataType.TEXT);
+      assertEquals(2, chunkMetaDataList.size());
+      for (ChunkMetaData chunkMetaData : chunkMetaDataList) {
+        assertEquals(startTime, chunkMetaData.getStartTime());
+        assertEquals(endTime, chunkMetaData.getEndTime());
+        assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
+      }
+    }
+  }
+
+  private void flushMixedSeries(RestorableTsFileIOWriter writer)
+      throws ExecutionException, InterruptedException {
+    FileSchema fileSchema = new FileSchema();
+    fileSchema.registerMeasurement(new MeasurementSchema("s0", TSDataType.INT64, TSEncoding.RLE));
+    fileSchema.registerMeasurement(new MeasurementSchema("s1", TSDataType.TEXT, TSEncoding.PLAIN));
+    IMemTable table = new PrimitiveMemTable();
+    for (int i = 0; i < 2; i++) {
+      for (long time = endTime; time >= startTime; time--) {
+        table.write("d" + i, "s0", TSDataType.INT64, time, time * i);
+        table.write("d" + i, "s1", TSDataType.TEXT, time, new Binary("v" + time));
+      }
+    }
+    new MemTableFlushTask(table, fileSchema, writer, storageGroup).syncFlushMemTable();
+  }
+}
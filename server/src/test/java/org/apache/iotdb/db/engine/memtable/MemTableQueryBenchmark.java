@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.memtable;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+/**
+ * Memtable query benchmark. A writer keeps inserting into a working memtable while several
+ * readers query one series of it, which either clones the TVList (the old way) or takes a
+ * snapshot of it. Reports the time the query holds the memtable lock, the whole query time and
+ * the heap allocated per query.
+ */
+public class MemTableQueryBenchmark {
+
+  private static String deviceId = "d0";
+  private static int numOfMeasurement = 10;
+  private static int numOfInitialPoint = 50000;
+  private static int numOfQueryThread = 4;
+  private static int numOfQueryPerThread = 20;
+  private static int rounds = 3;
+  /**
+   * every n-th inserted point is out of order, 0 for in-order insertion.
+   */
+  private static int[] outOfOrderIntervals = {0, 100};
+
+  private static String[] measurementId = new String[numOfMeasurement];
+
+  static {
+    for (int i = 0; i < numOfMeasurement; i++) {
+      measurementId[i] = "m" + i;
+    }
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    for (int round = 0; round < rounds; round++) {
+      for (int outOfOrderInterval : outOfOrderIntervals) {
+        for (boolean snapshot : new boolean[]{false, true}) {
+          run(round, outOfOrderInterval, snapshot);
+        }
+      }
+    }
+  }
+
+  private static void run(int round, int outOfOrderInterval, boolean snapshot) throws InterruptedException {
+    IMemTable memTable = new PrimitiveMemTable();
+    long[] nextTime = {0};
+    for (; nextTime[0] < numOfInitialPoint; nextTime[0]++) {
+      for (int j = 0; j < numOfMeasurement; j++) {
+        memTable.write(deviceId, measurementId[j], TSDataType.INT64, nextTime[0], nextTime[0]);
+      }
+    }
+    // the insert lock of a StorageGroupProcessor
+    ReadWriteLock lock = new ReentrantReadWriteLock();
+    AtomicBoolean stop = new AtomicBoolean();
+    Thread writer = new Thread(() -> {
+      while (!stop.get()) {
+        lock.writeLock().lock();
+        try {
+          for (int k = 0; k < 10; k++, nextTime[0]++) {
+            long time = outOfOrderInterval > 0 && nextTime[0] % outOfOrderInterval == 0
+                ? nextTime[0] - outOfOrderInterval / 2 : nextTime[0];
+            for (int j = 0; j < numOfMeasurement; j++) {
+              memTable.write(deviceId, measurementId[j], TSDataType.INT64, time, time);
+            }
+          }
+        } finally {
+          lock.writeLock().unlock();
+        }
+        try {
+          // about 10k points per second for each series
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    });
+
+    long[] lockedNanos = new long[numOfQueryThread];
+    long[] totalNanos = new long[numOfQueryThread];
+    long[] allocatedBytes = new long[numOfQueryThread];
+    Thread[] readers = new Thread[numOfQueryThread];
+    for (int t = 0; t < numOfQueryThread; t++) {
+      int threadId = t;
+      readers[t] = new Thread(() -> {
+        com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long startBytes = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int q = 0; q < numOfQueryPerThread; q++) {
+          String measurement = measurementId[(threadId + q) % numOfMeasurement];
+          long startTime = System.nanoTime();
+          ReadOnlyMemChunk chunk;
+          lock.readLock().lock();
+          try {
+            chunk = query(memTable, measurement, snapshot);
+          } finally {
+            lock.readLock().unlock();
+          }
+          lockedNanos[threadId] += System.nanoTime() - startTime;
+          long count = 0;
+          Iterator<TimeValuePair> iterator = chunk.getIterator();
+          while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+          }
+          if (count < numOfInitialPoint) {
+            throw new IllegalStateException("Missing points: " + count);
+          }
+          totalNanos[threadId] += System.nanoTime() - startTime;
+        }
+        allocatedBytes[threadId] =
+            threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - startBytes;
+      });
+    }
+
+    writer.start();
+    for (Thread reader : readers) {
+      reader.start();
+    }
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    stop.set(true);
+    writer.join();
+    memTable.release();
+
+    long locked = 0;
+    long total = 0;
+    long allocated = 0;
+    for (int t = 0; t < numOfQueryThread; t++) {
+      locked += lockedNanos[t];
+      total += totalNanos[t];
+      allocated += allocatedBytes[t];
+    }
+    int numOfQuery = numOfQueryThread * numOfQueryPerThread;
+    System.out.println(String.format(
+        "Round %d, %s, out-of-order interval: %d, num of query threads: %d, "
+            + "points of a series at least: %d, avg locked time: %d us, avg query time: %d us, avg allocation: %d KB.",
+        round, snapshot ? "snapshot" : "clone", outOfOrderInterval, numOfQueryThread, numOfInitialPoint,
+        locked / numOfQuery / 1000, total / numOfQuery / 1000, allocated / numOfQuery / 1024));
+  }
+
+  private static ReadOnlyMemChunk query(IMemTable memTable, String measurement,
+      boolean snapshot) {
+    if (snapshot) {
+      return memTable.query(deviceId, measurement, TSDataType.INT64, Collections.emptyMap());
+    }
+    IWritableMemChunk memChunk = memTable.getMemTableMap().get(deviceId).get(measurement);
+    return new ReadOnlyMemChunk(TSDataType.INT64,
+        new WritableMemChunk(TSDataType.INT64, memChunk.getTVList().clone()),
+        Collections.emptyMap());
+  }
+}
@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.MetadataManagerHelper;
+import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactionTaskTest {
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private int prevFileNum;
+  private int prevMaxLevel;
+  private long prevFileSizeThreshold;
+
+  private String storageGroup = "storage_group1";
+  private String systemDir = "data/info";
+  private String[] deviceIds = {"root.vehicle.d0", "root.vehicle.d1"};
+  private String measurementId = "s0";
+  private StorageGroupProcessor processor;
+  private QueryContext context = EnvironmentUtils.TEST_QUERY_CONTEXT;
+  private TreeMap<Long, Integer> expected = new TreeMap<>();
+
+  @Before
+  public void setUp() throws Exception {
+    prevFileNum = config.getSeqFileCompactionFileNum();
+    prevMaxLevel = config.getSeqFileCompactionMaxLevel();
+    prevFileSizeThreshold = config.getTsFileSizeThreshold();
+    MetadataManagerHelper.initMetadata();
+    EnvironmentUtils.envSetUp();
+    processor = new StorageGroupProcessor(systemDir, storageGroup);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    processor.syncDeleteDataFiles();
+    EnvironmentUtils.cleanEnv();
+    EnvironmentUtils.cleanDir("data");
+    config.setSeqFileCompactionFileNum(prevFileNum);
+    config.setSeqFileCompactionMaxLevel(prevMaxLevel);
+    config.setTsFileSizeThreshold(prevFileSizeThreshold);
+  }
+
+  /**
+   * each file has 10 points of d0 and d1 with the same values.
+   */
+  private void prepareFiles(int fileNum) {
+    for (int i = 0; i < fileNum; i++) {
+      for (long time = i * 10 + 1; time <= i * 10 + 10; time++) {
+        for (String deviceId : deviceIds) {
+          TSRecord record = new TSRecord(time, deviceId);
+          record.addTuple(
+              DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(time * 2)));
+          processor.insert(new InsertPlan(record));
+        }
+        expected.put(time, (int) time * 2);
+      }
+      processor.putAllWorkingTsFileProcessorIntoClosingList();
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+    }
+  }
+
+  private void checkData(String deviceId) throws IOException {
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, context);
+    Path path = new Path(deviceId, measurementId);
+    IPointReader reader = new SeriesReaderWithoutValueFilter(
+        new SeqResourceIterateReader(path, dataSource.getSeqResources(), null, context),
+        new UnseqResourceMergeReader(path, dataSource.getUnseqResources(), context, null));
+    for (Entry<Long, Integer> entry : expected.entrySet()) {
+      Assert.assertTrue(reader.hasNext());
+      TimeValuePair pair = reader.next();
+      Assert.assertEquals((long) entry.getKey(), pair.getTimestamp());
+      Assert.assertEquals((int) entry.getValue(), pair.getValue().getInt());
+    }
+    Assert.assertFalse(reader.hasNext());
+    reader.close();
+  }
+
+  private List<ChunkMetaData> getChunkMetaDataList(TsFileResource resource, String deviceId)
+      throws IOException {
+    String filePath = resource.getFile().getPath();
+    return DeviceMetaDataCache.getInstance().getChunkMetaDataList(filePath,
+        new Path(deviceId, measurementId), FileReaderManager.getInstance().get(filePath, true));
+  }
+
+  @Test
+  public void testCompact() throws IOException {
+    config.setSeqFileCompactionFileNum(10);
+    prepareFiles(12);
+    processor.delete(deviceIds[0], measurementId, 5);
+    processor.delete(deviceIds[1], measurementId, 5);
+    expected.headMap(5L, true).clear();
+    List<TsFileResource> oldFiles = processor.query(deviceIds[0], measurementId, context)
+        .getSeqResources();
+    Assert.assertEquals(12, oldFiles.size());
+
+    Assert.assertTrue(processor.compact());
+    List<TsFileResource> newFiles = processor.query(deviceIds[0], measurementId, context)
+        .getSeqResources();
+    Assert.assertEquals(3, newFiles.size());
+    TsFileResource compactedFile = newFiles.get(0);
+    Assert.assertEquals(1, CompactionTask.getLevel(compactedFile.getFile()));
+    Assert.assertSame(oldFiles.get(10), newFiles.get(1));
+    Assert.assertSame(oldFiles.get(11), newFiles.get(2));
+    for (int i = 0; i < 10; i++) {
+      Assert.assertFalse(oldFiles.get(i).getFile().exists());
+    }
+    for (String deviceId : deviceIds) {
+      Assert.assertEquals(6L, (long) compactedFile.getStartTimeMap().get(deviceId));
+      Assert.assertEquals(100L, (long) compactedFile.getEndTimeMap().get(deviceId));
+      // the chunks of the compacted files are merged into one chunk
+      List<ChunkMetaData> chunkMetaDataList = getChunkMetaDataList(compactedFile, deviceId);
+      Assert.assertEquals(1, chunkMetaDataList.size());
+      Assert.assertEquals(95, chunkMetaDataList.get(0).getNumOfPoints());
+      checkData(deviceId);
+    }
+
+    // the files at level 1 are not enough to be compacted
+    Assert.assertFalse(processor.compact());
+  }
+
+  @Test
+  public void testCompactLevels() throws IOException {
+    config.setSeqFileCompactionFileNum(2);
+    config.setSeqFileCompactionMaxLevel(2);
+    prepareFiles(5);
+
+    Assert.assertTrue(processor.compact());
+    // two files at level 0 are compacted into one file at level 1, and two files at level 1 into
+    // one file at level 2, which is not compacted any more
+    List<TsFileResource> files = processor.query(deviceIds[0], measurementId, context)
+        .getSeqResources();
+    Assert.assertEquals(2, files.size());
+    Assert.assertEquals(2, CompactionTask.getLevel(files.get(0).getFile()));
+    Assert.assertEquals(0, CompactionTask.getLevel(files.get(1).getFile()));
+    for (String deviceId : deviceIds) {
+      checkData(deviceId);
+    }
+  }
+
+  @Test
+  public void testLargeFilesNotCompacted() throws IOException {
+    config.setSeqFileCompactionFileNum(2);
+    config.setTsFileSizeThreshold(1);
+    prepareFiles(4);
+
+    Assert.assertFalse(processor.compact());
+    Assert.assertEquals(4,
+        processor.query(deviceIds[0], measurementId, context).getSeqResources().size());
+  }
+}
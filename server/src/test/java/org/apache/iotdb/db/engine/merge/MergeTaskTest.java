@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import org.apache.iotdb.db.engine.MetadataManagerHelper;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MergeTaskTest {
+
+  private String storageGroup = "storage_group1";
+  private String systemDir = "data/info";
+  private String deviceId = "root.vehicle.d0";
+  private String measurementId = "s0";
+  private StorageGroupProcessor processor;
+  private QueryContext context = EnvironmentUtils.TEST_QUERY_CONTEXT;
+  private TreeMap<Long, Integer> expected = new TreeMap<>();
+
+  @Before
+  public void setUp() throws Exception {
+    MetadataManagerHelper.initMetadata();
+    EnvironmentUtils.envSetUp();
+    processor = new StorageGroupProcessor(systemDir, storageGroup);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    processor.syncDeleteDataFiles();
+    EnvironmentUtils.cleanEnv();
+    EnvironmentUtils.cleanDir("data");
+  }
+
+  private void insert(long time, int value) {
+    TSRecord record = new TSRecord(time, deviceId);
+    record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(value)));
+    processor.insert(new InsertPlan(record));
+    expected.put(time, value);
+  }
+
+  private void flush() {
+    processor.putAllWorkingTsFileProcessorIntoClosingList();
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+  }
+
+  /**
+   * three sequence files of [1, 100], [101, 200] and [201, 300] with odd timestamps, and an
+   * unsequence file overwriting some points of the first two files and filling some gaps of them.
+   */
+  private void prepareFiles() throws IOException {
+    for (int i = 0; i < 3; i++) {
+      for (long time = i * 100 + 1; time <= i * 100 + 100; time += 2) {
+        insert(time, (int) time);
+      }
+      flush();
+    }
+    for (long time = 11; time <= 150; time += 10) {
+      insert(time, (int) -time);
+      insert(time + 1, (int) -time);
+    }
+    flush();
+    processor.delete(deviceId, measurementId, 5);
+    expected.headMap(5L, true).clear();
+  }
+
+  private void checkData() throws IOException {
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, context);
+    Path path = new Path(deviceId, measurementId);
+    IPointReader reader = new SeriesReaderWithoutValueFilter(
+        new SeqResourceIterateReader(path, dataSource.getSeqResources(), null, context),
+        new UnseqResourceMergeReader(path, dataSource.getUnseqResources(), context, null));
+    for (Entry<Long, Integer> entry : expected.entrySet()) {
+      Assert.assertTrue(reader.hasNext());
+      TimeValuePair pair = reader.next();
+      Assert.assertEquals((long) entry.getKey(), pair.getTimestamp());
+      Assert.assertEquals((int) entry.getValue(), pair.getValue().getInt());
+    }
+    Assert.assertFalse(reader.hasNext());
+    reader.close();
+  }
+
+  @Test
+  public void testMerge() throws IOException {
+    prepareFiles();
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, context);
+    List<TsFileResource> oldSeqFiles = new ArrayList<>(dataSource.getSeqResources());
+    TsFileResource unseqFile = dataSource.getUnseqResources().get(0);
+    checkData();
+
+    Assert.assertTrue(processor.merge());
+    dataSource = processor.query(deviceId, measurementId, context);
+    Assert.assertEquals(3, dataSource.getSeqResources().size());
+    Assert.assertTrue(dataSource.getUnseqResources().isEmpty());
+    // the third file does not overlap the unsequence file and is left as it is
+    Assert.assertSame(oldSeqFiles.get(2), dataSource.getSeqResources().get(2));
+    for (int i = 0; i < 2; i++) {
+      TsFileResource mergedFile = dataSource.getSeqResources().get(i);
+      Assert.assertEquals(MergeTask.getMergedFile(oldSeqFiles.get(i).getFile()),
+          mergedFile.getFile());
+      Assert.assertTrue(mergedFile.getFile().exists());
+      Assert.assertFalse(oldSeqFiles.get(i).getFile().exists());
+      Assert.assertEquals(oldSeqFiles.get(i).getEndTimeMap().get(deviceId),
+          mergedFile.getEndTimeMap().get(deviceId));
+    }
+    Assert.assertFalse(unseqFile.getFile().exists());
+    checkData();
+
+    // nothing to merge
+    Assert.assertFalse(processor.merge());
+  }
+
+  @Test
+  public void testDeleteAfterQueryEnds() throws IOException {
+    prepareFiles();
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, context);
+    TsFileResource seqFile = dataSource.getSeqResources().get(0);
+    TsFileResource unseqFile = dataSource.getUnseqResources().get(0);
+
+    int token = processor.beginQuery();
+    Assert.assertTrue(processor.merge());
+    // the running query may still read the replaced files
+    Assert.assertTrue(seqFile.getFile().exists());
+    Assert.assertTrue(unseqFile.getFile().exists());
+    processor.endQuery(token);
+    Assert.assertFalse(seqFile.getFile().exists());
+    Assert.assertFalse(unseqFile.getFile().exists());
+    checkData();
+  }
+
+  @Test
+  public void testRecoverFinishedMerge() throws Exception {
+    prepareFiles();
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, context);
+    TsFileResource seqFile = dataSource.getSeqResources().get(0);
+
+    // the replaced files are left with the merge log when the server crashes before they are
+    // deleted
+    int token = processor.beginQuery();
+    Assert.assertTrue(processor.merge());
+    Assert.assertTrue(seqFile.getFile().exists());
+    processor.endQuery(token);
+
+    processor = new StorageGroupProcessor(systemDir, storageGroup);
+    dataSource = processor.query(deviceId, measurementId, context);
+    Assert.assertEquals(3, dataSource.getSeqResources().size());
+    Assert.assertTrue(dataSource.getUnseqResources().isEmpty());
+    Assert.assertFalse(seqFile.getFile().exists());
+    checkData();
+  }
+
+  @Test
+  public void testRecoverUnfinishedMerge() throws Exception {
+    prepareFiles();
+    QueryDataSource dataSource = processor.query(deviceId, measurementId, context);
+    TsFileResource seqFile = dataSource.getSeqResources().get(0);
+    File mergedFile = MergeTask.getMergedFile(seqFile.getFile());
+    Assert.assertTrue(mergedFile.createNewFile());
+    MergeLogger mergeLogger = new MergeLogger(new File(systemDir, storageGroup), 100);
+    mergeLogger.logFiles(Collections.singletonList(seqFile), Collections.singletonList(mergedFile),
+        dataSource.getUnseqResources());
+    mergeLogger.close();
+
+    processor = new StorageGroupProcessor(systemDir, storageGroup);
+    dataSource = processor.query(deviceId, measurementId, context);
+    Assert.assertEquals(3, dataSource.getSeqResources().size());
+    Assert.assertEquals(1, dataSource.getUnseqResources().size());
+    Assert.assertFalse(mergedFile.exists());
+    Assert.assertTrue(seqFile.getFile().exists());
+    checkData();
+  }
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.junit.After;
+import org.junit.Test;
+
+public class TsFileRollupTest {
+
+  private File tsFile = new File("target/rollupTest.tsfile");
+
+  @After
+  public void tearDown() throws IOException {
+    TsFileRollup.deleteRollupFile(tsFile);
+  }
+
+  @Test
+  public void testSerializeAndRead() throws IOException {
+    TsFileRollup rollup = new TsFileRollup(new long[]{10, 100});
+
+    // two flushes of s0, the second one continues the last bucket of the first one
+    TVList list = TVList.newList(TSDataType.INT64);
+    for (long time = 0; time < 105; time++) {
+      list.putLong(time, time);
+    }
+    // a duplicated timestamp, only the last value is kept
+    list.putLong(104, 1000);
+    list.sort();
+    rollup.update("root.sg.d0", "s0", TSDataType.INT64, list);
+    list = TVList.newList(TSDataType.INT64);
+    for (long time = 105; time < 250; time++) {
+      list.putLong(time, time);
+    }
+    list.sort();
+    rollup.update("root.sg.d0", "s0", TSDataType.INT64, list);
+
+    list = TVList.newList(TSDataType.DOUBLE);
+    list.putDouble(-5, 1.5);
+    list.putDouble(3, 2.5);
+    rollup.update("root.sg.d0", "s1", TSDataType.DOUBLE, list);
+    rollup.serialize(tsFile);
+
+    TsFileRollupReader reader = new TsFileRollupReader(TsFileRollup.getRollupFile(tsFile));
+    assertTrue(reader.hasInterval(100));
+    assertFalse(reader.hasInterval(1000));
+    assertNull(reader.read("root.sg.d0.s0", 1000));
+    assertTrue(reader.read("root.sg.d0.s2", 10).isEmpty());
+
+    List<RollupBucket> buckets = reader.read("root.sg.d0.s0", 10);
+    assertEquals(25, buckets.size());
+    RollupBucket bucket = buckets.get(10);
+    assertEquals(100, bucket.getStartTime());
+    assertEquals(100, bucket.getMinTime());
+    assertEquals(109, bucket.getMaxTime());
+    assertEquals(10, bucket.getCount());
+    Statistics<?> statistics = bucket.getStatistics();
+    assertEquals(100L, statistics.getFirst());
+    assertEquals(109L, statistics.getLast());
+    assertEquals(100L, statistics.getMin());
+    assertEquals(1000L, statistics.getMax());
+    assertEquals(100 + 101 + 102 + 103 + 1000 + 105 + 106 + 107 + 108 + 109,
+        statistics.getSum(), 0);
+
+    buckets = reader.read("root.sg.d0.s0", 100);
+    assertEquals(3, buckets.size());
+    assertEquals(200, buckets.get(2).getStartTime());
+    assertEquals(50, buckets.get(2).getCount());
+
+    // a negative timestamp belongs to the bucket starting before it
+    buckets = reader.read("root.sg.d0.s1", 10);
+    assertEquals(2, buckets.size());
+    assertEquals(-10, buckets.get(0).getStartTime());
+    assertEquals(1.5, (double) buckets.get(0).getStatistics().getMin(), 0);
+    assertEquals(0, buckets.get(1).getStartTime());
+  }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import java.util.Collections;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+
+/**
+ * Multi-threaded ingestion benchmark of a StorageGroupProcessor. Each thread inserts the records
+ * of its own devices. The WAL is disabled because the WAL of a TsFile is a single log node.
+ */
+public class StorageGroupProcessorInsertBenchmark {
+
+  private static String storageGroup = "root.bench";
+  private static String systemDir = "data/info";
+  private static int numOfDevice = 1000;
+  private static int numOfMeasurement = 10;
+  private static int numOfRecordPerDevice = 500;
+  private static int[] numOfThreads = {1, 2, 4, 8, 16};
+
+  private static String[] devices = new String[numOfDevice];
+  private static String[] measurements = new String[numOfMeasurement];
+
+  static {
+    for (int i = 0; i < numOfDevice; i++) {
+      devices[i] = storageGroup + ".device_" + i;
+    }
+    for (int i = 0; i < numOfMeasurement; i++) {
+      measurements[i] = "measurement_" + i;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    config.setEnableWal(false);
+    EnvironmentUtils.envSetUp();
+    MManager.getInstance().setStorageLevelToMTree(storageGroup);
+    System.out.println("available processors: " + Runtime.getRuntime().availableProcessors());
+    for (int threadNum : numOfThreads) {
+      StorageGroupProcessor processor = new StorageGroupProcessor(systemDir, storageGroup);
+      for (String measurement : measurements) {
+        processor.addMeasurement(measurement, TSDataType.INT64, TSEncoding.RLE,
+            CompressionType.UNCOMPRESSED, Collections.emptyMap());
+      }
+
+      Thread[] workers = new Thread[threadNum];
+      for (int i = 0; i < threadNum; i++) {
+        int workerId = i;
+        workers[i] = new Thread(() -> {
+          for (long time = 1; time <= numOfRecordPerDevice; time++) {
+            for (int j = workerId; j < numOfDevice; j += threadNum) {
+              processor.insert(new InsertPlan(getRecord(devices[j], time)));
+            }
+          }
+        });
+      }
+      long startTime = System.nanoTime();
+      for (Thread worker : workers) {
+        worker.start();
+      }
+      for (Thread worker : workers) {
+        worker.join();
+      }
+      long elapsed = System.nanoTime() - startTime;
+      processor.syncDeleteDataFiles();
+
+      long numOfPoint = (long) numOfDevice * numOfRecordPerDevice * numOfMeasurement;
+      System.out.println(String.format(
+          "threads: %d, devices: %d, points: %d, insert time: %d ms, throughput: %d points/s.",
+          threadNum, numOfDevice, numOfPoint, elapsed / 1000_000,
+          numOfPoint * 1000_000_000 / elapsed));
+    }
+    EnvironmentUtils.cleanEnv();
+    EnvironmentUtils.cleanDir("data");
+    // the flush threads are not daemon threads
+    System.exit(0);
+  }
+
+  private static TSRecord getRecord(String deviceId, long timestamp) {
+    TSRecord tsRecord = new TSRecord(timestamp, deviceId);
+    for (String measurement : measurements) {
+      tsRecord.addTuple(new LongDataPoint(measurement, timestamp));
+    }
+    return tsRecord;
+  }
+}
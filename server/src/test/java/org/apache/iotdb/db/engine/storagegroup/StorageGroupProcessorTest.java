@@ -18,13 +18,29 @@
  */
 package org.apache.iotdb.db.engine.storagegroup;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.StorageGroupProcessorException;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
 import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
 import org.junit.After;
@@ -106,4 +122,243 @@ public class StorageGroupProcessorTest {
     }
   }
 
-}
\ No newline at end of file
+  private InsertTabletPlan getTabletPlan(long[] times) {
+    int[] values = new int[times.length];
+    for (int i = 0; i < times.length; i++) {
+      values[i] = (int) times[i];
+    }
+    return new InsertTabletPlan(deviceId, new String[]{measurementId},
+        new TSDataType[]{TSDataType.INT32}, times, new Object[]{values}, times.length);
+  }
+
+  @Test
+  public void testInsertTablet() {
+    long[] times = new long[10];
+    for (int i = 0; i < 10; i++) {
+      times[i] = 21 + i;
+    }
+    Assert.assertTrue(processor.insertTablet(getTabletPlan(times)));
+    processor.putAllWorkingTsFileProcessorIntoClosingList();
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+
+    // the rows older than the flushed data go to an unsequence file
+    times = new long[]{31, 32, 33, 1, 2, 3, 4, 34, 35};
+    Assert.assertTrue(processor.insertTablet(getTabletPlan(times)));
+
+    QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context);
+    Assert.assertEquals(2, queryDataSource.getSeqResources().size());
+    Assert.assertEquals(1, queryDataSource.getUnseqResources().size());
+    TsFileResource unseqResource = queryDataSource.getUnseqResources().get(0);
+    Assert.assertEquals(1L, (long) unseqResource.getStartTimeMap().get(deviceId));
+    Assert.assertEquals(4L, (long) unseqResource.getEndTimeMap().get(deviceId));
+    Assert.assertEquals(4, unseqResource.getReadOnlyMemChunk().getSortedTimeValuePairList().size());
+    TsFileResource seqResource = queryDataSource.getSeqResources().get(1);
+    Assert.assertEquals(31L, (long) seqResource.getStartTimeMap().get(deviceId));
+    Assert.assertEquals(5, seqResource.getReadOnlyMemChunk().getSortedTimeValuePairList().size());
+  }
+
+  @Test
+  public void testConcurrentInsert() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    long prevMemtableSizeThreshold = config.getMemtableSizeThreshold();
+    // flush frequently while the devices are inserted concurrently
+    config.setMemtableSizeThreshold(4096);
+    try {
+      int deviceNum = 4;
+      int pointNum = 2000;
+      List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+      List<Thread> threads = new ArrayList<>();
+      for (int i = 0; i < deviceNum; i++) {
+        String device = "root.vehicle.d" + i;
+        threads.add(new Thread(() -> {
+          for (int j = 1; j <= pointNum; j++) {
+            // every 10th point is older than the flushed data
+            long time = j % 10 == 0 ? j - 9 : j;
+            TSRecord record = new TSRecord(time, device);
+            record.addTuple(
+                DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(time)));
+            if (!processor.insert(new InsertPlan(record))) {
+              errors.add(new AssertionError("insertion failed at " + time));
+              return;
+            }
+          }
+        }));
+      }
+      // query one device while it is being inserted
+      threads.add(new Thread(() -> {
+        try {
+          for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(countPoints("root.vehicle.d0") <= pointNum);
+          }
+        } catch (Throwable e) {
+          errors.add(e);
+        }
+      }));
+      for (Thread thread : threads) {
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      Assert.assertEquals(Collections.emptyList(), errors);
+
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+      for (int i = 0; i < deviceNum; i++) {
+        // the points whose time is a multiple of 10 are never inserted
+        Assert.assertEquals(pointNum - pointNum / 10, countPoints("root.vehicle.d" + i));
+      }
+    } finally {
+      config.setMemtableSizeThreshold(prevMemtableSizeThreshold);
+    }
+  }
+
+  @Test
+  public void testTimePartition() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    config.setEnablePartition(true);
+    config.setPartitionIntervalInSecond(1);
+    try {
+      processor.syncDeleteDataFiles();
+      processor = new StorageGroupProcessor(systemDir, storageGroup);
+      insertAndClose(2001, 2010);
+      // the data of an older partition are sequence data of that partition
+      insertAndClose(1001, 1010);
+      insertAndClose(2001, 2005);
+
+      QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context);
+      Assert.assertEquals(2, queryDataSource.getSeqResources().size());
+      Assert.assertEquals(1, queryDataSource.getUnseqResources().size());
+      TsFileResource firstSeqResource = queryDataSource.getSeqResources().get(0);
+      Assert.assertEquals(1001L, (long) firstSeqResource.getStartTimeMap().get(deviceId));
+      Assert.assertEquals(new File(DirectoryManager.getInstance().getAllSequenceFileFolders()
+              .get(0), storageGroup + File.separator + "1"),
+          firstSeqResource.getFile().getParentFile());
+      Assert.assertEquals(20, countPoints(deviceId));
+
+      // the partitions out of the time filter are skipped
+      queryDataSource = processor.query(deviceId, measurementId, context, TimeFilter.gtEq(2000));
+      Assert.assertEquals(1, queryDataSource.getSeqResources().size());
+      Assert.assertEquals(1, queryDataSource.getUnseqResources().size());
+      queryDataSource = processor.query(deviceId, measurementId, context, TimeFilter.lt(2000));
+      Assert.assertEquals(1, queryDataSource.getSeqResources().size());
+      Assert.assertEquals(0, queryDataSource.getUnseqResources().size());
+
+      // the partitions are recovered
+      processor = new StorageGroupProcessor(systemDir, storageGroup);
+      Assert.assertEquals(2,
+          processor.query(deviceId, measurementId, context).getSeqResources().size());
+      Assert.assertEquals(20, countPoints(deviceId));
+      insertAndClose(1011, 1015);
+      Assert.assertEquals(0,
+          processor.query(deviceId, measurementId, context, TimeFilter.lt(2000))
+              .getUnseqResources().size());
+
+      Assert.assertTrue(processor.merge());
+      Assert.assertEquals(0,
+          processor.query(deviceId, measurementId, context).getUnseqResources().size());
+      Assert.assertEquals(25, countPoints(deviceId));
+    } finally {
+      config.setEnablePartition(false);
+      config.setPartitionIntervalInSecond(86400);
+    }
+  }
+
+  @Test
+  public void testTTL() throws Exception {
+    long now = System.currentTimeMillis();
+    insertAndClose(now - 20000, now - 19990);
+    insertAndClose(now - 10, now);
+    processor.setDataTTL(10000);
+
+    // the file whose data are all expired is removed
+    Assert.assertEquals(1,
+        processor.query(deviceId, measurementId, context).getSeqResources().size());
+    Assert.assertEquals(11, countPoints(deviceId));
+    TSRecord record = new TSRecord(now - 15000, deviceId);
+    record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, "0"));
+    Assert.assertFalse(processor.insert(new InsertPlan(record)));
+    // the expired rows of a tablet are skipped
+    Assert.assertFalse(processor.insertTablet(getTabletPlan(new long[]{now - 15000, now + 1})));
+    Assert.assertEquals(12, countPoints(deviceId));
+  }
+
+  @Test
+  public void testTimePartitionTTL() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    config.setEnablePartition(true);
+    config.setPartitionIntervalInSecond(1);
+    try {
+      processor.syncDeleteDataFiles();
+      processor = new StorageGroupProcessor(systemDir, storageGroup);
+      long now = System.currentTimeMillis();
+      long expiredPartition = Math.floorDiv(now - 20000, 1000);
+      insertAndClose(now - 20000, now - 20000);
+      insertAndClose(now - 10, now);
+      insertAndClose(now - 30000, now - 30000);
+      // the working file of the expired partition is closed and dropped in the next check
+      TSRecord record = new TSRecord(now - 19999, deviceId);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, "0"));
+      processor.insert(new InsertPlan(record));
+      processor.setDataTTL(10000);
+      processor.waitForAllCurrentTsFileProcessorsClosed();
+      processor.checkTTL();
+
+      Assert.assertEquals(1,
+          processor.query(deviceId, measurementId, context).getSeqResources().size());
+      Assert.assertEquals(0,
+          processor.query(deviceId, measurementId, context).getUnseqResources().size());
+      Assert.assertEquals(11, countPoints(deviceId));
+      Assert.assertFalse(new File(DirectoryManager.getInstance().getAllSequenceFileFolders()
+          .get(0), storageGroup + File.separator + expiredPartition).exists());
+    } finally {
+      config.setEnablePartition(false);
+      config.setPartitionIntervalInSecond(86400);
+    }
+  }
+
+  /**
+   * insert the points in [startTime, endTime] whose values are their times and close the files.
+   */
+  private void insertAndClose(long startTime, long endTime) {
+    for (long time = startTime; time <= endTime; time++) {
+      TSRecord record = new TSRecord(time, deviceId);
+      record.addTuple(
+          DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf((int) time)));
+      Assert.assertTrue(processor.insert(new InsertPlan(record)));
+    }
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+  }
+
+  @Test
+  public void testSyncDeleteDataFilesKeepsFolders() {
+    List<String> sequenceFolders = DirectoryManager.getInstance().getAllSequenceFileFolders();
+    List<String> unsequenceFolders = DirectoryManager.getInstance().getAllUnSequenceFileFolders();
+    processor.syncDeleteDataFiles();
+    processor.syncDeleteDataFiles();
+    Assert.assertEquals(sequenceFolders, DirectoryManager.getInstance().getAllSequenceFileFolders());
+    Assert.assertEquals(unsequenceFolders,
+        DirectoryManager.getInstance().getAllUnSequenceFileFolders());
+  }
+
+  /**
+   * @return the number of points of the measurement of a device, which must be in time order.
+   */
+  private int countPoints(String device) throws IOException {
+    QueryDataSource dataSource = processor.query(device, measurementId, context);
+    Path path = new Path(device, measurementId);
+    IPointReader reader = new SeriesReaderWithoutValueFilter(
+        new SeqResourceIterateReader(path, dataSource.getSeqResources(), null, context),
+        new UnseqResourceMergeReader(path, dataSource.getUnseqResources(), context, null));
+    int count = 0;
+    long lastTime = Long.MIN_VALUE;
+    while (reader.hasNext()) {
+      TimeValuePair pair = reader.next();
+      Assert.assertTrue(pair.getTimestamp() > lastTime);
+      Assert.assertEquals((int) pair.getTimestamp(), pair.getValue().getInt());
+      lastTime = pair.getTimestamp();
+      count++;
+    }
+    reader.close();
+    return count;
+  }
+}
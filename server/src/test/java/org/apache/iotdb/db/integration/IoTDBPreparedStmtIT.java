@@ -20,17 +20,21 @@
 package org.apache.iotdb.db.integration;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.apache.iotdb.db.service.IoTDB;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.jdbc.Config;
 import org.apache.iotdb.jdbc.IoTDBPreparedInsertionStatement;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
@@ -131,6 +135,50 @@ public class IoTDBPreparedStmtIT {
     }
   }
 
+  @Test
+  public void testInsertTablet() throws SQLException {
+    Connection connection;
+    connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+    IoTDBPreparedInsertionStatement statement = (IoTDBPreparedInsertionStatement) connection.prepareStatement("INSERT");
+
+    try {
+      List<String> measurements = new ArrayList<>();
+      List<TSDataType> dataTypes = new ArrayList<>();
+      Object[] columns = new Object[5];
+      long[] timestamps = new long[100];
+      for (int i = 0; i < 5; i++) {
+        measurements.add("sensor" + i);
+        dataTypes.add(TSDataType.DOUBLE);
+        double[] values = new double[100];
+        Arrays.fill(values, i);
+        columns[i] = values;
+      }
+      for (int i = 0; i < 100; i++) {
+        timestamps[i] = i + 1;
+      }
+      assertTrue(statement.insertTablet("root.device3", measurements, dataTypes, timestamps,
+          columns, 100));
+      statement.close();
+
+      Statement queryStmt = connection.createStatement();
+      ResultSet resultSet = queryStmt.executeQuery("SELECT * FROM root.device3");
+      int cnt = 0;
+      while (resultSet.next()) {
+        cnt++;
+        assertEquals(cnt, resultSet.getLong(1));
+        for (int i = 0; i < 5; i++) {
+          assertEquals((double) i, resultSet.getDouble(i+2), 0.0001);
+        }
+      }
+      assertEquals(100, cnt);
+      resultSet.close();
+      queryStmt.close();
+    } finally {
+      connection.close();
+    }
+  }
+
   @Ignore
   @Test
   public void testPreparedInsertionPerf() throws SQLException {
@@ -26,6 +26,7 @@ import static org.junit.Assert.fail;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.MetadataErrorException;
 import org.apache.iotdb.db.exception.PathErrorException;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
@@ -360,4 +361,24 @@ public class MManagerBasicTest {
     manager.deletePaths(Collections.singletonList(new Path("root.laptop.d1.s2")));
     assertEquals(1, manager.getMaximalSeriesNumberAmongStorageGroups());
   }
+
+  @Test
+  public void testSetTTL() throws MetadataErrorException {
+    MManager manager = MManager.getInstance();
+    manager.setStorageLevelToMTree("root.laptop");
+    long defaultTTL = IoTDBDescriptor.getInstance().getConfig().getDefaultTTL();
+    assertEquals(defaultTTL, manager.getTTL("root.laptop"));
+
+    manager.setTTL("root.laptop", 1000);
+    assertEquals(1000, manager.getTTL("root.laptop"));
+    manager.setTTL("root.laptop", 0);
+    assertEquals(0, manager.getTTL("root.laptop"));
+
+    try {
+      manager.setTTL("root.laptop.d1", 1000);
+      fail("root.laptop.d1 is not a storage group");
+    } catch (MetadataErrorException e) {
+      assertEquals(defaultTTL, manager.getTTL("root.laptop.d1"));
+    }
+  }
 }
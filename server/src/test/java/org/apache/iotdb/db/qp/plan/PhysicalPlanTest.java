@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.qp.plan;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -32,6 +33,7 @@ import org.apache.iotdb.db.qp.physical.crud.AggregationPlan;
 import org.apache.iotdb.db.qp.physical.crud.FillQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.GroupByPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.LastQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.QueryPlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.qp.physical.sys.MetadataPlan;
@@ -154,6 +156,63 @@ public class PhysicalPlanTest {
     assertEquals(111, mergePlan.getUnit());
   }
 
+  @Test
+  public void testSlidingGroupBy()
+      throws QueryProcessorException, ArgsErrorException, ProcessorException, MetadataErrorException {
+    String sqlStr =
+        "select mean(s1) " + "from root.vehicle.d1 " + "where time <= now() "
+            + "group by(10m, 1m, 44, [1,3], [4,5])";
+    PhysicalPlan plan = processor.parseSQLToPhysicalPlan(sqlStr);
+    if (!plan.isQuery()) {
+      fail();
+    }
+    GroupByPlan mergePlan = (GroupByPlan) plan;
+    assertEquals(600000, mergePlan.getUnit());
+    assertEquals(60000, mergePlan.getSlidingStep());
+    assertEquals(44, mergePlan.getOrigin());
+
+    sqlStr = "select count(s1) from root.vehicle.d1 group by(10ms, [1,3])";
+    mergePlan = (GroupByPlan) processor.parseSQLToPhysicalPlan(sqlStr);
+    assertEquals(10, mergePlan.getSlidingStep());
+  }
+
+  @Test
+  public void testLastQuery()
+      throws QueryProcessorException, ArgsErrorException, ProcessorException, MetadataErrorException {
+    String sqlStr = "select last s1, s2 from root.vehicle.d1";
+    PhysicalPlan plan = processor.parseSQLToPhysicalPlan(sqlStr);
+    if (!plan.isQuery()) {
+      fail();
+    }
+    assertTrue(plan instanceof LastQueryPlan);
+    assertEquals(2, plan.getPaths().size());
+    assertEquals("root.vehicle.d1.s1", plan.getPaths().get(0).getFullPath());
+
+    // last is still an aggregation
+    plan = processor.parseSQLToPhysicalPlan("select last(s1) from root.vehicle.d1");
+    assertTrue(plan instanceof AggregationPlan);
+  }
+
+  @Test
+  public void testOrderByTimeDesc()
+      throws QueryProcessorException, ArgsErrorException, ProcessorException, MetadataErrorException {
+    String sqlStr = "select s1 from root.vehicle.d1 where time > 10 order by time desc limit 10 offset 5";
+    QueryPlan plan = (QueryPlan) processor.parseSQLToPhysicalPlan(sqlStr);
+    assertTrue(plan.isDescending());
+    assertEquals(15, plan.getRowLimit());
+
+    plan = (QueryPlan) processor.parseSQLToPhysicalPlan("select s1 from root.vehicle.d1");
+    assertFalse(plan.isDescending());
+    assertEquals(0, plan.getRowLimit());
+
+    try {
+      processor.parseSQLToPhysicalPlan("select count(s1) from root.vehicle.d1 order by time desc");
+      fail();
+    } catch (QueryProcessorException e) {
+      assertEquals("ORDER BY time DESC is only supported in raw data queries", e.getMessage());
+    }
+  }
+
   @Test
   public void testFill1()
       throws QueryProcessorException, ArgsErrorException, ProcessorException, MetadataErrorException {
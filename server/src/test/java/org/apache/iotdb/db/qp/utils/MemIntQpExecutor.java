@@ -36,6 +36,7 @@ import org.apache.iotdb.db.qp.executor.AbstractQueryProcessExecutor;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.qp.physical.crud.UpdatePlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -97,6 +98,8 @@ public class MemIntQpExecutor extends AbstractQueryProcessExecutor {
         return flag;
       case INSERT:
         return insert((InsertPlan) plan);
+      case INSERT_TABLET:
+        return insertTablet((InsertTabletPlan) plan);
       default:
         throw new UnsupportedOperationException();
     }
@@ -112,7 +115,8 @@ public class MemIntQpExecutor extends AbstractQueryProcessExecutor {
 
   @Override
   public QueryDataSet groupBy(List<Path> paths, List<String> aggres, IExpression expression,
-      long unit, long origin, List<Pair<Long, Long>> intervals, QueryContext context)
+      long unit, long slidingStep, long origin, List<Pair<Long, Long>> intervals,
+      QueryContext context)
       throws ProcessorException, IOException, PathErrorException, StorageEngineException,
       QueryFilterOptimizationException {
     return null;
@@ -125,6 +129,12 @@ public class MemIntQpExecutor extends AbstractQueryProcessExecutor {
     return null;
   }
 
+  @Override
+  public QueryDataSet lastQuery(List<Path> paths, QueryContext context)
+      throws ProcessorException, IOException, PathErrorException, StorageEngineException {
+    return null;
+  }
+
 
   @Override
   public boolean judgePathExists(Path path) {
@@ -194,6 +204,22 @@ public class MemIntQpExecutor extends AbstractQueryProcessExecutor {
     return true;
   }
 
+  @Override
+  public boolean insertTablet(InsertTabletPlan insertTabletPlan) {
+    for (int i = 0; i < insertTabletPlan.getMeasurements().length; i++) {
+      String strPath = insertTabletPlan.getDeviceId() + IoTDBConstant.PATH_SEPARATOR + insertTabletPlan.getMeasurements()[i];
+      if (!demoMemDataBase.containsKey(strPath)) {
+        demoMemDataBase.put(strPath, new TestSeries());
+      }
+      for (int j = 0; j < insertTabletPlan.getRowCount(); j++) {
+        long time = insertTabletPlan.getTimes()[j];
+        demoMemDataBase.get(strPath).data.put(time, (Integer) insertTabletPlan.getValue(i, j));
+        timeStampUnion.add(time);
+      }
+    }
+    return true;
+  }
+
   @Override
   protected QueryDataSet processAuthorQuery(AuthorPlan plan, QueryContext context) {
     return null;
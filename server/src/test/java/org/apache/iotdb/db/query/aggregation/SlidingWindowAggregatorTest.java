@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.aggregation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.junit.Test;
+
+public class SlidingWindowAggregatorTest {
+
+  private static final String[] AGGREGATIONS = {StatisticConstant.COUNT, StatisticConstant.SUM,
+      StatisticConstant.MEAN, StatisticConstant.MIN_VALUE, StatisticConstant.MAX_VALUE,
+      StatisticConstant.FIRST, StatisticConstant.LAST, StatisticConstant.MIN_TIME,
+      StatisticConstant.MAX_TIME};
+
+  @Test
+  public void testAgainstRecalculation() throws ProcessorException {
+    Random random = new Random(7);
+    List<Long> times = new ArrayList<>();
+    List<Integer> values = new ArrayList<>();
+    for (long time = 0; time < 2000; time += 1 + random.nextInt(5)) {
+      times.add(time);
+      values.add(random.nextInt(1000) - 500);
+    }
+
+    long unit = 50;
+    long slidingStep = 7;
+    for (String aggregation : AGGREGATIONS) {
+      SlidingWindowAggregator aggregator = new SlidingWindowAggregator(aggregation,
+          TSDataType.INT32);
+      int added = 0;
+      for (long start = 0; start < 2000; start += slidingStep) {
+        aggregator.removeBefore(start);
+        while (added < times.size() && times.get(added) < start + unit) {
+          if (times.get(added) >= start) {
+            aggregator.add(times.get(added), values.get(added));
+          }
+          added++;
+        }
+        assertEquals(aggregation + "@" + start, expected(aggregation, times, values, start,
+            start + unit), String.valueOf(aggregator.getResult().isSetValue() ? aggregator
+            .getResult().getValue() : null));
+      }
+    }
+  }
+
+  @Test
+  public void testEmptyWindow() throws ProcessorException {
+    SlidingWindowAggregator aggregator = new SlidingWindowAggregator(StatisticConstant.COUNT,
+        TSDataType.INT64);
+    assertEquals(0L, aggregator.getResult().getLongRet());
+    aggregator = new SlidingWindowAggregator(StatisticConstant.SUM, TSDataType.DOUBLE);
+    aggregator.add(1, 0.5);
+    aggregator.removeBefore(2);
+    assertEquals(0.0, aggregator.getResult().getDoubleRet(), 0);
+    aggregator = new SlidingWindowAggregator(StatisticConstant.MAX_VALUE, TSDataType.FLOAT);
+    aggregator.add(1, 0.5f);
+    aggregator.removeBefore(2);
+    assertFalse(aggregator.getResult().isSetValue());
+  }
+
+  @Test(expected = ProcessorException.class)
+  public void testUnsupportedType() throws ProcessorException {
+    new SlidingWindowAggregator(StatisticConstant.MEAN, TSDataType.TEXT);
+  }
+
+  private String expected(String aggregation, List<Long> times, List<Integer> values, long start,
+      long end) {
+    List<Integer> window = new ArrayList<>();
+    long minTime = -1;
+    long maxTime = -1;
+    for (int i = 0; i < times.size(); i++) {
+      if (times.get(i) >= start && times.get(i) < end) {
+        window.add(values.get(i));
+        minTime = minTime == -1 ? times.get(i) : minTime;
+        maxTime = times.get(i);
+      }
+    }
+    long sum = 0;
+    for (int value : window) {
+      sum += value;
+    }
+    switch (aggregation) {
+      case StatisticConstant.COUNT:
+        return String.valueOf(window.size());
+      case StatisticConstant.SUM:
+        return String.valueOf((double) sum);
+      default:
+        break;
+    }
+    if (window.isEmpty()) {
+      return "null";
+    }
+    switch (aggregation) {
+      case StatisticConstant.MEAN:
+        return String.valueOf((double) sum / window.size());
+      case StatisticConstant.MIN_VALUE:
+        return String.valueOf(window.stream().min(Integer::compare).get());
+      case StatisticConstant.MAX_VALUE:
+        return String.valueOf(window.stream().max(Integer::compare).get());
+      case StatisticConstant.FIRST:
+        return String.valueOf(window.get(0));
+      case StatisticConstant.LAST:
+        return String.valueOf(window.get(window.size() - 1));
+      case StatisticConstant.MIN_TIME:
+        return String.valueOf(minTime);
+      default:
+        return String.valueOf(maxTime);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.control;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class JobFileManagerTest {
+
+  @Test
+  public void testRemoveUsedFilesForGivenJob() {
+    String sealedFile = "target/jobFileManagerTest.sealed";
+    String unsealedFile = "target/jobFileManagerTest.unsealed";
+    FileReaderManager manager = FileReaderManager.getInstance();
+    JobFileManager jobFileManager = new JobFileManager();
+
+    jobFileManager.addJobId(1L);
+    jobFileManager.addFilePathToMap(1L, sealedFile, true);
+    jobFileManager.addFilePathToMap(1L, unsealedFile, false);
+    assertTrue(manager.hasReference(sealedFile));
+    assertTrue(manager.hasReference(unsealedFile));
+
+    // the references of both kinds of files are released, so the files can be deleted
+    jobFileManager.removeUsedFilesForGivenJob(1L);
+    assertFalse(manager.hasReference(sealedFile));
+    assertFalse(manager.hasReference(unsealedFile));
+  }
+}
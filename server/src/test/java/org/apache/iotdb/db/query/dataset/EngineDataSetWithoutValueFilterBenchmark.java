@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import org.apache.iotdb.db.query.reader.IBatchReader;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+
+/**
+ * Bench the alignment of a wide device query without value filter: the former heap of boxed
+ * timestamps with a point per series, the primitive heap over batches producing RowRecords, and
+ * the primitive heap writing columns directly. Every 10th series misses every other point.
+ */
+public class EngineDataSetWithoutValueFilterBenchmark {
+
+  private static int numOfSeries = 200;
+  private static int numOfPoint = 100000;
+  private static int batchSize = 1000;
+  private static int blockSize = 1024;
+  private static int fetchSize = 10000;
+  private static int rounds = 5;
+
+  public static void main(String[] args) throws IOException {
+    List<Path> paths = new ArrayList<>();
+    List<TSDataType> dataTypes = new ArrayList<>();
+    for (int i = 0; i < numOfSeries; i++) {
+      paths.add(new Path("root.sg.d0", "s" + i));
+      dataTypes.add(TSDataType.INT64);
+    }
+
+    for (int round = 0; round < rounds; round++) {
+      long startTime = System.nanoTime();
+      long startBytes = allocatedBytes();
+      HeapSetDataSet formerDataSet = new HeapSetDataSet(createReaders());
+      long rowCount = 0;
+      while (formerDataSet.hasNext()) {
+        formerDataSet.next();
+        rowCount++;
+      }
+      long formerTime = System.nanoTime() - startTime;
+      long formerBytes = allocatedBytes() - startBytes;
+
+      startTime = System.nanoTime();
+      startBytes = allocatedBytes();
+      EngineDataSetWithoutValueFilter dataSet = new EngineDataSetWithoutValueFilter(paths,
+          dataTypes, createReaders());
+      while (dataSet.hasNext()) {
+        dataSet.next();
+      }
+      long rowTime = System.nanoTime() - startTime;
+      long rowBytes = allocatedBytes() - startBytes;
+
+      startTime = System.nanoTime();
+      startBytes = allocatedBytes();
+      dataSet = new EngineDataSetWithoutValueFilter(paths, dataTypes, createReaders());
+      long[] times = new long[blockSize];
+      Object[] columns = new Object[numOfSeries];
+      int[] valueCounts = new int[numOfSeries];
+      for (int i = 0; i < numOfSeries; i++) {
+        columns[i] = new long[blockSize];
+      }
+      while (dataSet.hasNext()) {
+        BitSet[] bitmaps = new BitSet[numOfSeries];
+        for (int i = 0; i < numOfSeries; i++) {
+          bitmaps[i] = new BitSet();
+        }
+        int fetched = 0;
+        int blockRowNum;
+        while (fetched < fetchSize && (blockRowNum = dataSet
+            .fillColumns(Math.min(blockSize, fetchSize - fetched), times, columns, valueCounts,
+                bitmaps, fetched)) > 0) {
+          fetched += blockRowNum;
+        }
+      }
+      long columnTime = System.nanoTime() - startTime;
+      long columnBytes = allocatedBytes() - startBytes;
+
+      System.out.println(String.format(
+          "Round %d, num of series: %d, num of rows: %d, former: %d ms %d MB, rows: %d ms %d MB, "
+              + "columns: %d ms %d MB.", round, numOfSeries, rowCount, formerTime / 1000_000,
+          formerBytes >> 20, rowTime / 1000_000, rowBytes >> 20, columnTime / 1000_000,
+          columnBytes >> 20));
+    }
+  }
+
+  /**
+   * @return bytes allocated by the current thread so far, including those of the readers.
+   */
+  private static long allocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+        .getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static List<IPointReader> createReaders() {
+    List<IPointReader> readers = new ArrayList<>();
+    for (int i = 0; i < numOfSeries; i++) {
+      int step = i % 10 == 0 ? 2 : 1;
+      readers.add(new SeriesReaderWithoutValueFilter(new InMemoryBatchReader(step), null));
+    }
+    return readers;
+  }
+
+  /**
+   * generate batches of time t and value t * step for t in [0, numOfPoint).
+   */
+  private static class InMemoryBatchReader implements IBatchReader {
+
+    private int step;
+    private long nextTime = 0;
+
+    private InMemoryBatchReader(int step) {
+      this.step = step;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextTime < numOfPoint;
+    }
+
+    @Override
+    public BatchData nextBatch() {
+      BatchData batchData = new BatchData(TSDataType.INT64, true);
+      for (int i = 0; i < batchSize && nextTime < numOfPoint; i++) {
+        batchData.putTime(nextTime);
+        batchData.putLong(nextTime * step);
+        nextTime += step;
+      }
+      return batchData;
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+  }
+
+  /**
+   * the former implementation of EngineDataSetWithoutValueFilter.
+   */
+  private static class HeapSetDataSet {
+
+    private List<IPointReader> readers;
+    private TimeValuePair[] cacheTimeValueList;
+    private PriorityQueue<Long> timeHeap = new PriorityQueue<>();
+    private Set<Long> timeSet = new HashSet<>();
+
+    private HeapSetDataSet(List<IPointReader> readers) throws IOException {
+      this.readers = readers;
+      cacheTimeValueList = new TimeValuePair[readers.size()];
+      for (int i = 0; i < readers.size(); i++) {
+        if (readers.get(i).hasNext()) {
+          cacheTimeValueList[i] = readers.get(i).next();
+          timeHeapPut(cacheTimeValueList[i].getTimestamp());
+        }
+      }
+    }
+
+    private boolean hasNext() {
+      return !timeHeap.isEmpty();
+    }
+
+    private RowRecord next() throws IOException {
+      long minTime = timeHeap.poll();
+      timeSet.remove(minTime);
+      RowRecord record = new RowRecord(minTime);
+      for (int i = 0; i < readers.size(); i++) {
+        if (cacheTimeValueList[i] != null && cacheTimeValueList[i].getTimestamp() == minTime) {
+          Field field = new Field(TSDataType.INT64);
+          field.setLongV(cacheTimeValueList[i].getValue().getLong());
+          record.addField(field);
+          if (readers.get(i).hasNext()) {
+            cacheTimeValueList[i] = readers.get(i).next();
+            timeHeapPut(cacheTimeValueList[i].getTimestamp());
+          }
+        } else {
+          record.addField(new Field(null));
+        }
+      }
+      return record;
+    }
+
+    private void timeHeapPut(long time) {
+      if (!timeSet.contains(time)) {
+        timeSet.add(time);
+        timeHeap.add(time);
+      }
+    }
+  }
+}
@@ -0,0 +1,232 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.FakedIBatchPoint;
+import org.apache.iotdb.db.query.reader.seriesRelated.FakedIPointReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.junit.Test;
+
+public class EngineDataSetWithoutValueFilterTest {
+
+  private static final int SERIES_NUM = 4;
+
+  /**
+   * series 0 and 1 are read in batches, series 2 point by point and series 3 is a point without
+   * value, like the result of a fill.
+   */
+  private List<IPointReader> createReaders() {
+    List<IPointReader> readers = new ArrayList<>();
+    readers.add(new SeriesReaderWithoutValueFilter(new FakedIBatchPoint(100, 1000, 7, 11),
+        new FakedIPointReader(20, 500, 11, 19)));
+    readers.add(new SeriesReaderWithoutValueFilter(new FakedIBatchPoint(50, 800, 3, 13), null));
+    readers.add(new FakedIPointReader(0, 300, 5, 17));
+    readers.add(new IPointReader() {
+      private boolean hasNext = true;
+
+      @Override
+      public boolean hasNext() {
+        return hasNext;
+      }
+
+      @Override
+      public TimeValuePair next() {
+        hasNext = false;
+        return new TimeValuePair(100, null);
+      }
+
+      @Override
+      public TimeValuePair current() {
+        return new TimeValuePair(100, null);
+      }
+
+      @Override
+      public void close() {
+      }
+    });
+    return readers;
+  }
+
+  /**
+   * @return time -> the value of each series at the time
+   */
+  private Map<Long, Long[]> getExpectedRows() throws IOException {
+    Map<Long, Long[]> rows = new TreeMap<>();
+    List<IPointReader> readers = createReaders();
+    for (int i = 0; i < SERIES_NUM; i++) {
+      IPointReader reader = readers.get(i);
+      while (reader.hasNext()) {
+        TimeValuePair timeValuePair = reader.next();
+        Long[] row = rows.computeIfAbsent(timeValuePair.getTimestamp(), t -> new Long[SERIES_NUM]);
+        row[i] = timeValuePair.getValue() == null ? null : timeValuePair.getValue().getLong();
+      }
+    }
+    return rows;
+  }
+
+  private EngineDataSetWithoutValueFilter createDataSet() throws IOException {
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < SERIES_NUM; i++) {
+      paths.add(new Path("root.sg.d0", "s" + i));
+    }
+    return new EngineDataSetWithoutValueFilter(paths,
+        Arrays.asList(TSDataType.INT64, TSDataType.INT64, TSDataType.INT64, TSDataType.INT64),
+        createReaders());
+  }
+
+  @Test
+  public void testHasNextAndNext() throws IOException {
+    EngineDataSetWithoutValueFilter dataSet = createDataSet();
+    for (Map.Entry<Long, Long[]> entry : getExpectedRows().entrySet()) {
+      assertTrue(dataSet.hasNext());
+      RowRecord record = dataSet.next();
+      assertEquals((long) entry.getKey(), record.getTimestamp());
+      assertEquals(SERIES_NUM, record.getFields().size());
+      for (int i = 0; i < SERIES_NUM; i++) {
+        Field field = record.getFields().get(i);
+        if (entry.getValue()[i] == null) {
+          assertEquals(null, field.getDataType());
+        } else {
+          assertEquals((long) entry.getValue()[i], field.getLongV());
+        }
+      }
+    }
+    assertFalse(dataSet.hasNext());
+  }
+
+  @Test
+  public void testFillColumns() throws IOException {
+    EngineDataSetWithoutValueFilter dataSet = createDataSet();
+    List<Map.Entry<Long, Long[]>> expectedRows = new ArrayList<>(getExpectedRows().entrySet());
+
+    int blockSize = 100;
+    long[] times = new long[blockSize];
+    Object[] columns = new Object[SERIES_NUM];
+    int[] valueCounts = new int[SERIES_NUM];
+    BitSet[] bitmaps = new BitSet[SERIES_NUM];
+    for (int i = 0; i < SERIES_NUM; i++) {
+      columns[i] = new long[blockSize];
+      bitmaps[i] = new BitSet();
+    }
+
+    int rowIndex = 0;
+    // the first row is read by next()
+    RowRecord first = dataSet.next();
+    assertEquals((long) expectedRows.get(rowIndex++).getKey(), first.getTimestamp());
+    int offset = 0;
+    while (dataSet.hasNext()) {
+      int rowCount = dataSet.fillColumns(blockSize, times, columns, valueCounts, bitmaps, offset);
+      assertTrue(rowCount > 0 && rowCount <= blockSize);
+
+      int[] valueIndexes = new int[SERIES_NUM];
+      for (int row = 0; row < rowCount; row++) {
+        Map.Entry<Long, Long[]> expected = expectedRows.get(rowIndex++);
+        assertEquals((long) expected.getKey(), times[row]);
+        for (int i = 0; i < SERIES_NUM; i++) {
+          assertEquals(expected.getValue()[i] != null, bitmaps[i].get(offset + row));
+          if (expected.getValue()[i] != null) {
+            assertEquals((long) expected.getValue()[i], ((long[]) columns[i])[valueIndexes[i]++]);
+          }
+        }
+      }
+      for (int i = 0; i < SERIES_NUM; i++) {
+        assertEquals(valueIndexes[i], valueCounts[i]);
+      }
+      offset += rowCount;
+    }
+    assertEquals(expectedRows.size(), rowIndex);
+    assertEquals(0, dataSet.fillColumns(blockSize, times, columns, valueCounts, bitmaps, offset));
+  }
+
+  @Test
+  public void testRowLimit() throws IOException {
+    List<Long> expectedTimes = new ArrayList<>(getExpectedRows().keySet());
+    EngineDataSetWithoutValueFilter dataSet = createDataSet();
+    dataSet.setRowLimit(10);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(dataSet.hasNext());
+      assertEquals((long) expectedTimes.get(i), dataSet.next().getTimestamp());
+    }
+    assertFalse(dataSet.hasNext());
+
+    dataSet = createDataSet();
+    dataSet.setRowLimit(10);
+    long[] times = new long[100];
+    Object[] columns = new Object[SERIES_NUM];
+    BitSet[] bitmaps = new BitSet[SERIES_NUM];
+    for (int i = 0; i < SERIES_NUM; i++) {
+      columns[i] = new long[100];
+      bitmaps[i] = new BitSet();
+    }
+    assertEquals(10,
+        dataSet.fillColumns(100, times, columns, new int[SERIES_NUM], bitmaps, 0));
+    assertEquals((long) expectedTimes.get(9), times[9]);
+    assertFalse(dataSet.hasNext());
+  }
+
+  @Test
+  public void testDescendingTimeHeap() {
+    TimeHeap heap = new TimeHeap(1, true);
+    long[] times = {5, Long.MIN_VALUE, 9, -3, 1, Long.MAX_VALUE, 5, 0, 8};
+    for (int i = 0; i < times.length; i++) {
+      heap.push(times[i], i);
+    }
+    long[] sorted = times.clone();
+    Arrays.sort(sorted);
+    for (int i = sorted.length - 1; i >= 0; i--) {
+      assertEquals(sorted[i], heap.peekTime());
+      assertEquals(sorted[i], times[heap.poll()]);
+    }
+    assertTrue(heap.isEmpty());
+  }
+
+  @Test
+  public void testTimeHeap() {
+    TimeHeap heap = new TimeHeap(1);
+    long[] times = {5, 3, 9, 3, 1, 7, 5, 0, 8};
+    for (int i = 0; i < times.length; i++) {
+      heap.push(times[i], i);
+    }
+    assertEquals(times.length, heap.size());
+    long[] sorted = times.clone();
+    Arrays.sort(sorted);
+    for (long time : sorted) {
+      assertEquals(time, heap.peekTime());
+      assertEquals(time, times[heap.poll()]);
+    }
+    assertTrue(heap.isEmpty());
+  }
+}
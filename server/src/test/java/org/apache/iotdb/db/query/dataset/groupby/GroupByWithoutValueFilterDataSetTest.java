@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset.groupby;
+
+import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_CONTEXT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.query.executor.EngineQueryRouter;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GroupByWithoutValueFilterDataSetTest {
+
+  private String storageGroup = "root.test";
+  private String measurement = "s0";
+  private int maxNumberOfPointsInPage;
+  private EngineQueryRouter router = new EngineQueryRouter();
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    EnvironmentUtils.envSetUp();
+    maxNumberOfPointsInPage = TSFileConfig.maxNumberOfPointsInPage;
+    TSFileConfig.maxNumberOfPointsInPage = 10;
+
+    MManager.getInstance().setStorageLevelToMTree(storageGroup);
+    MManager.getInstance().addPathToMTree(storageGroup + "." + measurement,
+        TSDataType.INT64.toString(), TSEncoding.PLAIN.toString());
+    StorageEngine.getInstance().addTimeSeries(new Path(storageGroup, measurement),
+        TSDataType.INT64, TSEncoding.PLAIN, CompressionType.valueOf(TSFileConfig.compressor),
+        Collections.emptyMap());
+    // pages [1, 10], [11, 20], [21, 30]
+    for (long time = 1; time <= 30; time++) {
+      TSRecord record = new TSRecord(time, storageGroup);
+      record.addTuple(new LongDataPoint(measurement, time));
+      StorageEngine.getInstance().insert(new InsertPlan(record));
+    }
+    StorageEngine.getInstance().syncCloseAllProcessor();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    TSFileConfig.maxNumberOfPointsInPage = maxNumberOfPointsInPage;
+    EnvironmentUtils.cleanEnv();
+  }
+
+  private QueryDataSet countGroupBy(long origin) throws Exception {
+    return router.groupBy(Collections.singletonList(new Path(storageGroup, measurement)),
+        Collections.singletonList("count"), null, 10, 10, origin,
+        Collections.singletonList(new Pair<>(1L, 30L)), TEST_QUERY_CONTEXT);
+  }
+
+  private void assertCount(QueryDataSet dataSet, long time, long count) throws Exception {
+    assertTrue(dataSet.hasNext());
+    RowRecord record = dataSet.next();
+    assertEquals(time, record.getTimestamp());
+    assertEquals(count, record.getFields().get(0).getLongV());
+  }
+
+  @Test
+  public void testGroupEndsAtPageMaxTime() throws Exception {
+    // the first page ends at 10, which belongs to the second group
+    QueryDataSet dataSet = countGroupBy(0);
+    assertCount(dataSet, 1, 9);
+    assertCount(dataSet, 10, 10);
+    assertCount(dataSet, 20, 10);
+    assertCount(dataSet, 30, 1);
+    assertFalse(dataSet.hasNext());
+  }
+
+  @Test
+  public void testPartiallyDeletedPage() throws Exception {
+    StorageEngine.getInstance().delete(storageGroup, measurement, 15);
+    // the second page fits in the second group, but its header still counts the deleted points
+    QueryDataSet dataSet = countGroupBy(1);
+    assertCount(dataSet, 1, 0);
+    assertCount(dataSet, 11, 5);
+    assertCount(dataSet, 21, 10);
+    assertFalse(dataSet.hasNext());
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.iotdb.db.exception.ProcessorException;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryTaskPoolManagerTest {
+
+  private QueryTaskPoolManager manager = QueryTaskPoolManager.getInstance();
+  private int maxParallelismPerQuery;
+
+  @Before
+  public void setUp() {
+    maxParallelismPerQuery = manager.getMaxParallelismPerQuery();
+  }
+
+  @After
+  public void tearDown() {
+    manager.setMaxParallelismPerQuery(maxParallelismPerQuery);
+  }
+
+  @Test
+  public void testResultOrderAndParallelism() throws IOException, ProcessorException {
+    manager.setMaxParallelismPerQuery(2);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      int index = i;
+      tasks.add(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        // let the later tasks finish earlier
+        Thread.sleep(20 - index);
+        running.decrementAndGet();
+        return index;
+      });
+    }
+
+    QueryContext context = new QueryContext(1);
+    List<Integer> results = manager.invokeAll(tasks, context, "test");
+    assertEquals(20, results.size());
+    for (int i = 0; i < 20; i++) {
+      assertEquals(i, (int) results.get(i));
+    }
+    assertTrue(maxRunning.get() <= 2);
+
+    Map<String, long[]> breakdown = context.getTimeCostBreakdown();
+    assertEquals(1, breakdown.size());
+    // the tasks sleep for at least 210ms in total with a parallelism of 2
+    assertTrue(breakdown.get("test")[0] >= 105 * 1000_000L);
+  }
+
+  @Test
+  public void testException() throws ProcessorException {
+    manager.setMaxParallelismPerQuery(4);
+    AtomicInteger finished = new AtomicInteger();
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      int index = i;
+      tasks.add(() -> {
+        if (index == 3) {
+          throw new IOException("test failure");
+        }
+        Thread.sleep(10);
+        finished.incrementAndGet();
+        return index;
+      });
+    }
+
+    try {
+      manager.invokeAll(tasks, new QueryContext(1), "test");
+      fail("the exception of a task should be thrown");
+    } catch (IOException e) {
+      assertEquals("test failure", e.getMessage());
+    }
+    // the tasks after the failure are not submitted
+    assertTrue(finished.get() < 99);
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.iotdb.db.query.reader.resourceRelated;
 
 import java.io.IOException;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.query.aggregation.DigestForAggregation;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.reader.ReaderTestHelper;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
@@ -50,6 +51,70 @@ public class SeqResourceReaderTest extends ReaderTestHelper {
     Assert.assertEquals(5049L, time);
   }
 
+  @Test
+  public void testSeqResourceIterateReaderInReverse() throws IOException {
+    QueryDataSource queryDataSource = storageGroupProcessor.query(deviceId, measurementId, context);
+    Path path = new Path(deviceId, measurementId);
+    SeqResourceIterateReader reader = new SeqResourceIterateReader(path,
+        queryDataSource.getSeqResources(), null, EnvironmentUtils.TEST_QUERY_CONTEXT, true, true);
+    long time = 5050;
+    while (reader.hasNext()) {
+      // the batches are from the newest to the oldest, each batch in chronological order
+      BatchData batchData = reader.nextBatch();
+      for (int i = batchData.length() - 1; i >= 0; i--) {
+        time--;
+        Assert.assertEquals(time, batchData.getTimeByIndex(i));
+        Assert.assertEquals((int) time, batchData.getIntByIndex(i));
+      }
+    }
+    Assert.assertEquals(1000L, time);
+  }
+
+  @Test
+  public void testNextDigest() throws IOException {
+    QueryDataSource queryDataSource = storageGroupProcessor.query(deviceId, measurementId, context);
+    Path path = new Path(deviceId, measurementId);
+    SeqResourceIterateReader reader = new SeqResourceIterateReader(path,
+        queryDataSource.getSeqResources(), null, EnvironmentUtils.TEST_QUERY_CONTEXT);
+    long count = 0;
+    long sum = 0;
+    int chunkDigestNum = 0;
+    while (true) {
+      DigestForAggregation digest = reader.nextDigest();
+      if (digest != null) {
+        if (digest.getMinTime() == 1010) {
+          // the TsFile of 10 chunks is summed up as a whole
+          Assert.assertEquals(1019, digest.getMaxTime());
+          Assert.assertEquals(10, digest.getNumOfValues());
+          Assert.assertEquals(10145, digest.getStatistics().getSum(), 0);
+          Assert.assertEquals(1010, digest.getStatistics().getFirst());
+          Assert.assertEquals(1019, digest.getStatistics().getLast());
+          // decline it and turn to its chunks
+          digest = reader.nextDigest();
+          Assert.assertEquals(1010, digest.getMinTime());
+          Assert.assertEquals(1, digest.getNumOfValues());
+          chunkDigestNum++;
+        }
+        count += digest.getNumOfValues();
+        sum += (long) digest.getStatistics().getSum();
+        reader.skipDigestData();
+        continue;
+      }
+      if (!reader.hasNext()) {
+        break;
+      }
+      BatchData batchData = reader.nextBatch();
+      while (batchData.hasNext()) {
+        count++;
+        sum += batchData.getInt();
+        batchData.next();
+      }
+    }
+    Assert.assertEquals(1, chunkDigestNum);
+    Assert.assertEquals(4050, count);
+    Assert.assertEquals((1000 + 5049) * 4050 / 2, sum);
+  }
+
   @Test
   public void testSeqResourceReaderByTimestamp() throws IOException {
     QueryDataSource queryDataSource = storageGroupProcessor.query(deviceId, measurementId, context);
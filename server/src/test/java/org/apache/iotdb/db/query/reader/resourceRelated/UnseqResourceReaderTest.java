@@ -20,6 +20,9 @@
 package org.apache.iotdb.db.query.reader.resourceRelated;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -109,6 +112,32 @@ public class UnseqResourceReaderTest extends ReaderTestHelper {
     Assert.assertEquals(25, cnt);
   }
 
+  @Test
+  public void testUnseqResourceMergeReaderInReverse() throws IOException {
+    Path path = new Path(deviceId, measurementId);
+    QueryDataSource queryDataSource = storageGroupProcessor
+        .query(deviceId, measurementId, context);
+    IPointReader reader = new UnseqResourceMergeReader(path,
+        queryDataSource.getUnseqResources(), EnvironmentUtils.TEST_QUERY_CONTEXT, null);
+    List<TimeValuePair> expected = new ArrayList<>();
+    while (reader.hasNext()) {
+      expected.add(reader.next());
+    }
+    Collections.reverse(expected);
+
+    reader = new UnseqResourceMergeReader(path, queryDataSource.getUnseqResources(),
+        EnvironmentUtils.TEST_QUERY_CONTEXT, TimeFilter.gt(0), true);
+    int cnt = 0;
+    while (reader.hasNext()) {
+      Assert.assertEquals(expected.get(cnt).getTimestamp(), reader.current().getTimestamp());
+      TimeValuePair timeValuePair = reader.next();
+      Assert.assertEquals(expected.get(cnt).getTimestamp(), timeValuePair.getTimestamp());
+      Assert.assertEquals(expected.get(cnt).getValue(), timeValuePair.getValue());
+      cnt++;
+    }
+    Assert.assertEquals(expected.size(), cnt);
+  }
+
   @Test
   public void testUnseqResourceReaderByTimestamp() throws IOException, StorageEngineException {
     Path path = new Path(deviceId, measurementId);
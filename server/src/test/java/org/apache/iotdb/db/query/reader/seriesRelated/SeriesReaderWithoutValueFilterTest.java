@@ -23,6 +23,7 @@ import java.io.IOException;
 import org.apache.iotdb.db.query.reader.IBatchReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -64,6 +65,52 @@ public class SeriesReaderWithoutValueFilterTest {
     Assert.assertEquals(1430, cnt);
   }
 
+  @Test
+  public void testNextBatch() throws IOException {
+    // the unsequence points overlap the beginning of the sequence points
+    SeriesReaderWithoutValueFilter batchReader = new SeriesReaderWithoutValueFilter(
+        new FakedIBatchPoint(100, 1000, 7, 11), new FakedIPointReader(20, 500, 11, 19));
+    SeriesReaderWithoutValueFilter pointReader = new SeriesReaderWithoutValueFilter(
+        new FakedIBatchPoint(100, 1000, 7, 11), new FakedIPointReader(20, 500, 11, 19));
+
+    int cnt = 0;
+    // mix next() and nextBatch()
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(pointReader.next(), batchReader.next());
+      cnt++;
+    }
+    while (batchReader.hasNext()) {
+      BatchData batchData = batchReader.nextBatch();
+      Assert.assertTrue(batchData.hasNext());
+      while (batchData.hasNext()) {
+        TimeValuePair expected = pointReader.next();
+        Assert.assertEquals(expected.getTimestamp(), batchData.currentTime());
+        Assert.assertEquals(expected.getValue().getLong(), batchData.getLong());
+        batchData.next();
+        cnt++;
+      }
+    }
+    Assert.assertFalse(pointReader.hasNext());
+    Assert.assertEquals(1430, cnt);
+  }
+
+  @Test
+  public void testCurrent() throws IOException {
+    init();
+    int cnt = 0;
+    while (reader1.hasNext()) {
+      TimeValuePair current = reader1.current();
+      Assert.assertEquals(current, reader1.current());
+      Assert.assertEquals(current, reader1.next());
+      cnt++;
+    }
+    Assert.assertEquals(1430, cnt);
+    while (reader2.hasNext()) {
+      TimeValuePair current = reader2.current();
+      Assert.assertEquals(current, reader2.next());
+    }
+  }
+
   private void testWithNullPointReader() throws IOException {
     int cnt = 0;
     while (reader2.hasNext()) {
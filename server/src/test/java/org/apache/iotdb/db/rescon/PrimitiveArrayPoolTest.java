@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrimitiveArrayPoolTest {
+
+  private PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+
+  @Before
+  @After
+  public void clear() {
+    pool.stop();
+  }
+
+  @Test
+  public void testReuseInSameThread() {
+    long[] array = (long[]) pool.getPrimitiveDataListByType(TSDataType.INT64);
+    assertEquals(IoTDBDescriptor.getInstance().getConfig().getPrimitiveArraySize(),
+        array.length);
+    pool.release(array);
+    long hitCount = pool.getThreadCacheHitCount();
+    assertSame(array, pool.getPrimitiveDataListByType(TSDataType.INT64));
+    assertEquals(hitCount + 1, pool.getThreadCacheHitCount());
+  }
+
+  @Test
+  public void testArraySizes() {
+    long[] small = (long[]) pool.getPrimitiveDataListByType(TSDataType.INT64, 16);
+    long[] large = (long[]) pool.getPrimitiveDataListByType(TSDataType.INT64, 4096);
+    assertEquals(16, small.length);
+    assertEquals(4096, large.length);
+    pool.release(small);
+    pool.release(large);
+    // arrays of different sizes are pooled separately
+    assertSame(large, pool.getPrimitiveDataListByType(TSDataType.INT64, 4096));
+    assertSame(small, pool.getPrimitiveDataListByType(TSDataType.INT64, 16));
+
+    long[][] arrays = (long[][]) pool.getDataListsByType(TSDataType.INT64, 1000, 256);
+    assertEquals(4, arrays.length);
+    assertEquals(256, arrays[3].length);
+  }
+
+  @Test
+  public void testReleasedTextArrayIsCleared() {
+    Binary[] array = (Binary[]) pool.getPrimitiveDataListByType(TSDataType.TEXT);
+    array[0] = new Binary("test");
+    pool.release(array);
+    Binary[] reused = (Binary[]) pool.getPrimitiveDataListByType(TSDataType.TEXT);
+    assertSame(array, reused);
+    assertNull(reused[0]);
+  }
+
+  @Test
+  public void testShareBetweenThreads() throws InterruptedException {
+    int arrayNumber = 1000;
+    Set<Object> released = Collections.newSetFromMap(new IdentityHashMap<>());
+    Thread releaser = new Thread(() -> {
+      List<Object> arrays = new ArrayList<>();
+      for (int i = 0; i < arrayNumber; i++) {
+        arrays.add(pool.getPrimitiveDataListByType(TSDataType.DOUBLE));
+      }
+      for (Object array : arrays) {
+        pool.release(array);
+      }
+      released.addAll(arrays);
+    });
+    releaser.start();
+    releaser.join();
+
+    // all but the arrays left in the cache of the releasing thread go to the shared pool
+    assertTrue(pool.getNumberOfPooledArrays() >= arrayNumber - 64);
+    long sharedHitCount = pool.getSharedPoolHitCount();
+    List<Object> reused = new ArrayList<>();
+    Thread getter = new Thread(() -> reused.add(pool.getPrimitiveDataListByType(TSDataType.DOUBLE)));
+    getter.start();
+    getter.join();
+    assertTrue(released.contains(reused.get(0)));
+    assertEquals(sharedHitCount + 1, pool.getSharedPoolHitCount());
+  }
+
+  @Test
+  public void testConcurrentGetAndRelease() throws InterruptedException {
+    Set<Object> inUse = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        try {
+          for (int round = 0; round < 100; round++) {
+            int[][] arrays = (int[][]) pool.getDataListsByType(TSDataType.INT32, 100 * 128);
+            for (int[] array : arrays) {
+              // an array must never be handed out twice
+              assertTrue(inUse.add(array));
+            }
+            for (int[] array : arrays) {
+              inUse.remove(array);
+              pool.release(array);
+            }
+          }
+        } catch (Throwable e) {
+          errors.add(e);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(errors.isEmpty());
+    assertTrue(pool.getPooledMemoryInBytes() <= pool.getMaxPooledMemoryInBytes());
+    assertTrue(pool.getHitRatio() > 0);
+  }
+}
@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TVListAllocatorTest {
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private TVListAllocator allocator = TVListAllocator.getInstance();
+  private boolean enableAdaptiveArraySize;
+  private int adaptiveArraySizeSeriesNum;
+
+  @Before
+  public void setUp() {
+    enableAdaptiveArraySize = config.isEnableAdaptiveArraySize();
+    adaptiveArraySizeSeriesNum = config.getAdaptiveArraySizeSeriesNum();
+    config.setEnableAdaptiveArraySize(true);
+  }
+
+  @After
+  public void tearDown() {
+    config.setEnableAdaptiveArraySize(enableAdaptiveArraySize);
+    config.setAdaptiveArraySizeSeriesNum(adaptiveArraySizeSeriesNum);
+    allocator.stop();
+  }
+
+  @Test
+  public void testAdaptiveArraySize() {
+    int defaultSize = config.getPrimitiveArraySize();
+    TVList list = allocator.allocate("root.sg.d1", "s1", TSDataType.INT64);
+    assertEquals(defaultSize, list.getArraySize());
+    for (int i = 0; i < defaultSize * 64; i++) {
+      list.putLong(i, i);
+    }
+    allocator.release("root.sg.d1", "s1", list);
+
+    // 64 arrays of the default size are replaced by 8 larger ones
+    list = allocator.allocate("root.sg.d1", "s1", TSDataType.INT64);
+    assertEquals(defaultSize * 8, list.getArraySize());
+    allocator.release("root.sg.d1", "s1", list);
+    // the released series is empty now
+    assertEquals(defaultSize,
+        allocator.allocate("root.sg.d1", "s1", TSDataType.INT64).getArraySize());
+    // other series are not affected
+    assertEquals(defaultSize,
+        allocator.allocate("root.sg.d1", "s2", TSDataType.INT64).getArraySize());
+  }
+
+  @Test
+  public void testAdaptiveArraySizeBounds() {
+    assertEquals(config.getPrimitiveArraySize(), allocator.getAdaptiveArraySize(0));
+    assertEquals(config.getMaxPrimitiveArraySize(),
+        allocator.getAdaptiveArraySize(Integer.MAX_VALUE));
+    assertEquals(config.getPrimitiveArraySize() * 16,
+        allocator.getAdaptiveArraySize(config.getPrimitiveArraySize() * 128 + 1));
+  }
+
+  @Test
+  public void testArraySizeHintsBounded() {
+    config.setAdaptiveArraySizeSeriesNum(2);
+    int defaultSize = config.getPrimitiveArraySize();
+    for (int i = 0; i < 3; i++) {
+      releaseFullList("root.sg.d1", "s" + i, defaultSize * 64);
+    }
+    assertEquals(2, allocator.getArraySizeHintNum());
+    // the least recently flushed series is forgotten
+    assertEquals(defaultSize,
+        allocator.allocate("root.sg.d1", "s0", TSDataType.INT64).getArraySize());
+    assertEquals(defaultSize * 8,
+        allocator.allocate("root.sg.d1", "s2", TSDataType.INT64).getArraySize());
+
+    // series flushed with the default size are not remembered
+    releaseFullList("root.sg.d1", "s2", 0);
+    assertEquals(1, allocator.getArraySizeHintNum());
+  }
+
+  @Test
+  public void testRemoveArraySizeHints() {
+    int defaultSize = config.getPrimitiveArraySize();
+    releaseFullList("root.sg1.d1", "s1", defaultSize * 64);
+    releaseFullList("root.sg1.d1", "s2", defaultSize * 64);
+    releaseFullList("root.sg1.d11", "s1", defaultSize * 64);
+    releaseFullList("root.sg2.d1", "s1", defaultSize * 64);
+
+    allocator.removeArraySizeHints("root.sg1.d1.s1");
+    assertEquals(3, allocator.getArraySizeHintNum());
+    assertEquals(defaultSize,
+        allocator.allocate("root.sg1.d1", "s1", TSDataType.INT64).getArraySize());
+
+    // a storage group or device only removes its own series
+    allocator.removeArraySizeHints("root.sg1.d1");
+    assertEquals(2, allocator.getArraySizeHintNum());
+    allocator.removeArraySizeHints("root.sg1");
+    assertEquals(1, allocator.getArraySizeHintNum());
+    assertEquals(defaultSize * 8,
+        allocator.allocate("root.sg2.d1", "s1", TSDataType.INT64).getArraySize());
+  }
+
+  private void releaseFullList(String deviceId, String measurement, int pointNum) {
+    TVList list = allocator.allocate(deviceId, measurement, TSDataType.INT64);
+    for (int i = 0; i < pointNum; i++) {
+      list.putLong(i, i);
+    }
+    allocator.release(deviceId, measurement, list);
+  }
+}
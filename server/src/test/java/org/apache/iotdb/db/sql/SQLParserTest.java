@@ -581,6 +581,27 @@ public class SQLParserTest {
     }
   }
 
+  @Test
+  public void lastNodeName() throws ParseException, RecognitionException {
+    ArrayList<String> ans = new ArrayList<>(
+        Arrays.asList("TOK_QUERY", "TOK_SELECT", "TOK_PATH", "last", "TOK_PATH", "TOK_CLUSTER",
+            "TOK_PATH", "last", "last", "TOK_FROM", "TOK_PATH", "TOK_ROOT", "sg", "last"));
+    ArrayList<String> rec = new ArrayList<>();
+    AstNode astTree = ParseGenerator.generateAST("select last,last(last) FROM root.sg.last");
+    astTree = ParseUtils.findRootNonNullToken(astTree);
+    recursivePrintSon(astTree, rec);
+    assertEquals(ans, rec);
+
+    ans = new ArrayList<>(
+        Arrays.asList("TOK_QUERY", "TOK_SELECT_LAST", "TOK_PATH", "last", "TOK_FROM", "TOK_PATH",
+            "TOK_ROOT", "sg", "last"));
+    rec = new ArrayList<>();
+    astTree = ParseGenerator.generateAST("select last last FROM root.sg.last");
+    astTree = ParseUtils.findRootNonNullToken(astTree);
+    recursivePrintSon(astTree, rec);
+    assertEquals(ans, rec);
+  }
+
   @Test
   public void aggregation3() throws ParseException, RecognitionException {
     // template for test case
@@ -854,7 +875,8 @@ public class SQLParserTest {
             "vehicle",
             "TOK_WHERE", "and", "not", "<", "TOK_PATH", "TOK_ROOT", "laptop", "device_1",
             "sensor_1", "2000", ">",
-            "TOK_PATH", "TOK_ROOT", "laptop", "device_2", "sensor_2", "1000", "TOK_LIMIT", "10"));
+            "TOK_PATH", "TOK_ROOT", "laptop", "device_2", "sensor_2", "1000", "TOK_LIMIT", "10",
+            "2"));
     ArrayList<String> rec = new ArrayList<>();
     AstNode astTree = ParseGenerator.generateAST(
         "SELECT device_1.sensor_1,device_2.sensor_2 FROM root.vehicle WHERE not(root.laptop.device_1.sensor_1 < 2000) "
@@ -870,6 +892,25 @@ public class SQLParserTest {
     }
   }
 
+  @Test
+  public void orderByTimeDesc() throws ParseException {
+    ArrayList<String> ans = new ArrayList<>(
+        Arrays.asList("TOK_QUERY", "TOK_SELECT", "TOK_PATH", "device_1", "sensor_1", "TOK_FROM",
+            "TOK_PATH", "TOK_ROOT", "vehicle", "TOK_WHERE", ">", "TOK_PATH", "time", "1000",
+            "TOK_ORDERBY", "DESC", "TOK_LIMIT", "10"));
+    ArrayList<String> rec = new ArrayList<>();
+    AstNode astTree = ParseGenerator.generateAST(
+        "SELECT device_1.sensor_1 FROM root.vehicle WHERE time > 1000 ORDER BY time DESC LIMIT 10");
+    astTree = ParseUtils.findRootNonNullToken(astTree);
+    recursivePrintSon(astTree, rec);
+
+    int i = 0;
+    while (i <= rec.size() - 1) {
+      assertEquals(rec.get(i), ans.get(i));
+      i++;
+    }
+  }
+
   /*
    * Test 3: when 'specialClause' = slimitClause without soffset.
    *
@@ -30,6 +30,7 @@ import org.apache.iotdb.db.conf.adapter.CompressionRatio;
 import org.apache.iotdb.db.conf.adapter.IoTDBConfigDynamicAdapter;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.cache.ChunkCache;
 import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
 import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
 import org.apache.iotdb.db.exception.StorageEngineException;
@@ -90,6 +91,7 @@ public class EnvironmentUtils {
     // clean cache
     TsFileMetaDataCache.getInstance().clear();
     DeviceMetaDataCache.getInstance().clear();
+    ChunkCache.getInstance().clear();
     // close metadata
     MManager.getInstance().clear();
     // delete all directory
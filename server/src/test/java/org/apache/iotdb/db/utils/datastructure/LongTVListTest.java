@@ -21,8 +21,10 @@ package org.apache.iotdb.db.utils.datastructure;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import org.apache.iotdb.db.rescon.PrimitiveArrayPool;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TsPrimitiveType.TsLong;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -74,6 +76,161 @@ public class LongTVListTest {
     }
   }
 
+  @Test
+  public void testPutLongsWithSortedInput() {
+    LongTVList tvList = new LongTVList();
+    long[] time = new long[1000];
+    long[] value = new long[1000];
+    for (int i = 0; i < 1000; i++) {
+      time[i] = i;
+      value[i] = i * 2;
+    }
+    // the batches do not start or end at the boundaries of the primitive arrays
+    tvList.putLong(-1, -2);
+    tvList.putLongs(time, value, 0, 100);
+    tvList.putLongs(time, value, 100, 100);
+    tvList.putLongs(time, value, 100, 1000);
+    Assert.assertEquals(1001, tvList.size());
+    Assert.assertTrue(tvList.sorted);
+    for (int i = 0; i < tvList.size(); i++) {
+      Assert.assertEquals(i - 1, tvList.getTime(i));
+      Assert.assertEquals((i - 1) * 2, tvList.getLong(i));
+    }
+  }
+
+  @Test
+  public void testPutLongsWithUnsortedInput() {
+    Random random = new Random();
+    LongTVList tvList = new LongTVList();
+    List<TimeValuePair> inputs = new ArrayList<>();
+    long[] time = new long[10000];
+    long[] value = new long[10000];
+    for (int i = 0; i < 10000; i++) {
+      time[i] = random.nextInt(10000);
+      value[i] = random.nextInt(10000);
+      inputs.add(new TimeValuePair(time[i], new TsLong(value[i])));
+    }
+    tvList.putLongs(time, value, 0, 5000);
+    tvList.putLongs(time, value, 5000, 10000);
+    Assert.assertFalse(tvList.sorted);
+    tvList.sort();
+    inputs.sort(TimeValuePair::compareTo);
+    for (int i = 0; i < tvList.size; i++) {
+      Assert.assertEquals(inputs.get(i).getTimestamp(), tvList.getTime(i));
+      Assert.assertEquals(inputs.get(i).getValue().getLong(), tvList.getLong(i));
+    }
+  }
+
+  @Test
+  public void testCustomArraySize() {
+    Random random = new Random();
+    LongTVList tvList = new LongTVList();
+    tvList.setArraySize(1024);
+    List<TimeValuePair> inputs = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      long time = random.nextInt(10000);
+      tvList.putLong(time, time * 2);
+      inputs.add(new TimeValuePair(time, new TsLong(time * 2)));
+    }
+    Assert.assertEquals(5, tvList.timestamps.size());
+    tvList.sort();
+    inputs.sort(TimeValuePair::compareTo);
+    for (int i = 0; i < tvList.size; i++) {
+      Assert.assertEquals(inputs.get(i).getTimestamp(), tvList.getTime(i));
+      Assert.assertEquals(inputs.get(i).getValue().getLong(), tvList.getLong(i));
+    }
+
+    LongTVList cloneList = tvList.clone();
+    Assert.assertEquals(1024, cloneList.getArraySize());
+    Assert.assertEquals(tvList.getTime(4999), cloneList.getTime(4999));
+
+    tvList.delete(inputs.get(3000).getTimestamp());
+    Assert.assertTrue(tvList.timestamps.size() <= 2);
+    tvList.clear();
+    tvList.setArraySize(16);
+    tvList.putLong(1, 1);
+    Assert.assertEquals(16, tvList.timestamps.get(0).length);
+  }
+
+  @Test
+  public void testSnapshot() {
+    LongTVList tvList = new LongTVList();
+    tvList.setArraySize(16);
+    for (long i = 99; i >= 0; i--) {
+      tvList.putLong(i, i);
+    }
+    tvList.sort();
+    TVList snapshot = tvList.snapshot();
+    Assert.assertEquals(100, snapshot.size());
+    // the snapshot shares the arrays of the sorted list
+    Assert.assertSame(tvList.timestamps.get(0), snapshot.timestamps.get(0));
+
+    // appended points are invisible to the snapshot
+    for (long i = 100; i < 120; i++) {
+      tvList.putLong(i, i);
+    }
+    Assert.assertEquals(100, snapshot.size());
+
+    // an unsorted snapshot copies the shared arrays only when it is sorted
+    tvList.putLong(-1, -1);
+    TVList snapshot2 = tvList.snapshot();
+    Assert.assertSame(tvList.timestamps.get(0), snapshot2.timestamps.get(0));
+    snapshot2.sort();
+    Assert.assertNotSame(tvList.timestamps.get(0), snapshot2.timestamps.get(0));
+    Assert.assertEquals(121, snapshot2.size());
+    // the list itself is left unsorted
+    Assert.assertEquals(-1, tvList.getTime(120));
+
+    // sorting or deleting the list copies the shared arrays first
+    tvList.sort();
+    Assert.assertNotSame(tvList.timestamps.get(0), snapshot.timestamps.get(0));
+    tvList.delete(50);
+    tvList.clear();
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(i, snapshot.getTime(i));
+      Assert.assertEquals(i, snapshot.getLong(i));
+    }
+    for (int i = 0; i < 121; i++) {
+      Assert.assertEquals(i - 1, snapshot2.getTime(i));
+      Assert.assertEquals(i - 1, snapshot2.getLong(i));
+    }
+  }
+
+  @Test
+  public void testReleaseUnsharedArrays() {
+    LongTVList tvList = new LongTVList();
+    tvList.setArraySize(16);
+    for (long i = 0; i < 10; i++) {
+      tvList.putLong(i, i);
+    }
+    TVList snapshot = tvList.snapshot();
+    // the second arrays are added after the snapshot and are private to the list
+    for (long i = 10; i < 20; i++) {
+      tvList.putLong(i, i);
+    }
+    long[] sharedTimes = tvList.timestamps.get(0);
+    long[] privateTimes = tvList.timestamps.get(1);
+    tvList.clear();
+
+    // only the private time and value arrays are returned to the pool
+    boolean privateTimesReused = false;
+    for (int i = 0; i < 2; i++) {
+      Object array = PrimitiveArrayPool.getInstance()
+          .getPrimitiveDataListByType(TSDataType.INT64, 16);
+      Assert.assertNotSame(sharedTimes, array);
+      privateTimesReused |= array == privateTimes;
+    }
+    Assert.assertTrue(privateTimesReused);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(i, snapshot.getTime(i));
+      Assert.assertEquals(i, snapshot.getLong(i));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testArraySizeNotPowerOfTwo() {
+    new LongTVList().setArraySize(100);
+  }
 
   @Test
   public void compareLongTVListSortTime() {
@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * TVList append benchmark. Compares appending a batch point by point with the bulk put methods
+ * for each data type.
+ */
+public class TVListBenchmark {
+
+  private static int numOfPoint = 10000;
+  private static int numOfBatch = 1000;
+  private static int numOfRound = 5;
+
+  private static long[] times = new long[numOfPoint];
+  private static boolean[] booleans = new boolean[numOfPoint];
+  private static int[] ints = new int[numOfPoint];
+  private static long[] longs = new long[numOfPoint];
+  private static float[] floats = new float[numOfPoint];
+  private static double[] doubles = new double[numOfPoint];
+  private static Binary[] binaries = new Binary[numOfPoint];
+
+  static {
+    for (int i = 0; i < numOfPoint; i++) {
+      times[i] = i;
+      booleans[i] = i % 2 == 0;
+      ints[i] = i;
+      longs[i] = i;
+      floats[i] = i;
+      doubles[i] = i;
+      binaries[i] = Binary.valueOf(String.valueOf(i));
+    }
+  }
+
+  private static void putOneByOne(TVList list, TSDataType dataType) {
+    for (int i = 0; i < numOfPoint; i++) {
+      switch (dataType) {
+        case BOOLEAN:
+          list.putBoolean(times[i], booleans[i]);
+          break;
+        case INT32:
+          list.putInt(times[i], ints[i]);
+          break;
+        case INT64:
+          list.putLong(times[i], longs[i]);
+          break;
+        case FLOAT:
+          list.putFloat(times[i], floats[i]);
+          break;
+        case DOUBLE:
+          list.putDouble(times[i], doubles[i]);
+          break;
+        default:
+          list.putBinary(times[i], binaries[i]);
+      }
+    }
+  }
+
+  private static void putInBulk(TVList list, TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        list.putBooleans(times, booleans, 0, numOfPoint);
+        break;
+      case INT32:
+        list.putInts(times, ints, 0, numOfPoint);
+        break;
+      case INT64:
+        list.putLongs(times, longs, 0, numOfPoint);
+        break;
+      case FLOAT:
+        list.putFloats(times, floats, 0, numOfPoint);
+        break;
+      case DOUBLE:
+        list.putDoubles(times, doubles, 0, numOfPoint);
+        break;
+      default:
+        list.putBinaries(times, binaries, 0, numOfPoint);
+    }
+  }
+
+  private static long bench(TSDataType dataType, boolean bulk) {
+    long startTime = System.nanoTime();
+    for (int i = 0; i < numOfBatch; i++) {
+      TVList list = TVList.newList(dataType);
+      if (bulk) {
+        putInBulk(list, dataType);
+      } else {
+        putOneByOne(list, dataType);
+      }
+      // return the arrays to the pool as a memtable does after flushing
+      list.clear();
+    }
+    return System.nanoTime() - startTime;
+  }
+
+  public static void main(String[] args) {
+    for (TSDataType dataType : new TSDataType[]{TSDataType.BOOLEAN, TSDataType.INT32,
+        TSDataType.INT64, TSDataType.FLOAT, TSDataType.DOUBLE, TSDataType.TEXT}) {
+      // the first rounds warm up the JIT and the array pool
+      long pointTime = 0;
+      long bulkTime = 0;
+      for (int round = 0; round < numOfRound; round++) {
+        pointTime = bench(dataType, false);
+        bulkTime = bench(dataType, true);
+      }
+      System.out.println(String.format(
+          "%s, %d batches of %d points, per-point append: %d ms, bulk append: %d ms",
+          dataType, numOfBatch, numOfPoint, pointTime / 1000_000, bulkTime / 1000_000));
+    }
+  }
+}
@@ -0,0 +1,241 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.writelog.io.ILogReader;
+import org.apache.iotdb.db.writelog.node.GroupCommitMonitor;
+import org.apache.iotdb.db.writelog.node.GroupCommitWriteLogNode;
+import org.apache.iotdb.db.writelog.node.WriteLogNode;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GroupCommitWriteLogNodeTest {
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private boolean enableWal;
+
+  @Before
+  public void setUp() throws Exception {
+    enableWal = config.isEnableWal();
+    config.setEnableWal(true);
+    EnvironmentUtils.envSetUp();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+    config.setEnableWal(enableWal);
+  }
+
+  @Test
+  public void testWriteLogAndSync() throws IOException {
+    // logs are written before write() returns, no explicit sync is needed
+    String identifier = "root.logTestDevice";
+
+    WriteLogNode logNode = new GroupCommitWriteLogNode(identifier);
+
+    InsertPlan bwInsertPlan = new InsertPlan(identifier, 100,
+        new String[]{"s1", "s2", "s3", "s4"},
+        new String[]{"1.0", "15", "str", "false"});
+    DeletePlan deletePlan = new DeletePlan(50, new Path(identifier + ".s1"));
+
+    logNode.write(bwInsertPlan);
+    logNode.write(deletePlan);
+
+    File walFile = new File(
+        config.getWalFolder() + File.separator + identifier + File.separator + "wal1");
+    assertTrue(walFile.exists());
+
+    ILogReader reader = logNode.getLogReader();
+    assertEquals(bwInsertPlan, reader.next());
+    assertEquals(deletePlan, reader.next());
+    assertFalse(reader.hasNext());
+    reader.close();
+
+    logNode.delete();
+  }
+
+  @Test
+  public void testConcurrentWrite() throws Exception {
+    // many writers write into one node, every log must be read back exactly once
+    String identifier = "root.logTestDevice";
+    int writerNum = 16;
+    int logPerWriter = 500;
+
+    WriteLogNode logNode = new GroupCommitWriteLogNode(identifier);
+    long batchNum = GroupCommitMonitor.getInstance().getBatchNum();
+    long logNum = GroupCommitMonitor.getInstance().getLogNum();
+
+    ExecutorService pool = Executors.newFixedThreadPool(writerNum);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < writerNum; i++) {
+      int writerId = i;
+      futures.add(pool.submit(() -> {
+        for (int j = 0; j < logPerWriter; j++) {
+          logNode.write(new DeletePlan(writerId * logPerWriter + j,
+              new Path(identifier + ".s" + writerId)));
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+    logNode.close();
+
+    Set<Long> timestamps = new HashSet<>();
+    ILogReader reader = logNode.getLogReader();
+    while (reader.hasNext()) {
+      PhysicalPlan plan = reader.next();
+      assertTrue(timestamps.add(((DeletePlan) plan).getDeleteTime()));
+    }
+    reader.close();
+    assertEquals(writerNum * logPerWriter, timestamps.size());
+
+    assertEquals(writerNum * logPerWriter,
+        GroupCommitMonitor.getInstance().getLogNum() - logNum);
+    assertTrue(GroupCommitMonitor.getInstance().getBatchNum() - batchNum
+        <= writerNum * logPerWriter);
+
+    logNode.delete();
+  }
+
+  @Test
+  public void testSharedAppenders() throws Exception {
+    // the logs of many nodes are appended by a bounded number of shared threads
+    int nodeNum = config.getConcurrentWalAppenderThread() * 4;
+    List<WriteLogNode> logNodes = new ArrayList<>();
+    for (int i = 0; i < nodeNum; i++) {
+      logNodes.add(new GroupCommitWriteLogNode("root.logTestDevice" + i));
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(nodeNum);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < nodeNum; i++) {
+      WriteLogNode logNode = logNodes.get(i);
+      String identifier = "root.logTestDevice" + i;
+      futures.add(pool.submit(() -> {
+        for (int j = 0; j < 100; j++) {
+          logNode.write(new DeletePlan(j, new Path(identifier + ".s1")));
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+
+    int appenderNum = 0;
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().contains(ThreadName.WAL_APPENDER.getName())) {
+        appenderNum++;
+      }
+    }
+    assertTrue(appenderNum <= config.getConcurrentWalAppenderThread());
+
+    for (WriteLogNode logNode : logNodes) {
+      ILogReader reader = logNode.getLogReader();
+      int logNum = 0;
+      while (reader.hasNext()) {
+        reader.next();
+        logNum++;
+      }
+      reader.close();
+      assertEquals(100, logNum);
+      logNode.delete();
+    }
+  }
+
+  @Test
+  public void testNotifyFlush() throws IOException {
+    String identifier = "root.logTestDevice";
+
+    WriteLogNode logNode = new GroupCommitWriteLogNode(identifier);
+
+    InsertPlan bwInsertPlan = new InsertPlan(identifier, 100,
+        new String[]{"s1", "s2", "s3", "s4"},
+        new String[]{"1.0", "15", "str", "false"});
+    DeletePlan deletePlan = new DeletePlan(50, new Path(identifier + ".s1"));
+
+    logNode.write(bwInsertPlan);
+    logNode.notifyStartFlush();
+    logNode.write(deletePlan);
+    logNode.notifyStartFlush();
+
+    ILogReader logReader = logNode.getLogReader();
+    assertEquals(bwInsertPlan, logReader.next());
+    assertEquals(deletePlan, logReader.next());
+    logReader.close();
+
+    logNode.notifyEndFlush();
+    logReader = logNode.getLogReader();
+    assertEquals(deletePlan, logReader.next());
+    logReader.close();
+
+    logNode.notifyEndFlush();
+    logReader = logNode.getLogReader();
+    assertFalse(logReader.hasNext());
+    logReader.close();
+
+    logNode.delete();
+  }
+
+  @Test
+  public void testOverSizedWAL() throws IOException {
+    WriteLogNode logNode = new GroupCommitWriteLogNode("root.logTestDevice.oversize");
+
+    InsertPlan bwInsertPlan = new InsertPlan("root.logTestDevice.oversize", 100,
+        new String[]{"s1", "s2", "s3", "s4"},
+        new String[]{"1.0", "15", new String(new char[65 * 1024 * 1024]), "false"});
+
+    boolean caught = false;
+    try {
+      logNode.write(bwInsertPlan);
+    } catch (IOException e) {
+      caught = true;
+    }
+    assertTrue(caught);
+
+    logNode.delete();
+  }
+}
@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.writelog.io.ILogReader;
+import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
+import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
+import org.apache.iotdb.db.writelog.node.GroupCommitWriteLogNode;
+import org.apache.iotdb.db.writelog.node.WriteLogNode;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemoryMappedWriteLogNodeTest {
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private MultiFileLogNodeManager manager = MultiFileLogNodeManager.getInstance();
+
+  private boolean enableWal;
+  private boolean enableMemoryMappedWal;
+  private int walBufferSize;
+  private long walSegmentSize;
+
+  @Before
+  public void setUp() throws Exception {
+    enableWal = config.isEnableWal();
+    enableMemoryMappedWal = config.isEnableMemoryMappedWal();
+    walBufferSize = config.getWalBufferSize();
+    walSegmentSize = config.getWalSegmentSize();
+    config.setEnableWal(true);
+    config.setEnableMemoryMappedWal(true);
+    // a segment holds only a few batches
+    config.setWalBufferSize(1024);
+    config.setWalSegmentSize(4 * 1024);
+    EnvironmentUtils.envSetUp();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+    config.setEnableWal(enableWal);
+    config.setEnableMemoryMappedWal(enableMemoryMappedWal);
+    config.setWalBufferSize(walBufferSize);
+    config.setWalSegmentSize(walSegmentSize);
+  }
+
+  private File logFile(String identifier, int fileId) {
+    return new File(config.getWalFolder() + File.separator + identifier + File.separator
+        + ExclusiveWriteLogNode.WAL_FILE_NAME + fileId);
+  }
+
+  private void writeLogs(WriteLogNode logNode, String identifier, int start, int num,
+      List<PhysicalPlan> plans) throws IOException {
+    for (int i = start; i < start + num; i++) {
+      DeletePlan plan = new DeletePlan(i, new Path(identifier + ".s1"));
+      logNode.write(plan);
+      plans.add(plan);
+      // one batch per log
+      logNode.forceSync();
+    }
+  }
+
+  private void checkLogs(WriteLogNode logNode, List<PhysicalPlan> plans) throws IOException {
+    ILogReader reader = logNode.getLogReader();
+    for (PhysicalPlan plan : plans) {
+      assertTrue(reader.hasNext());
+      assertEquals(plan, reader.next());
+    }
+    assertFalse(reader.hasNext());
+    reader.close();
+  }
+
+  @Test
+  public void testSegmentRollAndRecycle() throws IOException {
+    testSegmentRollAndRecycle(new ExclusiveWriteLogNode("root.logTestDevice"));
+  }
+
+  @Test
+  public void testGroupCommitSegmentRollAndRecycle() throws IOException {
+    testSegmentRollAndRecycle(new GroupCommitWriteLogNode("root.logTestDevice"));
+  }
+
+  private void testSegmentRollAndRecycle(WriteLogNode logNode) throws IOException {
+    String identifier = "root.logTestDevice";
+    List<PhysicalPlan> flushedPlans = new ArrayList<>();
+    List<PhysicalPlan> plans = new ArrayList<>();
+
+    // the logs of the flushing memtable span several segments
+    writeLogs(logNode, identifier, 0, 200, flushedPlans);
+    assertTrue(logFile(identifier, 2).exists());
+    assertEquals(4 * 1024, logFile(identifier, 1).length());
+    logNode.notifyStartFlush();
+    writeLogs(logNode, identifier, 200, 10, plans);
+    int segmentNum = new File(config.getWalFolder(), identifier).list().length;
+
+    List<PhysicalPlan> allPlans = new ArrayList<>(flushedPlans);
+    allPlans.addAll(plans);
+    checkLogs(logNode, allPlans);
+
+    int pooledSegmentNum = manager.getPooledSegmentNum();
+    logNode.notifyEndFlush();
+    assertFalse(logFile(identifier, 1).exists());
+    assertEquals(1, new File(config.getWalFolder(), identifier).list().length);
+    assertEquals(Math.min(config.getWalSegmentPoolSize(), pooledSegmentNum + segmentNum - 1),
+        manager.getPooledSegmentNum());
+    checkLogs(logNode, plans);
+
+    // the next memtable reuses the recycled segments without replaying their stale logs
+    logNode.notifyStartFlush();
+    writeLogs(logNode, identifier, 210, 3, plans);
+    checkLogs(logNode, plans);
+    logNode.notifyEndFlush();
+    checkLogs(logNode, plans.subList(10, 13));
+
+    logNode.delete();
+  }
+
+  @Test
+  public void testStopWithoutForceThread() throws Exception {
+    String identifier = "root.logTestDevice";
+    long forceWalPeriodInMs = config.getForceWalPeriodInMs();
+    manager.stop();
+    config.setForceWalPeriodInMs(0);
+    try {
+      manager.start();
+      WriteLogNode logNode = manager.getNode(identifier);
+      List<PhysicalPlan> plans = new ArrayList<>();
+      writeLogs(logNode, identifier, 0, 3, plans);
+      // a log left in the buffer
+      DeletePlan plan = new DeletePlan(3, new Path(identifier + ".s1"));
+      logNode.write(plan);
+      plans.add(plan);
+
+      // the nodes are closed even if there is no force thread to stop
+      manager.stop();
+      WriteLogNode newNode = manager.getNode(identifier);
+      assertTrue(newNode != logNode);
+      checkLogs(newNode, plans);
+      newNode.delete();
+    } finally {
+      config.setForceWalPeriodInMs(forceWalPeriodInMs);
+      manager.start();
+    }
+  }
+
+  @Test
+  public void testLogBufferPool() {
+    ByteBuffer buffer = manager.allocateLogBuffer();
+    assertTrue(buffer.isDirect());
+    assertEquals(config.getWalBufferSize(), buffer.capacity());
+    buffer.putLong(1L);
+    manager.releaseLogBuffer(buffer);
+
+    ByteBuffer reused = manager.allocateLogBuffer();
+    assertTrue(reused == buffer);
+    assertEquals(0, reused.position());
+    manager.releaseLogBuffer(reused);
+  }
+
+  @Test
+  public void testLogBufferPoolFallbackToHeap() {
+    List<ByteBuffer> buffers = new ArrayList<>();
+    ByteBuffer buffer;
+    // the number of off-heap buffers is bounded by wal_buffer_pool_size
+    do {
+      buffer = manager.allocateLogBuffer();
+      buffers.add(buffer);
+    } while (buffer.isDirect() && buffers.size() <= config.getWalBufferPoolSize());
+    assertFalse(buffer.isDirect());
+    assertEquals(config.getWalBufferSize(), buffer.capacity());
+    for (ByteBuffer b : buffers) {
+      manager.releaseLogBuffer(b);
+    }
+
+    // the released off-heap buffers are reused
+    ByteBuffer reused = manager.allocateLogBuffer();
+    assertTrue(reused.isDirect());
+    assertTrue(buffers.stream().anyMatch(b -> b == reused));
+    manager.releaseLogBuffer(reused);
+  }
+}
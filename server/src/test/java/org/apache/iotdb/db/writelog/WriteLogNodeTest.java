@@ -21,18 +21,23 @@ package org.apache.iotdb.db.writelog;
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.db.writelog.io.ILogReader;
 import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -86,6 +91,79 @@ public class WriteLogNodeTest {
     logNode.delete();
   }
 
+  @Test
+  public void testInsertTabletLog() throws IOException {
+    // only the rows in the range of the plan are logged
+    String identifier = "root.logTestDevice";
+
+    WriteLogNode logNode = new ExclusiveWriteLogNode(identifier);
+
+    int rowCount = 10;
+    long[] times = new long[rowCount];
+    int[] ints = new int[rowCount];
+    double[] doubles = new double[rowCount];
+    boolean[] booleans = new boolean[rowCount];
+    Binary[] binaries = new Binary[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      times[i] = 100 + i;
+      ints[i] = i;
+      doubles[i] = i * 0.5;
+      booleans[i] = i % 2 == 0;
+      binaries[i] = new Binary("str" + i);
+    }
+    InsertTabletPlan tabletPlan = new InsertTabletPlan(identifier,
+        new String[]{"s1", "s2", "s3", "s4"},
+        new TSDataType[]{TSDataType.INT32, TSDataType.DOUBLE, TSDataType.BOOLEAN, TSDataType.TEXT},
+        times, new Object[]{ints, doubles, booleans, binaries}, rowCount);
+    tabletPlan.setRange(3, 7);
+
+    logNode.write(tabletPlan);
+    logNode.close();
+
+    ILogReader reader = logNode.getLogReader();
+    InsertTabletPlan logged = (InsertTabletPlan) reader.next();
+    assertFalse(reader.hasNext());
+    reader.close();
+
+    assertEquals(tabletPlan, logged);
+    assertEquals(4, logged.getRowCount());
+    assertEquals(103, logged.getTimes()[0]);
+    assertEquals(new Binary("str6"), logged.getValue(3, 3));
+
+    logNode.delete();
+  }
+
+  @Test
+  public void testDeserializeCorruptedColumn() {
+    // a truncated column
+    ByteBuffer buffer = ByteBuffer.allocate(3 * Long.BYTES);
+    try {
+      InsertTabletPlan.deserializeColumn(buffer, TSDataType.INT64, 4);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(0, buffer.position());
+    }
+
+    // a TEXT value whose length exceeds the buffer
+    buffer = ByteBuffer.allocate(Integer.BYTES + 3);
+    buffer.putInt(Integer.MAX_VALUE);
+    buffer.flip();
+    try {
+      InsertTabletPlan.deserializeColumn(buffer, TSDataType.TEXT, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(Integer.BYTES, buffer.position());
+    }
+
+    // a negative row count
+    try {
+      InsertTabletPlan.deserializeColumn(ByteBuffer.allocate(8), TSDataType.BOOLEAN, -1);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
   @Test
   public void testNotifyFlush() throws IOException {
     // this test writes a few logs and sync them
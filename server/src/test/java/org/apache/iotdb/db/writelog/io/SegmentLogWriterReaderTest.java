@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SegmentLogWriterReaderTest {
+
+  private static String filePath = "segmenttest.test";
+  private static long segmentSize = 4 * 1024;
+  private List<PhysicalPlan> plans = new ArrayList<>();
+
+  @Before
+  public void prepare() {
+    if (new File(filePath).exists()) {
+      new File(filePath).delete();
+    }
+    plans.add(new InsertPlan("d1", 10L, new String[]{"s1", "s2"}, new String[]{"1", "2"}));
+    plans.add(new InsertPlan("d1", 20L, new String[]{"s1", "s2"}, new String[]{"3", "4"}));
+    plans.add(new DeletePlan(10L, new Path("root.d1.s1")));
+  }
+
+  @After
+  public void cleanUp() {
+    new File(filePath).delete();
+  }
+
+  private ByteBuffer serialize(List<PhysicalPlan> plans) {
+    ByteBuffer logsBuffer = ByteBuffer.allocate(1024);
+    for (PhysicalPlan plan : plans) {
+      plan.serializeTo(logsBuffer);
+    }
+    return logsBuffer;
+  }
+
+  private List<PhysicalPlan> read() throws IOException {
+    SingleFileLogReader reader = new SingleFileLogReader(new File(filePath));
+    List<PhysicalPlan> res = new ArrayList<>();
+    while (reader.hasNext()) {
+      res.add(reader.next());
+    }
+    reader.close();
+    return res;
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    SegmentLogWriter writer = new SegmentLogWriter(new File(filePath), segmentSize);
+    // one batch per plan
+    for (PhysicalPlan plan : plans) {
+      writer.write(serialize(plans.subList(plans.indexOf(plan), plans.indexOf(plan) + 1)));
+    }
+    writer.close();
+
+    assertEquals(segmentSize, new File(filePath).length());
+    assertEquals(plans, read());
+  }
+
+  @Test
+  public void testRecycledSegment() throws IOException {
+    SegmentLogWriter writer = new SegmentLogWriter(new File(filePath), segmentSize);
+    writer.write(serialize(plans));
+    writer.write(serialize(plans));
+    writer.close();
+
+    SegmentLogWriter.invalidate(new File(filePath));
+    assertTrue(read().isEmpty());
+
+    // the new batch is shorter than the stale ones, which must not be replayed
+    writer = new SegmentLogWriter(new File(filePath), segmentSize);
+    writer.write(serialize(plans.subList(2, 3)));
+    writer.close();
+    assertEquals(plans.subList(2, 3), read());
+  }
+
+  @Test
+  public void testFullSegment() throws IOException {
+    SegmentLogWriter writer = new SegmentLogWriter(new File(filePath), segmentSize);
+    ByteBuffer logs = serialize(plans);
+    int logSize = logs.position();
+    int batchNum = 0;
+    while (writer.canWrite(logSize)) {
+      writer.write(serialize(plans));
+      batchNum++;
+    }
+    assertFalse(writer.canWrite(logSize));
+    try {
+      writer.write(logs);
+      throw new AssertionError("a full segment should not be written");
+    } catch (IOException e) {
+      // expected
+    }
+    writer.close();
+
+    List<PhysicalPlan> res = read();
+    assertEquals(batchNum * plans.size(), res.size());
+  }
+}
@@ -200,13 +200,28 @@ struct TSRowRecord{
 }
 
 struct TSQueryDataSet{
+	// the rows, empty if the rows are in columnar form
 	1: required list<TSRowRecord> records
+	// the rows in columnar form, which is returned when TSFetchResultsReq.columnar is set:
+	// rowCount * i64 in big endian
+	2: optional binary time
+	// one column for each series, holding only its non-null values in the form of the columns in
+	// TSInsertTabletReq
+	3: optional list<binary> valueList
+	// one bitmap for each series, bit (i % 8) of byte (i / 8) is set if row i has a value,
+	// missing trailing bytes are zero
+	4: optional list<binary> bitmapList
+	// data type of each series, or an empty string if the series has no value in these rows
+	5: optional list<string> dataTypeList
+	6: optional i32 rowCount
 }
 
 struct TSFetchResultsReq{
 	1: required string statement
 	2: required i32 fetch_size
 	3: required i64 queryId
+	// return the rows in columnar form, ignored by the servers which do not support it
+	4: optional bool columnar
 }
 
 struct TSFetchResultsResp{
@@ -257,6 +272,21 @@ struct TSInsertionReq {
     5: required i64 stmtId
 }
 
+// rows of one device in columnar form, timestamps and values are binary columns
+struct TSInsertTabletReq {
+    1: required string deviceId
+    2: required list<string> measurements
+    // data type of each measurement, e.g., INT32
+    3: required list<string> dataTypes
+    // size * i64 in big endian
+    4: required binary timestamps
+    // the columns one after another, each holds size values of its data type in big endian:
+    // BOOLEAN as one byte, INT32 and FLOAT as four bytes, INT64 and DOUBLE as eight bytes,
+    // and TEXT as a four-byte length followed by the bytes
+    5: required binary values
+    6: required i32 size
+}
+
 struct ServerProperties {
 	1: required string version;
 	2: required list<string> supportedTimeAggregationOperations;
@@ -292,5 +322,7 @@ service TSIService {
 
 	TSExecuteStatementResp executeInsertion(1:TSInsertionReq req);
 
+	TSExecuteStatementResp insertTablet(1:TSInsertTabletReq req);
+
 	i64 requestStatementId();
 	}
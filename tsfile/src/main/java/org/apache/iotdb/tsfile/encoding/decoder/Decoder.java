@@ -142,6 +142,62 @@ public abstract class Decoder {
 
   public abstract boolean hasNext(ByteBuffer buffer) throws IOException;
 
+  /**
+   * decode at most size INT32 values into values[offset, offset + size). The values are read one
+   * by one here, decoders which can do better override it.
+   *
+   * @return number of values decoded, which is less than size only if the buffer is exhausted
+   */
+  public int readInts(ByteBuffer buffer, int[] values, int offset, int size) throws IOException {
+    int num = 0;
+    while (num < size && hasNext(buffer)) {
+      values[offset + num++] = readInt(buffer);
+    }
+    return num;
+  }
+
+  /**
+   * decode at most size INT64 values into values[offset, offset + size). The values are read one
+   * by one here, decoders which can do better override it.
+   *
+   * @return number of values decoded, which is less than size only if the buffer is exhausted
+   */
+  public int readLongs(ByteBuffer buffer, long[] values, int offset, int size) throws IOException {
+    int num = 0;
+    while (num < size && hasNext(buffer)) {
+      values[offset + num++] = readLong(buffer);
+    }
+    return num;
+  }
+
+  /**
+   * decode at most size FLOAT values into values[offset, offset + size). The values are read one
+   * by one here, decoders which can do better override it.
+   *
+   * @return number of values decoded, which is less than size only if the buffer is exhausted
+   */
+  public int readFloats(ByteBuffer buffer, float[] values, int offset, int size) throws IOException {
+    int num = 0;
+    while (num < size && hasNext(buffer)) {
+      values[offset + num++] = readFloat(buffer);
+    }
+    return num;
+  }
+
+  /**
+   * decode at most size DOUBLE values into values[offset, offset + size). The values are read one
+   * by one here, decoders which can do better override it.
+   *
+   * @return number of values decoded, which is less than size only if the buffer is exhausted
+   */
+  public int readDoubles(ByteBuffer buffer, double[] values, int offset, int size) throws IOException {
+    int num = 0;
+    while (num < size && hasNext(buffer)) {
+      values[offset + num++] = readDouble(buffer);
+    }
+    return num;
+  }
+
   public abstract void reset();
 
 }
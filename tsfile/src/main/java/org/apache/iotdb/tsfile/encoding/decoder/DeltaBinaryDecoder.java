@@ -114,6 +114,28 @@ public abstract class DeltaBinaryDecoder extends Decoder {
       return readT(buffer);
     }
 
+    /**
+     * copy the decoded values of a pack at once.
+     */
+    @Override
+    public int readInts(ByteBuffer buffer, int[] values, int offset, int size) {
+      int num = 0;
+      while (num < size) {
+        if (nextReadIndex == readIntTotalCount) {
+          if (!buffer.hasRemaining()) {
+            break;
+          }
+          values[offset + num++] = loadIntBatch(buffer);
+        } else {
+          int length = Math.min(size - num, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, values, offset + num, length);
+          nextReadIndex += length;
+          num += length;
+        }
+      }
+      return num;
+    }
+
     /**
      * if remaining data has been run out, load next pack from InputStream.
      *
@@ -231,6 +253,28 @@ public abstract class DeltaBinaryDecoder extends Decoder {
       return readT(buffer);
     }
 
+    /**
+     * copy the decoded values of a pack at once.
+     */
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] values, int offset, int size) {
+      int num = 0;
+      while (num < size) {
+        if (nextReadIndex == readIntTotalCount) {
+          if (!buffer.hasRemaining()) {
+            break;
+          }
+          values[offset + num++] = loadIntBatch(buffer);
+        } else {
+          int length = Math.min(size - num, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, values, offset + num, length);
+          nextReadIndex += length;
+          num += length;
+        }
+      }
+      return num;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readLong(buffer);
@@ -73,6 +73,23 @@ public class DoublePrecisionDecoder extends GorillaDecoder {
     return Double.NaN;
   }
 
+  /**
+   * read the following values without catching an exception for each of them.
+   */
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] values, int offset, int size)
+      throws IOException {
+    int num = 0;
+    if (!flag && size > 0 && hasNext(buffer)) {
+      values[offset + num++] = readDouble(buffer);
+    }
+    while (num < size && hasNext(buffer)) {
+      values[offset + num++] = Double.longBitsToDouble(preValue);
+      getNextValue(buffer);
+    }
+    return num;
+  }
+
   /**
    * check whether there is any value to encode left.
    *
@@ -89,11 +106,8 @@ public class DoublePrecisionDecoder extends GorillaDecoder {
 
     if (!nextFlag2) {
       // case: '10'
-      long tmp = 0;
-      for (int i = 0; i < TSFileConfig.DOUBLE_LENGTH - leadingZeroNum - tailingZeroNum; i++) {
-        long bit = readBit(buffer) ? 1 : 0;
-        tmp |= (bit << (TSFileConfig.DOUBLE_LENGTH - 1 - leadingZeroNum - i));
-      }
+      long tmp = readLongFromStream(buffer,
+          TSFileConfig.DOUBLE_LENGTH - leadingZeroNum - tailingZeroNum) << tailingZeroNum;
       tmp ^= preValue;
       preValue = tmp;
     } else {
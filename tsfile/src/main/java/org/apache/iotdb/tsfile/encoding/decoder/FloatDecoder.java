@@ -50,6 +50,12 @@ public class FloatDecoder extends Decoder {
    */
   private boolean isMaxPointNumberRead;
 
+  /**
+   * the undecoded integers of a bulk read.
+   */
+  private int[] intCache;
+  private long[] longCache;
+
   public FloatDecoder(TSEncoding encodingType, TSDataType dataType) {
     super(encodingType);
     if (encodingType == TSEncoding.RLE) {
@@ -96,6 +102,46 @@ public class FloatDecoder extends Decoder {
     return value / maxPointValue;
   }
 
+  /**
+   * decode the underlying integers in bulk and scale them.
+   */
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] values, int offset, int size)
+      throws IOException {
+    if (!hasNext(buffer)) {
+      return 0;
+    }
+    readMaxPointValue(buffer);
+    if (intCache == null || intCache.length < size) {
+      intCache = new int[size];
+    }
+    int num = decoder.readInts(buffer, intCache, 0, size);
+    for (int i = 0; i < num; i++) {
+      values[offset + i] = (float) (intCache[i] / maxPointValue);
+    }
+    return num;
+  }
+
+  /**
+   * decode the underlying longs in bulk and scale them.
+   */
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] values, int offset, int size)
+      throws IOException {
+    if (!hasNext(buffer)) {
+      return 0;
+    }
+    readMaxPointValue(buffer);
+    if (longCache == null || longCache.length < size) {
+      longCache = new long[size];
+    }
+    int num = decoder.readLongs(buffer, longCache, 0, size);
+    for (int i = 0; i < num; i++) {
+      values[offset + i] = longCache[i] / maxPointValue;
+    }
+    return num;
+  }
+
   private void readMaxPointValue(ByteBuffer buffer) {
     if (!isMaxPointNumberRead) {
       int maxPointNumber = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
@@ -21,6 +21,7 @@ package org.apache.iotdb.tsfile.encoding.decoder;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.encoding.bitpacking.IntPacker;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
@@ -104,6 +105,42 @@ public class IntRleDecoder extends RleDecoder {
     return result;
   }
 
+  /**
+   * fill a rle run or copy a bit-packed group at once.
+   */
+  @Override
+  public int readInts(ByteBuffer buffer, int[] values, int offset, int size) throws IOException {
+    int num = 0;
+    while (num < size && hasNext(buffer)) {
+      if (!isLengthAndBitWidthReaded) {
+        // start to read a new rle+bit-packing pattern
+        readLengthAndBitWidth(buffer);
+      }
+      if (currentCount == 0) {
+        readNext();
+      }
+      int length = Math.min(size - num, currentCount);
+      switch (mode) {
+        case RLE:
+          Arrays.fill(values, offset + num, offset + num + length, currentValue);
+          break;
+        case BIT_PACKED:
+          System.arraycopy(currentBuffer, bitPackingNum - currentCount, values, offset + num,
+              length);
+          break;
+        default:
+          throw new TsFileDecodingException(
+              String.format("tsfile-encoding IntRleDecoder: not a valid mode %s", mode));
+      }
+      currentCount -= length;
+      num += length;
+      if (!hasNextPackage()) {
+        isLengthAndBitWidthReaded = false;
+      }
+    }
+    return num;
+  }
+
   @Override
   protected void initPacker() {
     packer = new IntPacker(bitWidth);
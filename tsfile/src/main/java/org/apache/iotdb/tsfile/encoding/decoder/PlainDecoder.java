@@ -22,6 +22,7 @@ package org.apache.iotdb.tsfile.encoding.decoder;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.exception.encoding.TsFileDecodingException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
@@ -109,6 +110,62 @@ public class PlainDecoder extends Decoder {
     return Double.longBitsToDouble(readLong(buffer));
   }
 
+  /**
+   * copy the little endian values through a view of the buffer.
+   */
+  @Override
+  public int readInts(ByteBuffer buffer, int[] values, int offset, int size) throws IOException {
+    if (endianType != EndianType.LITTLE_ENDIAN) {
+      return super.readInts(buffer, values, offset, size);
+    }
+    int num = Math.min(size, buffer.remaining() / Integer.BYTES);
+    buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values, offset, num);
+    buffer.position(buffer.position() + num * Integer.BYTES);
+    return num;
+  }
+
+  /**
+   * copy the little endian values through a view of the buffer.
+   */
+  @Override
+  public int readLongs(ByteBuffer buffer, long[] values, int offset, int size) throws IOException {
+    if (endianType != EndianType.LITTLE_ENDIAN) {
+      return super.readLongs(buffer, values, offset, size);
+    }
+    int num = Math.min(size, buffer.remaining() / Long.BYTES);
+    buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(values, offset, num);
+    buffer.position(buffer.position() + num * Long.BYTES);
+    return num;
+  }
+
+  /**
+   * copy the little endian values through a view of the buffer.
+   */
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] values, int offset, int size) throws IOException {
+    if (endianType != EndianType.LITTLE_ENDIAN) {
+      return super.readFloats(buffer, values, offset, size);
+    }
+    int num = Math.min(size, buffer.remaining() / Float.BYTES);
+    buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(values, offset, num);
+    buffer.position(buffer.position() + num * Float.BYTES);
+    return num;
+  }
+
+  /**
+   * copy the little endian values through a view of the buffer.
+   */
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] values, int offset, int size) throws IOException {
+    if (endianType != EndianType.LITTLE_ENDIAN) {
+      return super.readDoubles(buffer, values, offset, size);
+    }
+    int num = Math.min(size, buffer.remaining() / Double.BYTES);
+    buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values, offset, num);
+    buffer.position(buffer.position() + num * Double.BYTES);
+    return num;
+  }
+
   @Override
   public Binary readBinary(ByteBuffer buffer) {
     int length = readInt(buffer);
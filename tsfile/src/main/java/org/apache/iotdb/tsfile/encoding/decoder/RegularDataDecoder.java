@@ -152,6 +152,28 @@ public abstract class RegularDataDecoder extends Decoder {
       return readT(buffer);
     }
 
+    /**
+     * copy the decoded values of a pack at once unless the pack has missing points.
+     */
+    @Override
+    public int readInts(ByteBuffer buffer, int[] values, int offset, int size) {
+      int num = 0;
+      while (num < size) {
+        if (nextReadIndex == readIntTotalCount || isMissingPoint) {
+          if (nextReadIndex == readIntTotalCount && !buffer.hasRemaining()) {
+            break;
+          }
+          values[offset + num++] = readT(buffer);
+        } else {
+          int length = Math.min(size - num, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, values, offset + num, length);
+          nextReadIndex += length;
+          num += length;
+        }
+      }
+      return num;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readInt(buffer);
@@ -265,6 +287,28 @@ public abstract class RegularDataDecoder extends Decoder {
       return readT(buffer);
     }
 
+    /**
+     * copy the decoded values of a pack at once unless the pack has missing points.
+     */
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] values, int offset, int size) {
+      int num = 0;
+      while (num < size) {
+        if (nextReadIndex == readIntTotalCount || isMissingPoint) {
+          if (nextReadIndex == readIntTotalCount && !buffer.hasRemaining()) {
+            break;
+          }
+          values[offset + num++] = readT(buffer);
+        } else {
+          int length = Math.min(size - num, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, values, offset + num, length);
+          nextReadIndex += length;
+          num += length;
+        }
+      }
+      return num;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readLong(buffer);
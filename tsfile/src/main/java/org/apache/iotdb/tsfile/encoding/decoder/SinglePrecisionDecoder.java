@@ -69,6 +69,23 @@ public class SinglePrecisionDecoder extends GorillaDecoder {
     return Float.NaN;
   }
 
+  /**
+   * read the following values without catching an exception for each of them.
+   */
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] values, int offset, int size)
+      throws IOException {
+    int num = 0;
+    if (!flag && size > 0 && hasNext(buffer)) {
+      values[offset + num++] = readFloat(buffer);
+    }
+    while (num < size && hasNext(buffer)) {
+      values[offset + num++] = Float.intBitsToFloat(preValue);
+      getNextValue(buffer);
+    }
+    return num;
+  }
+
   /**
    * check whether there is any value to encode left.
    *
@@ -85,11 +102,8 @@ public class SinglePrecisionDecoder extends GorillaDecoder {
 
     if (!nextFlag2) {
       // case: '10'
-      int tmp = 0;
-      for (int i = 0; i < TSFileConfig.FLOAT_LENGTH - leadingZeroNum - tailingZeroNum; i++) {
-        int bit = readBit(buffer) ? 1 : 0;
-        tmp |= bit << (TSFileConfig.FLOAT_LENGTH - 1 - leadingZeroNum - i);
-      }
+      int tmp = readIntFromStream(buffer,
+          TSFileConfig.FLOAT_LENGTH - leadingZeroNum - tailingZeroNum) << tailingZeroNum;
       tmp ^= preValue;
       preValue = tmp;
     } else {
@@ -23,7 +23,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.util.Map;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
 import org.apache.iotdb.tsfile.exception.write.UnknownColumnTypeException;
+import org.apache.iotdb.tsfile.file.metadata.TsDigest;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -97,6 +100,43 @@ public abstract class Statistics<T> {
     return statistics;
   }
 
+  /**
+   * rebuild the statistics of a chunk from the digest in its ChunkMetaData.
+   *
+   * @param digest digest of the chunk, whose values are written by getXXXBytes()
+   * @param dataType data type of the chunk
+   * @return null if any of min, max, first, last and sum is missing in the digest
+   */
+  public static Statistics deserialize(TsDigest digest, TSDataType dataType) throws IOException {
+    Map<String, ByteBuffer> digestMap = digest == null ? null : digest.getStatistics();
+    if (digestMap == null) {
+      return null;
+    }
+    // the same order as serialize()
+    ByteBuffer[] values = {digestMap.get(StatisticConstant.MIN_VALUE),
+        digestMap.get(StatisticConstant.MAX_VALUE), digestMap.get(StatisticConstant.FIRST),
+        digestMap.get(StatisticConstant.LAST), digestMap.get(StatisticConstant.SUM)};
+    Statistics statistics = getStatsByType(dataType);
+    boolean isVariableLength = statistics.sizeOfDatum() == -1;
+    int size = 0;
+    for (ByteBuffer value : values) {
+      if (value == null) {
+        return null;
+      }
+      size += value.remaining() + (isVariableLength ? Integer.BYTES : 0);
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    for (int i = 0; i < values.length; i++) {
+      // sum is not prefixed by its length
+      if (isVariableLength && i < values.length - 1) {
+        buffer.putInt(values[i].remaining());
+      }
+      buffer.put(values[i].duplicate());
+    }
+    buffer.flip();
+    return deserialize(buffer, dataType);
+  }
+
   public abstract void setMinMaxFromBytes(byte[] minBytes, byte[] maxBytes);
 
   public abstract T getMin();
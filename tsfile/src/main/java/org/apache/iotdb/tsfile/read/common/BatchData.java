@@ -97,6 +97,49 @@ public class BatchData implements Serializable {
     init(type, recordTime, hasEmptyTime);
   }
 
+  /**
+   * BatchData Constructor which takes over decoded arrays instead of copying them.
+   *
+   * @param type data type of the values, INT32, INT64, FLOAT or DOUBLE
+   * @param times times of the points, not empty and as long as the value array
+   * @param values an int[], long[], float[] or double[] according to the type
+   * @param length number of points in the arrays
+   */
+  public BatchData(TSDataType type, long[] times, Object values, int length) {
+    this.dataType = type;
+    capacityThreshold = TSFileConfig.DYNAMIC_DATA_SIZE;
+    timeCapacity = times.length;
+    valueCapacity = times.length;
+
+    timeRet = new ArrayList<>();
+    timeRet.add(times);
+    curTimeIdx = length;
+    timeLength = length;
+    curValueIdx = length;
+    valueLength = length;
+
+    switch (dataType) {
+      case INT32:
+        intRet = new ArrayList<>();
+        intRet.add((int[]) values);
+        break;
+      case INT64:
+        longRet = new ArrayList<>();
+        longRet.add((long[]) values);
+        break;
+      case FLOAT:
+        floatRet = new ArrayList<>();
+        floatRet.add((float[]) values);
+        break;
+      case DOUBLE:
+        doubleRet = new ArrayList<>();
+        doubleRet.add((double[]) values);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
   public boolean hasNext() {
     return curIdx < timeLength;
   }
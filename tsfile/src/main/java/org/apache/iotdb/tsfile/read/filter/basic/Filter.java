@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.tsfile.read.filter.basic;
 
+import java.util.BitSet;
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
 
 /**
@@ -44,6 +45,41 @@ public interface Filter {
    */
   boolean satisfy(long time, Object value);
 
+  /**
+   * The same as {@link #satisfy(long, Object)} for an INT32 value, without boxing it.
+   */
+  boolean satisfyInt(long time, int value);
+
+  /**
+   * The same as {@link #satisfy(long, Object)} for an INT64 value, without boxing it.
+   */
+  boolean satisfyLong(long time, long value);
+
+  /**
+   * The same as {@link #satisfy(long, Object)} for a FLOAT value, without boxing it.
+   */
+  boolean satisfyFloat(long time, float value);
+
+  /**
+   * The same as {@link #satisfy(long, Object)} for a DOUBLE value, without boxing it.
+   */
+  boolean satisfyDouble(long time, double value);
+
+  /**
+   * To examine a batch of points at once. After the call, bit i of the selection is set if and
+   * only if point i is satisfied with the filter.
+   *
+   * @param times
+   *            times of the points
+   * @param values
+   *            values of the points, an int[], long[], float[] or double[]
+   * @param size
+   *            number of points
+   * @param selection
+   *            the selection bitmap to be filled
+   */
+  void satisfyBatch(long[] times, Object values, int size, BitSet selection);
+
   /**
    * To examine whether the min time and max time are satisfied with the filter.
    *
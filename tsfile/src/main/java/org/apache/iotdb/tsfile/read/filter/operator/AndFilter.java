@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.tsfile.read.filter.operator;
 
+import java.util.BitSet;
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.BinaryFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
@@ -43,6 +44,34 @@ public class AndFilter extends BinaryFilter {
     return left.satisfy(time, value) && right.satisfy(time, value);
   }
 
+  @Override
+  public boolean satisfyInt(long time, int value) {
+    return left.satisfyInt(time, value) && right.satisfyInt(time, value);
+  }
+
+  @Override
+  public boolean satisfyLong(long time, long value) {
+    return left.satisfyLong(time, value) && right.satisfyLong(time, value);
+  }
+
+  @Override
+  public boolean satisfyFloat(long time, float value) {
+    return left.satisfyFloat(time, value) && right.satisfyFloat(time, value);
+  }
+
+  @Override
+  public boolean satisfyDouble(long time, double value) {
+    return left.satisfyDouble(time, value) && right.satisfyDouble(time, value);
+  }
+
+  @Override
+  public void satisfyBatch(long[] times, Object values, int size, BitSet selection) {
+    left.satisfyBatch(times, values, size, selection);
+    BitSet rightSelection = new BitSet(size);
+    right.satisfyBatch(times, values, size, rightSelection);
+    selection.and(rightSelection);
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     return left.satisfyStartEndTime(startTime, endTime) && right
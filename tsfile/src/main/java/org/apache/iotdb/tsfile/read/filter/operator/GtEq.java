@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.tsfile.read.filter.operator;
 
+import java.util.BitSet;
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.basic.UnaryFilter;
@@ -51,6 +52,75 @@ public class GtEq<T extends Comparable<T>> extends UnaryFilter<T> {
     return this.value.compareTo((T) v) <= 0;
   }
 
+  @Override
+  public boolean satisfyInt(long time, int value) {
+    return filterType == FilterType.TIME_FILTER ? time >= (Long) this.value
+        : value >= (Integer) this.value;
+  }
+
+  @Override
+  public boolean satisfyLong(long time, long value) {
+    return filterType == FilterType.TIME_FILTER ? time >= (Long) this.value
+        : value >= (Long) this.value;
+  }
+
+  @Override
+  public boolean satisfyFloat(long time, float value) {
+    return filterType == FilterType.TIME_FILTER ? time >= (Long) this.value
+        : Float.compare(value, (Float) this.value) >= 0;
+  }
+
+  @Override
+  public boolean satisfyDouble(long time, double value) {
+    return filterType == FilterType.TIME_FILTER ? time >= (Long) this.value
+        : Double.compare(value, (Double) this.value) >= 0;
+  }
+
+  @Override
+  public void satisfyBatch(long[] times, Object values, int size, BitSet selection) {
+    selection.clear();
+    if (filterType == FilterType.TIME_FILTER) {
+      long bound = (Long) value;
+      for (int i = 0; i < size; i++) {
+        if (times[i] >= bound) {
+          selection.set(i);
+        }
+      }
+    } else if (values instanceof int[]) {
+      int[] ints = (int[]) values;
+      int bound = (Integer) value;
+      for (int i = 0; i < size; i++) {
+        if (ints[i] >= bound) {
+          selection.set(i);
+        }
+      }
+    } else if (values instanceof long[]) {
+      long[] longs = (long[]) values;
+      long bound = (Long) value;
+      for (int i = 0; i < size; i++) {
+        if (longs[i] >= bound) {
+          selection.set(i);
+        }
+      }
+    } else if (values instanceof float[]) {
+      float[] floats = (float[]) values;
+      float bound = (Float) value;
+      for (int i = 0; i < size; i++) {
+        if (Float.compare(floats[i], bound) >= 0) {
+          selection.set(i);
+        }
+      }
+    } else {
+      double[] doubles = (double[]) values;
+      double bound = (Double) value;
+      for (int i = 0; i < size; i++) {
+        if (Double.compare(doubles[i], bound) >= 0) {
+          selection.set(i);
+        }
+      }
+    }
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     if (filterType == FilterType.TIME_FILTER) {
@@ -19,6 +19,7 @@
 package org.apache.iotdb.tsfile.read.filter.operator;
 
 import java.io.Serializable;
+import java.util.BitSet;
 import org.apache.iotdb.tsfile.read.filter.DigestForFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
@@ -44,6 +45,32 @@ public class NotFilter implements Filter, Serializable {
     return !that.satisfy(time, value);
   }
 
+  @Override
+  public boolean satisfyInt(long time, int value) {
+    return !that.satisfyInt(time, value);
+  }
+
+  @Override
+  public boolean satisfyLong(long time, long value) {
+    return !that.satisfyLong(time, value);
+  }
+
+  @Override
+  public boolean satisfyFloat(long time, float value) {
+    return !that.satisfyFloat(time, value);
+  }
+
+  @Override
+  public boolean satisfyDouble(long time, double value) {
+    return !that.satisfyDouble(time, value);
+  }
+
+  @Override
+  public void satisfyBatch(long[] times, Object values, int size, BitSet selection) {
+    that.satisfyBatch(times, values, size, selection);
+    selection.flip(0, size);
+  }
+
   /**
    * Notice that, if the not filter only contains value filter, this method may return false, this
    * may cause misunderstanding.
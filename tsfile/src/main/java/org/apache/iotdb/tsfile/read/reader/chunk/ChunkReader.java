@@ -21,7 +21,9 @@ package org.apache.iotdb.tsfile.read.reader.chunk;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.compress.IUnCompressor;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
@@ -52,6 +54,13 @@ public abstract class ChunkReader {
   private PageHeader pageHeader;
   private boolean hasCachedPageHeader;
 
+  /**
+   * the headers and the body positions of the pages not read yet when the pages are read in reverse
+   * order, null if they are read in order.
+   */
+  private List<PageHeader> reversePageHeaders;
+  private List<Integer> reversePagePositions;
+
   /**
    * Data whose timestamp <= deletedAt should be considered deleted(not be returned).
    */
@@ -86,6 +95,9 @@ public abstract class ChunkReader {
     if (hasCachedPageHeader) {
       return true;
     }
+    if (reversePageHeaders != null) {
+      return hasNextBatchInReverse();
+    }
     // construct next satisfied page header
     while (chunkDataBuffer.remaining() > 0) {
       // deserialize a PageHeader from chunkDataBuffer
@@ -102,6 +114,46 @@ public abstract class ChunkReader {
     return false;
   }
 
+  /**
+   * read the pages from the last to the first. Only the page headers are deserialized here to find
+   * the position of each page body, each page is still decoded into a batch in chronological order
+   * when it is read, so the batches are to be read back-to-front to get descending timestamps.
+   */
+  public void enableReverse() throws IOException {
+    if (reversePageHeaders != null) {
+      return;
+    }
+    reversePageHeaders = new ArrayList<>();
+    reversePagePositions = new ArrayList<>();
+    if (hasCachedPageHeader) {
+      reversePageHeaders.add(pageHeader);
+      reversePagePositions.add(chunkDataBuffer.position());
+      skipBytesInStreamByLength(pageHeader.getCompressedSize());
+      hasCachedPageHeader = false;
+    }
+    while (chunkDataBuffer.remaining() > 0) {
+      PageHeader header = PageHeader.deserializeFrom(chunkDataBuffer, chunkHeader.getDataType());
+      reversePageHeaders.add(header);
+      reversePagePositions.add(chunkDataBuffer.position());
+      skipBytesInStreamByLength(header.getCompressedSize());
+    }
+  }
+
+  private boolean hasNextBatchInReverse() {
+    while (!reversePageHeaders.isEmpty()) {
+      int last = reversePageHeaders.size() - 1;
+      PageHeader header = reversePageHeaders.remove(last);
+      int position = reversePagePositions.remove(last);
+      if (pageSatisfied(header)) {
+        pageHeader = header;
+        chunkDataBuffer.position(position);
+        hasCachedPageHeader = true;
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * get next data batch.
    *
@@ -122,8 +174,12 @@ public abstract class ChunkReader {
     return data;
   }
 
+  /**
+   * @return the header of the next page, or null if a part of the page is deleted, as the
+   * statistics in the header still count the deleted data and the page must be read.
+   */
   public PageHeader nextPageHeader() throws IOException {
-    return pageHeader;
+    return pageHeader.getMinTimestamp() <= deletedAt ? null : pageHeader;
   }
 
   public void skipPageData() {
@@ -151,10 +207,12 @@ public abstract class ChunkReader {
 
     chunkDataBuffer.get(compressedPageBody, 0, compressedPageBodyLength);
     valueDecoder.reset();
+    timeDecoder.reset();
     PageReader reader = new PageReader(ByteBuffer.wrap(unCompressor.uncompress(compressedPageBody)),
         chunkHeader.getDataType(),
         valueDecoder, timeDecoder, filter);
     reader.setDeletedAt(deletedAt);
+    reader.setNumOfValues(pageHeader.getNumOfValues());
     return reader;
   }
 
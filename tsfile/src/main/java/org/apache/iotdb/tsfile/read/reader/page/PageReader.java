@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read.reader.page;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.BitSet;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -30,6 +31,11 @@ import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 
 public class PageReader {
 
+  /**
+   * number of points decoded and examined by the filter at a time.
+   */
+  private static final int FILTER_BLOCK_SIZE = 1024;
+
   private TSDataType dataType;
 
   /** decoder for value column */
@@ -50,6 +56,11 @@ public class PageReader {
 
   private long deletedAt = -1;
 
+  /**
+   * number of points in the page given by its header, 0 if unknown.
+   */
+  private int numOfValues = 0;
+
   public PageReader(ByteBuffer pageData, TSDataType dataType, Decoder valueDecoder,
       Decoder timeDecoder,
       Filter filter) {
@@ -90,7 +101,7 @@ public class PageReader {
    */
   public BatchData nextBatch() throws IOException {
     if (filter == null) {
-      data = getAllPageData();
+      data = numOfValues > 0 && isNumeric() ? getAllPageDataInArrays() : getAllPageData();
     } else {
       data = getAllPageDataWithFilter();
     }
@@ -102,6 +113,35 @@ public class PageReader {
     return data;
   }
 
+  private boolean isNumeric() {
+    return dataType == TSDataType.INT32 || dataType == TSDataType.INT64
+        || dataType == TSDataType.FLOAT || dataType == TSDataType.DOUBLE;
+  }
+
+  /**
+   * decode the whole page in bulk into arrays sized by the number of points in the page header,
+   * and hand the arrays over to the BatchData instead of appending the points one by one.
+   */
+  private BatchData getAllPageDataInArrays() throws IOException {
+    long[] times = new long[numOfValues];
+    Object values = createValueArray(numOfValues);
+    int size = decode(times, values, numOfValues);
+
+    // remove the deleted points in place
+    int remaining = 0;
+    for (int i = 0; i < size; i++) {
+      if (times[i] > deletedAt) {
+        if (remaining != i) {
+          times[remaining] = times[i];
+          System.arraycopy(values, i, values, remaining, 1);
+        }
+        remaining++;
+      }
+    }
+    return remaining == 0 ? new BatchData(dataType, true)
+        : new BatchData(dataType, times, values, remaining);
+  }
+
   private BatchData getAllPageData() throws IOException {
 
     BatchData pageData = new BatchData(dataType, true);
@@ -161,6 +201,10 @@ public class PageReader {
 
   private BatchData getAllPageDataWithFilter() throws IOException {
     BatchData pageData = new BatchData(dataType, true);
+    if (isNumeric()) {
+      readNumbersWithFilter(pageData);
+      return pageData;
+    }
 
     while (timeDecoder.hasNext(timeBuffer)) {
       long timestamp = timeDecoder.readLong(timeBuffer);
@@ -169,18 +213,6 @@ public class PageReader {
         case BOOLEAN:
           readBoolean(pageData, timestamp);
           break;
-        case INT32:
-          readInt(pageData, timestamp);
-          break;
-        case INT64:
-          readLong(pageData, timestamp);
-          break;
-        case FLOAT:
-          readFloat(pageData, timestamp);
-          break;
-        case DOUBLE:
-          readDouble(pageData, timestamp);
-          break;
         case TEXT:
           readText(pageData, timestamp);
           break;
@@ -192,43 +224,96 @@ public class PageReader {
     return pageData;
   }
 
-  private void readBoolean(BatchData pageData, long timestamp) {
-    boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aBoolean)) {
-      pageData.putTime(timestamp);
-      pageData.putBoolean(aBoolean);
+  /**
+   * decode the points block by block into primitive arrays and examine each block with the filter
+   * at once, so that the values are neither boxed nor compared through Comparable.
+   */
+  private void readNumbersWithFilter(BatchData pageData) throws IOException {
+    long[] times = new long[FILTER_BLOCK_SIZE];
+    Object values = createValueArray(FILTER_BLOCK_SIZE);
+    BitSet selection = new BitSet(FILTER_BLOCK_SIZE);
+    while (timeDecoder.hasNext(timeBuffer)) {
+      int size = decode(times, values, FILTER_BLOCK_SIZE);
+      filter.satisfyBatch(times, values, size, selection);
+      for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+        if (times[i] > deletedAt) {
+          pageData.putTime(times[i]);
+          putValue(pageData, values, i);
+        }
+      }
     }
   }
 
-  private void readInt(BatchData pageData, long timestamp) {
-    int anInt = valueDecoder.readInt(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, anInt)) {
-      pageData.putTime(timestamp);
-      pageData.putInt(anInt);
+  private Object createValueArray(int size) {
+    switch (dataType) {
+      case INT32:
+        return new int[size];
+      case INT64:
+        return new long[size];
+      case FLOAT:
+        return new float[size];
+      case DOUBLE:
+        return new double[size];
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
     }
   }
 
-  private void readLong(BatchData pageData, long timestamp) {
-    long aLong = valueDecoder.readLong(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aLong)) {
-      pageData.putTime(timestamp);
-      pageData.putLong(aLong);
+  /**
+   * decode at most size points in bulk into the arrays.
+   *
+   * @return number of points decoded
+   */
+  private int decode(long[] times, Object values, int size) throws IOException {
+    int timeNum = timeDecoder.readLongs(timeBuffer, times, 0, size);
+    int valueNum;
+    switch (dataType) {
+      case INT32:
+        valueNum = valueDecoder.readInts(valueBuffer, (int[]) values, 0, timeNum);
+        break;
+      case INT64:
+        valueNum = valueDecoder.readLongs(valueBuffer, (long[]) values, 0, timeNum);
+        break;
+      case FLOAT:
+        valueNum = valueDecoder.readFloats(valueBuffer, (float[]) values, 0, timeNum);
+        break;
+      case DOUBLE:
+        valueNum = valueDecoder.readDoubles(valueBuffer, (double[]) values, 0, timeNum);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
     }
+    if (valueNum != timeNum) {
+      throw new IOException(String.format(
+          "page of %s has %d timestamps but %d values", dataType, timeNum, valueNum));
+    }
+    return timeNum;
   }
 
-  private void readFloat(BatchData pageData, long timestamp) {
-    float aFloat = valueDecoder.readFloat(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aFloat)) {
-      pageData.putTime(timestamp);
-      pageData.putFloat(aFloat);
+  private void putValue(BatchData pageData, Object values, int index) {
+    switch (dataType) {
+      case INT32:
+        pageData.putInt(((int[]) values)[index]);
+        break;
+      case INT64:
+        pageData.putLong(((long[]) values)[index]);
+        break;
+      case FLOAT:
+        pageData.putFloat(((float[]) values)[index]);
+        break;
+      case DOUBLE:
+        pageData.putDouble(((double[]) values)[index]);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
     }
   }
 
-  private void readDouble(BatchData pageData, long timestamp) {
-    double aDouble = valueDecoder.readDouble(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aDouble)) {
+  private void readBoolean(BatchData pageData, long timestamp) {
+    boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
+    if (timestamp > deletedAt && filter.satisfy(timestamp, aBoolean)) {
       pageData.putTime(timestamp);
-      pageData.putDouble(aDouble);
+      pageData.putBoolean(aBoolean);
     }
   }
 
@@ -248,4 +333,8 @@ public class PageReader {
   public void setDeletedAt(long deletedAt) {
     this.deletedAt = deletedAt;
   }
+
+  public void setNumOfValues(int numOfValues) {
+    this.numOfValues = numOfValues;
+  }
 }
@@ -37,6 +37,11 @@ public abstract class FileSeriesReader {
   protected ChunkReader chunkReader;
   private int chunkToRead;
 
+  /**
+   * true to read the pages of each chunk from the last to the first.
+   */
+  private boolean pageReverse;
+
   private BatchData data;
 
   /**
@@ -67,6 +72,9 @@ public abstract class FileSeriesReader {
       if (chunkSatisfied(chunkMetaData)) {
         // chunk metadata satisfy the condition
         initChunkReader(chunkMetaData);
+        if (pageReverse) {
+          chunkReader.enableReverse();
+        }
 
         if (chunkReader.hasNextBatch()) {
           return true;
@@ -76,6 +84,15 @@ public abstract class FileSeriesReader {
     return false;
   }
 
+  /**
+   * read the pages of each chunk from the last to the first, see {@link
+   * ChunkReader#enableReverse()}. The chunks are still read in the order of the chunk metadata
+   * list, which is to be reversed by the caller to read the whole series in reverse.
+   */
+  public void enablePageReverse() {
+    this.pageReverse = true;
+  }
+
   /**
    * get next batch data.
    */
@@ -96,6 +113,33 @@ public abstract class FileSeriesReader {
     chunkReader.skipPageData();
   }
 
+  /**
+   * get the metadata of the next satisfied chunk if all pages of the current chunk have been read,
+   * so that the chunk can be skipped by skipChunkData() without being loaded.
+   *
+   * @return null if the current chunk has pages left or there is no more satisfied chunk
+   */
+  public ChunkMetaData nextChunkMetaData() throws IOException {
+    if (chunkReader != null && chunkReader.hasNextBatch()) {
+      return null;
+    }
+    while (chunkToRead < chunkMetaDataList.size()) {
+      ChunkMetaData chunkMetaData = chunkMetaDataList.get(chunkToRead);
+      if (chunkSatisfied(chunkMetaData)) {
+        return chunkMetaData;
+      }
+      chunkToRead++;
+    }
+    return null;
+  }
+
+  /**
+   * skip the chunk returned by the last nextChunkMetaData().
+   */
+  public void skipChunkData() {
+    chunkToRead++;
+  }
+
   protected abstract void initChunkReader(ChunkMetaData chunkMetaData) throws IOException;
 
   protected abstract boolean chunkSatisfied(ChunkMetaData chunkMetaData);
@@ -22,12 +22,16 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.WritableByteChannel;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.compress.ICompressor;
 import org.apache.iotdb.tsfile.exception.write.PageException;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.write.page.PageWriter;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
 import org.slf4j.Logger;
@@ -56,6 +60,19 @@ public class ChunkBuffer {
   private long minTimestamp = -1;
   private ByteBuffer compressedData;// DirectByteBuffer
 
+  /**
+   * all pages of this column in the direct mode, from 0 to its position. pageBuffer is not used in
+   * this mode.
+   */
+  private ByteBuffer directPageBuffer;
+  /**
+   * reused for each page in the direct mode: the uncompressed data before compression, the
+   * compressed data and the page header.
+   */
+  private ByteBuffer uncompressedPage;
+  private byte[] compressedPage;
+  private PublicBAOS pageHeaderBuffer;
+
   /**
    * constructor of ChunkBuffer.
    *
@@ -67,6 +84,73 @@ public class ChunkBuffer {
     this.pageBuffer = new PublicBAOS();
   }
 
+  /**
+   * constructor of ChunkBuffer in the direct mode, where the pages are encoded right into the given
+   * direct buffer and written to the file by a gathering write without being copied into a byte[].
+   * The buffer should be pre-sized by {@link #estimateMaxChunkDataSize}, otherwise it is replaced
+   * by a larger one when it is full, see {@link #getDirectPageBuffer()}.
+   *
+   * @param schema measurement schema
+   * @param directPageBuffer an empty buffer to hold the pages
+   */
+  public ChunkBuffer(MeasurementSchema schema, ByteBuffer directPageBuffer) {
+    this.schema = schema;
+    this.compressor = ICompressor.getCompressor(schema.getCompressor());
+    this.directPageBuffer = directPageBuffer;
+    this.pageHeaderBuffer = new PublicBAOS();
+  }
+
+  /**
+   * estimate an upper bound of the size of all pages of a chunk, which is used to pre-size the
+   * buffer of the direct mode. The encoded data is assumed to be no larger than 5/4 of its PLAIN
+   * form, which holds for the encodings of TsFile except in pathological cases.
+   *
+   * @param schema measurement schema of the chunk
+   * @param pointNumber number of points in the chunk
+   * @param binarySize total length of the values if the data type is TEXT, ignored otherwise
+   * @param pageSizeThreshold page size threshold of the chunk writer
+   * @return the estimated max size in bytes
+   */
+  public static long estimateMaxChunkDataSize(MeasurementSchema schema, int pointNumber,
+      long binarySize, long pageSizeThreshold) {
+    long valueSize;
+    switch (schema.getType()) {
+      case BOOLEAN:
+        valueSize = pointNumber;
+        break;
+      case INT32:
+      case FLOAT:
+        valueSize = (long) pointNumber * Integer.BYTES;
+        break;
+      case INT64:
+      case DOUBLE:
+        valueSize = (long) pointNumber * Long.BYTES;
+        break;
+      case TEXT:
+        valueSize = (long) pointNumber * Integer.BYTES + binarySize;
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(schema.getType()));
+    }
+    long plainSize = (long) pointNumber * Long.BYTES + valueSize;
+    long dataSize = plainSize + (plainSize >> 2);
+    long pageNumber = pointNumber / TSFileConfig.maxNumberOfPointsInPage
+        + dataSize / Math.max(1, pageSizeThreshold) + 1;
+    // the page header and the var int of the size of the time list of each page
+    long pageOverhead = PageHeader.calculatePageHeaderSize(schema.getType()) + 5L;
+    if (schema.getType() == TSDataType.TEXT) {
+      // the min, max, first and last value in the page statistics, taking the average length
+      pageOverhead += 4 * (binarySize / Math.max(1, pointNumber));
+    }
+    long size = dataSize + pageNumber * pageOverhead;
+    if (size < Integer.MAX_VALUE) {
+      // compression may slightly enlarge data that can not be compressed
+      size = ICompressor.getCompressor(schema.getCompressor())
+          .getMaxBytesForCompression((int) size);
+    }
+    return size;
+  }
+
   public int getNumOfPages() {
     return numOfPages;
   }
@@ -91,13 +175,7 @@ public class ChunkBuffer {
     numOfPages++;
 
     // 1. update time statistics
-    if (this.minTimestamp == -1) {
-      this.minTimestamp = minTimestamp;
-    }
-    if (this.minTimestamp == -1) {
-      throw new PageException("minTimestamp of this page is -1, no valid data point in this page");
-    }
-    this.maxTimestamp = maxTimestamp;
+    updateTimestamps(maxTimestamp, minTimestamp);
     int uncompressedSize = data.remaining();
     int compressedSize;
     int compressedPosition = 0;
@@ -158,6 +236,105 @@ public class ChunkBuffer {
     return headerSize + uncompressedSize;
   }
 
+  /**
+   * end the current page of the page writer and write the page header and data into the buffer. In
+   * the direct mode, the data is written into the direct buffer from the streams of the page writer
+   * without allocating a buffer for each page.
+   *
+   * @param pageWriter the page writer holding the data of the page
+   * @param valueCount - the amount of values in that page
+   * @param statistics - the statistics for that page
+   * @param maxTimestamp - timestamp maximum in given data
+   * @param minTimestamp - timestamp minimum in given data
+   * @return byte size of the page header and uncompressed data in the page body.
+   */
+  public int writePageHeaderAndDataIntoBuff(PageWriter pageWriter, int valueCount,
+      Statistics<?> statistics, long maxTimestamp, long minTimestamp)
+      throws IOException, PageException {
+    if (directPageBuffer == null) {
+      return writePageHeaderAndDataIntoBuff(pageWriter.getUncompressedBytes(), valueCount,
+          statistics, maxTimestamp, minTimestamp);
+    }
+    numOfPages++;
+    updateTimestamps(maxTimestamp, minTimestamp);
+
+    int headerSize =
+        PageHeader.calculatePageHeaderSizeWithoutStatistics() + statistics.getSerializedSize();
+    int maxUncompressedSize = (int) pageWriter.estimateMaxUncompressedSize();
+    int headerPosition;
+    int uncompressedSize;
+    int compressedSize;
+    if (compressor.getType().equals(CompressionType.UNCOMPRESSED)) {
+      // leave room for the header, whose content is known after the data is written
+      ensureCapacity(headerSize + maxUncompressedSize);
+      headerPosition = directPageBuffer.position();
+      directPageBuffer.position(headerPosition + headerSize);
+      uncompressedSize = pageWriter.writeUncompressedBytesTo(directPageBuffer);
+      compressedSize = uncompressedSize;
+    } else {
+      if (uncompressedPage == null || uncompressedPage.capacity() < maxUncompressedSize) {
+        uncompressedPage = ByteBuffer.allocate(maxUncompressedSize);
+      }
+      uncompressedPage.clear();
+      uncompressedSize = pageWriter.writeUncompressedBytesTo(uncompressedPage);
+      int maxCompressedSize = compressor.getMaxBytesForCompression(uncompressedSize);
+      if (compressedPage == null || compressedPage.length < maxCompressedSize) {
+        compressedPage = new byte[maxCompressedSize];
+      }
+      compressedSize = compressor
+          .compress(uncompressedPage.array(), 0, uncompressedSize, compressedPage);
+      ensureCapacity(headerSize + compressedSize);
+      headerPosition = directPageBuffer.position();
+      directPageBuffer.position(headerPosition + headerSize);
+      directPageBuffer.put(compressedPage, 0, compressedSize);
+    }
+
+    try {
+      PageHeader header = new PageHeader(uncompressedSize, compressedSize, valueCount, statistics,
+          maxTimestamp, minTimestamp);
+      pageHeaderBuffer.reset();
+      header.serializeTo(pageHeaderBuffer);
+      ByteBuffer headerBuffer = directPageBuffer.duplicate();
+      headerBuffer.position(headerPosition);
+      headerBuffer.put(pageHeaderBuffer.getBuf(), 0, pageHeaderBuffer.size());
+    } catch (IOException e) {
+      directPageBuffer.position(headerPosition);
+      numOfPages--;
+      resetTimeStamp();
+      throw new PageException("IO Exception in writeDataPageHeader,ignore this page", e);
+    }
+
+    this.totalValueCount += valueCount;
+    return headerSize + uncompressedSize;
+  }
+
+  private void updateTimestamps(long maxTimestamp, long minTimestamp) throws PageException {
+    if (this.minTimestamp == -1) {
+      this.minTimestamp = minTimestamp;
+    }
+    if (this.minTimestamp == -1) {
+      throw new PageException("minTimestamp of this page is -1, no valid data point in this page");
+    }
+    this.maxTimestamp = maxTimestamp;
+  }
+
+  /**
+   * make sure the direct buffer can hold size more bytes, the buffer is replaced by a larger one if
+   * the estimation of its size turns out to be too small.
+   */
+  private void ensureCapacity(int size) {
+    if (directPageBuffer.remaining() >= size) {
+      return;
+    }
+    int newCapacity = Math.max(directPageBuffer.capacity() * 2, directPageBuffer.position() + size);
+    LOG.debug("the direct buffer of {} is full, grow it from {} to {}", schema.getMeasurementId(),
+        directPageBuffer.capacity(), newCapacity);
+    ByteBuffer newBuffer = ByteBuffer.allocateDirect(newCapacity);
+    directPageBuffer.flip();
+    newBuffer.put(directPageBuffer);
+    directPageBuffer = newBuffer;
+  }
+
   private void resetTimeStamp() {
     if (totalValueCount == 0) {
       minTimestamp = -1;
@@ -178,6 +355,15 @@ public class ChunkBuffer {
       LOG.error("Write page error, {}, minTime:{}, maxTime:{}", schema, minTimestamp, maxTimestamp);
     }
 
+    if (directPageBuffer != null) {
+      ByteBuffer pages = directPageBuffer.duplicate();
+      pages.flip();
+      int headerSize = writer.writeChunk(schema, compressor.getType(), schema.getType(),
+          schema.getEncodingType(), statistics, maxTimestamp, minTimestamp, pages, numOfPages);
+      writer.endChunk(totalValueCount);
+      return headerSize + (long) directPageBuffer.position();
+    }
+
     // start to write this column chunk
     int headerSize = writer.startFlushChunk(schema, compressor.getType(), schema.getType(),
         schema.getEncodingType(), statistics, maxTimestamp, minTimestamp, pageBuffer.size(),
@@ -204,7 +390,11 @@ public class ChunkBuffer {
    */
   public void reset() {
     minTimestamp = -1;
-    pageBuffer.reset();
+    if (directPageBuffer != null) {
+      directPageBuffer.clear();
+    } else {
+      pageBuffer.reset();
+    }
     totalValueCount = 0;
   }
 
@@ -226,7 +416,7 @@ public class ChunkBuffer {
    */
   public long estimateMaxPageMemSize() {
     // return the sum of size of buffer and page max size
-    return (long) (pageBuffer.size() + estimateMaxPageHeaderSize());
+    return getCurrentDataSize() + estimateMaxPageHeaderSize();
   }
 
   private int estimateMaxPageHeaderSize() {
@@ -239,7 +429,15 @@ public class ChunkBuffer {
    * @return current data size that the writer has serialized.
    */
   public long getCurrentDataSize() {
-    return pageBuffer.size();
+    return directPageBuffer != null ? directPageBuffer.position() : pageBuffer.size();
+  }
+
+  /**
+   * @return the direct buffer holding the pages, or null if this ChunkBuffer is not in the direct
+   * mode. It may be a larger buffer than the one given in the constructor.
+   */
+  public ByteBuffer getDirectPageBuffer() {
+    return directPageBuffer;
   }
 
   public void setSchema(MeasurementSchema schema) {
@@ -237,8 +237,7 @@ public class ChunkWriterImpl implements IChunkWriter {
    */
   private void writePage() {
     try {
-      chunkBuffer.writePageHeaderAndDataIntoBuff(dataPageWriter.getUncompressedBytes(),
-          valueCountInOnePage,
+      chunkBuffer.writePageHeaderAndDataIntoBuff(dataPageWriter, valueCountInOnePage,
           pageStatistics, time, minTimestamp);
 
       // update statistics of this series
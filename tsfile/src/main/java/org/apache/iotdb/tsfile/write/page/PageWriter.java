@@ -138,11 +138,38 @@ public class PageWriter {
   public ByteBuffer getUncompressedBytes() throws IOException {
     prepareEndWriteOnePage();
     ByteBuffer buffer = ByteBuffer.allocate(timeOut.size() + valueOut.size() + 4);
+    putUncompressedBytes(buffer);
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * write the data in the same form as {@link #getUncompressedBytes()} into the given buffer from
+   * its current position, without allocating an intermediate buffer. The buffer must have at least
+   * {@link #estimateMaxUncompressedSize()} bytes remaining.
+   *
+   * @return the number of bytes written
+   */
+  public int writeUncompressedBytesTo(ByteBuffer buffer) throws IOException {
+    prepareEndWriteOnePage();
+    int startPosition = buffer.position();
+    putUncompressedBytes(buffer);
+    return buffer.position() - startPosition;
+  }
+
+  private void putUncompressedBytes(ByteBuffer buffer) {
     ReadWriteForEncodingUtils.writeUnsignedVarInt(timeOut.size(), buffer);
     buffer.put(timeOut.getBuf(), 0, timeOut.size());
     buffer.put(valueOut.getBuf(), 0, valueOut.size());
-    buffer.flip();
-    return buffer;
+  }
+
+  /**
+   * @return the max size of the data returned by {@link #getUncompressedBytes()} if the page is
+   * ended now, including the data remained in the encoders.
+   */
+  public long estimateMaxUncompressedSize() {
+    // 5 bytes at most for the var int of the size of the time list
+    return estimateMaxMemSize() + 5;
   }
 
   /**
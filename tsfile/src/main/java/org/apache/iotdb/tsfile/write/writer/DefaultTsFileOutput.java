@@ -24,6 +24,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * a TsFileOutput implementation with FileOutputStream. If the file is not existed, it will be
@@ -52,7 +53,23 @@ public class DefaultTsFileOutput implements TsFileOutput {
 
   @Override
   public void write(ByteBuffer b) throws IOException {
-    throw new UnsupportedOperationException();
+    // FileOutputStream has no buffer of its own, so writing through its channel keeps the order
+    FileChannel channel = outputStream.getChannel();
+    while (b.hasRemaining()) {
+      channel.write(b);
+    }
+  }
+
+  @Override
+  public void write(ByteBuffer[] buffers) throws IOException {
+    FileChannel channel = outputStream.getChannel();
+    long remaining = 0;
+    for (ByteBuffer buffer : buffers) {
+      remaining += buffer.remaining();
+    }
+    while (remaining > 0) {
+      remaining -= channel.write(buffers);
+    }
   }
 
   @Override
@@ -43,6 +43,7 @@ import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.utils.BytesUtils;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
@@ -178,9 +179,7 @@ public class TsFileIOWriter {
       int dataSize, int numOfPages) throws IOException {
     LOG.debug("start series chunk:{}, file position {}", descriptor, out.getPosition());
 
-    currentChunkMetaData = new ChunkMetaData(descriptor.getMeasurementId(), tsDataType,
-        out.getPosition(), minTime,
-        maxTime);
+    startChunkMetaData(descriptor, tsDataType, statistics, maxTime, minTime);
 
     ChunkHeader header = new ChunkHeader(descriptor.getMeasurementId(), dataSize, tsDataType,
         compressionCodecName,
@@ -188,6 +187,65 @@ public class TsFileIOWriter {
     header.serializeTo(out.wrapAsStream());
     LOG.debug("finish series chunk:{} header, file position {}", header, out.getPosition());
 
+    return header.getSerializedSize();
+  }
+
+  /**
+   * write a whole chunk whose pages are already serialized in a buffer. The chunk header and the
+   * pages are handed to the output in one gathering write, so the pages, which may be in a direct
+   * buffer, are not copied into an intermediate stream. {@link #endChunk(long)} should be called
+   * afterwards as with {@link #startFlushChunk}.
+   *
+   * @param pages the serialized pages, from its position to its limit
+   * @return the serialized size of the chunk header
+   */
+  public int writeChunk(MeasurementSchema descriptor, CompressionType compressionCodecName,
+      TSDataType tsDataType, TSEncoding encodingType, Statistics<?> statistics, long maxTime,
+      long minTime, ByteBuffer pages, int numOfPages) throws IOException {
+    LOG.debug("start series chunk:{}, file position {}", descriptor, out.getPosition());
+
+    startChunkMetaData(descriptor, tsDataType, statistics, maxTime, minTime);
+
+    ChunkHeader header = new ChunkHeader(descriptor.getMeasurementId(), pages.remaining(),
+        tsDataType, compressionCodecName, encodingType, numOfPages);
+    ByteBuffer headerBuffer = ByteBuffer.allocate(header.getSerializedSize());
+    header.serializeTo(headerBuffer);
+    headerBuffer.flip();
+    out.write(new ByteBuffer[]{headerBuffer, pages});
+    LOG.debug("finish series chunk:{}, file position {}", header, out.getPosition());
+
+    return header.getSerializedSize();
+  }
+
+  /**
+   * write a chunk read from another TsFile as it is, so that its pages are neither decoded nor
+   * compressed again. {@link #endChunk(long)} is called inside.
+   *
+   * @param chunk the chunk whose header and pages are written
+   * @param chunkMetaData the metadata of the chunk in the TsFile it is read from
+   */
+  public void writeChunk(Chunk chunk, ChunkMetaData chunkMetaData) throws IOException {
+    LOG.debug("start copying series chunk:{}, file position {}", chunkMetaData,
+        out.getPosition());
+    currentChunkMetaData = new ChunkMetaData(chunkMetaData.getMeasurementUid(),
+        chunkMetaData.getTsDataType(), out.getPosition(), chunkMetaData.getStartTime(),
+        chunkMetaData.getEndTime());
+    currentChunkMetaData.setDigest(chunkMetaData.getDigest());
+
+    ChunkHeader header = chunk.getHeader();
+    ByteBuffer headerBuffer = ByteBuffer.allocate(header.getSerializedSize());
+    header.serializeTo(headerBuffer);
+    headerBuffer.flip();
+    out.write(new ByteBuffer[]{headerBuffer, chunk.getData().duplicate()});
+    endChunk(chunkMetaData.getNumOfPoints());
+  }
+
+  private void startChunkMetaData(MeasurementSchema descriptor, TSDataType tsDataType,
+      Statistics<?> statistics, long maxTime, long minTime) throws IOException {
+    currentChunkMetaData = new ChunkMetaData(descriptor.getMeasurementId(), tsDataType,
+        out.getPosition(), minTime,
+        maxTime);
+
     Map<String, ByteBuffer> statisticsMap = new HashMap<>();
     // TODO add your statistics
     statisticsMap.put(StatisticConstant.MAX_VALUE, ByteBuffer.wrap(statistics.getMaxBytes()));
@@ -201,8 +259,6 @@ public class TsFileIOWriter {
     tsDigest.setStatistics(statisticsMap);
 
     currentChunkMetaData.setDigest(tsDigest);
-
-    return header.getSerializedSize();
   }
 
   /**
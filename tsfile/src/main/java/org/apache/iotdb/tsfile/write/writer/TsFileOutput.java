@@ -42,6 +42,19 @@ public interface TsFileOutput {
    */
   void write(ByteBuffer b) throws IOException;
 
+  /**
+   * Writes the remaining bytes of the buffers to this output at the current position, in the order
+   * of the array. Implementations backed by a channel may write them in one gathering write.
+   *
+   * @param buffers the data.
+   * @throws IOException if an I/O error occurs.
+   */
+  default void write(ByteBuffer[] buffers) throws IOException {
+    for (ByteBuffer buffer : buffers) {
+      write(buffer);
+    }
+  }
+
   /**
    * gets the current position of the Output. This method is usually used for recording where the
    * data is. <br/> For example, if the Output is a fileOutputStream, then getPosition returns its
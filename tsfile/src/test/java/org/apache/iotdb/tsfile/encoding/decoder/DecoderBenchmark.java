@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DoublePrecisionEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.FloatEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.LongRleEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.RegularDataEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.reader.page.PageReader;
+import org.apache.iotdb.tsfile.write.page.PageWriter;
+
+/**
+ * Bench decoding values one by one against the bulk reads for each encoding, and a page read
+ * point by point into a BatchData against one decoded into arrays sized by its point count.
+ */
+public class DecoderBenchmark {
+
+  private static int numOfValue = 1000000;
+  private static int bulkSize = 1024;
+  private static int rounds = 5;
+
+  public static void main(String[] args) throws IOException {
+    long[] longs = new long[numOfValue];
+    long[] times = new long[numOfValue];
+    double[] doubles = new double[numOfValue];
+    for (int i = 0; i < numOfValue; i++) {
+      longs[i] = (i / 100) % 2 == 0 ? i % 7 : i * 31L;
+      times[i] = 1570000000000L + i * 1000L;
+      doubles[i] = ((i / 100) % 2 == 0 ? i % 7 : i * 31L) / 100.0;
+    }
+
+    for (int round = 0; round < rounds; round++) {
+      System.out.println("Round " + round);
+      benchLongs("PLAIN INT64", () -> new PlainEncoder(EndianType.LITTLE_ENDIAN,
+          TSDataType.INT64, 0), () -> new PlainDecoder(EndianType.LITTLE_ENDIAN), longs);
+      benchLongs("RLE INT64", () -> new LongRleEncoder(EndianType.LITTLE_ENDIAN),
+          () -> new LongRleDecoder(EndianType.LITTLE_ENDIAN), longs);
+      benchLongs("TS_2DIFF INT64", DeltaBinaryEncoder.LongDeltaEncoder::new,
+          DeltaBinaryDecoder.LongDeltaDecoder::new, times);
+      benchLongs("REGULAR INT64", RegularDataEncoder.LongRegularEncoder::new,
+          RegularDataDecoder.LongRegularDecoder::new, times);
+      benchDoubles("GORILLA DOUBLE", DoublePrecisionEncoder::new, DoublePrecisionDecoder::new,
+          doubles);
+      benchDoubles("TS_2DIFF DOUBLE",
+          () -> new FloatEncoder(TSEncoding.TS_2DIFF, TSDataType.DOUBLE, 2),
+          () -> new FloatDecoder(TSEncoding.TS_2DIFF, TSDataType.DOUBLE), doubles);
+      benchPage(times, doubles);
+    }
+  }
+
+  private static void benchLongs(String name, Supplier<Encoder> encoderSupplier,
+      Supplier<Decoder> decoderSupplier, long[] values) throws IOException {
+    Encoder encoder = encoderSupplier.get();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (long value : values) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    byte[] bytes = out.toByteArray();
+
+    long startTime = System.nanoTime();
+    Decoder decoder = decoderSupplier.get();
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    long sum = 0;
+    while (decoder.hasNext(buffer)) {
+      sum += decoder.readLong(buffer);
+    }
+    long singleTime = System.nanoTime() - startTime;
+
+    startTime = System.nanoTime();
+    decoder = decoderSupplier.get();
+    buffer = ByteBuffer.wrap(bytes);
+    long[] block = new long[bulkSize];
+    long bulkSum = 0;
+    int num;
+    while ((num = decoder.readLongs(buffer, block, 0, bulkSize)) > 0) {
+      for (int i = 0; i < num; i++) {
+        bulkSum += block[i];
+      }
+    }
+    long bulkTime = System.nanoTime() - startTime;
+    print(name, singleTime, bulkTime, sum == bulkSum);
+  }
+
+  private static void benchDoubles(String name, Supplier<Encoder> encoderSupplier,
+      Supplier<Decoder> decoderSupplier, double[] values) throws IOException {
+    Encoder encoder = encoderSupplier.get();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (double value : values) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+    byte[] bytes = out.toByteArray();
+
+    long startTime = System.nanoTime();
+    Decoder decoder = decoderSupplier.get();
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    double sum = 0;
+    for (int i = 0; i < values.length; i++) {
+      sum += decoder.readDouble(buffer);
+    }
+    long singleTime = System.nanoTime() - startTime;
+
+    startTime = System.nanoTime();
+    decoder = decoderSupplier.get();
+    buffer = ByteBuffer.wrap(bytes);
+    double[] block = new double[bulkSize];
+    double bulkSum = 0;
+    for (int read = 0; read < values.length; ) {
+      int num = decoder.readDoubles(buffer, block, 0, Math.min(bulkSize, values.length - read));
+      for (int i = 0; i < num; i++) {
+        bulkSum += block[i];
+      }
+      read += num;
+    }
+    long bulkTime = System.nanoTime() - startTime;
+    print(name, singleTime, bulkTime, sum == bulkSum);
+  }
+
+  private static void benchPage(long[] times, double[] values) throws IOException {
+    PageWriter pageWriter = new PageWriter();
+    pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.setValueEncoder(new DoublePrecisionEncoder());
+    for (int i = 0; i < times.length; i++) {
+      pageWriter.write(times[i], values[i]);
+    }
+    byte[] page = pageWriter.getUncompressedBytes().array();
+
+    long startTime = System.nanoTime();
+    BatchData pointData = new PageReader(ByteBuffer.wrap(page), TSDataType.DOUBLE,
+        new DoublePrecisionDecoder(), new DeltaBinaryDecoder.LongDeltaDecoder()).nextBatch();
+    long singleTime = System.nanoTime() - startTime;
+
+    startTime = System.nanoTime();
+    PageReader pageReader = new PageReader(ByteBuffer.wrap(page), TSDataType.DOUBLE,
+        new DoublePrecisionDecoder(), new DeltaBinaryDecoder.LongDeltaDecoder());
+    pageReader.setNumOfValues(times.length);
+    BatchData arrayData = pageReader.nextBatch();
+    long bulkTime = System.nanoTime() - startTime;
+    print("PAGE (TS_2DIFF time, GORILLA DOUBLE)", singleTime, bulkTime,
+        pointData.length() == arrayData.length());
+  }
+
+  private static void print(String name, long singleTime, long bulkTime, boolean same) {
+    System.out.println(String.format("  %-38s one by one: %4d ms, bulk: %4d ms%s", name,
+        singleTime / 1000_000, bulkTime / 1000_000, same ? "" : " (results differ!)"));
+  }
+}
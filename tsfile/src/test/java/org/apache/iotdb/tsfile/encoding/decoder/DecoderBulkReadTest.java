@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DoublePrecisionEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.FloatEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.IntRleEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.LongRleEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.RegularDataEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.SinglePrecisionEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.junit.Test;
+
+/**
+ * Compare the bulk reads of each decoder with reading the same values one by one.
+ */
+public class DecoderBulkReadTest {
+
+  private static final int NUM = 3000;
+  private static final int BULK_SIZE = 100;
+
+  @Test
+  public void testInt() throws IOException {
+    int[] values = new int[NUM];
+    int[] times = new int[NUM];
+    for (int i = 0; i < NUM; i++) {
+      // runs for rle and changing values for bit-packing
+      values[i] = (i / 37) % 3 == 0 ? i % 5 : i * 7;
+      // regular with a gap in the middle
+      times[i] = i * 10 + (i > NUM / 2 ? 30 : 0);
+    }
+    checkInts(new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.INT32, 0),
+        new PlainDecoder(EndianType.LITTLE_ENDIAN), values);
+    checkInts(new IntRleEncoder(EndianType.LITTLE_ENDIAN),
+        new IntRleDecoder(EndianType.LITTLE_ENDIAN), values);
+    checkInts(new DeltaBinaryEncoder.IntDeltaEncoder(), new DeltaBinaryDecoder.IntDeltaDecoder(),
+        values);
+    checkInts(new RegularDataEncoder.IntRegularEncoder(),
+        new RegularDataDecoder.IntRegularDecoder(), times);
+  }
+
+  @Test
+  public void testLong() throws IOException {
+    long[] values = new long[NUM];
+    long[] times = new long[NUM];
+    for (int i = 0; i < NUM; i++) {
+      values[i] = (i / 37) % 3 == 0 ? i % 5 : Long.MAX_VALUE / 2 - i * 7L;
+      times[i] = i * 10L + (i > NUM / 2 ? 30 : 0);
+    }
+    checkLongs(new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.INT64, 0),
+        new PlainDecoder(EndianType.LITTLE_ENDIAN), values);
+    checkLongs(new LongRleEncoder(EndianType.LITTLE_ENDIAN),
+        new LongRleDecoder(EndianType.LITTLE_ENDIAN), values);
+    checkLongs(new DeltaBinaryEncoder.LongDeltaEncoder(),
+        new DeltaBinaryDecoder.LongDeltaDecoder(), values);
+    checkLongs(new RegularDataEncoder.LongRegularEncoder(),
+        new RegularDataDecoder.LongRegularDecoder(), times);
+  }
+
+  @Test
+  public void testFloat() throws IOException {
+    float[] values = new float[NUM];
+    for (int i = 0; i < NUM; i++) {
+      values[i] = (i / 37) % 3 == 0 ? 1.5f : i * 0.25f;
+    }
+    checkFloats(new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.FLOAT, 0),
+        new PlainDecoder(EndianType.LITTLE_ENDIAN), values);
+    checkFloats(new SinglePrecisionEncoder(), new SinglePrecisionDecoder(), values);
+    checkFloats(new FloatEncoder(TSEncoding.RLE, TSDataType.FLOAT, 2),
+        new FloatDecoder(TSEncoding.RLE, TSDataType.FLOAT), values);
+    checkFloats(new FloatEncoder(TSEncoding.TS_2DIFF, TSDataType.FLOAT, 2),
+        new FloatDecoder(TSEncoding.TS_2DIFF, TSDataType.FLOAT), values);
+  }
+
+  @Test
+  public void testDouble() throws IOException {
+    double[] values = new double[NUM];
+    for (int i = 0; i < NUM; i++) {
+      values[i] = (i / 37) % 3 == 0 ? 1.5 : i * 0.125;
+    }
+    checkDoubles(new PlainEncoder(EndianType.LITTLE_ENDIAN, TSDataType.DOUBLE, 0),
+        new PlainDecoder(EndianType.LITTLE_ENDIAN), values);
+    checkDoubles(new DoublePrecisionEncoder(), new DoublePrecisionDecoder(), values);
+    checkDoubles(new FloatEncoder(TSEncoding.RLE, TSDataType.DOUBLE, 3),
+        new FloatDecoder(TSEncoding.RLE, TSDataType.DOUBLE), values);
+    checkDoubles(new FloatEncoder(TSEncoding.TS_2DIFF, TSDataType.DOUBLE, 3),
+        new FloatDecoder(TSEncoding.TS_2DIFF, TSDataType.DOUBLE), values);
+  }
+
+  private void checkInts(Encoder encoder, Decoder decoder, int[] values) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int value : values) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+
+    int[] decoded = new int[NUM + BULK_SIZE];
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    int num = 0;
+    int readNum;
+    while ((readNum = decoder.readInts(buffer, decoded, num, BULK_SIZE)) > 0) {
+      num += readNum;
+    }
+    assertEquals(decoder.getClass().getSimpleName(), NUM, num);
+    for (int i = 0; i < NUM; i++) {
+      assertEquals(decoder.getClass().getSimpleName(), values[i], decoded[i]);
+    }
+  }
+
+  private void checkLongs(Encoder encoder, Decoder decoder, long[] values) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (long value : values) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+
+    long[] decoded = new long[NUM + BULK_SIZE];
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    int num = 0;
+    int readNum;
+    while ((readNum = decoder.readLongs(buffer, decoded, num, BULK_SIZE)) > 0) {
+      num += readNum;
+    }
+    assertEquals(decoder.getClass().getSimpleName(), NUM, num);
+    for (int i = 0; i < NUM; i++) {
+      assertEquals(decoder.getClass().getSimpleName(), values[i], decoded[i]);
+    }
+  }
+
+  private void checkFloats(Encoder encoder, Decoder decoder, float[] values) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (float value : values) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+
+    // the values are compared with those read one by one, as some encodings are lossy
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    float[] expected = new float[NUM];
+    for (int i = 0; i < NUM; i++) {
+      expected[i] = decoder.readFloat(buffer);
+    }
+    decoder.reset();
+    buffer = ByteBuffer.wrap(out.toByteArray());
+    float[] decoded = new float[NUM];
+    int num = 0;
+    while (num < NUM) {
+      int readNum = decoder.readFloats(buffer, decoded, num, Math.min(BULK_SIZE, NUM - num));
+      assertEquals(Math.min(BULK_SIZE, NUM - num), readNum);
+      num += readNum;
+    }
+    for (int i = 0; i < NUM; i++) {
+      assertEquals(decoder.getClass().getSimpleName(), expected[i], decoded[i], 0);
+    }
+  }
+
+  private void checkDoubles(Encoder encoder, Decoder decoder, double[] values)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (double value : values) {
+      encoder.encode(value, out);
+    }
+    encoder.flush(out);
+
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    double[] expected = new double[NUM];
+    for (int i = 0; i < NUM; i++) {
+      expected[i] = decoder.readDouble(buffer);
+    }
+    decoder.reset();
+    buffer = ByteBuffer.wrap(out.toByteArray());
+    double[] decoded = new double[NUM];
+    int num = 0;
+    while (num < NUM) {
+      int readNum = decoder.readDoubles(buffer, decoded, num, Math.min(BULK_SIZE, NUM - num));
+      assertEquals(Math.min(BULK_SIZE, NUM - num), readNum);
+      num += readNum;
+    }
+    for (int i = 0; i < NUM; i++) {
+      assertEquals(decoder.getClass().getSimpleName(), expected[i], decoded[i], 0);
+    }
+  }
+}
@@ -19,8 +19,16 @@
 package org.apache.iotdb.tsfile.file.metadata.statistics;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.file.metadata.TsDigest;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.junit.Test;
 
 public class LongStatisticsTest {
@@ -42,6 +50,34 @@ public class LongStatisticsTest {
     assertEquals(secondValue, (long) longStats.getLast());
   }
 
+  @Test
+  public void testDeserializeFromDigest() throws IOException {
+    Statistics<Long> longStats = new LongStatistics();
+    longStats.updateStats(-3L);
+    longStats.updateStats(100000000000L);
+    longStats.updateStats(7L);
+
+    Map<String, ByteBuffer> statisticsMap = new HashMap<>();
+    statisticsMap.put(StatisticConstant.MAX_VALUE, ByteBuffer.wrap(longStats.getMaxBytes()));
+    statisticsMap.put(StatisticConstant.MIN_VALUE, ByteBuffer.wrap(longStats.getMinBytes()));
+    statisticsMap.put(StatisticConstant.FIRST, ByteBuffer.wrap(longStats.getFirstBytes()));
+    statisticsMap.put(StatisticConstant.SUM, ByteBuffer.wrap(longStats.getSumBytes()));
+    TsDigest digest = new TsDigest();
+    digest.setStatistics(statisticsMap);
+    // LAST is missing
+    assertNull(Statistics.deserialize(digest, TSDataType.INT64));
+
+    statisticsMap.put(StatisticConstant.LAST, ByteBuffer.wrap(longStats.getLastBytes()));
+    digest.setStatistics(statisticsMap);
+    Statistics<?> statistics = Statistics.deserialize(digest, TSDataType.INT64);
+    assertEquals(false, statistics.isEmpty());
+    assertEquals(100000000000L, statistics.getMax());
+    assertEquals(-3L, statistics.getMin());
+    assertEquals(-3L, statistics.getFirst());
+    assertEquals(7L, statistics.getLast());
+    assertEquals(100000000004L, (long) statistics.getSum());
+  }
+
   @Test
   public void testMerge() {
     Statistics<Long> longStats1 = new LongStatistics();
@@ -20,6 +20,13 @@ package org.apache.iotdb.tsfile.file.metadata.statistics;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.iotdb.tsfile.common.constant.StatisticConstant;
+import org.apache.iotdb.tsfile.file.metadata.TsDigest;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.junit.Test;
 
@@ -67,4 +74,28 @@ public class StringStatisticsTest {
     assertEquals("aaa", (String) stringStats3.getFirst().getStringValue());
     assertEquals("ddd", stringStats3.getLast().getStringValue());
   }
+
+  @Test
+  public void testDeserializeFromDigest() throws IOException {
+    Statistics<Binary> binaryStats = new BinaryStatistics();
+    binaryStats.updateStats(new Binary("bb"));
+    binaryStats.updateStats(new Binary("a"));
+    binaryStats.updateStats(new Binary("cccc"));
+
+    Map<String, ByteBuffer> statisticsMap = new HashMap<>();
+    statisticsMap.put(StatisticConstant.MAX_VALUE, ByteBuffer.wrap(binaryStats.getMaxBytes()));
+    statisticsMap.put(StatisticConstant.MIN_VALUE, ByteBuffer.wrap(binaryStats.getMinBytes()));
+    statisticsMap.put(StatisticConstant.FIRST, ByteBuffer.wrap(binaryStats.getFirstBytes()));
+    statisticsMap.put(StatisticConstant.SUM, ByteBuffer.wrap(binaryStats.getSumBytes()));
+    statisticsMap.put(StatisticConstant.LAST, ByteBuffer.wrap(binaryStats.getLastBytes()));
+    TsDigest digest = new TsDigest();
+    digest.setStatistics(statisticsMap);
+
+    Statistics<?> statistics = Statistics.deserialize(digest, TSDataType.TEXT);
+    assertEquals("cccc", ((Binary) statistics.getMax()).getStringValue());
+    assertEquals("a", ((Binary) statistics.getMin()).getStringValue());
+    assertEquals("bb", ((Binary) statistics.getFirst()).getStringValue());
+    assertEquals("cccc", ((Binary) statistics.getLast()).getStringValue());
+    assertEquals(0, statistics.getSum(), maxError);
+  }
 }
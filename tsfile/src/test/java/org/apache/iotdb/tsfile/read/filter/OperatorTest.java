@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.tsfile.read.filter;
 
+import java.util.BitSet;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -143,6 +144,75 @@ public class OperatorTest {
     Assert.assertEquals(true, andFilter2.satisfy(1000L, 51d));
   }
 
+  @Test
+  public void testPrimitiveSatisfy() {
+    Filter[] intFilters = {ValueFilter.eq(5), ValueFilter.notEq(5), ValueFilter.gt(5),
+        ValueFilter.gtEq(5), ValueFilter.lt(5), ValueFilter.ltEq(5),
+        FilterFactory.and(TimeFilter.gtEq(3L), ValueFilter.lt(8)),
+        FilterFactory.or(TimeFilter.eq(2L), FilterFactory.not(ValueFilter.gt(6)))};
+    for (Filter filter : intFilters) {
+      for (int i = 0; i < 10; i++) {
+        Assert.assertEquals(filter.satisfy(i, i), filter.satisfyInt(i, i));
+      }
+    }
+
+    Filter[] longFilters = {ValueFilter.eq(5L), ValueFilter.notEq(5L), ValueFilter.gt(5L),
+        ValueFilter.gtEq(5L), ValueFilter.lt(5L), ValueFilter.ltEq(5L),
+        FilterFactory.and(TimeFilter.gtEq(3L), ValueFilter.lt(8L))};
+    for (Filter filter : longFilters) {
+      for (long i = 0; i < 10; i++) {
+        Assert.assertEquals(filter.satisfy(i, i), filter.satisfyLong(i, i));
+      }
+    }
+
+    Filter[] doubleFilters = {ValueFilter.eq(0.5), ValueFilter.notEq(0.5), ValueFilter.gt(0.5),
+        ValueFilter.gtEq(0.5), ValueFilter.lt(0.5), ValueFilter.ltEq(0.5),
+        ValueFilter.eq(Double.NaN)};
+    double[] doubles = {-1, 0, 0.5, 1, Double.NaN, Double.NEGATIVE_INFINITY};
+    for (Filter filter : doubleFilters) {
+      for (int i = 0; i < doubles.length; i++) {
+        Assert.assertEquals(filter.satisfy(i, doubles[i]), filter.satisfyDouble(i, doubles[i]));
+      }
+    }
+
+    Filter floatFilter = ValueFilter.gt(0.01f);
+    Assert.assertTrue(floatFilter.satisfyFloat(TESTED_TIMESTAMP, 0.02f));
+    Assert.assertFalse(floatFilter.satisfyFloat(TESTED_TIMESTAMP, 0.01f));
+
+    Filter timeFilter = TimeFilter.ltEq(TESTED_TIMESTAMP);
+    Assert.assertTrue(timeFilter.satisfyDouble(TESTED_TIMESTAMP, 100));
+    Assert.assertFalse(timeFilter.satisfyInt(TESTED_TIMESTAMP + 1, 100));
+  }
+
+  @Test
+  public void testSatisfyBatch() {
+    int size = 100;
+    long[] times = new long[size];
+    long[] values = new long[size];
+    for (int i = 0; i < size; i++) {
+      times[i] = i;
+      values[i] = i % 7;
+    }
+    Filter[] filters = {ValueFilter.eq(3L), ValueFilter.notEq(3L), ValueFilter.gt(3L),
+        TimeFilter.gtEq(50L), ValueFilter.lt(3L), ValueFilter.ltEq(3L),
+        FilterFactory.and(TimeFilter.gt(10L), ValueFilter.gt(4L)),
+        FilterFactory.or(TimeFilter.lt(10L), FilterFactory.not(ValueFilter.gt(1L)))};
+    BitSet selection = new BitSet();
+    for (Filter filter : filters) {
+      // bits set by the former batch must not remain
+      selection.set(0, size + 10);
+      filter.satisfyBatch(times, values, size, selection);
+      for (int i = 0; i < size + 10; i++) {
+        Assert.assertEquals(i < size && filter.satisfy(times[i], values[i]), selection.get(i));
+      }
+    }
+
+    double[] doubles = {0.1, 0.5, 0.9};
+    ValueFilter.gt(0.5).satisfyBatch(times, doubles, doubles.length, selection);
+    Assert.assertEquals(2, selection.nextSetBit(0));
+    Assert.assertEquals(1, selection.cardinality());
+  }
+
   @Test
   public void testWrongUsage() {
     Filter andFilter = FilterFactory.and(TimeFilter.gt(100L), ValueFilter.lt(true));
@@ -167,5 +237,12 @@ public class OperatorTest {
     System.out
         .println("EfficiencyTest for Filter: \n\tFilter Expression = " + orFilter + "\n\tCOUNT = "
             + EFFICIENCY_TEST_COUNT + "\n\tTotal Time = " + (endTime - startTime) + "ms.");
+
+    startTime = System.currentTimeMillis();
+    for (long i = 0; i < EFFICIENCY_TEST_COUNT; i++) {
+      orFilter.satisfyDouble(i, i + 0.1);
+    }
+    endTime = System.currentTimeMillis();
+    System.out.println("\tTotal Time without boxing = " + (endTime - startTime) + "ms.");
   }
 }
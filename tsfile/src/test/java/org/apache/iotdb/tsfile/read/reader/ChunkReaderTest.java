@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
+import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.FileSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChunkReaderTest {
+
+  private static final String PATH = "target/outputChunkReader.tsfile";
+  private int maxNumberOfPointsInPage;
+
+  @Before
+  public void setUp() throws IOException, WriteProcessException {
+    maxNumberOfPointsInPage = TSFileConfig.maxNumberOfPointsInPage;
+    TSFileConfig.maxNumberOfPointsInPage = 10;
+
+    FileSchema schema = new FileSchema();
+    schema.registerMeasurement(new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.PLAIN));
+    TsFileWriter writer = new TsFileWriter(new File(PATH), schema);
+    // pages [1, 10], [11, 20], [21, 30]
+    for (long time = 1; time <= 30; time++) {
+      TSRecord record = new TSRecord(time, "d1");
+      record.addTuple(new LongDataPoint("s1", time));
+      writer.write(record);
+    }
+    writer.close();
+  }
+
+  @After
+  public void tearDown() {
+    TSFileConfig.maxNumberOfPointsInPage = maxNumberOfPointsInPage;
+    new File(PATH).delete();
+  }
+
+  @Test
+  public void testPartiallyDeletedPage() throws IOException {
+    try (TsFileSequenceReader fileReader = new TsFileSequenceReader(PATH)) {
+      List<ChunkMetaData> chunkMetaDataList = new MetadataQuerierByFileImpl(fileReader)
+          .getChunkMetaDataList(new Path("d1.s1"));
+      assertEquals(1, chunkMetaDataList.size());
+      Chunk chunk = new ChunkLoaderImpl(fileReader).getChunk(chunkMetaDataList.get(0));
+      chunk.setDeletedAt(15);
+      ChunkReader chunkReader = new ChunkReaderWithoutFilter(chunk);
+
+      // the first page is deleted entirely and skipped, the header of the second one counts the
+      // deleted points, so it is not returned and the page must be read
+      assertTrue(chunkReader.hasNextBatch());
+      assertNull(chunkReader.nextPageHeader());
+      BatchData batchData = chunkReader.nextBatch();
+      assertEquals(16, batchData.currentTime());
+      int count = 0;
+      while (batchData.hasNext()) {
+        batchData.next();
+        count++;
+      }
+      assertEquals(5, count);
+
+      assertTrue(chunkReader.hasNextBatch());
+      PageHeader pageHeader = chunkReader.nextPageHeader();
+      assertNotNull(pageHeader);
+      assertEquals(21, pageHeader.getMinTimestamp());
+      assertEquals(10, pageHeader.getNumOfValues());
+      chunkReader.skipPageData();
+      assertFalse(chunkReader.hasNextBatch());
+    }
+  }
+}
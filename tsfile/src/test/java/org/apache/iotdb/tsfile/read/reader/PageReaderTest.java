@@ -37,6 +37,10 @@ import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.SinglePrecisionEncoder;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.read.reader.page.PageReader;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.page.PageWriter;
@@ -47,6 +51,74 @@ public class PageReaderTest {
 
   private static final int POINTS_COUNT_IN_ONE_PAGE = 1000000;
 
+  @Test
+  public void testFilter() throws IOException {
+    PageWriter pageWriter = new PageWriter();
+    pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.setValueEncoder(new LongRleEncoder(EndianType.BIG_ENDIAN));
+    // more than one block of the filter
+    int count = 3000;
+    for (long i = 0; i < count; i++) {
+      pageWriter.write(i, i % 100);
+    }
+
+    Filter filter = FilterFactory.or(FilterFactory.and(TimeFilter.gtEq(1000L),
+        ValueFilter.lt(10L)), TimeFilter.eq(2500L));
+    PageReader pageReader = new PageReader(
+        ByteBuffer.wrap(pageWriter.getUncompressedBytes().array()), TSDataType.INT64,
+        new LongRleDecoder(EndianType.BIG_ENDIAN), new DeltaBinaryDecoder.LongDeltaDecoder(),
+        filter);
+    pageReader.setDeletedAt(1500);
+    BatchData data = pageReader.nextBatch();
+
+    int num = 0;
+    for (long i = 1501; i < count; i++) {
+      if (filter.satisfy(i, i % 100)) {
+        Assert.assertTrue(data.hasNext());
+        Assert.assertEquals(i, data.currentTime());
+        Assert.assertEquals(i % 100, data.getLong());
+        data.next();
+        num++;
+      }
+    }
+    Assert.assertFalse(data.hasNext());
+    Assert.assertEquals(149, num);
+  }
+
+  @Test
+  public void testReadWithNumOfValues() throws IOException {
+    PageWriter pageWriter = new PageWriter();
+    pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.setValueEncoder(new DoublePrecisionEncoder());
+    int count = 3000;
+    for (long i = 0; i < count; i++) {
+      pageWriter.write(i, i * 0.5);
+    }
+
+    PageReader pageReader = new PageReader(
+        ByteBuffer.wrap(pageWriter.getUncompressedBytes().array()), TSDataType.DOUBLE,
+        new DoublePrecisionDecoder(), new DeltaBinaryDecoder.LongDeltaDecoder());
+    pageReader.setNumOfValues(count);
+    pageReader.setDeletedAt(999);
+    BatchData data = pageReader.nextBatch();
+    Assert.assertFalse(pageReader.hasNextBatch());
+
+    for (long i = 1000; i < count; i++) {
+      Assert.assertTrue(data.hasNext());
+      Assert.assertEquals(i, data.currentTime());
+      Assert.assertEquals(i * 0.5, data.getDouble(), 0);
+      data.next();
+    }
+    Assert.assertFalse(data.hasNext());
+
+    // the BatchData can still grow
+    data.putTime(count);
+    data.putDouble(count * 0.5);
+    Assert.assertTrue(data.hasNext());
+    Assert.assertEquals(count, data.currentTime());
+    Assert.assertEquals(count * 0.5, data.getDouble(), 0);
+  }
+
   @Test
   public void testLong() {
 
@@ -19,6 +19,8 @@
 package org.apache.iotdb.tsfile.read.reader;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
@@ -100,6 +102,45 @@ public class ReaderTest {
     }
   }
 
+  @Test
+  public void readInReverseTest() throws IOException {
+    ChunkLoaderImpl seriesChunkLoader = new ChunkLoaderImpl(fileReader);
+    List<ChunkMetaData> chunkMetaDataList = new ArrayList<>(metadataQuerierByFile
+        .getChunkMetaDataList(new Path("d1.s1")));
+    Collections.reverse(chunkMetaDataList);
+
+    FileSeriesReader seriesReader = new FileSeriesReaderWithoutFilter(seriesChunkLoader,
+        chunkMetaDataList);
+    seriesReader.enablePageReverse();
+    long time = TsFileGeneratorForTest.START_TIMESTAMP + rowCount;
+    int batchCount = 0;
+    while (seriesReader.hasNextBatch()) {
+      BatchData data = seriesReader.nextBatch();
+      for (int i = data.length() - 1; i >= 0; i--) {
+        Assert.assertEquals(--time, data.getTimeByIndex(i));
+      }
+      batchCount++;
+    }
+    Assert.assertEquals(TsFileGeneratorForTest.START_TIMESTAMP, time);
+    Assert.assertTrue(batchCount > 1);
+
+    // only the pages satisfying the filter are read
+    chunkMetaDataList = new ArrayList<>(metadataQuerierByFile
+        .getChunkMetaDataList(new Path("d1.s1")));
+    Collections.reverse(chunkMetaDataList);
+    seriesReader = new FileSeriesReaderWithFilter(seriesChunkLoader, chunkMetaDataList,
+        FilterFactory.and(TimeFilter.gt(1480563570029L), TimeFilter.lt(1480563570033L)));
+    seriesReader.enablePageReverse();
+    time = 1480563570033L;
+    while (seriesReader.hasNextBatch()) {
+      BatchData data = seriesReader.nextBatch();
+      for (int i = data.length() - 1; i >= 0; i--) {
+        Assert.assertEquals(--time, data.getTimeByIndex(i));
+      }
+    }
+    Assert.assertEquals(1480563570030L, time);
+  }
+
   @Test
   public void readWithFilterTest() throws IOException {
     ChunkLoaderImpl seriesChunkLoader = new ChunkLoaderImpl(fileReader);
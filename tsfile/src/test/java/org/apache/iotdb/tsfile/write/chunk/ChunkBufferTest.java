@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.chunk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.ReadOnlyTsFile;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.expression.QueryExpression;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.schema.FileSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+import org.junit.After;
+import org.junit.Test;
+
+public class ChunkBufferTest {
+
+  private static final String HEAP_FILE = "target/chunkBufferHeap.tsfile";
+  private static final String DIRECT_FILE = "target/chunkBufferDirect.tsfile";
+  private static final String GROWN_FILE = "target/chunkBufferGrown.tsfile";
+  private static final String DEVICE = "d1";
+  private static final int POINT_NUM = 100000;
+
+  private List<MeasurementSchema> schemas = new ArrayList<>();
+
+  @After
+  public void after() {
+    for (String path : new String[]{HEAP_FILE, DIRECT_FILE, GROWN_FILE}) {
+      new File(path).delete();
+    }
+  }
+
+  @Test
+  public void testDirectModeWritesTheSameFile() throws IOException {
+    schemas.add(new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.UNCOMPRESSED));
+    schemas.add(new MeasurementSchema("s2", TSDataType.DOUBLE, TSEncoding.GORILLA,
+        CompressionType.UNCOMPRESSED));
+    schemas.add(new MeasurementSchema("s3", TSDataType.TEXT, TSEncoding.PLAIN,
+        CompressionType.UNCOMPRESSED));
+    schemas.add(new MeasurementSchema("s4", TSDataType.INT32, TSEncoding.TS_2DIFF,
+        CompressionType.SNAPPY));
+    schemas.add(new MeasurementSchema("s5", TSDataType.BOOLEAN, TSEncoding.PLAIN,
+        CompressionType.SNAPPY));
+
+    writeFile(HEAP_FILE, 0);
+    writeFile(DIRECT_FILE, -1);
+    writeFile(GROWN_FILE, 16);
+
+    byte[] expected = Files.readAllBytes(new File(HEAP_FILE).toPath());
+    assertArrayEquals(expected, Files.readAllBytes(new File(DIRECT_FILE).toPath()));
+    assertArrayEquals(expected, Files.readAllBytes(new File(GROWN_FILE).toPath()));
+
+    List<Path> paths = new ArrayList<>();
+    for (MeasurementSchema schema : schemas) {
+      paths.add(new Path(DEVICE, schema.getMeasurementId()));
+    }
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(DIRECT_FILE)) {
+      QueryDataSet dataSet = new ReadOnlyTsFile(reader)
+          .query(QueryExpression.create(paths, null));
+      int count = 0;
+      while (dataSet.hasNext()) {
+        RowRecord record = dataSet.next();
+        assertEquals(count, record.getTimestamp());
+        assertEquals(count, record.getFields().get(0).getLongV());
+        assertEquals(String.valueOf(count), record.getFields().get(2).getStringValue());
+        count++;
+      }
+      assertEquals(POINT_NUM, count);
+    }
+  }
+
+  /**
+   * @param directBufferSize 0 for the heap mode, -1 for a direct buffer of the estimated size
+   */
+  private void writeFile(String path, int directBufferSize) throws IOException {
+    TsFileIOWriter writer = new TsFileIOWriter(new File(path));
+    FileSchema fileSchema = new FileSchema();
+    writer.startChunkGroup(DEVICE);
+    for (MeasurementSchema schema : schemas) {
+      fileSchema.registerMeasurement(schema);
+      ChunkBuffer chunkBuffer;
+      ByteBuffer directBuffer = null;
+      if (directBufferSize == 0) {
+        chunkBuffer = new ChunkBuffer(schema);
+      } else {
+        long size = directBufferSize > 0 ? directBufferSize : ChunkBuffer
+            .estimateMaxChunkDataSize(schema, POINT_NUM, 6L * POINT_NUM,
+                TSFileConfig.pageSizeInByte);
+        directBuffer = ByteBuffer.allocateDirect((int) size);
+        chunkBuffer = new ChunkBuffer(schema, directBuffer);
+      }
+      ChunkWriterImpl chunkWriter = new ChunkWriterImpl(schema, chunkBuffer,
+          TSFileConfig.pageSizeInByte);
+      for (int i = 0; i < POINT_NUM; i++) {
+        writePoint(chunkWriter, schema.getType(), i);
+      }
+      chunkWriter.writeToFileWriter(writer);
+      if (directBufferSize < 0) {
+        // the estimation is large enough
+        assertSame(directBuffer, chunkBuffer.getDirectPageBuffer());
+      } else if (directBufferSize > 0) {
+        assertFalse(directBuffer == chunkBuffer.getDirectPageBuffer());
+      }
+    }
+    writer.endChunkGroup(0);
+    writer.endFile(fileSchema);
+  }
+
+  private void writePoint(ChunkWriterImpl chunkWriter, TSDataType type, int i) {
+    switch (type) {
+      case INT64:
+        chunkWriter.write(i, (long) i);
+        break;
+      case DOUBLE:
+        chunkWriter.write(i, Math.sin(i));
+        break;
+      case TEXT:
+        chunkWriter.write(i, new Binary(String.valueOf(i)));
+        break;
+      case INT32:
+        chunkWriter.write(i, i * 3);
+        break;
+      case BOOLEAN:
+        chunkWriter.write(i, i % 3 == 0);
+        break;
+      default:
+        throw new UnsupportedOperationException(type.toString());
+    }
+  }
+}